@@ -2,6 +2,8 @@ package org.odata4j.consumer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.odata4j.core.OEntityId;
 import org.odata4j.core.OEntityIds;
@@ -33,6 +35,16 @@ public abstract class AbstractConsumerEntityRequest<T> implements OEntityRequest
     segments.add(new EntitySegment(entitySetName, key));
   }
 
+  @Override
+  public Future<T> executeAsync() {
+    return client.submit(new Callable<T>() {
+      @Override
+      public T call() throws Exception {
+        return execute();
+      }
+    });
+  }
+
   protected ODataClient getClient() {
     return client;
   }
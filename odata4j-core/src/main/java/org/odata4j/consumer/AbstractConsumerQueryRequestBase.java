@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.core4j.Enumerable;
 import org.core4j.Func1;
@@ -50,6 +52,17 @@ public abstract class AbstractConsumerQueryRequestBase<T> implements OQueryReque
     }
   }
 
+  @Override
+  public Future<Enumerable<T>> executeAsync() {
+    return client.submit(new Callable<Enumerable<T>>() {
+      @Override
+      public Enumerable<T> call() throws Exception {
+        // read all pages here, so that iterating the result never blocks the caller
+        return Enumerable.create(execute().toList());
+      }
+    });
+  }
+
   protected ODataClient getClient() {
     return client;
   }
@@ -1,11 +1,16 @@
 package org.odata4j.consumer;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.Response.StatusType;
 
 import org.core4j.Enumerable;
+import org.odata4j.core.ODataConstants;
 import org.odata4j.core.OEntities;
 import org.odata4j.core.OEntity;
 import org.odata4j.core.OEntityKey;
@@ -30,6 +35,7 @@ import org.odata4j.stax2.XMLEventReader2;
 public abstract class AbstractODataClient implements ODataClient {
 
   private FormatType formatType;
+  private volatile ExecutorService executor;
 
   protected AbstractODataClient(FormatType formatType) {
     this.formatType = formatType;
@@ -39,6 +45,24 @@ public abstract class AbstractODataClient implements ODataClient {
     return this.formatType;
   }
 
+  /**
+   * Gets the executor running asynchronous requests, by default the one shared by all consumers.
+   *
+   * @see AbstractODataConsumer#getDefaultExecutor()
+   */
+  public ExecutorService getExecutor() {
+    ExecutorService executor = this.executor;
+    return executor != null ? executor : AbstractODataConsumer.getDefaultExecutor();
+  }
+
+  public void setExecutor(ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  public <T> Future<T> submit(Callable<T> task) {
+    return getExecutor().submit(task);
+  }
+
   public EdmDataServices getMetadata(ODataClientRequest request) throws ODataProducerException {
     ODataClientResponse response = doRequest(FormatType.ATOM, request, Status.OK);
     EdmDataServices metadata = new EdmxFormatParser().parseMetadata(toXml(response));
@@ -46,6 +70,32 @@ public abstract class AbstractODataClient implements ODataClient {
     return metadata;
   }
 
+  public CachedMetadata getMetadata(ODataClientRequest request, CachedMetadata cached) throws ODataProducerException {
+    if (cached != null && cached.getEntityTag() != null)
+      request = request.header(ODataConstants.Headers.IF_NONE_MATCH, cached.getEntityTag());
+    if (cached != null && cached.getLastModified() != null)
+      request = request.header(ODataConstants.Headers.IF_MODIFIED_SINCE, cached.getLastModified());
+
+    ODataClientResponse response = doRequest(FormatType.ATOM, request, Status.OK, Status.NOT_MODIFIED);
+    try {
+      if (response.getStatus() == Status.NOT_MODIFIED.getStatusCode() && cached != null)
+        return cached;
+      EdmDataServices metadata = new EdmxFormatParser().parseMetadata(toXml(response));
+      return new CachedMetadata(metadata,
+          getHeader(response, ODataConstants.Headers.ETAG),
+          getHeader(response, ODataConstants.Headers.LAST_MODIFIED));
+    } finally {
+      response.close();
+    }
+  }
+
+  private static String getHeader(ODataClientResponse response, String name) {
+    for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet())
+      if (name.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty())
+        return header.getValue().get(0);
+    return null;
+  }
+
   public Iterable<AtomCollectionInfo> getCollections(ODataClientRequest request) throws ODataProducerException {
     ODataClientResponse response = doRequest(FormatType.ATOM, request, Status.OK);
     Enumerable<AtomCollectionInfo> collections = Enumerable.create(AtomServiceDocumentFormatParser.parseWorkspaces(toXml(response)))
@@ -98,6 +148,10 @@ public abstract class AbstractODataClient implements ODataClient {
     doRequest(getFormatType(), request, Status.NO_CONTENT).close();
   }
 
+  public ODataClientResponse batch(ODataClientRequest request) throws ODataProducerException {
+    return doRequest(getFormatType(), request, Status.ACCEPTED);
+  }
+
   public Entry createRequestEntry(EdmEntitySet entitySet, OEntityKey entityKey, List<OProperty<?>> props, List<OLink> links) {
     final OEntity entity = entityKey == null
         ? OEntities.createRequest(entitySet, props, links)
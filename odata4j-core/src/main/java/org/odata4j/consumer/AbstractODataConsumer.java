@@ -1,7 +1,13 @@
 package org.odata4j.consumer;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.core4j.Enumerable;
 import org.odata4j.core.EntitySetInfo;
+import org.odata4j.core.OBatchRequest;
 import org.odata4j.core.OCountRequest;
 import org.odata4j.core.OCreateRequest;
 import org.odata4j.core.OEntity;
@@ -27,19 +33,67 @@ import org.odata4j.internal.EdmDataServicesDecorator;
 public abstract class AbstractODataConsumer implements ODataConsumer {
 
   private final String serviceRootUri;
+  private final ExecutorService executor;
+  private final MetadataCache metadataCache;
   private EdmDataServices cachedMetadata;
 
   protected AbstractODataConsumer(String serviceRootUri) {
+    this(serviceRootUri, null);
+  }
+
+  /**
+   * Creates a new consumer running asynchronous requests on the given executor.
+   *
+   * @param serviceRootUri  the OData service root uri
+   * @param executor  the executor for {@code executeAsync()}, or null for the {@link #getDefaultExecutor() default executor}
+   */
+  protected AbstractODataConsumer(String serviceRootUri, ExecutorService executor) {
+    this(serviceRootUri, executor, null);
+  }
+
+  /**
+   * Creates a new consumer running asynchronous requests on the given executor and sharing metadata through the given cache.
+   *
+   * @param serviceRootUri  the OData service root uri
+   * @param executor  the executor for {@code executeAsync()}, or null for the {@link #getDefaultExecutor() default executor}
+   * @param metadataCache  the cache for the service metadata, or null to download the metadata for this consumer only
+   */
+  protected AbstractODataConsumer(String serviceRootUri, ExecutorService executor, MetadataCache metadataCache) {
     if (!serviceRootUri.endsWith("/"))
       serviceRootUri = serviceRootUri + "/";
 
     this.serviceRootUri = serviceRootUri;
+    this.executor = executor != null ? executor : getDefaultExecutor();
+    this.metadataCache = metadataCache;
   }
 
   public String getServiceRootUri() {
     return serviceRootUri;
   }
 
+  /**
+   * Gets the executor running the requests of this consumer that are sent with {@code executeAsync()}.
+   * Implementations hand it to their {@link ODataClient}.
+   */
+  public ExecutorService getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Gets the cache this consumer takes the service metadata from, or null.
+   */
+  public MetadataCache getMetadataCache() {
+    return metadataCache;
+  }
+
+  /**
+   * Gets the executor shared by all consumers that were not given one: an unbounded pool of daemon
+   * threads, reused while busy and released after a minute of idleness.
+   */
+  public static ExecutorService getDefaultExecutor() {
+    return DefaultExecutorHolder.INSTANCE;
+  }
+
   public Enumerable<EntitySetInfo> getEntitySets() throws ODataProducerException {
     ODataClientRequest request = ODataClientRequest.get(getServiceRootUri());
     return Enumerable.create(getClient().getCollections(request)).cast(EntitySetInfo.class);
@@ -151,8 +205,26 @@ public abstract class AbstractODataConsumer implements ODataConsumer {
     return new ConsumerCountRequest(getClient(), getServiceRootUri()).entitySetName(entitySetName);
   }
 
+  public OBatchRequest batch() {
+    return new ConsumerBatchRequest(getClient(), getServiceRootUri());
+  }
+
   protected abstract ODataClient getClient();
 
+  private static class DefaultExecutorHolder {
+
+    private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "odata4j-consumer-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
   private static class ParsedHref {
     public String entitySetName;
     public OEntityKey entityKey;
@@ -196,6 +268,10 @@ public abstract class AbstractODataConsumer implements ODataConsumer {
 
     private void refreshDelegate() {
       ODataClientRequest request = ODataClientRequest.get(AbstractODataConsumer.this.getServiceRootUri() + "$metadata");
+      if (metadataCache != null) {
+        refreshDelegate(request);
+        return;
+      }
       try {
         delegate = AbstractODataConsumer.this.getClient().getMetadata(request);
       } catch (ODataProducerException e) {
@@ -204,6 +280,22 @@ public abstract class AbstractODataConsumer implements ODataConsumer {
       }
     }
 
+    private void refreshDelegate(ODataClientRequest request) {
+      String serviceRootUri = AbstractODataConsumer.this.getServiceRootUri();
+      CachedMetadata cached = metadataCache.get(serviceRootUri);
+      try {
+        // without validators the cached copy cannot be revalidated and is downloaded again
+        CachedMetadata current = AbstractODataConsumer.this.getClient().getMetadata(request,
+            cached != null && cached.isRevalidatable() ? cached : null);
+        if (current != cached)
+          metadataCache.put(serviceRootUri, current);
+        delegate = current.getMetadata();
+      } catch (ODataProducerException e) {
+        // to support services that do not expose metadata information
+        delegate = EdmDataServices.EMPTY;
+      }
+    }
+
     @Override
     public EdmEntitySet findEdmEntitySet(String entitySetName) {
       EdmEntitySet rt = super.findEdmEntitySet(entitySetName);
@@ -0,0 +1,42 @@
+package org.odata4j.consumer;
+
+import org.odata4j.edm.EdmDataServices;
+
+/**
+ * The metadata of a service held by a {@link MetadataCache}, together with the validators
+ * (<code>ETag</code>, <code>Last-Modified</code>) the service sent along with it.
+ */
+public class CachedMetadata {
+
+  private final EdmDataServices metadata;
+  private final String entityTag;
+  private final String lastModified;
+
+  public CachedMetadata(EdmDataServices metadata, String entityTag, String lastModified) {
+    if (metadata == null)
+      throw new IllegalArgumentException("metadata cannot be null");
+    this.metadata = metadata;
+    this.entityTag = entityTag;
+    this.lastModified = lastModified;
+  }
+
+  public EdmDataServices getMetadata() {
+    return metadata;
+  }
+
+  /** The <code>ETag</code> header of the metadata response, or null. */
+  public String getEntityTag() {
+    return entityTag;
+  }
+
+  /** The <code>Last-Modified</code> header of the metadata response, or null. */
+  public String getLastModified() {
+    return lastModified;
+  }
+
+  /** Whether the service can tell if the cached copy is still current. */
+  public boolean isRevalidatable() {
+    return entityTag != null || lastModified != null;
+  }
+
+}
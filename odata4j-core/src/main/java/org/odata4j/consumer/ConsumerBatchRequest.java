@@ -0,0 +1,435 @@
+package org.odata4j.consumer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.Response.StatusType;
+
+import org.odata4j.core.Guid;
+import org.odata4j.core.OBatchRequest;
+import org.odata4j.core.OBatchResponse;
+import org.odata4j.core.OCreateRequest;
+import org.odata4j.core.ODataConstants;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityDeleteRequest;
+import org.odata4j.core.OError;
+import org.odata4j.core.OErrors;
+import org.odata4j.core.OModifyRequest;
+import org.odata4j.core.Throwables;
+import org.odata4j.exceptions.ODataProducerException;
+import org.odata4j.exceptions.ODataProducerExceptions;
+import org.odata4j.exceptions.ServerErrorException;
+import org.odata4j.format.Entry;
+import org.odata4j.format.FormatParserFactory;
+import org.odata4j.format.FormatWriter;
+import org.odata4j.format.FormatWriterFactory;
+
+/**
+ * Batch-request implementation.
+ *
+ * <p>The added requests are written as one <code>multipart/mixed</code> body. The parts of the
+ * multipart response are matched to the requests by <code>Content-ID</code> where the service
+ * echoes it, and by position otherwise.</p>
+ */
+public class ConsumerBatchRequest implements OBatchRequest {
+
+  private static final String CRLF = "\r\n";
+  private static final String MULTIPART_MIXED = "multipart/mixed";
+  private static final Charset UTF_8 = Charset.forName(ODataConstants.Charsets.Upper.UTF_8);
+
+  private final ODataClient client;
+  private final String serviceRootUri;
+
+  private final List<List<Operation>> changeSets = new ArrayList<List<Operation>>();
+  private final List<Operation> operations = new ArrayList<Operation>();
+  private List<Operation> changeSet;
+
+  public ConsumerBatchRequest(ODataClient client, String serviceRootUri) {
+    this.client = client;
+    this.serviceRootUri = serviceRootUri;
+  }
+
+  @Override
+  public OBatchRequest add(OCreateRequest<?> request) {
+    if (!(request instanceof ConsumerCreateEntityRequest))
+      throw new IllegalArgumentException("Unsupported create-request: " + request);
+    ConsumerCreateEntityRequest<?> create = (ConsumerCreateEntityRequest<?>) request;
+    return add(new Operation(operations.size(), create.buildRequest(), create));
+  }
+
+  @Override
+  public OBatchRequest add(OModifyRequest<?> request) {
+    if (!(request instanceof ConsumerEntityModificationRequest))
+      throw new IllegalArgumentException("Unsupported modification-request: " + request);
+    return add(new Operation(operations.size(), ((ConsumerEntityModificationRequest<?>) request).buildRequest(), null));
+  }
+
+  @Override
+  public OBatchRequest add(OEntityDeleteRequest request) {
+    if (!(request instanceof ConsumerDeleteEntityRequest))
+      throw new IllegalArgumentException("Unsupported delete-request: " + request);
+    return add(new Operation(operations.size(), ((ConsumerDeleteEntityRequest) request).buildRequest(), null));
+  }
+
+  private OBatchRequest add(Operation operation) {
+    operations.add(operation);
+    if (changeSet != null)
+      changeSet.add(operation);
+    else
+      changeSets.add(Collections.singletonList(operation));
+    return this;
+  }
+
+  @Override
+  public OBatchRequest beginChangeSet() {
+    if (changeSet != null)
+      throw new IllegalStateException("Change sets cannot be nested");
+    changeSet = new ArrayList<Operation>();
+    changeSets.add(changeSet);
+    return this;
+  }
+
+  @Override
+  public OBatchRequest endChangeSet() {
+    if (changeSet == null)
+      throw new IllegalStateException("No change set to end");
+    changeSet = null;
+    return this;
+  }
+
+  @Override
+  public List<OBatchResponse> execute() throws ODataProducerException {
+    if (operations.isEmpty())
+      return Collections.emptyList();
+
+    String boundary = "batch_" + Guid.randomGuid();
+    ODataClientRequest request = ODataClientRequest.post(serviceRootUri + "$batch",
+        MULTIPART_MIXED + "; boundary=" + boundary, writeBody(boundary));
+
+    ODataClientResponse response = client.batch(request);
+    String contentType = response.getHeaders().getFirst(ODataConstants.Headers.CONTENT_TYPE);
+    String body = read(client.getFeedReader(response));
+    response.close();
+
+    List<HttpResponsePart> parts = new ArrayList<HttpResponsePart>();
+    collectResponses(body, boundaryOf(contentType), parts);
+    return match(parts);
+  }
+
+  @Override
+  public Future<List<OBatchResponse>> executeAsync() {
+    return client.submit(new Callable<List<OBatchResponse>>() {
+      @Override
+      public List<OBatchResponse> call() throws Exception {
+        return execute();
+      }
+    });
+  }
+
+  private String writeBody(String boundary) {
+    StringBuilder body = new StringBuilder();
+    for (List<Operation> operations : changeSets) {
+      if (operations.isEmpty())
+        continue;
+
+      String changeSetBoundary = "changeset_" + Guid.randomGuid();
+      body.append("--").append(boundary).append(CRLF)
+          .append(ODataConstants.Headers.CONTENT_TYPE).append(": ").append(MULTIPART_MIXED).append("; boundary=").append(changeSetBoundary).append(CRLF)
+          .append(CRLF);
+      for (Operation operation : operations)
+        writeOperation(body, changeSetBoundary, operation);
+      body.append("--").append(changeSetBoundary).append("--").append(CRLF);
+    }
+    body.append("--").append(boundary).append("--").append(CRLF);
+    return body.toString();
+  }
+
+  private void writeOperation(StringBuilder body, String boundary, Operation operation) {
+    ODataClientRequest request = operation.request;
+
+    String entity = null;
+    String contentType = null;
+    if (request.getPayload() != null) {
+      StringWriter sw = new StringWriter();
+      FormatWriter<Entry> fw = FormatWriterFactory.getFormatWriter(Entry.class, null, client.getFormatType().toString(), null);
+      fw.write(null, sw, (Entry) request.getPayload());
+      entity = sw.toString();
+      contentType = fw.getContentType();
+    }
+
+    body.append("--").append(boundary).append(CRLF)
+        .append(ODataConstants.Headers.CONTENT_TYPE).append(": application/http").append(CRLF)
+        .append("Content-Transfer-Encoding: binary").append(CRLF)
+        .append(CRLF)
+        .append(request.getMethod()).append(' ').append(request.getUrl()).append(" HTTP/1.1").append(CRLF)
+        .append("Content-ID: ").append(operation.index + 1).append(CRLF);
+    for (Map.Entry<String, String> header : request.getHeaders().entrySet())
+      body.append(header.getKey()).append(": ").append(header.getValue()).append(CRLF);
+    if (entity != null) {
+      // the content length comes last, the entity follows the empty line after it
+      body.append(ODataConstants.Headers.CONTENT_TYPE).append(": ").append(contentType).append(CRLF)
+          .append("Content-Length: ").append(entity.getBytes(UTF_8).length).append(CRLF)
+          .append(CRLF)
+          .append(entity).append(CRLF);
+    } else {
+      body.append(CRLF);
+    }
+  }
+
+  private List<OBatchResponse> match(List<HttpResponsePart> parts) {
+    OBatchResponse[] responses = new OBatchResponse[operations.size()];
+    HttpResponsePart failure = null;
+    int next = 0;
+    for (HttpResponsePart part : parts) {
+      Operation operation = null;
+      String contentId = part.headers.get("content-id");
+      if (contentId != null) {
+        try {
+          int index = Integer.parseInt(contentId) - 1;
+          if (index >= 0 && index < responses.length && responses[index] == null)
+            operation = operations.get(index);
+        } catch (NumberFormatException e) {
+          // not one of ours, match by position
+        }
+      }
+      if (operation == null) {
+        while (next < responses.length && responses[next] != null)
+          next++;
+        if (next == responses.length)
+          break;
+        operation = operations.get(next);
+      }
+
+      responses[operation.index] = toResponse(operation, part);
+      if (part.status >= 400)
+        failure = part;
+    }
+
+    // a failed change set may be answered with a single error response
+    for (Operation operation : operations) {
+      if (responses[operation.index] == null) {
+        if (failure == null)
+          throw new ServerErrorException("The batch response has no response for request " + (operation.index + 1));
+        responses[operation.index] = toResponse(operation, failure);
+      }
+    }
+    return Collections.unmodifiableList(Arrays.asList(responses));
+  }
+
+  private OBatchResponse toResponse(Operation operation, HttpResponsePart part) {
+    if (part.status >= 400)
+      return new BatchResponse(part.status, null, toError(part));
+
+    OEntity entity = null;
+    if (operation.create != null && part.body.trim().length() > 0) {
+      Object created = operation.create.parseEntity(part.headers.get(ODataConstants.Headers.DATA_SERVICE_VERSION.toLowerCase()), new StringReader(part.body));
+      if (created instanceof OEntity)
+        entity = (OEntity) created;
+    }
+    return new BatchResponse(part.status, entity, null);
+  }
+
+  private ODataProducerException toError(HttpResponsePart part) {
+    StatusType status = toStatusType(part.status, part.reasonPhrase);
+    OError error;
+    try {
+      error = FormatParserFactory.getParser(OError.class, client.getFormatType(), null).parse(new StringReader(part.body));
+    } catch (RuntimeException e) {
+      error = OErrors.error(String.valueOf(part.status), part.body, null);
+    }
+    return ODataProducerExceptions.create(status, error);
+  }
+
+  private static StatusType toStatusType(final int statusCode, final String reasonPhrase) {
+    Status status = Status.fromStatusCode(statusCode);
+    if (status != null)
+      return status;
+    return new StatusType() {
+      public int getStatusCode() {
+        return statusCode;
+      }
+
+      public Status.Family getFamily() {
+        return null;
+      }
+
+      public String getReasonPhrase() {
+        return reasonPhrase;
+      }
+    };
+  }
+
+  private static String read(Reader reader) {
+    StringBuilder sb = new StringBuilder();
+    char[] buffer = new char[8192];
+    try {
+      int n;
+      while ((n = reader.read(buffer)) != -1)
+        sb.append(buffer, 0, n);
+    } catch (IOException e) {
+      throw Throwables.propagate(e);
+    }
+    return sb.toString();
+  }
+
+  private static void collectResponses(String body, String boundary, List<HttpResponsePart> responses) {
+    for (String text : splitMultipart(body, boundary)) {
+      MimePart part = MimePart.parse(text);
+      String contentType = part.headers.get("content-type");
+      if (contentType != null && contentType.toLowerCase().startsWith(MULTIPART_MIXED))
+        collectResponses(part.content, boundaryOf(contentType), responses);
+      else
+        responses.add(HttpResponsePart.parse(part.content));
+    }
+  }
+
+  private static List<String> splitMultipart(String body, String boundary) {
+    List<String> parts = new ArrayList<String>();
+    if (boundary == null)
+      return parts;
+
+    // a delimiter starts a line; the line break before it belongs to the delimiter
+    String delimiter = "\n--" + boundary;
+    String text = "\n" + body;
+    int pos = text.indexOf(delimiter);
+    while (pos >= 0) {
+      int end = pos + delimiter.length();
+      if (text.startsWith("--", end))
+        break;
+      int lineEnd = text.indexOf('\n', end);
+      if (lineEnd < 0)
+        break;
+      int next = text.indexOf(delimiter, lineEnd);
+      String part = text.substring(lineEnd + 1, next < 0 ? text.length() : next);
+      parts.add(part.endsWith("\r") ? part.substring(0, part.length() - 1) : part);
+      pos = next;
+    }
+    return parts;
+  }
+
+  private static String boundaryOf(String contentType) {
+    if (contentType == null)
+      return null;
+    for (String param : contentType.split(";")) {
+      param = param.trim();
+      if (param.toLowerCase().startsWith("boundary=")) {
+        String boundary = param.substring("boundary=".length()).trim();
+        if (boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\""))
+          boundary = boundary.substring(1, boundary.length() - 1);
+        return boundary;
+      }
+    }
+    return null;
+  }
+
+  private static class Operation {
+    final int index;
+    final ODataClientRequest request;
+    final ConsumerCreateEntityRequest<?> create;
+
+    Operation(int index, ODataClientRequest request, ConsumerCreateEntityRequest<?> create) {
+      this.index = index;
+      this.request = request;
+      this.create = create;
+    }
+  }
+
+  /** Headers, with lower-case names, and the content following them. */
+  private static class MimePart {
+    final Map<String, String> headers = new HashMap<String, String>();
+    String content = "";
+
+    static MimePart parse(String text) {
+      MimePart part = new MimePart();
+      int pos = 0;
+      while (pos < text.length()) {
+        int eol = text.indexOf('\n', pos);
+        String line = text.substring(pos, eol < 0 ? text.length() : eol);
+        pos = eol < 0 ? text.length() : eol + 1;
+        if (line.endsWith("\r"))
+          line = line.substring(0, line.length() - 1);
+        if (line.length() == 0)
+          break;
+        int colon = line.indexOf(':');
+        if (colon > 0)
+          part.headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+      }
+      part.content = text.substring(pos);
+      return part;
+    }
+  }
+
+  private static class HttpResponsePart {
+    int status;
+    String reasonPhrase;
+    Map<String, String> headers;
+    String body;
+
+    static HttpResponsePart parse(String text) {
+      // skip empty lines before the status line
+      int start = 0;
+      while (start < text.length() && (text.charAt(start) == '\r' || text.charAt(start) == '\n'))
+        start++;
+      int eol = text.indexOf('\n', start);
+      String statusLine = text.substring(start, eol < 0 ? text.length() : eol).trim();
+
+      // HTTP/1.1 201 Created
+      String[] tokens = statusLine.split(" ", 3);
+      if (tokens.length < 2 || !tokens[0].startsWith("HTTP/"))
+        throw new IllegalArgumentException("Not an http response: " + statusLine);
+
+      MimePart part = MimePart.parse(eol < 0 ? "" : text.substring(eol + 1));
+      HttpResponsePart rt = new HttpResponsePart();
+      rt.status = Integer.parseInt(tokens[1]);
+      rt.reasonPhrase = tokens.length > 2 ? tokens[2] : "";
+      rt.headers = part.headers;
+      rt.body = part.content;
+      return rt;
+    }
+  }
+
+  private static class BatchResponse implements OBatchResponse {
+    private final int status;
+    private final OEntity entity;
+    private final ODataProducerException error;
+
+    BatchResponse(int status, OEntity entity, ODataProducerException error) {
+      this.status = status;
+      this.entity = entity;
+      this.error = error;
+    }
+
+    @Override
+    public int getStatus() {
+      return status;
+    }
+
+    @Override
+    public OEntity getEntity() {
+      return entity;
+    }
+
+    @Override
+    public ODataProducerException getError() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      return "BatchResponse[" + status + (error != null ? ", " + error.getMessage() : "") + "]";
+    }
+  }
+
+}
@@ -1,5 +1,8 @@
 package org.odata4j.consumer;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
 import org.odata4j.core.OCountRequest;
 import org.odata4j.exceptions.ODataProducerException;
 
@@ -28,6 +31,15 @@ public class ConsumerCountRequest implements OCountRequest {
     return this;
   }
 
+  public Future<Integer> executeAsync() {
+    return client.submit(new Callable<Integer>() {
+      @Override
+      public Integer call() throws Exception {
+        return execute();
+      }
+    });
+  }
+
   public int execute() throws ODataProducerException {
     String uri = baseUri;
 
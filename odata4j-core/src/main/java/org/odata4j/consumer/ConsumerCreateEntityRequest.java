@@ -1,5 +1,9 @@
 package org.odata4j.consumer;
 
+import java.io.Reader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
 import org.core4j.Enumerable;
 import org.odata4j.core.OCreateRequest;
 import org.odata4j.core.ODataConstants;
@@ -31,10 +35,25 @@ public class ConsumerCreateEntityRequest<T> extends AbstractConsumerEntityPayloa
     this.client = client;
   }
 
-  @SuppressWarnings("unchecked")
+  @Override
+  public Future<T> executeAsync() {
+    return client.submit(new Callable<T>() {
+      @Override
+      public T call() throws Exception {
+        return execute();
+      }
+    });
+  }
+
   @Override
   public T execute() throws ODataProducerException {
+    ODataClientResponse response = client.createEntity(buildRequest());
+    T entity = parseEntity(response.getHeaders().getFirst(ODataConstants.Headers.DATA_SERVICE_VERSION), client.getFeedReader(response));
+    response.close();
+    return entity;
+  }
 
+  ODataClientRequest buildRequest() {
     EdmEntitySet ees = metadata.getEdmEntitySet(entitySetName);
     Entry entry = client.createRequestEntry(ees, null, props, links);
 
@@ -47,18 +66,16 @@ public class ConsumerCreateEntityRequest<T> extends AbstractConsumerEntityPayloa
       url.append(entitySetName);
     }
 
-    ODataClientRequest request = ODataClientRequest.post(url.toString(), entry);
-    ODataClientResponse response = client.createEntity(request);
+    return ODataClientRequest.post(url.toString(), entry);
+  }
 
-    ODataVersion version = InternalUtil.getDataServiceVersion(response.getHeaders()
-        .getFirst(ODataConstants.Headers.DATA_SERVICE_VERSION));
+  @SuppressWarnings("unchecked")
+  T parseEntity(String dataServiceVersion, Reader reader) {
+    ODataVersion version = InternalUtil.getDataServiceVersion(dataServiceVersion);
 
     FormatParser<Entry> parser = FormatParserFactory.getParser(Entry.class,
         client.getFormatType(), new Settings(version, metadata, entitySetName, null));
-    entry = parser.parse(client.getFeedReader(response));
-    response.close();
-
-    return (T) entry.getEntity();
+    return (T) parser.parse(reader).getEntity();
   }
 
   @SuppressWarnings("unchecked")
@@ -22,12 +22,16 @@ public class ConsumerDeleteEntityRequest extends AbstractConsumerEntityRequest<V
 
   @Override
   public Void execute() throws ODataProducerException {
+    getClient().deleteEntity(buildRequest());
+    return null;
+  }
+
+  ODataClientRequest buildRequest() {
     String path = Enumerable.create(getSegments()).join("/");
     ODataClientRequest request = ODataClientRequest.delete(getServiceRootUri() + path);
     if (ifMatch != null)
       request.header(Headers.IF_MATCH, ifMatch);
-    getClient().deleteEntity(request);
-    return null;
+    return request;
   }
 
   @Override
@@ -2,6 +2,8 @@ package org.odata4j.consumer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.core4j.Enumerable;
 import org.core4j.Predicate1;
@@ -47,9 +49,23 @@ public class ConsumerEntityModificationRequest<T> extends AbstractConsumerEntity
     return this;
   }
 
+  @Override
+  public Future<Void> executeAsync() {
+    return client.submit(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        execute();
+        return null;
+      }
+    });
+  }
+
   @Override
   public void execute() throws ODataProducerException {
+    client.updateEntity(buildRequest());
+  }
 
+  ODataClientRequest buildRequest() {
     List<OProperty<?>> requestProps = props;
     if (updateRoot != null) {
       OEntity updateRootEntity = (OEntity) updateRoot;
@@ -76,8 +92,7 @@ public class ConsumerEntityModificationRequest<T> extends AbstractConsumerEntity
 
     if (ifMatch != null)
       request.header(Headers.IF_MATCH, ifMatch);
-
-    client.updateEntity(request);
+    return request;
   }
 
   @Override
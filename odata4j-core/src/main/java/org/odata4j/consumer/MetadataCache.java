@@ -0,0 +1,39 @@
+package org.odata4j.consumer;
+
+/**
+ * Cache for the <code>$metadata</code> of OData services, keyed by service root uri.
+ *
+ * <p>A consumer built with a metadata cache takes the metadata from the cache and
+ * revalidates it with a conditional request (<code>If-None-Match</code>,
+ * <code>If-Modified-Since</code>) instead of downloading and parsing it again.
+ * Implementations must be thread-safe.</p>
+ *
+ * @see MetadataCaches
+ * @see ODataConsumer.Builder#setMetadataCache(MetadataCache)
+ */
+public interface MetadataCache {
+
+  /**
+   * Gets the cached metadata of a service.
+   *
+   * @param serviceRootUri  the service root uri
+   * @return the cached metadata, or null
+   */
+  CachedMetadata get(String serviceRootUri);
+
+  /**
+   * Stores the metadata of a service, replacing any previous entry.
+   *
+   * @param serviceRootUri  the service root uri
+   * @param metadata  the metadata with its validators
+   */
+  void put(String serviceRootUri, CachedMetadata metadata);
+
+  /**
+   * Removes the metadata of a service.
+   *
+   * @param serviceRootUri  the service root uri
+   */
+  void remove(String serviceRootUri);
+
+}
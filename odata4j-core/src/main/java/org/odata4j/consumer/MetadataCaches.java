@@ -0,0 +1,174 @@
+package org.odata4j.consumer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.odata4j.core.ODataConstants;
+import org.odata4j.edm.EdmDataServices;
+import org.odata4j.format.xml.EdmxFormatParser;
+import org.odata4j.format.xml.EdmxFormatWriter;
+import org.odata4j.internal.InternalUtil;
+import org.odata4j.stax2.util.StaxUtil;
+
+/**
+ * Provides the built-in {@link MetadataCache} implementations.
+ */
+public class MetadataCaches {
+
+  private static final Logger log = Logger.getLogger(MetadataCaches.class.getName());
+
+  private static final MetadataCache IN_MEMORY = new InMemoryMetadataCache();
+
+  private MetadataCaches() {}
+
+  /**
+   * Gets the cache holding metadata in memory, shared by all consumers of this class loader.
+   *
+   * @return the in-memory metadata cache
+   */
+  public static MetadataCache inMemory() {
+    return IN_MEMORY;
+  }
+
+  /**
+   * Creates a cache that additionally keeps the metadata in gzipped edmx files in the given directory,
+   * so that it survives restarts. Metadata read from disk is revalidated like any other cached metadata.
+   *
+   * @param directory  the cache directory, created if necessary
+   * @return a new metadata cache
+   */
+  public static MetadataCache onDisk(File directory) {
+    return new DiskMetadataCache(IN_MEMORY, directory);
+  }
+
+  private static class InMemoryMetadataCache implements MetadataCache {
+
+    private final ConcurrentMap<String, CachedMetadata> entries = new ConcurrentHashMap<String, CachedMetadata>();
+
+    @Override
+    public CachedMetadata get(String serviceRootUri) {
+      return entries.get(serviceRootUri);
+    }
+
+    @Override
+    public void put(String serviceRootUri, CachedMetadata metadata) {
+      entries.put(serviceRootUri, metadata);
+    }
+
+    @Override
+    public void remove(String serviceRootUri) {
+      entries.remove(serviceRootUri);
+    }
+  }
+
+  private static class DiskMetadataCache implements MetadataCache {
+
+    private static final String FORMAT = "odata4j-metadata 1";
+
+    private final MetadataCache memory;
+    private final File directory;
+
+    DiskMetadataCache(MetadataCache memory, File directory) {
+      this.memory = memory;
+      this.directory = directory;
+    }
+
+    @Override
+    public CachedMetadata get(String serviceRootUri) {
+      CachedMetadata rt = memory.get(serviceRootUri);
+      if (rt == null) {
+        rt = read(getFile(serviceRootUri));
+        if (rt != null)
+          memory.put(serviceRootUri, rt);
+      }
+      return rt;
+    }
+
+    @Override
+    public void put(String serviceRootUri, CachedMetadata metadata) {
+      memory.put(serviceRootUri, metadata);
+      if (metadata.isRevalidatable())
+        write(getFile(serviceRootUri), metadata);
+    }
+
+    @Override
+    public void remove(String serviceRootUri) {
+      memory.remove(serviceRootUri);
+      getFile(serviceRootUri).delete();
+    }
+
+    private File getFile(String serviceRootUri) {
+      return new File(directory, InternalUtil.hexDigest("SHA-1", serviceRootUri) + ".edmx.gz");
+    }
+
+    private static CachedMetadata read(File file) {
+      if (!file.isFile())
+        return null;
+      try {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(new FileInputStream(file)), ODataConstants.Charsets.Upper.UTF_8));
+        try {
+          if (!FORMAT.equals(reader.readLine()))
+            return null;
+          String entityTag = emptyToNull(reader.readLine());
+          String lastModified = emptyToNull(reader.readLine());
+          EdmDataServices metadata = new EdmxFormatParser().parseMetadata(StaxUtil.newXMLEventReader(reader));
+          return new CachedMetadata(metadata, entityTag, lastModified);
+        } finally {
+          reader.close();
+        }
+      } catch (Exception e) {
+        // a broken entry is a cache miss
+        log.log(Level.WARNING, "Cannot read cached metadata " + file, e);
+        return null;
+      }
+    }
+
+    private void write(File file, CachedMetadata metadata) {
+      // write to a temporary file first; readers never see a partial entry
+      File temp = new File(directory, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+      try {
+        directory.mkdirs();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+            new GZIPOutputStream(new FileOutputStream(temp)), ODataConstants.Charsets.Upper.UTF_8));
+        try {
+          writer.write(FORMAT + "\n");
+          writer.write(nullToEmpty(metadata.getEntityTag()) + "\n");
+          writer.write(nullToEmpty(metadata.getLastModified()) + "\n");
+          EdmxFormatWriter.write(metadata.getMetadata(), writer);
+        } finally {
+          writer.close();
+        }
+        file.delete();
+        if (!temp.renameTo(file))
+          throw new IOException("Cannot rename " + temp + " to " + file);
+      } catch (Exception e) {
+        // the entry is still cached in memory
+        log.log(Level.WARNING, "Cannot write cached metadata " + file, e);
+        temp.delete();
+      }
+    }
+
+    private static String emptyToNull(String value) {
+      return value == null || value.length() == 0 ? null : value;
+    }
+
+    private static String nullToEmpty(String value) {
+      return value == null ? "" : value;
+    }
+  }
+
+}
@@ -2,6 +2,8 @@ package org.odata4j.consumer;
 
 import java.io.Reader;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.odata4j.core.OEntityKey;
 import org.odata4j.core.OLink;
@@ -26,6 +28,16 @@ public interface ODataClient {
 
   EdmDataServices getMetadata(ODataClientRequest request) throws ODataProducerException;
 
+  /**
+   * Gets the metadata, revalidating a cached copy with a conditional request.
+   *
+   * @param request  the metadata request
+   * @param cached  the cached metadata, or null
+   * @return {@code cached} if the service reports it as not modified, otherwise the downloaded metadata
+   * @throws ODataProducerException  error from the producer
+   */
+  CachedMetadata getMetadata(ODataClientRequest request, CachedMetadata cached) throws ODataProducerException;
+
   Iterable<AtomCollectionInfo> getCollections(ODataClientRequest request) throws ODataProducerException;
 
   Iterable<SingleLink> getLinks(ODataClientRequest request) throws ODataProducerException;
@@ -48,9 +60,25 @@ public interface ODataClient {
 
   void updateLink(ODataClientRequest request) throws ODataProducerException;
 
+  /**
+   * Sends a <code>$batch</code> request, whose payload is the complete multipart body.
+   *
+   * @param request  the batch request, with the multipart content type set as header
+   * @return the multipart response
+   */
+  ODataClientResponse batch(ODataClientRequest request) throws ODataProducerException;
+
   Entry createRequestEntry(EdmEntitySet entitySet, OEntityKey entityKey, List<OProperty<?>> props, List<OLink> links);
 
   String requestBody(FormatType formatType, ODataClientRequest request) throws ODataProducerException;
 
   Reader getFeedReader(ODataClientResponse response);
+
+  /**
+   * Runs a consumer request on the executor of this client.
+   *
+   * @param task  the request, usually calling one of the blocking methods of this client
+   * @return a future for the result of the request
+   */
+  <T> Future<T> submit(Callable<T> task);
 }
@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.odata4j.consumer.behaviors.OClientBehavior;
+import org.odata4j.core.ODataConstants;
 import org.odata4j.format.Entry;
 import org.odata4j.format.SingleLink;
 
@@ -107,6 +108,18 @@ public class ODataClientRequest {
     return new ODataClientRequest("POST", url, null, null, link);
   }
 
+  /**
+   * Creates a new POST request with a preformatted payload.
+   *
+   * @param url  the request url
+   * @param contentType  the content type of the payload
+   * @param body  the payload
+   * @return a new request builder
+   */
+  public static ODataClientRequest post(String url, String contentType, String body) {
+    return new ODataClientRequest("POST", url, null, null, body).header(ODataConstants.Headers.CONTENT_TYPE, contentType);
+  }
+
   /**
    * Creates a new PUT request.
    *
@@ -9,6 +9,8 @@ import javax.ws.rs.core.MultivaluedMap;
  */
 public interface ODataClientResponse {
 
+  int getStatus();
+
   MultivaluedMap<String, String> getHeaders();
 
   void close();
@@ -1,8 +1,11 @@
 package org.odata4j.consumer;
 
+import java.util.concurrent.ExecutorService;
+
 import org.core4j.Enumerable;
 import org.odata4j.consumer.behaviors.OClientBehavior;
 import org.odata4j.core.EntitySetInfo;
+import org.odata4j.core.OBatchRequest;
 import org.odata4j.core.OCountRequest;
 import org.odata4j.core.OCreateRequest;
 import org.odata4j.core.OEntity;
@@ -136,6 +139,24 @@ public interface ODataConsumer {
      */
     Builder setClientBehaviors(OClientBehavior... clientBehaviors);
 
+    /**
+     * Sets the executor running requests sent with {@code executeAsync()}.
+     * Defaults to an executor shared by all consumers.
+     *
+     * @param executor  the executor for asynchronous requests
+     * @return the consumer-builder
+     */
+    Builder setExecutor(ExecutorService executor);
+
+    /**
+     * Sets the cache the consumer takes the service metadata from; see {@link MetadataCaches}.
+     * By default every consumer downloads the metadata itself.
+     *
+     * @param metadataCache  the metadata cache
+     * @return the consumer-builder
+     */
+    Builder setMetadataCache(MetadataCache metadataCache);
+
     /**
      * Returns the immutable consumer instance for interacting with an OData service.
      *
@@ -419,4 +440,11 @@ public interface ODataConsumer {
    * @return a new count-request builder
    */
   OCountRequest getEntitiesCount(String entitySetName);
+
+  /**
+   * Returns a new batch-request builder. The added create, modify and delete requests are sent in a single $batch request.
+   *
+   * @return a new batch-request builder
+   */
+  OBatchRequest batch();
 }
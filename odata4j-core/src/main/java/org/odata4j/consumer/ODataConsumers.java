@@ -2,6 +2,7 @@ package org.odata4j.consumer;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
 
 import org.odata4j.consumer.behaviors.OClientBehavior;
 import org.odata4j.consumer.behaviors.OClientBehaviors;
@@ -89,6 +90,16 @@ public class ODataConsumers {
       return consumerBuilder.setClientBehaviors(clientBehaviors);
     }
 
+    @Override
+    public ODataConsumer.Builder setExecutor(ExecutorService executor) {
+      return consumerBuilder.setExecutor(executor);
+    }
+
+    @Override
+    public ODataConsumer.Builder setMetadataCache(MetadataCache metadataCache) {
+      return consumerBuilder.setMetadataCache(metadataCache);
+    }
+
     @Override
     public ODataConsumer build() {
       return consumerBuilder.build();
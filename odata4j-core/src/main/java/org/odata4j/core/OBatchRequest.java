@@ -0,0 +1,72 @@
+package org.odata4j.core;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.odata4j.exceptions.ODataProducerException;
+
+/**
+ * A consumer-side batch-request builder, collecting create, modify and delete requests
+ * that are sent to the service in a single <code>$batch</code> request.  Call {@link #execute()} to issue the request.
+ *
+ * <p>Requests added between {@link #beginChangeSet()} and {@link #endChangeSet()} share a change set;
+ * any other request is sent in a change set of its own.</p>
+ *
+ * @see <a href="http://www.odata.org/developers/protocols/batch">[odata.org] Batch Processing</a>
+ */
+public interface OBatchRequest {
+
+  /**
+   * Adds a create-request, which is not sent on its own.
+   *
+   * @param request  a create-request of the same consumer
+   * @return the batch-request builder
+   */
+  OBatchRequest add(OCreateRequest<?> request);
+
+  /**
+   * Adds a modification-request, which is not sent on its own.
+   *
+   * @param request  a modification-request of the same consumer
+   * @return the batch-request builder
+   */
+  OBatchRequest add(OModifyRequest<?> request);
+
+  /**
+   * Adds a delete-request, which is not sent on its own.
+   *
+   * @param request  a delete-request of the same consumer
+   * @return the batch-request builder
+   */
+  OBatchRequest add(OEntityDeleteRequest request);
+
+  /**
+   * Starts a change set; the service applies the requests added until {@link #endChangeSet()} as a unit.
+   *
+   * @return the batch-request builder
+   */
+  OBatchRequest beginChangeSet();
+
+  /**
+   * Ends the current change set.
+   *
+   * @return the batch-request builder
+   */
+  OBatchRequest endChangeSet();
+
+  /**
+   * Sends the batch-request to the OData service.
+   *
+   * @return the responses, one per added request and in the order the requests were added
+   * @throws ODataProducerException  error from the producer, if the batch as a whole failed
+   */
+  List<OBatchResponse> execute() throws ODataProducerException;
+
+  /**
+   * Sends the batch-request to the OData service on the consumer's executor, without blocking the calling thread.
+   *
+   * @return a future for the responses
+   */
+  Future<List<OBatchResponse>> executeAsync();
+
+}
@@ -0,0 +1,33 @@
+package org.odata4j.core;
+
+import org.odata4j.exceptions.ODataProducerException;
+
+/**
+ * The response to a single request of a batch-request.
+ *
+ * @see OBatchRequest
+ */
+public interface OBatchResponse {
+
+  /**
+   * Gets the http status code of the response.
+   *
+   * @return the status code
+   */
+  int getStatus();
+
+  /**
+   * Gets the newly created entity of a create-request.
+   *
+   * @return the created entity, or null for other requests or failed ones
+   */
+  OEntity getEntity();
+
+  /**
+   * Gets the error of a failed request.
+   *
+   * @return the error, or null if the request succeeded
+   */
+  ODataProducerException getError();
+
+}
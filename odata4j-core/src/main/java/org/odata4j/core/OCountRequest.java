@@ -1,5 +1,7 @@
 package org.odata4j.core;
 
+import java.util.concurrent.Future;
+
 import org.odata4j.exceptions.ODataProducerException;
 
 /**
@@ -31,4 +33,11 @@ public interface OCountRequest {
    */
   int execute() throws ODataProducerException;
 
+  /**
+   * Sends the count-request to the OData service on the consumer's executor, without blocking the calling thread.
+   *
+   * @return a future for the count
+   */
+  Future<Integer> executeAsync();
+
 }
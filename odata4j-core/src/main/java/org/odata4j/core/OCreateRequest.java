@@ -1,5 +1,7 @@
 package org.odata4j.core;
 
+import java.util.concurrent.Future;
+
 import org.odata4j.exceptions.ODataProducerException;
 
 /**
@@ -93,6 +95,13 @@ public interface OCreateRequest<T> {
    */
   T execute() throws ODataProducerException;
 
+  /**
+   * Sends the create-request to the OData service on the consumer's executor, without blocking the calling thread.
+   *
+   * @return a future for the newly created entity
+   */
+  Future<T> executeAsync();
+
   /**
    * Returns a locally-built entity and does not send the create-request
    * to the service. The locally-built entity can be used inline as part of
@@ -1,5 +1,7 @@
 package org.odata4j.core;
 
+import java.util.concurrent.Future;
+
 import org.odata4j.exceptions.ODataProducerException;
 
 /**
@@ -17,6 +19,13 @@ public interface OEntityRequest<T> {
    */
   T execute() throws ODataProducerException;
 
+  /**
+   * Sends the entity-request to the OData service on the consumer's executor, without blocking the calling thread.
+   *
+   * @return a future for the operation response
+   */
+  Future<T> executeAsync();
+
   /**
    * Navigates to a related entity using a collection navigation property.
    *
@@ -1,5 +1,7 @@
 package org.odata4j.core;
 
+import java.util.concurrent.Future;
+
 import org.odata4j.exceptions.ODataProducerException;
 
 /**
@@ -50,6 +52,13 @@ public interface OModifyRequest<T> {
    */
   void execute() throws ODataProducerException;
 
+  /**
+   * Sends the modification request to the OData service on the consumer's executor, without blocking the calling thread.
+   *
+   * @return a future that completes when the service has accepted the modification
+   */
+  Future<Void> executeAsync();
+
   /**
    * Selects a new modification entity by navigating to a referenced entity in a child collection.
    *
@@ -1,6 +1,7 @@
 package org.odata4j.core;
 
 import java.util.Iterator;
+import java.util.concurrent.Future;
 
 import org.core4j.Enumerable;
 import org.odata4j.exceptions.ODataProducerException;
@@ -22,6 +23,15 @@ public interface OQueryRequest<T> {
    */
   Enumerable<T> execute() throws ODataProducerException;
 
+  /**
+   * Sends the query-request to the OData service on the consumer's executor, without blocking the calling thread.
+   * <p>Unlike {@link #execute()}, all server-side pages are fetched before the future completes.</p>
+   * <p>Producer errors are reported as the cause of the {@link java.util.concurrent.ExecutionException}.</p>
+   *
+   * @return a future for the fully-read response
+   */
+  Future<Enumerable<T>> executeAsync();
+
   /**
    * Sets the number of items to return.
    *
@@ -42,6 +42,7 @@ public class ODataProducerExceptions {
     add(new NotFoundException.Factory());
     add(new NotImplementedException.Factory());
     add(new ServerErrorException.Factory());
+    add(new ServiceUnavailableException.Factory());
     add(new UnsupportedMediaTypeException.Factory());
   }
 
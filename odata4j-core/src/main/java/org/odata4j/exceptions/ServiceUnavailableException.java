@@ -0,0 +1,69 @@
+package org.odata4j.exceptions;
+
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.Response.StatusType;
+
+import org.odata4j.core.OError;
+
+public class ServiceUnavailableException extends ODataProducerException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Integer retryAfter;
+
+  public ServiceUnavailableException() {
+    this(null, null);
+  }
+
+  public ServiceUnavailableException(String message) {
+    this(message, null);
+  }
+
+  public ServiceUnavailableException(Throwable cause) {
+    this(null, cause);
+  }
+
+  public ServiceUnavailableException(String message, Throwable cause) {
+    this(message, cause, null);
+  }
+
+  /**
+   * @param retryAfter  the number of seconds after which the client may retry, or null if unknown
+   */
+  public ServiceUnavailableException(String message, Throwable cause, Integer retryAfter) {
+    super(message, cause);
+    this.retryAfter = retryAfter;
+  }
+
+  @Override
+  public StatusType getHttpStatus() {
+    return Status.SERVICE_UNAVAILABLE;
+  }
+
+  /**
+   * Gets the number of seconds after which the client may retry, sent as the {@code Retry-After} header.
+   *
+   * @return the number of seconds, or null if unknown
+   */
+  public Integer getRetryAfter() {
+    return retryAfter;
+  }
+
+  private ServiceUnavailableException(OError error) {
+    super(error);
+    this.retryAfter = null;
+  }
+
+  public static class Factory implements ExceptionFactory<ServiceUnavailableException> {
+
+    @Override
+    public int getStatusCode() {
+      return Status.SERVICE_UNAVAILABLE.getStatusCode();
+    }
+
+    @Override
+    public ServiceUnavailableException createException(OError error) {
+      return new ServiceUnavailableException(error);
+    }
+  }
+}
@@ -2,10 +2,8 @@ package org.odata4j.format.json;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
-import java.util.Locale;
-import java.util.Stack;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.odata4j.format.json.JsonStreamReaderFactory.JsonParseException;
 import org.odata4j.format.json.JsonStreamReaderFactory.JsonStreamReader;
@@ -284,10 +282,27 @@ class JsonValueEventImpl extends JsonEventImpl implements JsonValueEvent {
 }
 
 class JsonStreamTokenizerImpl implements JsonStreamTokenizer {
-  private Reader reader;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  // tokens without a variable value are immutable and shared
+  private static final JsonToken LEFT_CURLY_BRACKET = new JsonToken(JsonTokenType.LEFT_CURLY_BRACKET);
+  private static final JsonToken RIGHT_CURLY_BRACKET = new JsonToken(JsonTokenType.RIGHT_CURLY_BRACKET);
+  private static final JsonToken LEFT_BRACKET = new JsonToken(JsonTokenType.LEFT_BRACKET);
+  private static final JsonToken RIGHT_BRACKET = new JsonToken(JsonTokenType.RIGHT_BRACKET);
+  private static final JsonToken COMMA = new JsonToken(JsonTokenType.COMMA);
+  private static final JsonToken COLON = new JsonToken(JsonTokenType.COLON);
+  private static final JsonToken TRUE = new JsonToken(JsonTokenType.TRUE, "true");
+  private static final JsonToken FALSE = new JsonToken(JsonTokenType.FALSE, "false");
+  private static final JsonToken NULL = new JsonToken(JsonTokenType.NULL, "null");
+
+  private final Reader reader;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int pos;
+  private int limit;
+  // holds values spanning a buffer refill or containing escapes
+  private final StringBuilder value = new StringBuilder();
   private JsonToken token;
-  private NumberFormat nf = DecimalFormat.getNumberInstance(Locale.US);
-  private int pushedBack = -1;
 
   JsonStreamTokenizerImpl(Reader reader) {
     if (reader == null)
@@ -315,184 +330,203 @@ class JsonStreamTokenizerImpl implements JsonStreamTokenizer {
     }
   }
 
-  enum TokenizerState {
-    DEFAULT,
-    STRING,
-    NUMBER
-  }
-
   private void move() {
     token = null;
 
-    StringBuilder buffer = new StringBuilder();
-    boolean quote = false;
-    TokenizerState state = TokenizerState.DEFAULT;
     int i;
-    while (token == null && (i = next()) != -1) {
-      char c = (char) i;
-      if (state == TokenizerState.DEFAULT) {
-        if ('{' == c) {
-          token = new JsonToken(JsonTokenType.LEFT_CURLY_BRACKET);
-        } else if ('}' == c) {
-          if (hasConstantParsed(buffer)) {
-            pushBack(i);
-          } else {
-            token = new JsonToken(JsonTokenType.RIGHT_CURLY_BRACKET);
-          }
-        } else if ('[' == c) {
-          token = new JsonToken(JsonTokenType.LEFT_BRACKET);
-        } else if (']' == c) {
-          if (hasConstantParsed(buffer)) {
-            pushBack(i);
-          } else {
-            token = new JsonToken(JsonTokenType.RIGHT_BRACKET);
-          }
-        } else if (':' == c) {
-          token = new JsonToken(JsonTokenType.COLON);
-        } else if (',' == c) {
-          if (hasConstantParsed(buffer)) {
-            pushBack(i);
-          } else {
-            token = new JsonToken(JsonTokenType.COMMA);
-          }
-        } else if ('"' == c) {
-          if (buffer.length() > 0) {
-            throw new JsonParseException("no JSON format");
-          }
-          state = TokenizerState.STRING;
-        } else if ('-' == c || Character.isDigit(c)) {
-          buffer.append(c);
-          state = TokenizerState.NUMBER;
-        } else if (Character.isWhitespace(c)) {
-          hasConstantParsed(buffer);
-        } else {
-          buffer.append(c);
-        }
-      } else if (state == TokenizerState.STRING) {
-        if (quote) {
-          if ('b' == c) {
-            buffer.append('\b');
-          } else if ('f' == c) {
-            buffer.append('\f');
-          } else if ('n' == c) {
-            buffer.append('\n');
-          } else if ('r' == c) {
-            buffer.append('\r');
-          } else if ('t' == c) {
-            buffer.append('\t');
-          } else if ('/' == c) {
-            buffer.append('/');
-          } else if ('\\' == c) {
-            buffer.append('\\');
-          } else if ('"' == c) {
-            buffer.append('"');
-          } else if ('u' == c) {
-            buffer.append((char) Integer.parseInt(new String(next(4)), 16));
-          } else {
-            throw new JsonParseException("illegal escaped character " + c);
-          }
-          quote = false;
-        } else if ('\\' == c) {
-          quote = true;
-        } else if ('"' == c) {
-          token = new JsonToken(JsonTokenType.STRING, buffer.toString());
-        } else {
-          buffer.append(c);
-          quote = false;
-        }
-      } else {
-        if ('-' == c || Character.isDigit(c)
-            || 'E' == c || 'e' == c
-            || '+' == c || '.' == c) {
-          buffer.append(c); // a valid character in a number
-        } else {
-          // must be done with the number.
-          pushBack(i);
-          checkNumberFormat(buffer);
-          token = new JsonToken(JsonTokenType.NUMBER, buffer.toString());
-        }
-      }
-    }
-
-    if (state == TokenizerState.NUMBER) {
-      checkNumberFormat(buffer);
-      token = new JsonToken(JsonTokenType.NUMBER, buffer.toString());
+    do {
+      i = next();
+      if (i == -1)
+        return;
+    } while (Character.isWhitespace((char) i));
+
+    char c = (char) i;
+    switch (c) {
+    case '{':
+      token = LEFT_CURLY_BRACKET;
+      break;
+    case '}':
+      token = RIGHT_CURLY_BRACKET;
+      break;
+    case '[':
+      token = LEFT_BRACKET;
+      break;
+    case ']':
+      token = RIGHT_BRACKET;
+      break;
+    case ':':
+      token = COLON;
+      break;
+    case ',':
+      token = COMMA;
+      break;
+    case '"':
+      token = new JsonToken(JsonTokenType.STRING, readString());
+      break;
+    default:
+      if ('-' == c || isDigit(c))
+        token = new JsonToken(JsonTokenType.NUMBER, checkNumberFormat(readWhile(true)));
+      else
+        token = constant(readWhile(false));
     }
   }
 
-  private Number checkNumberFormat(StringBuilder memory) {
-    try {
-      return nf.parse(memory.toString());
-    } catch (Exception nfe) {
-      throw new JsonParseException("", nfe);
+  /** Reads the rest of a string whose opening quote has been consumed. */
+  private String readString() {
+    value.setLength(0);
+    boolean direct = true;
+    int start = pos;
+    while (true) {
+      if (pos == limit) {
+        value.append(buffer, start, pos - start);
+        direct = false;
+        if (!fill())
+          throw new JsonParseException("no JSON format premature end");
+        start = pos;
+      }
+
+      char c = buffer[pos++];
+      if ('"' == c) {
+        if (direct)
+          return new String(buffer, start, pos - 1 - start);
+        value.append(buffer, start, pos - 1 - start);
+        return value.toString();
+      } else if ('\\' == c) {
+        value.append(buffer, start, pos - 1 - start);
+        direct = false;
+        value.append(readEscaped());
+        start = pos;
+      }
     }
   }
 
-  private boolean hasConstantParsed(StringBuilder memory) {
-    if (isTrue(memory)) {
-      token = new JsonToken(JsonTokenType.TRUE, "true");
-    } else if (isFalse(memory)) {
-      token = new JsonToken(JsonTokenType.FALSE, "false");
-    } else if (isNull(memory)) {
-      token = new JsonToken(JsonTokenType.NULL, "null");
+  private char readEscaped() {
+    int c = next();
+    switch (c) {
+    case 'b':
+      return '\b';
+    case 'f':
+      return '\f';
+    case 'n':
+      return '\n';
+    case 'r':
+      return '\r';
+    case 't':
+      return '\t';
+    case '/':
+    case '\\':
+    case '"':
+      return (char) c;
+    case 'u':
+      int rt = 0;
+      for (int i = 0; i < 4; i++) {
+        int digit = Character.digit(next(), 16);
+        if (digit == -1)
+          throw new JsonParseException("illegal unicode escape");
+        rt = rt << 4 | digit;
+      }
+      return (char) rt;
+    case -1:
+      throw new JsonParseException("no JSON format premature end");
+    default:
+      throw new JsonParseException("illegal escaped character " + (char) c);
     }
-    return token != null;
   }
 
-  private void pushBack(int c) {
-    if (pushedBack != -1) {
-      throw new IllegalStateException("can push back only one character");
-    } else {
-      pushedBack = c;
+  /** Reads a number or constant whose first character has been consumed. */
+  private String readWhile(boolean number) {
+    value.setLength(0);
+    boolean direct = true;
+    int start = pos - 1;
+    while (true) {
+      if (pos == limit) {
+        value.append(buffer, start, pos - start);
+        direct = false;
+        boolean more = fill();
+        start = pos;
+        if (!more)
+          break;
+      }
+      char c = buffer[pos];
+      if (number ? !isNumberPart(c) : isDelimiter(c))
+        break;
+      pos++;
     }
-  }
 
-  private char[] next(int count) {
-    char[] ret = new char[count];
-    for (int i = 0; i < count; i++) {
-      ret[i] = (char) next();
+    if (direct)
+      return new String(buffer, start, pos - start);
+    value.append(buffer, start, pos - start);
+    return value.toString();
+  }
+
+  private static JsonToken constant(String value) {
+    if ("true".equals(value))
+      return TRUE;
+    if ("false".equals(value))
+      return FALSE;
+    if ("null".equals(value))
+      return NULL;
+    throw new JsonParseException("no JSON format " + value);
+  }
+
+  /** Checks the number grammar; the value is converted by the consumer of the token. */
+  private static String checkNumberFormat(String number) {
+    int length = number.length();
+    int i = 0;
+    if (i < length && number.charAt(i) == '-')
+      i++;
+    int digits = 0;
+    for (; i < length && isDigit(number.charAt(i)); i++)
+      digits++;
+    if (i < length && number.charAt(i) == '.') {
+      for (i++; i < length && isDigit(number.charAt(i)); i++)
+        digits++;
     }
+    if (digits > 0 && i < length && (number.charAt(i) == 'e' || number.charAt(i) == 'E')) {
+      i++;
+      if (i < length && (number.charAt(i) == '+' || number.charAt(i) == '-'))
+        i++;
+      int exponentDigits = 0;
+      for (; i < length && isDigit(number.charAt(i)); i++)
+        exponentDigits++;
+      if (exponentDigits == 0)
+        digits = 0;
+    }
+    if (digits == 0 || i != length)
+      throw new JsonParseException("illegal number " + number);
+    return number;
+  }
 
-    return ret;
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
   }
 
-  private int next() {
-    if (pushedBack != -1) {
-      int ret = pushedBack;
-      pushedBack = -1;
-      return ret;
-    } else {
-      try {
-        return reader.read();
-      } catch (IOException ioe) {
-        throw new JsonParseException(ioe);
-      }
-    }
+  private static boolean isNumberPart(char c) {
+    return isDigit(c) || '-' == c || '+' == c || '.' == c || 'e' == c || 'E' == c;
   }
 
-  private boolean isTrue(StringBuilder str) {
-    return str.length() == 4
-        && str.charAt(0) == 't'
-        && str.charAt(1) == 'r'
-        && str.charAt(2) == 'u'
-        && str.charAt(3) == 'e';
+  private static boolean isDelimiter(char c) {
+    return '{' == c || '}' == c || '[' == c || ']' == c || ':' == c || ',' == c || '"' == c || Character.isWhitespace(c);
   }
 
-  private boolean isFalse(StringBuilder str) {
-    return str.length() == 5
-        && str.charAt(0) == 'f'
-        && str.charAt(1) == 'a'
-        && str.charAt(2) == 'l'
-        && str.charAt(3) == 's'
-        && str.charAt(4) == 'e';
+  private int next() {
+    if (pos == limit && !fill())
+      return -1;
+    return buffer[pos++];
   }
 
-  private boolean isNull(StringBuilder str) {
-    return str.length() == 4
-        && str.charAt(0) == 'n'
-        && str.charAt(1) == 'u'
-        && str.charAt(2) == 'l'
-        && str.charAt(3) == 'l';
+  private boolean fill() {
+    try {
+      int n;
+      do {
+        n = reader.read(buffer, 0, buffer.length);
+      } while (n == 0);
+      pos = 0;
+      limit = Math.max(n, 0);
+      return n > 0;
+    } catch (IOException ioe) {
+      throw new JsonParseException(ioe);
+    }
   }
 
 }
@@ -512,8 +546,8 @@ class JsonStreamReaderImpl implements JsonStreamReader {
   }
 
   private JsonStreamTokenizerImpl tokenizer;
-  private Stack<ReaderState> state = new Stack<ReaderState>();
-  private Stack<Boolean> expectCommaOrEndStack = new Stack<Boolean>();
+  private ArrayStack<ReaderState> state = new ArrayStack<ReaderState>();
+  private ArrayStack<Boolean> expectCommaOrEndStack = new ArrayStack<Boolean>();
   private boolean expectCommaOrEnd;
   private boolean fireEndPropertyEvent;
   private JsonEvent previousEvent = null;
@@ -766,4 +800,26 @@ class JsonStreamReaderImpl implements JsonStreamReader {
     tokenizer.close();
   }
 
+  /** Unsynchronized replacement for {@link java.util.Stack}. */
+  private static class ArrayStack<T> {
+
+    private final List<T> elements = new ArrayList<T>();
+
+    void push(T element) {
+      elements.add(element);
+    }
+
+    T pop() {
+      return elements.remove(elements.size() - 1);
+    }
+
+    T peek() {
+      return elements.get(elements.size() - 1);
+    }
+
+    int size() {
+      return elements.size();
+    }
+  }
+
 }
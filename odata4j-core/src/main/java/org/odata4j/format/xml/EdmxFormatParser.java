@@ -1,16 +1,14 @@
 package org.odata4j.format.xml;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import org.core4j.Enumerable;
 import org.core4j.Func1;
-import org.core4j.Predicate1;
 import org.odata4j.core.ODataVersion;
-import org.odata4j.core.OPredicates;
 import org.odata4j.core.PrefixedNamespace;
 import org.odata4j.edm.EdmAnnotation;
 import org.odata4j.edm.EdmAnnotationElement;
@@ -34,6 +32,7 @@ import org.odata4j.edm.EdmProperty;
 import org.odata4j.edm.EdmProperty.CollectionKind;
 import org.odata4j.edm.EdmReferentialConstraint;
 import org.odata4j.edm.EdmSchema;
+import org.odata4j.edm.EdmSimpleType;
 import org.odata4j.edm.EdmType;
 import org.odata4j.internal.AndroidCompat;
 import org.odata4j.stax2.Attribute2;
@@ -50,7 +49,7 @@ public class EdmxFormatParser extends XmlFormatParser {
       NS_EDM2006, NS_EDM2007, NS_EDM2008_1, NS_EDM2008_9, NS_EDM2008_9, NS_EDM2009_8, NS_EDM2009_11,
       NS_EDMX, NS_EDMANNOTATION).toSet();
 
-  private final EdmDataServices.Builder dataServices = EdmDataServices.newBuilder();
+  private final IndexedDataServices dataServices = new IndexedDataServices();
 
   public EdmxFormatParser() {}
 
@@ -96,19 +95,7 @@ public class EdmxFormatParser extends XmlFormatParser {
   }
 
   private void resolve() {
-
-    final Map<String, EdmEntityType.Builder> allEetsByFQName = Enumerable
-        .create(dataServices.getEntityTypes())
-        .toMap(EdmEntityType.Builder.func1_getFullyQualifiedTypeName());
-
-    final Map<String, EdmEntityType.Builder> allEetsByFQAliasName = Enumerable
-        .create(dataServices.getEntityTypes())
-        .where(EdmEntityType.Builder.pred1_hasAlias())
-        .toMap(EdmEntityType.Builder.func1_getFQAliasName());
-
-    final Map<String, EdmAssociation.Builder> allEasByFQName = Enumerable
-        .create(dataServices.getAssociations())
-        .toMap(EdmAssociation.Builder.func1_getFQNamespaceName());
+    dataServices.index();
 
     for (EdmSchema.Builder edmSchema : dataServices.getSchemas()) {
 
@@ -116,8 +103,8 @@ public class EdmxFormatParser extends XmlFormatParser {
       for (int i = 0; i < edmSchema.getAssociations().size(); i++) {
         EdmAssociation.Builder tmpAssociation = edmSchema.getAssociations().get(i);
 
-        tmpAssociation.getEnd1().setType(allEetsByFQName.get(tmpAssociation.getEnd1().getTypeName()));
-        tmpAssociation.getEnd2().setType(allEetsByFQName.get(tmpAssociation.getEnd2().getTypeName()));
+        tmpAssociation.getEnd1().setType(dataServices.findEdmEntityType(tmpAssociation.getEnd1().getTypeName()));
+        tmpAssociation.getEnd2().setType(dataServices.findEdmEntityType(tmpAssociation.getEnd2().getTypeName()));
       }
 
       // resolve navproperties
@@ -125,7 +112,7 @@ public class EdmxFormatParser extends XmlFormatParser {
         List<EdmNavigationProperty.Builder> navProps = eet.getNavigationProperties();
         for (int i = 0; i < navProps.size(); i++) {
           final EdmNavigationProperty.Builder tmp = navProps.get(i);
-          final EdmAssociation.Builder ea = allEasByFQName.get(tmp.getRelationshipName());
+          final EdmAssociation.Builder ea = dataServices.findEdmAssociation(tmp.getRelationshipName());
           if (ea == null)
             throw new IllegalArgumentException("Invalid relationship name " + tmp.getRelationshipName());
 
@@ -143,25 +130,28 @@ public class EdmxFormatParser extends XmlFormatParser {
         }
       }
 
-      // resolve entitysets
       for (EdmEntityContainer.Builder edmEntityContainer : edmSchema.getEntityContainers()) {
+
+        // resolve entitysets
+        final Map<String, EdmEntitySet.Builder> entitySetsByName = new HashMap<String, EdmEntitySet.Builder>();
         for (int i = 0; i < edmEntityContainer.getEntitySets().size(); i++) {
           final EdmEntitySet.Builder tmpEes = edmEntityContainer.getEntitySets().get(i);
-          EdmEntityType.Builder eet = allEetsByFQName.get(tmpEes.getEntityTypeName());
-          if (eet == null)
-            eet = allEetsByFQAliasName.get(tmpEes.getEntityTypeName());
+          EdmEntityType.Builder eet = dataServices.findEdmEntityType(tmpEes.getEntityTypeName());
           if (eet == null)
             throw new IllegalArgumentException("Invalid entity type " + tmpEes.getEntityTypeName());
-          edmEntityContainer.getEntitySets().set(i, EdmEntitySet.newBuilder().setName(tmpEes.getName()).setEntityType(eet)
-              .setAnnotationElements(tmpEes.getAnnotationElements()).setAnnotations(tmpEes.getAnnotations()));
+          EdmEntitySet.Builder ees = EdmEntitySet.newBuilder().setName(tmpEes.getName()).setEntityType(eet)
+              .setAnnotationElements(tmpEes.getAnnotationElements()).setAnnotations(tmpEes.getAnnotations());
+          edmEntityContainer.getEntitySets().set(i, ees);
+          if (!entitySetsByName.containsKey(ees.getName()))
+            entitySetsByName.put(ees.getName(), ees);
         }
-      }
 
-      // resolve associationsets
-      for (final EdmEntityContainer.Builder edmEntityContainer : edmSchema.getEntityContainers()) {
+        // resolve associationsets
         for (int i = 0; i < edmEntityContainer.getAssociationSets().size(); i++) {
           final EdmAssociationSet.Builder tmpEas = edmEntityContainer.getAssociationSets().get(i);
-          final EdmAssociation.Builder ea = allEasByFQName.get(tmpEas.getAssociationName());
+          final EdmAssociation.Builder ea = dataServices.findEdmAssociation(tmpEas.getAssociationName());
+          if (ea == null)
+            throw new IllegalArgumentException("Invalid association name " + tmpEas.getAssociationName());
 
           List<EdmAssociationSetEnd.Builder> finalEnds = Enumerable.create(tmpEas.getEnd1(), tmpEas.getEnd2())
               .select(new Func1<EdmAssociationSetEnd.Builder, EdmAssociationSetEnd.Builder>() {
@@ -174,7 +164,9 @@ public class EdmxFormatParser extends XmlFormatParser {
                   if (eae == null)
                     throw new IllegalArgumentException("Invalid role name " + input.getRoleName());
 
-                  EdmEntitySet.Builder ees = Enumerable.create(edmEntityContainer.getEntitySets()).first(OPredicates.nameEquals(EdmEntitySet.Builder.class, input.getEntitySetName()));
+                  EdmEntitySet.Builder ees = entitySetsByName.get(input.getEntitySetName());
+                  if (ees == null)
+                    throw new IllegalArgumentException("Invalid entity set " + input.getEntitySetName());
                   return EdmAssociationSetEnd.newBuilder().setRole(eae).setEntitySet(ees)
                       .setAnnotationElements(input.getAnnotationElements()).setAnnotations(input.getAnnotations());
                 }
@@ -182,17 +174,11 @@ public class EdmxFormatParser extends XmlFormatParser {
 
           tmpEas.setAssociation(ea).setEnds(finalEnds.get(0), finalEnds.get(1));
         }
-      }
 
-      // resolve functionimports
-      for (final EdmEntityContainer.Builder edmEntityContainer : edmSchema.getEntityContainers()) {
+        // resolve functionimports
         for (int i = 0; i < edmEntityContainer.getFunctionImports().size(); i++) {
           final EdmFunctionImport.Builder tmpEfi = edmEntityContainer.getFunctionImports().get(i);
-          EdmEntitySet.Builder ees = Enumerable.create(edmEntityContainer.getEntitySets()).firstOrNull(new Predicate1<EdmEntitySet.Builder>() {
-            public boolean apply(EdmEntitySet.Builder input) {
-              return input.getName().equals(tmpEfi.getEntitySetName());
-            }
-          });
+          EdmEntitySet.Builder ees = tmpEfi.getEntitySetName() == null ? null : entitySetsByName.get(tmpEfi.getEntitySetName());
 
           EdmType.Builder<?, ?> typeBuilder = null;
           if (tmpEfi.getReturnTypeName() != null) {
@@ -216,19 +202,18 @@ public class EdmxFormatParser extends XmlFormatParser {
                   .setAnnotations(tmpEfi.getAnnotations()));
         }
       }
+    }
 
-      // resolve type hierarchy
-      for (Entry<String, EdmEntityType.Builder> entry : allEetsByFQName.entrySet()) {
-        String baseTypeName = entry.getValue().getFQBaseTypeName();
-        if (baseTypeName != null) {
-          EdmEntityType.Builder baseType = allEetsByFQName.get(baseTypeName);
-          if (baseType == null) {
-            throw new IllegalArgumentException("Invalid baseType: " + baseTypeName);
-          }
-          entry.getValue().setBaseType(baseType);
+    // resolve type hierarchy
+    for (EdmEntityType.Builder eet : dataServices.getEntityTypes()) {
+      String baseTypeName = eet.getFQBaseTypeName();
+      if (baseTypeName != null) {
+        EdmEntityType.Builder baseType = dataServices.findEdmEntityType(baseTypeName);
+        if (baseType == null) {
+          throw new IllegalArgumentException("Invalid baseType: " + baseTypeName);
         }
+        eet.setBaseType(baseType);
       }
-
     }
 
   }
@@ -867,4 +852,71 @@ public class EdmxFormatParser extends XmlFormatParser {
     return null;
   }
 
+  /**
+   * Data services builder with name-indexed symbol tables for types and associations,
+   * filled once before the linking pass. Deferred property and parameter types resolve through
+   * the same tables when the metadata is built.
+   */
+  private static class IndexedDataServices extends EdmDataServices.Builder {
+
+    private final Map<String, EdmEntityType.Builder> entityTypes = new HashMap<String, EdmEntityType.Builder>();
+    private final Map<String, EdmComplexType.Builder> complexTypes = new HashMap<String, EdmComplexType.Builder>();
+    private final Map<String, EdmAssociation.Builder> associations = new HashMap<String, EdmAssociation.Builder>();
+
+    void index() {
+      for (EdmSchema.Builder schema : getSchemas()) {
+        for (EdmEntityType.Builder eet : schema.getEntityTypes()) {
+          putIfAbsent(entityTypes, eet.getFullyQualifiedTypeName(), eet);
+          putIfAbsent(entityTypes, eet.getFQAliasName(), eet);
+        }
+        for (EdmComplexType.Builder ect : schema.getComplexTypes())
+          putIfAbsent(complexTypes, ect.getFullyQualifiedTypeName(), ect);
+        for (EdmAssociation.Builder ea : schema.getAssociations()) {
+          putIfAbsent(associations, ea.getFQNamespaceName(), ea);
+          putIfAbsent(associations, ea.getFQAliasName(), ea);
+        }
+      }
+    }
+
+    @Override
+    public EdmEntityType.Builder findEdmEntityType(String fqName) {
+      return fqName == null ? null : entityTypes.get(fqName);
+    }
+
+    @Override
+    public EdmComplexType.Builder findEdmComplexType(String complexTypeFQName) {
+      EdmComplexType.Builder rt = complexTypes.get(complexTypeFQName);
+      if (rt == null) {
+        // complex types know no alias, but their schema does
+        for (EdmSchema.Builder schema : getSchemas()) {
+          rt = complexTypes.get(schema.dealias(complexTypeFQName));
+          if (rt != null)
+            break;
+        }
+      }
+      return rt;
+    }
+
+    public EdmAssociation.Builder findEdmAssociation(String fqName) {
+      return associations.get(fqName);
+    }
+
+    @Override
+    public EdmType.Builder<?, ?> resolveType(String fqTypeName) {
+      if (fqTypeName == null || AndroidCompat.String_isEmpty(fqTypeName))
+        return null;
+      EdmType type = EdmType.getSimple(fqTypeName);
+      if (type != null)
+        return EdmSimpleType.newBuilder(type);
+      EdmType.Builder<?, ?> rt = findEdmEntityType(fqTypeName);
+      return rt != null ? rt : findEdmComplexType(fqTypeName);
+    }
+
+    private static <T> void putIfAbsent(Map<String, T> map, String key, T value) {
+      if (key != null && !map.containsKey(key))
+        map.put(key, value);
+    }
+
+  }
+
 }
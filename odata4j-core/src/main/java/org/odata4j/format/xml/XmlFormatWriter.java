@@ -22,7 +22,8 @@ import org.odata4j.core.ORelatedEntitiesLinkInline;
 import org.odata4j.core.ORelatedEntityLinkInline;
 import org.odata4j.core.OSimpleObject;
 import org.odata4j.edm.EdmCollectionType;
-import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmProperty.CollectionKind;
 import org.odata4j.edm.EdmSimpleType;
 import org.odata4j.edm.EdmType;
 import org.odata4j.internal.InternalUtil;
@@ -1,10 +1,16 @@
 package org.odata4j.internal;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
@@ -352,14 +358,65 @@ public class InternalUtil {
     return version;
   }
 
+  /**
+   * Computes the digest of the UTF-8 bytes of a string.
+   *
+   * @param algorithm  the name of the digest algorithm, e.g. MD5 or SHA-1
+   * @param value  the string to digest
+   * @return the digest as lower case hex string
+   */
+  public static String hexDigest(String algorithm, String value) {
+    try {
+      byte[] hash = MessageDigest.getInstance(algorithm).digest(value.getBytes(ODataConstants.Charsets.Upper.UTF_8));
+      StringBuilder sb = new StringBuilder();
+      for (byte b : hash)
+        sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      return sb.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw Throwables.propagate(e);
+    } catch (UnsupportedEncodingException e) {
+      throw Throwables.propagate(e);
+    }
+  }
+
   public static final int COPY_BUFFER_SIZE = 8 * 1024;
 
+  /** The buffer size used to copy media resources. */
+  public static final int MEDIA_COPY_BUFFER_SIZE = 64 * 1024;
+
   public static void copyInputToOutput(InputStream inStream, OutputStream outStream) throws IOException {
-    byte[] buf = new byte[COPY_BUFFER_SIZE];
+    copyInputToOutput(inStream, outStream, COPY_BUFFER_SIZE);
+  }
+
+  public static void copyInputToOutput(InputStream inStream, OutputStream outStream, int bufferSize) throws IOException {
+    byte[] buf = new byte[bufferSize];
     int n;
     while ((n = inStream.read(buf)) != -1) {
       outStream.write(buf, 0, n);
     }
     outStream.flush();
   }
+
+  /**
+   * Copies a range of a file channel to a stream with positional reads, so neither the channel
+   * position nor other readers of the channel are affected.
+   *
+   * @throws EOFException if the channel ends before the range does
+   */
+  public static void copyChannelToOutput(FileChannel channel, long position, long count, OutputStream outStream, int bufferSize) throws IOException {
+    byte[] buf = new byte[(int) Math.min(bufferSize, Math.max(count, 1))];
+    ByteBuffer buffer = ByteBuffer.wrap(buf);
+    while (count > 0) {
+      buffer.clear();
+      if (count < buf.length)
+        buffer.limit((int) count);
+      int n = channel.read(buffer, position);
+      if (n == -1)
+        throw new EOFException();
+      outStream.write(buf, 0, n);
+      position += n;
+      count -= n;
+    }
+    outStream.flush();
+  }
 }
@@ -0,0 +1,42 @@
+package org.odata4j.producer;
+
+import org.odata4j.core.OExtension;
+
+/**
+ * An optional extension that lets a producer apply the operations of a {@code $batch} change set as one unit.
+ *
+ * <p>To expose this extension, the producer implementation has to return an instance of this
+ * interface when method {@code findExtension} is called and the first parameter is equal to
+ * {@code ChangeSetExtension.class}.</p>
+ *
+ * <p>The operations of a change set are invoked on the producer between {@link #beginChangeSet} and
+ * {@link #commitChangeSet}, on the same thread. The producer may defer their writes until the change set
+ * is committed. The parts of the batch outside change sets, e.g. queries, are invoked outside of it.</p>
+ */
+public interface ChangeSetExtension extends OExtension<ODataProducer> {
+
+  /**
+   * Starts a change set; the following operations on the current thread belong to it.
+   *
+   * @param context  the context of the batch request
+   */
+  void beginChangeSet(ODataContext context);
+
+  /**
+   * Applies all operations of the current change set, or none of them.
+   *
+   * @param context  the context of the batch request
+   * @throws org.odata4j.exceptions.ODataProducerException  if the change set could not be applied;
+   *         the change set has been rolled back in this case
+   */
+  void commitChangeSet(ODataContext context);
+
+  /**
+   * Discards the operations of the current change set.  Called if an operation of the change set failed;
+   * does nothing if no change set is active.
+   *
+   * @param context  the context of the batch request
+   */
+  void rollbackChangeSet(ODataContext context);
+
+}
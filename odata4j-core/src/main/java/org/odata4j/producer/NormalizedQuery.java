@@ -0,0 +1,83 @@
+package org.odata4j.producer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.odata4j.expression.CommonExpression;
+import org.odata4j.expression.EntitySimpleProperty;
+import org.odata4j.expression.OrderByExpression;
+import org.odata4j.expression.PrintExpressionVisitor;
+import org.odata4j.expression.StringLiteral;
+
+/**
+ * The canonical string form of a {@link QueryInfo}, for keys of producer results shared between requests.
+ *
+ * <p>Query infos with equal options have equal forms, whatever the order of their custom options;
+ * query infos with different options have different forms, whatever the content of their string literals.</p>
+ */
+public final class NormalizedQuery {
+
+  private NormalizedQuery() {}
+
+  /**
+   * Gets the canonical form of a query.
+   *
+   * @param queryInfo  the query, or null
+   * @return the canonical form, the empty string for a null query
+   */
+  public static String of(QueryInfo queryInfo) {
+    if (queryInfo == null)
+      return "";
+    StringBuilder sb = new StringBuilder();
+    if (queryInfo.inlineCount != null)
+      sb.append("inlinecount=").append(queryInfo.inlineCount).append(';');
+    if (queryInfo.top != null)
+      sb.append("top=").append(queryInfo.top).append(';');
+    if (queryInfo.skip != null)
+      sb.append("skip=").append(queryInfo.skip).append(';');
+    if (queryInfo.filter != null)
+      sb.append("filter=").append(print(queryInfo.filter)).append(';');
+    if (queryInfo.orderBy != null && !queryInfo.orderBy.isEmpty()) {
+      sb.append("orderby=");
+      for (OrderByExpression orderBy : queryInfo.orderBy)
+        sb.append(print(orderBy));
+      sb.append(';');
+    }
+    if (queryInfo.skipToken != null)
+      sb.append("skiptoken=").append(quote(queryInfo.skipToken)).append(';');
+    append(sb, "expand", queryInfo.expand);
+    append(sb, "select", queryInfo.select);
+    if (queryInfo.customOptions != null) {
+      for (Map.Entry<String, String> option : new TreeMap<String, String>(queryInfo.customOptions).entrySet())
+        sb.append(quote(option.getKey())).append('=').append(quote(option.getValue())).append(';');
+    }
+    return sb.toString();
+  }
+
+  private static void append(StringBuilder sb, String name, List<EntitySimpleProperty> properties) {
+    if (properties == null || properties.isEmpty())
+      return;
+    sb.append(name).append('=');
+    for (EntitySimpleProperty property : properties)
+      sb.append(quote(property.getPropertyName()));
+    sb.append(';');
+  }
+
+  private static String print(CommonExpression expression) {
+    // quote string literals, so that their content cannot be mistaken for the structure of the expression
+    PrintExpressionVisitor visitor = new PrintExpressionVisitor() {
+      @Override
+      public void visit(StringLiteral expr) {
+        visit("string(" + quote(expr.getValue()) + ")");
+      }
+    };
+    visitor.visitNode(expression);
+    return visitor.toString();
+  }
+
+  private static String quote(String value) {
+    return value == null ? "null" : "'" + value.replace("'", "''") + "'";
+  }
+
+}
@@ -6,6 +6,8 @@ import java.util.Map.Entry;
 
 import javax.ws.rs.core.HttpHeaders;
 
+import org.odata4j.core.ODataConstants;
+
 /**
  * An implementation of ODataContext
  */
@@ -54,6 +56,26 @@ public class ODataContextImpl implements ODataContext {
       return this;
     }
 
+    /**
+     * Adds the deadline of a request: the default timeout, or a shorter one asked for with the
+     * {@code X-Request-Timeout} header.  A deadline added as aspect before is kept.
+     *
+     * @param httpHeaders  the headers of the request
+     * @throws org.odata4j.exceptions.BadRequestException  if the header is not a positive number
+     * @see RequestDeadline#forRequest(String)
+     */
+    public ODataContextBuilder deadline(HttpHeaders httpHeaders) {
+      if (impl.getContextAspect(RequestDeadline.class) != null)
+        return this;
+      String timeout = httpHeaders.getRequestHeaders() == null
+          ? null
+          : httpHeaders.getRequestHeaders().getFirst(ODataConstants.Headers.REQUEST_TIMEOUT);
+      RequestDeadline deadline = RequestDeadline.forRequest(timeout);
+      if (deadline != null)
+        impl.addContextAspect(deadline);
+      return this;
+    }
+
     public ODataContextImpl build() {
       return impl;
     }
@@ -0,0 +1,55 @@
+package org.odata4j.producer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.Date;
+
+/**
+ * The content of a media resource, readable in parts so that the server can answer
+ * HTTP range requests.
+ *
+ * @see OMediaResourceExtension
+ * @see OMediaResources
+ */
+public interface OMediaResource {
+
+  /**
+   * Gets the length of the content in bytes.
+   *
+   * @return the length
+   */
+  long getLength();
+
+  /**
+   * Gets the strong entity tag of the content, used to validate If-Range requests.
+   *
+   * @return the opaque entity tag, or null
+   */
+  String getEntityTag();
+
+  /**
+   * Gets the time the content was last modified.
+   *
+   * @return the last modification time, or null
+   */
+  Date getLastModified();
+
+  /**
+   * Opens a channel over the content, if the content is a file. The server reads the
+   * requested range directly from the channel and closes it afterwards.
+   *
+   * @return a new channel, or null to use {@link #getInputStream(long, long)}
+   */
+  FileChannel getFileChannel() throws IOException;
+
+  /**
+   * Opens a stream over a range of the content. The server closes it afterwards.
+   *
+   * @param offset  the position of the first byte
+   * @param length  the number of bytes the stream must return
+   * @return a new stream
+   */
+  InputStream getInputStream(long offset, long length) throws IOException;
+
+}
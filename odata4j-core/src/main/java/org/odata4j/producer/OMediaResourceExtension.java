@@ -0,0 +1,23 @@
+package org.odata4j.producer;
+
+import org.odata4j.core.OEntity;
+
+/**
+ * A media link extension that exposes the media resource for ranged and file based reads.
+ *
+ * <p>If a producer's {@link OMediaLinkExtensions} creates extensions of this type, the server
+ * answers <code>Range</code> and <code>If-Range</code> requests for <code>$value</code> with
+ * <code>206 Partial Content</code>, reading only the requested bytes.</p>
+ */
+public interface OMediaResourceExtension extends OMediaLinkExtension {
+
+  /**
+   * Gets the media resource associated with the given media link entry entity.
+   *
+   * @param mle  the media link entry entity
+   * @param query  additional request information
+   * @return the media resource, or null to stream {@link #getInputStreamForMediaLinkEntry} in full
+   */
+  OMediaResource getMediaResource(ODataContext odataContext, OEntity mle, EntityQueryInfo query);
+
+}
@@ -0,0 +1,110 @@
+package org.odata4j.producer;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Date;
+
+/**
+ * A static factory to create immutable {@link OMediaResource} instances.
+ */
+public class OMediaResources {
+
+  private OMediaResources() {}
+
+  /**
+   * Creates a media resource backed by a file. Length and modification time are taken
+   * when the resource is created; the entity tag is derived from both.
+   *
+   * @param file  the file
+   * @return a new media resource
+   */
+  public static OMediaResource file(File file) {
+    return new FileMediaResource(file);
+  }
+
+  private static class FileMediaResource implements OMediaResource {
+
+    private final File file;
+    private final long length;
+    private final long lastModified;
+
+    FileMediaResource(File file) {
+      this.file = file;
+      this.length = file.length();
+      this.lastModified = file.lastModified();
+    }
+
+    @Override
+    public long getLength() {
+      return length;
+    }
+
+    @Override
+    public String getEntityTag() {
+      return Long.toHexString(lastModified) + "-" + Long.toHexString(length);
+    }
+
+    @Override
+    public Date getLastModified() {
+      return lastModified == 0 ? null : new Date(lastModified);
+    }
+
+    @Override
+    public FileChannel getFileChannel() throws IOException {
+      return new FileInputStream(file).getChannel();
+    }
+
+    @Override
+    public InputStream getInputStream(long offset, long length) throws IOException {
+      return new ChannelInputStream(getFileChannel(), offset, length);
+    }
+
+    @Override
+    public String toString() {
+      return "OMediaResource[" + file + "]";
+    }
+  }
+
+  /** Reads a range of a channel with positional reads. */
+  private static class ChannelInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private long position;
+    private long remaining;
+
+    ChannelInputStream(FileChannel channel, long position, long length) {
+      this.channel = channel;
+      this.position = position;
+      this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (remaining == 0)
+        return -1;
+      int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position);
+      if (n == -1)
+        throw new EOFException();
+      position += n;
+      remaining -= n;
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+
+}
@@ -88,6 +88,19 @@ public class PropertyPathHelper {
         expandR != null && expandR.length() > 0 ? ExpressionParser.parseExpand(expandR) : null);
   }
 
+  /**
+   * Creates a helper with the same $select and $expand paths as the given one, positioned at the root object.
+   * Helpers track their current path while expanding, so concurrent traversals each need their own.
+   *
+   * @param other  the helper to copy the paths of
+   */
+  public PropertyPathHelper(PropertyPathHelper other) {
+    selectPaths = other.selectPaths;
+    expandPaths = other.expandPaths;
+    selectRPaths = other.selectRPaths;
+    expandRPaths = other.expandRPaths;
+  }
+
   private void setup(String select, String expand, String selectR, String expandR) {
     setup(select != null && select.length() > 0 ? ExpressionParser.parseExpand(select) : null,
         expand != null && expand.length() > 0 ? ExpressionParser.parseExpand(expand) : null,
@@ -0,0 +1,229 @@
+package org.odata4j.producer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.odata4j.exceptions.BadRequestException;
+import org.odata4j.exceptions.ServiceUnavailableException;
+
+/**
+ * The point in time by which a request has to be answered, and a way to cancel it earlier.
+ *
+ * <p>A deadline is an aspect of the {@link ODataContext}: producers get it with {@link #get(ODataContext)},
+ * pass the remaining time to their queries and call {@link #check()} while they work, so a request that
+ * cannot complete in time fails with a {@link ServiceUnavailableException} instead of keeping a thread and
+ * a database busy.</p>
+ *
+ * <p>The resources create a deadline for every request from the server-wide default timeout
+ * ({@link #setDefaultTimeout}, or the system property {@code TIMEOUT_PROPNAME}) and the
+ * {@code X-Request-Timeout} header, whichever is shorter.  Requests without either have no deadline.</p>
+ */
+public class RequestDeadline {
+
+  /**
+   * Constant used as system property name for the default timeout in milliseconds.
+   */
+  public static final String TIMEOUT_PROPNAME = "odata4j.requesttimeout";
+
+  private static final Logger log = Logger.getLogger(RequestDeadline.class.getName());
+
+  private static final long PROPERTY_TIMEOUT = parseTimeoutProperty();
+
+  private static volatile Long defaultTimeout;
+
+  private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<RequestDeadline>();
+
+  private final long deadlineNanos;
+  private volatile boolean cancelled;
+  private final List<Runnable> cancelListeners = new CopyOnWriteArrayList<Runnable>();
+
+  private RequestDeadline(long deadlineNanos) {
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /**
+   * Creates a deadline the given time from now.
+   *
+   * @param timeoutMillis  the time to complete the request in milliseconds
+   */
+  public static RequestDeadline after(long timeoutMillis) {
+    return new RequestDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+  }
+
+  /**
+   * Sets the timeout of requests that do not ask for a shorter one.
+   *
+   * @param timeoutMillis  the timeout in milliseconds, or 0 for none
+   */
+  public static void setDefaultTimeout(long timeoutMillis) {
+    if (timeoutMillis < 0)
+      throw new IllegalArgumentException("timeoutMillis must not be negative");
+    defaultTimeout = timeoutMillis;
+  }
+
+  /**
+   * Gets the timeout of requests that do not ask for a shorter one.
+   *
+   * @return the timeout in milliseconds, or 0 for none
+   */
+  public static long getDefaultTimeout() {
+    Long timeout = defaultTimeout;
+    return timeout != null ? timeout : PROPERTY_TIMEOUT;
+  }
+
+  // the system property is read once; a value that is not a timeout is ignored
+  private static long parseTimeoutProperty() {
+    String property = System.getProperty(TIMEOUT_PROPNAME);
+    if (property == null)
+      return 0;
+    try {
+      long timeout = Long.parseLong(property.trim());
+      if (timeout >= 0)
+        return timeout;
+    } catch (NumberFormatException e) {
+      // logged below
+    }
+    log.warning("Ignoring invalid " + TIMEOUT_PROPNAME + " " + property);
+    return 0;
+  }
+
+  /**
+   * Creates the deadline of a request.
+   *
+   * @param timeoutHeader  the value of the {@code X-Request-Timeout} header in milliseconds, or null
+   * @return the deadline, or null if the request has none
+   * @throws BadRequestException  if the header is not a positive number
+   */
+  public static RequestDeadline forRequest(String timeoutHeader) {
+    long timeout = getDefaultTimeout();
+    if (timeoutHeader != null) {
+      long requested;
+      try {
+        requested = Long.parseLong(timeoutHeader.trim());
+      } catch (NumberFormatException e) {
+        throw new BadRequestException("Invalid request timeout " + timeoutHeader);
+      }
+      if (requested <= 0)
+        throw new BadRequestException("Invalid request timeout " + timeoutHeader);
+      timeout = timeout == 0 ? requested : Math.min(timeout, requested);
+    }
+    return timeout == 0 ? null : after(timeout);
+  }
+
+  /**
+   * Gets the deadline of a request.
+   *
+   * @param context  the context of the request, or null
+   * @return the deadline, or null if the request has none
+   */
+  public static RequestDeadline get(ODataContext context) {
+    return context == null ? null : context.getContextAspect(RequestDeadline.class);
+  }
+
+  /**
+   * Gets the deadline of the request executed on the current thread, for code that is not passed the
+   * {@link ODataContext}.
+   *
+   * @return the deadline, or null if there is none
+   * @see #bind(RequestDeadline)
+   */
+  public static RequestDeadline current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Makes a deadline the one of the current thread.
+   *
+   * @param deadline  the deadline, or null for none
+   * @return the previous deadline of the current thread, to be bound again when done
+   */
+  public static RequestDeadline bind(RequestDeadline deadline) {
+    RequestDeadline previous = CURRENT.get();
+    if (deadline == null)
+      CURRENT.remove();
+    else
+      CURRENT.set(deadline);
+    return previous;
+  }
+
+  /**
+   * Gets the time left in milliseconds; 0 if the deadline has passed or the request was cancelled.
+   */
+  public long getRemainingMillis() {
+    if (cancelled)
+      return 0;
+    return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+  }
+
+  /**
+   * Gets the time left in whole seconds, rounded up, for APIs like {@code Statement.setQueryTimeout}
+   * that take seconds and treat 0 as no timeout.
+   */
+  public int getRemainingSeconds() {
+    long millis = getRemainingMillis();
+    return (int) Math.min(Integer.MAX_VALUE, Math.max(1, (millis + 999) / 1000));
+  }
+
+  /**
+   * Returns true if the deadline has passed or the request was cancelled.
+   */
+  public boolean isExpired() {
+    return cancelled || deadlineNanos - System.nanoTime() <= 0;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Fails the request if the deadline has passed or the request was cancelled.
+   *
+   * @throws ServiceUnavailableException  if the request is expired
+   */
+  public void check() {
+    if (isExpired())
+      throw exceeded(null);
+  }
+
+  /**
+   * Creates the error for an expired request.
+   *
+   * @param cause  the failure caused by the expiry, e.g. a query timeout, or null
+   */
+  public ServiceUnavailableException exceeded(Throwable cause) {
+    return new ServiceUnavailableException(cancelled ? "Request cancelled" : "Request deadline exceeded", cause);
+  }
+
+  /**
+   * Cancels the request, e.g. because the client disconnected, and notifies the cancel listeners.
+   */
+  public void cancel() {
+    if (cancelled)
+      return;
+    cancelled = true;
+    for (Runnable listener : cancelListeners)
+      listener.run();
+  }
+
+  /**
+   * Adds a listener to run when the request is cancelled, like cancelling a running statement.
+   * The listener runs at once if the request is already cancelled.
+   *
+   * @see #removeCancelListener(Runnable)
+   */
+  public void onCancel(Runnable listener) {
+    cancelListeners.add(listener);
+    if (cancelled && cancelListeners.remove(listener))
+      listener.run();
+  }
+
+  /**
+   * Removes a listener that is no longer needed, like the one of a statement that has been closed.
+   */
+  public void removeCancelListener(Runnable listener) {
+    cancelListeners.remove(listener);
+  }
+
+}
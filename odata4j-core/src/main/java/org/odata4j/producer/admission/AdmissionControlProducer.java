@@ -0,0 +1,233 @@
+package org.odata4j.producer.admission;
+
+import java.util.Map;
+
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityId;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.core.OExtension;
+import org.odata4j.core.OFunctionParameter;
+import org.odata4j.edm.EdmDataServices;
+import org.odata4j.edm.EdmFunctionImport;
+import org.odata4j.producer.BaseResponse;
+import org.odata4j.producer.CountResponse;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.EntityIdResponse;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.EntityResponse;
+import org.odata4j.producer.ODataContext;
+import org.odata4j.producer.ODataProducer;
+import org.odata4j.producer.ODataProducerDelegate;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.RequestDeadline;
+import org.odata4j.producer.admission.AdmissionController.Permit;
+import org.odata4j.producer.metrics.ProducerMetrics.Operation;
+
+/**
+ * A producer decorator limiting the number of calls executing at the same time per entity set
+ * and per operation, as configured on its {@link AdmissionController}.
+ *
+ * <pre>
+ * AdmissionController admission = new AdmissionController()
+ *     .setDefaultEntitySetLimit(8)
+ *     .setEntitySetLimit("Reports", 2)
+ *     .setOperationLimit(Operation.CallFunction, 4);
+ * ODataProducer producer = new AdmissionControlProducer(new InMemoryProducer("MyNamespace"), admission);
+ * </pre>
+ *
+ * <p>Calls over a limit wait briefly and then fail with a {@code 503 Service Unavailable} response
+ * with a {@code Retry-After} header.  Wrap this producer in a
+ * {@link org.odata4j.producer.metrics.MetricsProducer} to see rejected calls as errors.</p>
+ */
+public class AdmissionControlProducer extends ODataProducerDelegate {
+
+  private final ODataProducer delegate;
+  private final AdmissionController admission;
+
+  public AdmissionControlProducer(ODataProducer delegate) {
+    this(delegate, new AdmissionController());
+  }
+
+  public AdmissionControlProducer(ODataProducer delegate, AdmissionController admission) {
+    this.delegate = delegate;
+    this.admission = admission;
+  }
+
+  @Override
+  public ODataProducer getDelegate() {
+    return delegate;
+  }
+
+  public AdmissionController getAdmissionController() {
+    return admission;
+  }
+
+  @Override
+  public EntitiesResponse getEntities(ODataContext context, String entitySetName, QueryInfo queryInfo) {
+    Permit permit = admit(entitySetName, Operation.GetEntities, context);
+    try {
+      return super.getEntities(context, entitySetName, queryInfo);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public CountResponse getEntitiesCount(ODataContext context, String entitySetName, QueryInfo queryInfo) {
+    Permit permit = admit(entitySetName, Operation.GetEntitiesCount, context);
+    try {
+      return super.getEntitiesCount(context, entitySetName, queryInfo);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public EntityResponse getEntity(ODataContext context, String entitySetName, OEntityKey entityKey, EntityQueryInfo queryInfo) {
+    Permit permit = admit(entitySetName, Operation.GetEntity, context);
+    try {
+      return super.getEntity(context, entitySetName, entityKey, queryInfo);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public BaseResponse getNavProperty(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, QueryInfo queryInfo) {
+    Permit permit = admit(entitySetName, Operation.GetNavProperty, context);
+    try {
+      return super.getNavProperty(context, entitySetName, entityKey, navProp, queryInfo);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public CountResponse getNavPropertyCount(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, QueryInfo queryInfo) {
+    Permit permit = admit(entitySetName, Operation.GetNavPropertyCount, context);
+    try {
+      return super.getNavPropertyCount(context, entitySetName, entityKey, navProp, queryInfo);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public EntityResponse createEntity(ODataContext context, String entitySetName, OEntity entity) {
+    Permit permit = admit(entitySetName, Operation.CreateEntity, context);
+    try {
+      return super.createEntity(context, entitySetName, entity);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public EntityResponse createEntity(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, OEntity entity) {
+    Permit permit = admit(entitySetName, Operation.CreateEntity, context);
+    try {
+      return super.createEntity(context, entitySetName, entityKey, navProp, entity);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public void deleteEntity(ODataContext context, String entitySetName, OEntityKey entityKey) {
+    Permit permit = admit(entitySetName, Operation.DeleteEntity, context);
+    try {
+      super.deleteEntity(context, entitySetName, entityKey);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public void mergeEntity(ODataContext context, String entitySetName, OEntity entity) {
+    Permit permit = admit(entitySetName, Operation.MergeEntity, context);
+    try {
+      super.mergeEntity(context, entitySetName, entity);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public void updateEntity(ODataContext context, String entitySetName, OEntity entity) {
+    Permit permit = admit(entitySetName, Operation.UpdateEntity, context);
+    try {
+      super.updateEntity(context, entitySetName, entity);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public EntityIdResponse getLinks(ODataContext context, OEntityId sourceEntity, String targetNavProp) {
+    Permit permit = admit(sourceEntity.getEntitySetName(), Operation.GetLinks, context);
+    try {
+      return super.getLinks(context, sourceEntity, targetNavProp);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public void createLink(ODataContext context, OEntityId sourceEntity, String targetNavProp, OEntityId targetEntity) {
+    Permit permit = admit(sourceEntity.getEntitySetName(), Operation.CreateLink, context);
+    try {
+      super.createLink(context, sourceEntity, targetNavProp, targetEntity);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public void updateLink(ODataContext context, OEntityId sourceEntity, String targetNavProp, OEntityKey oldTargetEntityKey, OEntityId newTargetEntity) {
+    Permit permit = admit(sourceEntity.getEntitySetName(), Operation.UpdateLink, context);
+    try {
+      super.updateLink(context, sourceEntity, targetNavProp, oldTargetEntityKey, newTargetEntity);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public void deleteLink(ODataContext context, OEntityId sourceEntity, String targetNavProp, OEntityKey targetEntityKey) {
+    Permit permit = admit(sourceEntity.getEntitySetName(), Operation.DeleteLink, context);
+    try {
+      super.deleteLink(context, sourceEntity, targetNavProp, targetEntityKey);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public BaseResponse callFunction(ODataContext context, EdmFunctionImport name, Map<String, OFunctionParameter> params, QueryInfo queryInfo) {
+    Permit permit = admit(name.getName(), Operation.CallFunction, context);
+    try {
+      return super.callFunction(context, name, params, queryInfo);
+    } finally {
+      permit.release();
+    }
+  }
+
+  @Override
+  public <TExtension extends OExtension<ODataProducer>> TExtension findExtension(Class<TExtension> clazz) {
+    if (clazz.isInstance(admission))
+      return clazz.cast(admission);
+    return super.findExtension(clazz);
+  }
+
+  private Permit admit(String entitySetName, Operation operation, ODataContext context) {
+    return admission.admit(entitySetName, isDeclared(entitySetName, operation), operation, RequestDeadline.get(context));
+  }
+
+  private boolean isDeclared(String entitySetName, Operation operation) {
+    EdmDataServices metadata = getMetadata();
+    return operation == Operation.CallFunction
+        ? metadata.findEdmFunctionImport(entitySetName) != null
+        : metadata.findEdmEntitySet(entitySetName) != null;
+  }
+
+}
@@ -0,0 +1,305 @@
+package org.odata4j.producer.admission;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.odata4j.core.OExtension;
+import org.odata4j.exceptions.ServiceUnavailableException;
+import org.odata4j.producer.ODataProducer;
+import org.odata4j.producer.RequestDeadline;
+import org.odata4j.producer.metrics.ProducerMetrics.Operation;
+
+/**
+ * Thread-safe limits on the number of requests and producer calls executing at the same time.
+ *
+ * <p>There are three kinds of limits, each enforced by its own gate: one for all requests of the
+ * service (checked by a server filter, see {@link #admitRequest}), one per entity set and one per
+ * {@link Operation} (both checked by an {@link AdmissionControlProducer}).  A call that finds a gate
+ * full waits up to {@link #setMaxWaitMillis max wait} - never beyond the deadline of its request - and
+ * is rejected with a {@link ServiceUnavailableException} carrying a {@code Retry-After} hint if no
+ * permit became free.</p>
+ *
+ * <p>Limits may be changed at any time; calls already admitted keep their permits.  The state of all
+ * gates is pulled with {@link #snapshot()}.  An {@link AdmissionControlProducer} exposes its controller
+ * as a producer extension: <code>producer.findExtension(AdmissionController.class)</code>.</p>
+ */
+public class AdmissionController implements OExtension<ODataProducer> {
+
+  /** The name of the gate limiting all requests in {@link #snapshot()}. */
+  public static final String REQUESTS = "$requests";
+
+  private volatile Gate requestGate;
+  private volatile int defaultEntitySetLimit;
+  private final ConcurrentMap<String, Gate> entitySetGates = new ConcurrentHashMap<String, Gate>();
+  private final ConcurrentMap<String, Gate> defaultGates = new ConcurrentHashMap<String, Gate>();
+  private final Map<Operation, Gate> operationGates = new EnumMap<Operation, Gate>(Operation.class);
+  private volatile long maxWaitMillis = 100;
+  private volatile int retryAfterSeconds = 1;
+
+  /**
+   * Sets the number of requests the service executes at the same time.
+   *
+   * @param maxConcurrent  the limit, or 0 for none
+   */
+  public AdmissionController setRequestLimit(int maxConcurrent) {
+    requestGate = newGate(REQUESTS, maxConcurrent);
+    return this;
+  }
+
+  /**
+   * Sets the number of producer calls on an entity set executing at the same time.
+   *
+   * @param entitySetName  the entity set (or function) name
+   * @param maxConcurrent  the limit, or 0 for none
+   */
+  public AdmissionController setEntitySetLimit(String entitySetName, int maxConcurrent) {
+    Gate gate = newGate(entitySetName, maxConcurrent);
+    if (gate == null)
+      entitySetGates.remove(entitySetName);
+    else
+      entitySetGates.put(entitySetName, gate);
+    defaultGates.remove(entitySetName);
+    return this;
+  }
+
+  /**
+   * Sets the limit of declared entity sets without one of their own.  Each entity set gets its own gate
+   * with this limit, the entity sets do not share it.  Changing the limit replaces these gates.
+   *
+   * @param maxConcurrent  the limit, or 0 for none
+   */
+  public AdmissionController setDefaultEntitySetLimit(int maxConcurrent) {
+    checkLimit(maxConcurrent);
+    defaultEntitySetLimit = maxConcurrent;
+    defaultGates.clear();
+    return this;
+  }
+
+  /**
+   * Sets the number of producer calls of one operation executing at the same time, over all entity sets.
+   *
+   * @param operation  the operation
+   * @param maxConcurrent  the limit, or 0 for none
+   */
+  public AdmissionController setOperationLimit(Operation operation, int maxConcurrent) {
+    Gate gate = newGate(operation.name(), maxConcurrent);
+    synchronized (operationGates) {
+      if (gate == null)
+        operationGates.remove(operation);
+      else
+        operationGates.put(operation, gate);
+    }
+    return this;
+  }
+
+  /**
+   * Sets how long a call waits for a permit before it is rejected; 100 milliseconds by default.
+   *
+   * @param maxWaitMillis  the time in milliseconds, or 0 to reject at once
+   */
+  public AdmissionController setMaxWaitMillis(long maxWaitMillis) {
+    if (maxWaitMillis < 0)
+      throw new IllegalArgumentException("maxWaitMillis must not be negative");
+    this.maxWaitMillis = maxWaitMillis;
+    return this;
+  }
+
+  /**
+   * Sets the {@code Retry-After} hint of rejected calls; 1 second by default.
+   *
+   * @param retryAfterSeconds  the time in seconds
+   */
+  public AdmissionController setRetryAfterSeconds(int retryAfterSeconds) {
+    if (retryAfterSeconds < 0)
+      throw new IllegalArgumentException("retryAfterSeconds must not be negative");
+    this.retryAfterSeconds = retryAfterSeconds;
+    return this;
+  }
+
+  /**
+   * Admits a request to the service.
+   *
+   * @param deadline  the deadline of the request, or null
+   * @return the permit to release when the request completes
+   * @throws ServiceUnavailableException  if the service is saturated
+   */
+  public Permit admitRequest(RequestDeadline deadline) {
+    return admit(deadline, requestGate);
+  }
+
+  /**
+   * Admits a producer call on a declared entity set.
+   *
+   * @param entitySetName  the entity set (or function) name, or null for service-level operations
+   * @param operation  the operation
+   * @param deadline  the deadline of the request, or null
+   * @return the permit to release when the call completes
+   * @throws ServiceUnavailableException  if the entity set or operation is saturated
+   */
+  public Permit admit(String entitySetName, Operation operation, RequestDeadline deadline) {
+    return admit(entitySetName, true, operation, deadline);
+  }
+
+  /**
+   * Admits a producer call.  The {@link #setDefaultEntitySetLimit default limit} applies to declared
+   * entity sets only, so that names sent by clients do not each get a gate.
+   *
+   * @param entitySetName  the entity set (or function) name, or null for service-level operations
+   * @param declared  whether the entity set (or function) is declared in the metadata
+   * @param operation  the operation
+   * @param deadline  the deadline of the request, or null
+   * @return the permit to release when the call completes
+   * @throws ServiceUnavailableException  if the entity set or operation is saturated
+   */
+  public Permit admit(String entitySetName, boolean declared, Operation operation, RequestDeadline deadline) {
+    Gate operationGate;
+    synchronized (operationGates) {
+      operationGate = operationGates.get(operation);
+    }
+    return admit(deadline, entitySetName == null ? null : entitySetGate(entitySetName, declared), operationGate);
+  }
+
+  /**
+   * Takes a snapshot of the state of all gates: the request gate named {@link #REQUESTS}, then one per
+   * operation named after the {@link Operation}, then one per entity set.
+   */
+  public List<AdmissionStats> snapshot() {
+    List<AdmissionStats> rt = new ArrayList<AdmissionStats>();
+    Gate gate = requestGate;
+    if (gate != null)
+      rt.add(gate.snapshot());
+    synchronized (operationGates) {
+      for (Gate g : operationGates.values())
+        rt.add(g.snapshot());
+    }
+    for (Gate g : entitySetGates.values())
+      rt.add(g.snapshot());
+    for (Gate g : defaultGates.values())
+      rt.add(g.snapshot());
+    return rt;
+  }
+
+  private Gate entitySetGate(String entitySetName, boolean declared) {
+    Gate gate = entitySetGates.get(entitySetName);
+    if (gate != null || !declared)
+      return gate;
+    while (true) {
+      int limit = defaultEntitySetLimit;
+      if (limit == 0)
+        return null;
+      gate = defaultGates.get(entitySetName);
+      if (gate != null && gate.limit == limit)
+        return gate;
+      // a gate of an earlier default limit is replaced
+      Gate newGate = new Gate(entitySetName, limit);
+      if (gate == null ? defaultGates.putIfAbsent(entitySetName, newGate) == null : defaultGates.replace(entitySetName, gate, newGate))
+        return newGate;
+    }
+  }
+
+  private Permit admit(RequestDeadline deadline, Gate... gates) {
+    List<Gate> acquired = new ArrayList<Gate>(gates.length);
+    try {
+      for (Gate gate : gates) {
+        if (gate == null)
+          continue;
+        long waitMillis = maxWaitMillis;
+        if (deadline != null)
+          waitMillis = Math.min(waitMillis, deadline.getRemainingMillis());
+        if (!gate.acquire(waitMillis))
+          throw new ServiceUnavailableException("Too many concurrent requests for " + gate.name, null, retryAfterSeconds);
+        acquired.add(gate);
+      }
+    } catch (RuntimeException e) {
+      for (Gate gate : acquired)
+        gate.release();
+      throw e;
+    }
+    return new Permit(acquired);
+  }
+
+  private static Gate newGate(String name, int maxConcurrent) {
+    checkLimit(maxConcurrent);
+    return maxConcurrent == 0 ? null : new Gate(name, maxConcurrent);
+  }
+
+  private static void checkLimit(int maxConcurrent) {
+    if (maxConcurrent < 0)
+      throw new IllegalArgumentException("maxConcurrent must not be negative");
+  }
+
+  /**
+   * The right of an admitted call to execute, to be released exactly once when it completes;
+   * further releases are ignored.
+   */
+  public static class Permit {
+
+    private final List<Gate> gates;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(List<Gate> gates) {
+      this.gates = gates;
+    }
+
+    public void release() {
+      if (released.compareAndSet(false, true)) {
+        for (Gate gate : gates)
+          gate.release();
+      }
+    }
+  }
+
+  private static class Gate {
+    final String name;
+    final int limit;
+    final Semaphore permits;
+    final AtomicInteger waiting = new AtomicInteger();
+    final AtomicLong admitted = new AtomicLong();
+    final AtomicLong rejected = new AtomicLong();
+
+    Gate(String name, int limit) {
+      this.name = name;
+      this.limit = limit;
+      this.permits = new Semaphore(limit, true);
+    }
+
+    boolean acquire(long waitMillis) {
+      boolean rt;
+      if (permits.tryAcquire()) {
+        rt = true;
+      } else if (waitMillis <= 0) {
+        rt = false;
+      } else {
+        waiting.incrementAndGet();
+        try {
+          rt = permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          rt = false;
+        } finally {
+          waiting.decrementAndGet();
+        }
+      }
+      (rt ? admitted : rejected).incrementAndGet();
+      return rt;
+    }
+
+    void release() {
+      permits.release();
+    }
+
+    AdmissionStats snapshot() {
+      return new AdmissionStats(name, limit, limit - permits.availablePermits(), waiting.get(), admitted.get(), rejected.get());
+    }
+  }
+
+}
@@ -0,0 +1,60 @@
+package org.odata4j.producer.admission;
+
+/**
+ * An immutable snapshot of the state of one admission gate.
+ *
+ * @see AdmissionController#snapshot()
+ */
+public class AdmissionStats {
+
+  private final String name;
+  private final int limit;
+  private final int active;
+  private final int waiting;
+  private final long admittedCount;
+  private final long rejectedCount;
+
+  AdmissionStats(String name, int limit, int active, int waiting, long admittedCount, long rejectedCount) {
+    this.name = name;
+    this.limit = limit;
+    this.active = active;
+    this.waiting = waiting;
+    this.admittedCount = admittedCount;
+    this.rejectedCount = rejectedCount;
+  }
+
+  /** Gets the name of the gate: {@link AdmissionController#REQUESTS}, an operation or an entity set. */
+  public String getName() {
+    return name;
+  }
+
+  /** Gets the number of calls the gate admits at the same time. */
+  public int getLimit() {
+    return limit;
+  }
+
+  /** Gets the number of calls holding a permit. */
+  public int getActive() {
+    return active;
+  }
+
+  /** Gets the number of calls waiting for a permit. */
+  public int getWaiting() {
+    return waiting;
+  }
+
+  public long getAdmittedCount() {
+    return admittedCount;
+  }
+
+  public long getRejectedCount() {
+    return rejectedCount;
+  }
+
+  @Override
+  public String toString() {
+    return name + "[limit=" + limit + ", active=" + active + ", waiting=" + waiting
+        + ", admitted=" + admittedCount + ", rejected=" + rejectedCount + "]";
+  }
+
+}
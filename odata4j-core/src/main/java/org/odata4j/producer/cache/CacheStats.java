@@ -0,0 +1,90 @@
+package org.odata4j.producer.cache;
+
+/**
+ * An immutable snapshot of the statistics of a {@link ResponseCache}.
+ *
+ * @see ResponseCache#getStats()
+ */
+public class CacheStats {
+
+  private final long hitCount;
+  private final long missCount;
+  private final long serializedHitCount;
+  private final long serializedMissCount;
+  private final long evictionCount;
+  private final long invalidationCount;
+  private final int size;
+  private final int serializedSize;
+  private final long serializedBytes;
+
+  CacheStats(long hitCount, long missCount, long serializedHitCount, long serializedMissCount, long evictionCount,
+      long invalidationCount, int size, int serializedSize, long serializedBytes) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.serializedHitCount = serializedHitCount;
+    this.serializedMissCount = serializedMissCount;
+    this.evictionCount = evictionCount;
+    this.invalidationCount = invalidationCount;
+    this.size = size;
+    this.serializedSize = serializedSize;
+    this.serializedBytes = serializedBytes;
+  }
+
+  /** Gets the number of producer calls answered from the cache. */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /** Gets the number of cacheable producer calls passed on to the producer. */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /** Gets the hit rate as a fraction of all cacheable producer calls. */
+  public double getHitRate() {
+    long count = hitCount + missCount;
+    return count == 0 ? 0 : (double) hitCount / count;
+  }
+
+  /** Gets the number of requests answered with a cached payload. */
+  public long getSerializedHitCount() {
+    return serializedHitCount;
+  }
+
+  public long getSerializedMissCount() {
+    return serializedMissCount;
+  }
+
+  /** Gets the number of entries of both tiers discarded to make room for others. */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /** Gets the number of entries of both tiers discarded because an entity set changed. */
+  public long getInvalidationCount() {
+    return invalidationCount;
+  }
+
+  /** Gets the number of cached responses. */
+  public int getSize() {
+    return size;
+  }
+
+  /** Gets the number of cached payloads. */
+  public int getSerializedSize() {
+    return serializedSize;
+  }
+
+  /** Gets the total size of the cached payloads. */
+  public long getSerializedBytes() {
+    return serializedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStats[hits=" + hitCount + ", misses=" + missCount + ", serializedHits=" + serializedHitCount
+        + ", serializedMisses=" + serializedMissCount + ", evictions=" + evictionCount + ", invalidations=" + invalidationCount
+        + ", size=" + size + ", serializedSize=" + serializedSize + ", serializedBytes=" + serializedBytes + "]";
+  }
+
+}
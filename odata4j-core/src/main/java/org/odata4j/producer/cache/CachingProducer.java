@@ -0,0 +1,289 @@
+package org.odata4j.producer.cache;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityId;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.core.OExtension;
+import org.odata4j.edm.EdmDataServices;
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.producer.BaseResponse;
+import org.odata4j.producer.ChangeSetExtension;
+import org.odata4j.producer.CountResponse;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.EntityResponse;
+import org.odata4j.producer.ODataContext;
+import org.odata4j.producer.ODataProducer;
+import org.odata4j.producer.ODataProducerDelegate;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.Responses;
+import org.odata4j.producer.cache.ResponseCache.Lookup;
+
+/**
+ * A producer decorator answering repeated reads of entity sets, entities, navigation properties and counts
+ * from a {@link ResponseCache}, and invalidating the cached responses of the entity sets it writes to.
+ *
+ * <pre>
+ * ResponseCache cache = new ResponseCache()
+ *     .setDefaultTimeToLive(0)
+ *     .setTimeToLive("Countries", 3600000)
+ *     .setTimeToLive("Currencies", 3600000);
+ * ODataProducer producer = new CachingProducer(new JPAProducer(...), cache);
+ * </pre>
+ *
+ * <p>Responses are cached as returned by the producer, with their entity lists made unmodifiable.
+ * Writes of a {@code $batch} change set invalidate the cache again when the change set completes,
+ * so that reads during the change set cannot leave responses of the previous state behind.</p>
+ */
+public class CachingProducer extends ODataProducerDelegate {
+
+  private final ODataProducer delegate;
+  private final ResponseCache cache;
+  private final ThreadLocal<Set<String>> changeSet = new ThreadLocal<Set<String>>();
+
+  public CachingProducer(ODataProducer delegate) {
+    this(delegate, new ResponseCache());
+  }
+
+  public CachingProducer(ODataProducer delegate, ResponseCache cache) {
+    this.delegate = delegate;
+    this.cache = cache;
+  }
+
+  @Override
+  public ODataProducer getDelegate() {
+    return delegate;
+  }
+
+  public ResponseCache getCache() {
+    return cache;
+  }
+
+  @Override
+  public EntitiesResponse getEntities(ODataContext context, String entitySetName, QueryInfo queryInfo) {
+    Lookup<Object> lookup = lookup("GetEntities", entitySetName, null, null, queryInfo);
+    Object cached = lookup == null ? null : lookup.get();
+    if (cached != null)
+      return (EntitiesResponse) cached;
+    EntitiesResponse rt = immutable(super.getEntities(context, entitySetName, queryInfo));
+    if (lookup != null)
+      lookup.put(rt);
+    return rt;
+  }
+
+  @Override
+  public CountResponse getEntitiesCount(ODataContext context, String entitySetName, QueryInfo queryInfo) {
+    Lookup<Object> lookup = lookup("GetEntitiesCount", entitySetName, null, null, queryInfo);
+    Object cached = lookup == null ? null : lookup.get();
+    if (cached != null)
+      return (CountResponse) cached;
+    CountResponse rt = super.getEntitiesCount(context, entitySetName, queryInfo);
+    if (lookup != null)
+      lookup.put(rt);
+    return rt;
+  }
+
+  @Override
+  public EntityResponse getEntity(ODataContext context, String entitySetName, OEntityKey entityKey, EntityQueryInfo queryInfo) {
+    Lookup<Object> lookup = lookup("GetEntity", entitySetName, entityKey, null, queryInfo);
+    Object cached = lookup == null ? null : lookup.get();
+    if (cached != null)
+      return (EntityResponse) cached;
+    EntityResponse rt = super.getEntity(context, entitySetName, entityKey, queryInfo);
+    if (lookup != null && rt != null && rt.getEntity() != null)
+      lookup.put(rt);
+    return rt;
+  }
+
+  @Override
+  public BaseResponse getNavProperty(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, QueryInfo queryInfo) {
+    Lookup<Object> lookup = lookup("GetNavProperty", entitySetName, entityKey, navProp, queryInfo);
+    Object cached = lookup == null ? null : lookup.get();
+    if (cached != null)
+      return (BaseResponse) cached;
+    BaseResponse rt = super.getNavProperty(context, entitySetName, entityKey, navProp, queryInfo);
+    // only entity responses are known to be immutable
+    if (rt instanceof EntitiesResponse) {
+      rt = immutable((EntitiesResponse) rt);
+      if (lookup != null)
+        lookup.put(rt);
+    } else if (rt instanceof EntityResponse && ((EntityResponse) rt).getEntity() != null) {
+      if (lookup != null)
+        lookup.put(rt);
+    }
+    return rt;
+  }
+
+  @Override
+  public CountResponse getNavPropertyCount(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, QueryInfo queryInfo) {
+    Lookup<Object> lookup = lookup("GetNavPropertyCount", entitySetName, entityKey, navProp, queryInfo);
+    Object cached = lookup == null ? null : lookup.get();
+    if (cached != null)
+      return (CountResponse) cached;
+    CountResponse rt = super.getNavPropertyCount(context, entitySetName, entityKey, navProp, queryInfo);
+    if (lookup != null)
+      lookup.put(rt);
+    return rt;
+  }
+
+  @Override
+  public EntityResponse createEntity(ODataContext context, String entitySetName, OEntity entity) {
+    try {
+      return super.createEntity(context, entitySetName, entity);
+    } finally {
+      invalidate(entitySetName);
+    }
+  }
+
+  @Override
+  public EntityResponse createEntity(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, OEntity entity) {
+    try {
+      return super.createEntity(context, entitySetName, entityKey, navProp, entity);
+    } finally {
+      invalidate(entitySetName, navProp);
+    }
+  }
+
+  @Override
+  public void deleteEntity(ODataContext context, String entitySetName, OEntityKey entityKey) {
+    try {
+      super.deleteEntity(context, entitySetName, entityKey);
+    } finally {
+      invalidate(entitySetName);
+    }
+  }
+
+  @Override
+  public void mergeEntity(ODataContext context, String entitySetName, OEntity entity) {
+    try {
+      super.mergeEntity(context, entitySetName, entity);
+    } finally {
+      invalidate(entitySetName);
+    }
+  }
+
+  @Override
+  public void updateEntity(ODataContext context, String entitySetName, OEntity entity) {
+    try {
+      super.updateEntity(context, entitySetName, entity);
+    } finally {
+      invalidate(entitySetName);
+    }
+  }
+
+  @Override
+  public void createLink(ODataContext context, OEntityId sourceEntity, String targetNavProp, OEntityId targetEntity) {
+    try {
+      super.createLink(context, sourceEntity, targetNavProp, targetEntity);
+    } finally {
+      invalidate(sourceEntity.getEntitySetName(), targetNavProp);
+    }
+  }
+
+  @Override
+  public void updateLink(ODataContext context, OEntityId sourceEntity, String targetNavProp, OEntityKey oldTargetEntityKey, OEntityId newTargetEntity) {
+    try {
+      super.updateLink(context, sourceEntity, targetNavProp, oldTargetEntityKey, newTargetEntity);
+    } finally {
+      invalidate(sourceEntity.getEntitySetName(), targetNavProp);
+    }
+  }
+
+  @Override
+  public void deleteLink(ODataContext context, OEntityId sourceEntity, String targetNavProp, OEntityKey targetEntityKey) {
+    try {
+      super.deleteLink(context, sourceEntity, targetNavProp, targetEntityKey);
+    } finally {
+      invalidate(sourceEntity.getEntitySetName(), targetNavProp);
+    }
+  }
+
+  @Override
+  public <TExtension extends OExtension<ODataProducer>> TExtension findExtension(Class<TExtension> clazz) {
+    if (clazz.isInstance(cache))
+      return clazz.cast(cache);
+    if (clazz == ChangeSetExtension.class) {
+      ChangeSetExtension changeSets = super.findExtension(ChangeSetExtension.class);
+      return changeSets == null ? null : clazz.cast(new InvalidatingChangeSetExtension(changeSets));
+    }
+    return super.findExtension(clazz);
+  }
+
+  private Lookup<Object> lookup(String operation, String entitySetName, OEntityKey entityKey, String navProp, QueryInfo queryInfo) {
+    EdmDataServices metadata = getMetadata();
+    if (metadata.findEdmEntitySet(entitySetName) == null)
+      return null;
+    Lookup<Object> rt = cache.lookupResponse(metadata, operation, entitySetName, entityKey == null ? null : entityKey.toKeyString(), navProp, queryInfo);
+    return rt.isCacheable() ? rt : null;
+  }
+
+  private static EntitiesResponse immutable(EntitiesResponse response) {
+    if (response == null || response.getEntities() == null)
+      return response;
+    return Responses.entities(Collections.unmodifiableList(response.getEntities()), response.getEntitySet(),
+        response.getInlineCount(), response.getSkipToken());
+  }
+
+  private void invalidate(String entitySetName, String navProp) {
+    invalidate(entitySetName);
+    EdmDataServices metadata = getMetadata();
+    EdmEntitySet entitySet = metadata.findEdmEntitySet(entitySetName);
+    EdmEntitySet target = entitySet == null ? null : ResponseCache.navigate(metadata, entitySet, navProp);
+    if (target != null)
+      invalidate(target.getName());
+  }
+
+  private void invalidate(String entitySetName) {
+    cache.invalidate(entitySetName);
+    Set<String> touched = changeSet.get();
+    if (touched != null)
+      touched.add(entitySetName);
+  }
+
+  private class InvalidatingChangeSetExtension implements ChangeSetExtension {
+
+    private final ChangeSetExtension changeSets;
+
+    InvalidatingChangeSetExtension(ChangeSetExtension changeSets) {
+      this.changeSets = changeSets;
+    }
+
+    @Override
+    public void beginChangeSet(ODataContext context) {
+      changeSets.beginChangeSet(context);
+      changeSet.set(new HashSet<String>());
+    }
+
+    @Override
+    public void commitChangeSet(ODataContext context) {
+      try {
+        changeSets.commitChangeSet(context);
+      } finally {
+        end();
+      }
+    }
+
+    @Override
+    public void rollbackChangeSet(ODataContext context) {
+      try {
+        changeSets.rollbackChangeSet(context);
+      } finally {
+        end();
+      }
+    }
+
+    private void end() {
+      Set<String> touched = changeSet.get();
+      changeSet.remove();
+      if (touched != null) {
+        for (String entitySetName : touched)
+          cache.invalidate(entitySetName);
+      }
+    }
+  }
+
+}
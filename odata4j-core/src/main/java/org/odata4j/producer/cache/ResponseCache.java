@@ -0,0 +1,388 @@
+package org.odata4j.producer.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.odata4j.core.OExtension;
+import org.odata4j.edm.EdmDataServices;
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmEntityType;
+import org.odata4j.edm.EdmNavigationProperty;
+import org.odata4j.expression.EntitySimpleProperty;
+import org.odata4j.producer.NormalizedQuery;
+import org.odata4j.producer.ODataProducer;
+import org.odata4j.producer.QueryInfo;
+
+/**
+ * Thread-safe, in-process cache of producer responses, with a least recently used eviction policy.
+ *
+ * <p>The cache has two tiers: responses as returned by the producer, filled by a {@link CachingProducer},
+ * and optionally their serialized payloads, filled by the resources for entity set queries and served only
+ * for the response they were serialized from (see {@link SerializedResponse}).  Entries live
+ * for the {@link #setTimeToLive time to live} of their entity set, and are invalidated as soon as the
+ * entity set, or one they navigate to or expand, is changed through the {@link CachingProducer}.  Changes
+ * that bypass it, like writes of functions or of other applications, only show when entries expire, or
+ * after {@link #invalidate(String)}.</p>
+ *
+ * <p>Responses are shared by all users: do not cache entity sets whose content depends on the user.</p>
+ *
+ * <p>A {@link CachingProducer} exposes its cache as a producer extension:
+ * <code>producer.findExtension(ResponseCache.class)</code>.</p>
+ */
+public class ResponseCache implements OExtension<ODataProducer> {
+
+  private final Object lock = new Object();
+  private final Tier responses = new Tier(false, 1000);
+  private final Tier serialized = new Tier(true, 0);
+  private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<String, AtomicLong>();
+  private final AtomicLong epoch = new AtomicLong();
+  private final ConcurrentMap<String, Long> timeToLive = new ConcurrentHashMap<String, Long>();
+  private volatile long defaultTimeToLive = 60000;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong serializedHitCount = new AtomicLong();
+  private final AtomicLong serializedMissCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+  private final AtomicLong invalidationCount = new AtomicLong();
+
+  /**
+   * Sets how long responses of entity sets without a time to live of their own are cached; one minute by default.
+   *
+   * @param timeToLiveMillis  the time in milliseconds, or 0 to cache nothing by default
+   */
+  public ResponseCache setDefaultTimeToLive(long timeToLiveMillis) {
+    checkTimeToLive(timeToLiveMillis);
+    defaultTimeToLive = timeToLiveMillis;
+    return this;
+  }
+
+  /**
+   * Sets how long responses of an entity set are cached.
+   *
+   * @param entitySetName  the entity set name
+   * @param timeToLiveMillis  the time in milliseconds, or 0 not to cache the entity set
+   */
+  public ResponseCache setTimeToLive(String entitySetName, long timeToLiveMillis) {
+    checkTimeToLive(timeToLiveMillis);
+    timeToLive.put(entitySetName, timeToLiveMillis);
+    return this;
+  }
+
+  /**
+   * Gets how long responses of an entity set are cached.
+   *
+   * @return the time in milliseconds, 0 if the entity set is not cached
+   */
+  public long getTimeToLive(String entitySetName) {
+    Long rt = timeToLive.get(entitySetName);
+    return rt == null ? defaultTimeToLive : rt;
+  }
+
+  /**
+   * Sets the number of responses kept; 1000 by default.
+   *
+   * @param maxEntries  the number of responses
+   */
+  public ResponseCache setMaxEntries(int maxEntries) {
+    if (maxEntries < 0)
+      throw new IllegalArgumentException("maxEntries must not be negative");
+    synchronized (lock) {
+      responses.maxWeight = maxEntries;
+      responses.evict();
+    }
+    return this;
+  }
+
+  /**
+   * Sets the total size of the serialized payloads kept; 0, i.e. no serialized tier, by default.
+   *
+   * @param maxBytes  the size in bytes, or 0 to keep no serialized payloads
+   */
+  public ResponseCache setMaxSerializedBytes(long maxBytes) {
+    if (maxBytes < 0)
+      throw new IllegalArgumentException("maxBytes must not be negative");
+    synchronized (lock) {
+      serialized.maxWeight = maxBytes;
+      serialized.evict();
+    }
+    return this;
+  }
+
+  public boolean isSerializedTierEnabled() {
+    return serialized.maxWeight > 0;
+  }
+
+  /**
+   * Looks up a response of the producer.
+   *
+   * @param metadata  the metadata of the producer, to find the entity sets the response depends on
+   * @param operation  the name of the producer operation
+   * @param entitySetName  the entity set name
+   * @param entityKey  the entity key string, or null
+   * @param navProp  the navigation property, or null
+   * @param queryInfo  the query, or null
+   * @return the lookup
+   */
+  Lookup<Object> lookupResponse(EdmDataServices metadata, String operation, String entitySetName, String entityKey, String navProp, QueryInfo queryInfo) {
+    String key = operation + "|" + entitySetName + "|" + entityKey + "|" + navProp + "|" + NormalizedQuery.of(queryInfo);
+    return new Lookup<Object>(responses, key, entitySetName, dependencies(metadata, entitySetName, navProp, queryInfo), hitCount, missCount);
+  }
+
+  /**
+   * Looks up the serialized payload of an entity set query.
+   *
+   * @param metadata  the metadata of the producer, to find the entity sets the payload depends on
+   * @param entitySetName  the entity set name
+   * @param queryInfo  the query, or null
+   * @param variant  what else the payload depends on, like the format, the base uri and the user
+   * @return the lookup
+   */
+  public Lookup<SerializedResponse> lookupSerialized(EdmDataServices metadata, String entitySetName, QueryInfo queryInfo, String variant) {
+    String key = entitySetName + "|" + NormalizedQuery.of(queryInfo) + "|" + variant;
+    return new Lookup<SerializedResponse>(serialized, key, entitySetName, dependencies(metadata, entitySetName, null, queryInfo),
+        serializedHitCount, serializedMissCount);
+  }
+
+  /**
+   * Discards all entries depending on an entity set.
+   *
+   * @param entitySetName  the entity set name
+   */
+  public void invalidate(String entitySetName) {
+    generation(entitySetName).incrementAndGet();
+    synchronized (lock) {
+      invalidationCount.addAndGet(responses.invalidate(entitySetName) + serialized.invalidate(entitySetName));
+    }
+  }
+
+  /** Discards all entries. */
+  public void invalidateAll() {
+    epoch.incrementAndGet();
+    synchronized (lock) {
+      invalidationCount.addAndGet(responses.invalidate(null) + serialized.invalidate(null));
+    }
+  }
+
+  /** Takes a snapshot of the hit and miss statistics and the size of the cache. */
+  public CacheStats getStats() {
+    synchronized (lock) {
+      return new CacheStats(hitCount.get(), missCount.get(), serializedHitCount.get(), serializedMissCount.get(),
+          evictionCount.get(), invalidationCount.get(), responses.entries.size(), serialized.entries.size(), serialized.weight);
+    }
+  }
+
+  private AtomicLong generation(String entitySetName) {
+    AtomicLong rt = generations.get(entitySetName);
+    if (rt == null) {
+      AtomicLong newGeneration = new AtomicLong();
+      rt = generations.putIfAbsent(entitySetName, newGeneration);
+      if (rt == null)
+        rt = newGeneration;
+    }
+    return rt;
+  }
+
+  // does not create generations, so that lookups of unknown entity sets leave no trace
+  private long getGeneration(String entitySetName) {
+    AtomicLong rt = generations.get(entitySetName);
+    return rt == null ? 0 : rt.get();
+  }
+
+  private static void checkTimeToLive(long timeToLiveMillis) {
+    if (timeToLiveMillis < 0)
+      throw new IllegalArgumentException("timeToLiveMillis must not be negative");
+  }
+
+  // the entity set itself, and the ones reached by the navigation property and the expanded properties
+  private static Set<String> dependencies(EdmDataServices metadata, String entitySetName, String navProp, QueryInfo queryInfo) {
+    Set<String> rt = new HashSet<String>();
+    rt.add(entitySetName);
+    EdmEntitySet entitySet = metadata.findEdmEntitySet(entitySetName);
+    if (entitySet == null)
+      return rt;
+    if (navProp != null) {
+      entitySet = navigate(metadata, entitySet, navProp);
+      if (entitySet == null)
+        return rt;
+      rt.add(entitySet.getName());
+    }
+    if (queryInfo != null && queryInfo.expand != null) {
+      for (EntitySimpleProperty expand : queryInfo.expand) {
+        EdmEntitySet current = entitySet;
+        for (String segment : expand.getPropertyName().split("/")) {
+          current = navigate(metadata, current, segment);
+          if (current == null)
+            break;
+          rt.add(current.getName());
+        }
+      }
+    }
+    return rt;
+  }
+
+  static EdmEntitySet navigate(EdmDataServices metadata, EdmEntitySet entitySet, String navProp) {
+    EdmNavigationProperty property = entitySet.getType().findNavigationProperty(navProp);
+    if (property == null)
+      return null;
+    EdmEntityType targetType = property.getToRole().getType();
+    return metadata.getEdmEntitySet(targetType);
+  }
+
+  /**
+   * The entry of a value in the cache, looked up before the value is produced, to store it afterwards
+   * unless the entity sets it depends on changed in the meantime.
+   */
+  public class Lookup<T> {
+
+    private final Tier tier;
+    private final String key;
+    private final Set<String> dependencies;
+    private final long timeToLiveMillis;
+    private final Map<String, Long> generationsBefore = new HashMap<String, Long>();
+    private final long epochBefore;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    private Lookup(Tier tier, String key, String entitySetName, Set<String> dependencies, AtomicLong hits, AtomicLong misses) {
+      this.tier = tier;
+      this.key = key;
+      this.dependencies = dependencies;
+      this.timeToLiveMillis = tier.maxWeight > 0 ? getTimeToLive(entitySetName) : 0;
+      this.hits = hits;
+      this.misses = misses;
+      this.epochBefore = epoch.get();
+      for (String dependency : dependencies)
+        generationsBefore.put(dependency, getGeneration(dependency));
+    }
+
+    /** Returns true if values of this entry are cached at all. */
+    public boolean isCacheable() {
+      return timeToLiveMillis > 0;
+    }
+
+    /**
+     * Gets the cached value.
+     *
+     * @return the value, or null if none is cached or the entry is not cacheable
+     */
+    @SuppressWarnings("unchecked")
+    public T get() {
+      if (!isCacheable())
+        return null;
+      Object rt;
+      synchronized (lock) {
+        rt = tier.get(key);
+      }
+      (rt == null ? misses : hits).incrementAndGet();
+      return (T) rt;
+    }
+
+    /**
+     * Caches a value, unless an entity set it depends on changed since the lookup.
+     *
+     * @param value  the value, must be immutable
+     */
+    public void put(T value) {
+      if (!isCacheable() || value == null)
+        return;
+      long weight = tier.weighBytes ? ((SerializedResponse) value).getData().length : 1;
+      synchronized (lock) {
+        if (epoch.get() != epochBefore)
+          return;
+        for (Map.Entry<String, Long> before : generationsBefore.entrySet()) {
+          if (getGeneration(before.getKey()) != before.getValue())
+            return;
+        }
+        tier.put(key, new Entry(value, weight, dependencies, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis)));
+      }
+    }
+
+  }
+
+  private static class Entry {
+    final Object value;
+    final long weight;
+    final Set<String> dependencies;
+    final long expiresNanos;
+
+    Entry(Object value, long weight, Set<String> dependencies, long expiresNanos) {
+      this.value = value;
+      this.weight = weight;
+      this.dependencies = Collections.unmodifiableSet(dependencies);
+      this.expiresNanos = expiresNanos;
+    }
+  }
+
+  // the entries are guarded by lock; responses weigh 1, serialized payloads their size in bytes
+  private class Tier {
+    final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    final boolean weighBytes;
+    long weight;
+    volatile long maxWeight;
+
+    Tier(boolean weighBytes, long maxWeight) {
+      this.weighBytes = weighBytes;
+      this.maxWeight = maxWeight;
+    }
+
+    Object get(String key) {
+      Entry entry = entries.get(key);
+      if (entry == null)
+        return null;
+      if (entry.expiresNanos - System.nanoTime() <= 0) {
+        remove(key);
+        return null;
+      }
+      return entry.value;
+    }
+
+    void put(String key, Entry entry) {
+      if (entry.weight > maxWeight)
+        return;
+      remove(key);
+      entries.put(key, entry);
+      weight += entry.weight;
+      evict();
+    }
+
+    void evict() {
+      Iterator<Entry> it = entries.values().iterator();
+      while (weight > maxWeight && it.hasNext()) {
+        weight -= it.next().weight;
+        it.remove();
+        evictionCount.incrementAndGet();
+      }
+    }
+
+    int invalidate(String entitySetName) {
+      int rt = 0;
+      Iterator<Entry> it = entries.values().iterator();
+      while (it.hasNext()) {
+        Entry entry = it.next();
+        if (entitySetName == null || entry.dependencies.contains(entitySetName)) {
+          weight -= entry.weight;
+          it.remove();
+          rt++;
+        }
+      }
+      return rt;
+    }
+
+    private void remove(String key) {
+      Entry entry = entries.remove(key);
+      if (entry != null)
+        weight -= entry.weight;
+    }
+  }
+
+}
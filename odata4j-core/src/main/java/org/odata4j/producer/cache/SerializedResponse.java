@@ -0,0 +1,58 @@
+package org.odata4j.producer.cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+
+/**
+ * A serialized response payload, as kept in the serialized tier of a {@link ResponseCache}.
+ *
+ * <p>A payload is tied to the producer response it was serialized from: it is served only for that
+ * very response, as returned again by a {@link CachingProducer}.  Every request is therefore still
+ * passed through all producer decorators, and a decorator returning a different response for the
+ * same query, e.g. one filtering entities per user, never gets the payload of another.</p>
+ */
+public class SerializedResponse {
+
+  private final String contentType;
+  private final byte[] data;
+  private final Reference<Object> source;
+
+  /**
+   * @param contentType  the content type, including the charset of the data
+   * @param data  the payload; not copied, must not be modified afterwards
+   */
+  public SerializedResponse(String contentType, byte[] data) {
+    this(contentType, data, null);
+  }
+
+  /**
+   * @param contentType  the content type, including the charset of the data
+   * @param data  the payload; not copied, must not be modified afterwards
+   * @param source  the producer response serialized, or null
+   */
+  public SerializedResponse(String contentType, byte[] data, Object source) {
+    this.contentType = contentType;
+    this.data = data;
+    this.source = source == null ? null : new WeakReference<Object>(source);
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  /** Gets the payload; must not be modified. */
+  public byte[] getData() {
+    return data;
+  }
+
+  /**
+   * Tells whether this payload was serialized from a producer response.
+   *
+   * @param response  the producer response
+   * @return true if the payload is the serialization of this very response
+   */
+  public boolean isSerializedFrom(Object response) {
+    return source != null && response != null && source.get() == response;
+  }
+
+}
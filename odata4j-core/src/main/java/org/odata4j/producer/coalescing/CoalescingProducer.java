@@ -0,0 +1,185 @@
+package org.odata4j.producer.coalescing;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ws.rs.core.SecurityContext;
+
+import org.odata4j.exceptions.ODataProducerException;
+import org.odata4j.exceptions.ServiceUnavailableException;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.NormalizedQuery;
+import org.odata4j.producer.ODataContext;
+import org.odata4j.producer.ODataProducer;
+import org.odata4j.producer.ODataProducerDelegate;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.RequestDeadline;
+import org.odata4j.producer.Responses;
+
+/**
+ * A producer decorator executing identical concurrent {@link #getEntities} calls only once.
+ *
+ * <p>Calls are identical if they query the same entity set with the same {@link NormalizedQuery normalized}
+ * query options on behalf of the same user, as told by the {@link SecurityContext} of the request.  The
+ * first call executes the query; calls arriving while it runs wait for it and share its response, whose
+ * entity list is made unmodifiable.  Nothing is kept once the call completes: the next call executes
+ * the query again.</p>
+ *
+ * <p>A waiting call gives up after {@link #setMaxWaitMillis max wait}, or when its request deadline
+ * has passed, and executes the query on its own.  It does the same if the first call fails for other
+ * reasons than a bad request, so that one cancelled or timed out request does not fail the others.</p>
+ *
+ * <pre>
+ * ODataProducer producer = new CoalescingProducer(new JdbcProducer(...));
+ * </pre>
+ */
+public class CoalescingProducer extends ODataProducerDelegate {
+
+  private final ODataProducer delegate;
+  private final ConcurrentMap<Key, Call> inFlight = new ConcurrentHashMap<Key, Call>();
+  private final AtomicLong executionCount = new AtomicLong();
+  private final AtomicLong coalescedCount = new AtomicLong();
+  private final AtomicLong abandonedCount = new AtomicLong();
+  private volatile long maxWaitMillis = 30000;
+
+  public CoalescingProducer(ODataProducer delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public ODataProducer getDelegate() {
+    return delegate;
+  }
+
+  /**
+   * Sets how long a call waits for an identical call in flight before it executes on its own; 30 seconds by default.
+   *
+   * @param maxWaitMillis  the time in milliseconds
+   */
+  public CoalescingProducer setMaxWaitMillis(long maxWaitMillis) {
+    if (maxWaitMillis < 0)
+      throw new IllegalArgumentException("maxWaitMillis must not be negative");
+    this.maxWaitMillis = maxWaitMillis;
+    return this;
+  }
+
+  /** Gets the number of calls that executed the query. */
+  public long getExecutionCount() {
+    return executionCount.get();
+  }
+
+  /** Gets the number of calls that waited for an identical call in flight. */
+  public long getCoalescedCount() {
+    return coalescedCount.get();
+  }
+
+  /** Gets the number of waiting calls that had to execute the query on their own after all. */
+  public long getAbandonedCount() {
+    return abandonedCount.get();
+  }
+
+  /** Gets the number of distinct calls executing right now. */
+  public int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  @Override
+  public EntitiesResponse getEntities(ODataContext context, String entitySetName, QueryInfo queryInfo) {
+    Key key = new Key(entitySetName, NormalizedQuery.of(queryInfo), getPrincipalName(context));
+    Call call = new Call();
+    Call existing = inFlight.putIfAbsent(key, call);
+    if (existing == null)
+      return execute(key, call, context, entitySetName, queryInfo);
+
+    coalescedCount.incrementAndGet();
+    RequestDeadline deadline = RequestDeadline.get(context);
+    long waitMillis = maxWaitMillis;
+    if (deadline != null)
+      waitMillis = Math.min(waitMillis, deadline.getRemainingMillis());
+    if (existing.await(waitMillis)) {
+      if (existing.completed)
+        return existing.response;
+      if (existing.failure instanceof ODataProducerException && !(existing.failure instanceof ServiceUnavailableException))
+        throw existing.failure;
+    }
+    if (deadline != null)
+      deadline.check();
+    abandonedCount.incrementAndGet();
+    return super.getEntities(context, entitySetName, queryInfo);
+  }
+
+  private EntitiesResponse execute(Key key, Call call, ODataContext context, String entitySetName, QueryInfo queryInfo) {
+    executionCount.incrementAndGet();
+    try {
+      EntitiesResponse rt = super.getEntities(context, entitySetName, queryInfo);
+      if (rt != null && rt.getEntities() != null)
+        rt = Responses.entities(Collections.unmodifiableList(rt.getEntities()), rt.getEntitySet(), rt.getInlineCount(), rt.getSkipToken());
+      call.response = rt;
+      call.completed = true;
+      return rt;
+    } catch (RuntimeException e) {
+      call.failure = e;
+      throw e;
+    } finally {
+      // leave before waking up the waiting calls, so that no call joins a completed one
+      inFlight.remove(key, call);
+      call.done.countDown();
+    }
+  }
+
+  private static String getPrincipalName(ODataContext context) {
+    SecurityContext securityContext = context == null ? null : context.getContextAspect(SecurityContext.class);
+    Principal principal = securityContext == null ? null : securityContext.getUserPrincipal();
+    return principal == null ? null : principal.getName();
+  }
+
+  private static class Call {
+    final CountDownLatch done = new CountDownLatch(1);
+    volatile boolean completed;
+    volatile EntitiesResponse response;
+    volatile RuntimeException failure;
+
+    boolean await(long waitMillis) {
+      try {
+        return done.await(waitMillis, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+  }
+
+  private static class Key {
+    final String entitySetName;
+    final String query;
+    final String principalName;
+
+    Key(String entitySetName, String query, String principalName) {
+      this.entitySetName = entitySetName;
+      this.query = query;
+      this.principalName = principalName;
+    }
+
+    @Override
+    public int hashCode() {
+      int rt = entitySetName.hashCode();
+      rt = 31 * rt + query.hashCode();
+      return 31 * rt + (principalName == null ? 0 : principalName.hashCode());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key))
+        return false;
+      Key other = (Key) obj;
+      return entitySetName.equals(other.entitySetName) && query.equals(other.query)
+          && (principalName == null ? other.principalName == null : principalName.equals(other.principalName));
+    }
+  }
+
+}
@@ -13,6 +13,7 @@ import org.odata4j.core.Throwables;
 import org.odata4j.edm.EdmDataServices;
 import org.odata4j.edm.EdmDataServicesProvider;
 import org.odata4j.edm.EdmFunctionImport;
+import org.odata4j.exceptions.ODataProducerException;
 import org.odata4j.producer.BaseResponse;
 import org.odata4j.producer.CountResponse;
 import org.odata4j.producer.EntitiesResponse;
@@ -22,6 +23,7 @@ import org.odata4j.producer.EntityResponse;
 import org.odata4j.producer.ODataContext;
 import org.odata4j.producer.ODataProducer;
 import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.RequestDeadline;
 import org.odata4j.producer.edm.MetadataProducer;
 
 public class CommandProducer implements ODataProducer {
@@ -32,17 +34,29 @@ public class CommandProducer implements ODataProducer {
     this.backend = backend;
   }
 
+  /**
+   * Executes the command for a context type.  The deadline of the request is bound to the current thread
+   * while the command runs, so the backend can honor it with {@link RequestDeadline#current()}.
+   */
   private <TResult, TContext extends ProducerCommandContext<TResult>>
-      TResult executeCommand(Class<TContext> contextType, Class<TResult> resultType, TContext context) {
+      TResult executeCommand(ODataContext odataContext, Class<TContext> contextType, Class<TResult> resultType, TContext context) {
+    RequestDeadline deadline = RequestDeadline.get(odataContext);
+    if (deadline != null)
+      deadline.check();
     Command<TContext> command = backend.getCommand(contextType);
     CommandExecution execution = backend.getCommandExecution();
+    RequestDeadline previous = RequestDeadline.bind(deadline);
     try {
       execution.execute(command, context);
       TResult result = context.getResult();
       if (result != null)
         return result;
     } catch (Exception e) {
+      if (deadline != null && deadline.isExpired() && !(e instanceof ODataProducerException))
+        throw deadline.exceeded(e);
       throw Throwables.propagate(e);
+    } finally {
+      RequestDeadline.bind(previous);
     }
     if (resultType.equals(Void.class)) {
       return null; // ok for Void
@@ -52,92 +66,92 @@ public class CommandProducer implements ODataProducer {
 
   @Override
   public EdmDataServices getMetadata() {
-    return executeCommand(GetMetadataCommandContext.class, EdmDataServicesProvider.class, backend.newGetMetadataCommandContext()).getMetadata();
+    return executeCommand(null, GetMetadataCommandContext.class, EdmDataServicesProvider.class, backend.newGetMetadataCommandContext()).getMetadata();
   }
 
   @Override
   public MetadataProducer getMetadataProducer() {
-    return executeCommand(GetMetadataProducerCommandContext.class, MetadataProducer.class, backend.newGetMetadataProducerCommandContext());
+    return executeCommand(null, GetMetadataProducerCommandContext.class, MetadataProducer.class, backend.newGetMetadataProducerCommandContext());
   }
 
   @Override
   public EntitiesResponse getEntities(ODataContext context, String entitySetName, QueryInfo queryInfo) {
-    return executeCommand(GetEntitiesCommandContext.class, EntitiesResponse.class, backend.newGetEntitiesCommandContext(entitySetName, queryInfo));
+    return executeCommand(context, GetEntitiesCommandContext.class, EntitiesResponse.class, backend.newGetEntitiesCommandContext(entitySetName, queryInfo));
   }
 
   @Override
   public CountResponse getEntitiesCount(ODataContext context, String entitySetName, QueryInfo queryInfo) {
-    return executeCommand(GetEntitiesCountCommandContext.class, CountResponse.class, backend.newGetEntitiesCountCommandContext(entitySetName, queryInfo));
+    return executeCommand(context, GetEntitiesCountCommandContext.class, CountResponse.class, backend.newGetEntitiesCountCommandContext(entitySetName, queryInfo));
   }
 
   @Override
   public EntityResponse getEntity(ODataContext context, String entitySetName, OEntityKey entityKey, EntityQueryInfo queryInfo) {
-    return executeCommand(GetEntityCommandContext.class, EntityResponse.class, backend.newGetEntityCommandContext(entitySetName, entityKey, queryInfo));
+    return executeCommand(context, GetEntityCommandContext.class, EntityResponse.class, backend.newGetEntityCommandContext(entitySetName, entityKey, queryInfo));
   }
 
   @Override
   public BaseResponse getNavProperty(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, QueryInfo queryInfo) {
-    return executeCommand(GetNavPropertyCommandContext.class, BaseResponse.class, backend.newGetNavPropertyCommandContext(entitySetName, entityKey, navProp, queryInfo));
+    return executeCommand(context, GetNavPropertyCommandContext.class, BaseResponse.class, backend.newGetNavPropertyCommandContext(entitySetName, entityKey, navProp, queryInfo));
   }
 
   @Override
   public CountResponse getNavPropertyCount(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, QueryInfo queryInfo) {
-    return executeCommand(GetNavPropertyCountCommandContext.class, CountResponse.class, backend.newGetNavPropertyCountCommandContext(entitySetName, entityKey, navProp, queryInfo));
+    return executeCommand(context, GetNavPropertyCountCommandContext.class, CountResponse.class, backend.newGetNavPropertyCountCommandContext(entitySetName, entityKey, navProp, queryInfo));
   }
 
   @Override
   public void close() {
-    executeCommand(CloseCommandContext.class, Void.class, backend.newCloseCommandContext());
+    executeCommand(null, CloseCommandContext.class, Void.class, backend.newCloseCommandContext());
   }
 
   @Override
   public EntityResponse createEntity(ODataContext context, String entitySetName, OEntity entity) {
-    return executeCommand(CreateEntityCommandContext.class, EntityResponse.class, backend.newCreateEntityCommandContext(entitySetName, entity));
+    return executeCommand(context, CreateEntityCommandContext.class, EntityResponse.class, backend.newCreateEntityCommandContext(entitySetName, entity));
   }
 
   @Override
   public EntityResponse createEntity(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, OEntity entity) {
-    return executeCommand(CreateEntityAtPropertyCommandContext.class, EntityResponse.class, backend.newCreateEntityAtPropertyCommandContext(entitySetName, entityKey, navProp, entity));
+    return executeCommand(context, CreateEntityAtPropertyCommandContext.class, EntityResponse.class, backend.newCreateEntityAtPropertyCommandContext(entitySetName, entityKey, navProp, entity));
   }
 
   @Override
   public void deleteEntity(ODataContext context, String entitySetName, OEntityKey entityKey) {
-    executeCommand(DeleteEntityCommandContext.class, Void.class, backend.newDeleteEntityCommandContext(entitySetName, entityKey));
+    executeCommand(context, DeleteEntityCommandContext.class, Void.class, backend.newDeleteEntityCommandContext(entitySetName, entityKey));
   }
 
   @Override
   public void mergeEntity(ODataContext context, String entitySetName, OEntity entity) {
-    executeCommand(MergeEntityCommandContext.class, Void.class, backend.newMergeEntityCommandContext(entitySetName, entity));
+    executeCommand(context, MergeEntityCommandContext.class, Void.class, backend.newMergeEntityCommandContext(entitySetName, entity));
   }
 
   @Override
   public void updateEntity(ODataContext context, String entitySetName, OEntity entity) {
-    executeCommand(UpdateEntityCommandContext.class, Void.class, backend.newUpdateEntityCommandContext(entitySetName, entity));
+    executeCommand(context, UpdateEntityCommandContext.class, Void.class, backend.newUpdateEntityCommandContext(entitySetName, entity));
   }
 
   @Override
   public EntityIdResponse getLinks(ODataContext context, OEntityId sourceEntity, String targetNavProp) {
-    return executeCommand(GetLinksCommandContext.class, EntityIdResponse.class, backend.newGetLinksCommandContext(sourceEntity, targetNavProp));
+    return executeCommand(context, GetLinksCommandContext.class, EntityIdResponse.class, backend.newGetLinksCommandContext(sourceEntity, targetNavProp));
   }
 
   @Override
   public void createLink(ODataContext context, OEntityId sourceEntity, String targetNavProp, OEntityId targetEntity) {
-    executeCommand(CreateLinkCommandContext.class, Void.class, backend.newCreateLinkCommandContext(sourceEntity, targetNavProp, targetEntity));
+    executeCommand(context, CreateLinkCommandContext.class, Void.class, backend.newCreateLinkCommandContext(sourceEntity, targetNavProp, targetEntity));
   }
 
   @Override
   public void updateLink(ODataContext context, OEntityId sourceEntity, String targetNavProp, OEntityKey oldTargetEntityKey, OEntityId newTargetEntity) {
-    executeCommand(UpdateLinkCommandContext.class, Void.class, backend.newUpdateLinkCommandContext(sourceEntity, targetNavProp, oldTargetEntityKey, newTargetEntity));
+    executeCommand(context, UpdateLinkCommandContext.class, Void.class, backend.newUpdateLinkCommandContext(sourceEntity, targetNavProp, oldTargetEntityKey, newTargetEntity));
   }
 
   @Override
   public void deleteLink(ODataContext context, OEntityId sourceEntity, String targetNavProp, OEntityKey targetEntityKey) {
-    executeCommand(DeleteLinkCommandContext.class, Void.class, backend.newDeleteLinkCommandContext(sourceEntity, targetNavProp, targetEntityKey));
+    executeCommand(context, DeleteLinkCommandContext.class, Void.class, backend.newDeleteLinkCommandContext(sourceEntity, targetNavProp, targetEntityKey));
   }
 
   @Override
   public BaseResponse callFunction(ODataContext context, EdmFunctionImport name, Map<String, OFunctionParameter> params, QueryInfo queryInfo) {
-    return executeCommand(CallFunctionCommandContext.class, BaseResponse.class, backend.newCallFunctionCommandContext(name, params, queryInfo));
+    return executeCommand(context, CallFunctionCommandContext.class, BaseResponse.class, backend.newCallFunctionCommandContext(name, params, queryInfo));
   }
 
   @Override
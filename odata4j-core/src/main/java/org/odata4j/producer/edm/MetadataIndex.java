@@ -0,0 +1,161 @@
+package org.odata4j.producer.edm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.odata4j.edm.EdmComplexType;
+import org.odata4j.edm.EdmDataServices;
+import org.odata4j.edm.EdmEntityType;
+import org.odata4j.edm.EdmProperty;
+import org.odata4j.edm.EdmSchema;
+import org.odata4j.edm.EdmStructuralType;
+
+/**
+ * Name-indexed view of a model, used by {@link MetadataProducer} to answer queries
+ * without walking the whole model.
+ *
+ * <p>Lists keep the model order, so narrowed candidates page the same way as a full scan.
+ * Property lookups are keyed by the values the $filter variables resolve to, that is
+ * the namespace and name of the declaring type.</p>
+ */
+class MetadataIndex {
+
+  /** A property of a structural type, listed under the type it is queried through. */
+  static class PropertyEntry {
+
+    final EdmStructuralType queryType;
+    final EdmProperty property;
+
+    PropertyEntry(EdmStructuralType queryType, EdmProperty property) {
+      this.queryType = queryType;
+      this.property = property;
+    }
+  }
+
+  private final EdmDataServices metadata;
+  private final Map<String, EdmSchema> schemas = new LinkedHashMap<String, EdmSchema>();
+  private final TypeIndex entityTypes = new TypeIndex();
+  private final TypeIndex complexTypes = new TypeIndex();
+  private final Map<EdmStructuralType, List<EdmStructuralType>> subTypes = new HashMap<EdmStructuralType, List<EdmStructuralType>>();
+  private final List<PropertyEntry> properties = new ArrayList<PropertyEntry>();
+  private final Map<String, List<PropertyEntry>> propertiesByNamespace = new HashMap<String, List<PropertyEntry>>();
+  private final Map<String, List<PropertyEntry>> propertiesByTypeName = new HashMap<String, List<PropertyEntry>>();
+  private final Map<String, List<PropertyEntry>> propertiesByName = new HashMap<String, List<PropertyEntry>>();
+
+  MetadataIndex(EdmDataServices metadata) {
+    this.metadata = metadata;
+    for (EdmSchema schema : metadata.getSchemas()) {
+      if (!schemas.containsKey(schema.getNamespace()))
+        schemas.put(schema.getNamespace(), schema);
+    }
+    for (EdmComplexType ct : metadata.getComplexTypes())
+      complexTypes.add(ct);
+    for (EdmEntityType et : metadata.getEntityTypes())
+      entityTypes.add(et);
+
+    // root types first, each followed by its subtypes
+    for (EdmStructuralType st : complexTypes.all)
+      if (st.isRootType())
+        addProperties(st);
+    for (EdmStructuralType st : entityTypes.all)
+      if (st.isRootType())
+        addProperties(st);
+  }
+
+  /** Gets the model this index was built from. */
+  EdmDataServices getMetadata() {
+    return metadata;
+  }
+
+  Iterable<EdmSchema> getSchemas() {
+    return schemas.values();
+  }
+
+  EdmSchema findSchema(String namespace) {
+    return schemas.get(namespace);
+  }
+
+  /**
+   * Gets the entity or complex types with the given namespace and name.
+   *
+   * @param namespace  the namespace, or null for any
+   * @param name  the name, or null for any
+   */
+  List<EdmStructuralType> getStructuralTypes(boolean isEntity, String namespace, String name) {
+    return (isEntity ? entityTypes : complexTypes).find(namespace, name);
+  }
+
+  List<EdmStructuralType> getSubTypes(EdmStructuralType st) {
+    List<EdmStructuralType> rt = subTypes.get(st);
+    return rt == null ? Collections.<EdmStructuralType> emptyList() : rt;
+  }
+
+  /**
+   * Gets the properties whose declaring type has the given namespace and name.
+   *
+   * @param namespace  the namespace, or null for any
+   * @param typeName  the declaring type name, or null for any
+   * @param name  the property name, or null for any
+   */
+  List<PropertyEntry> getProperties(String namespace, String typeName, String name) {
+    List<PropertyEntry> rt = properties;
+    rt = narrower(rt, namespace, propertiesByNamespace);
+    rt = narrower(rt, typeName, propertiesByTypeName);
+    rt = narrower(rt, name, propertiesByName);
+    return rt;
+  }
+
+  private void addProperties(EdmStructuralType st) {
+    for (EdmProperty p : st.getProperties()) {
+      PropertyEntry entry = new PropertyEntry(st, p);
+      properties.add(entry);
+      add(propertiesByNamespace, p.getDeclaringType().getNamespace(), entry);
+      add(propertiesByTypeName, p.getDeclaringType().getName(), entry);
+      add(propertiesByName, p.getName(), entry);
+    }
+    for (EdmStructuralType subType : getSubTypes(st))
+      addProperties(subType);
+  }
+
+  private static <T> List<T> narrower(List<T> current, String key, Map<String, List<T>> index) {
+    if (key == null)
+      return current;
+    List<T> candidates = index.get(key);
+    if (candidates == null)
+      return Collections.emptyList();
+    return candidates.size() < current.size() ? candidates : current;
+  }
+
+  private static <K, T> void add(Map<K, List<T>> index, K key, T value) {
+    List<T> values = index.get(key);
+    if (values == null) {
+      values = new ArrayList<T>();
+      index.put(key, values);
+    }
+    values.add(value);
+  }
+
+  private class TypeIndex {
+
+    final List<EdmStructuralType> all = new ArrayList<EdmStructuralType>();
+    final Map<String, List<EdmStructuralType>> byNamespace = new HashMap<String, List<EdmStructuralType>>();
+    final Map<String, List<EdmStructuralType>> byName = new HashMap<String, List<EdmStructuralType>>();
+
+    void add(EdmStructuralType st) {
+      all.add(st);
+      MetadataIndex.add(byNamespace, st.getNamespace(), st);
+      MetadataIndex.add(byName, st.getName(), st);
+      if (st.getBaseType() != null)
+        MetadataIndex.add(subTypes, st.getBaseType(), st);
+    }
+
+    List<EdmStructuralType> find(String namespace, String name) {
+      return narrower(narrower(all, namespace, byNamespace), name, byName);
+    }
+  }
+
+}
@@ -3,7 +3,7 @@ package org.odata4j.producer.edm;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Stack;
 
 import org.core4j.Enumerable;
+import org.core4j.Predicate1;
 import org.odata4j.core.NamespacedAnnotation;
 import org.odata4j.core.OCollection;
 import org.odata4j.core.OCollection.Builder;
@@ -43,6 +44,13 @@ import org.odata4j.edm.EdmStructuralType;
 import org.odata4j.edm.EdmType;
 import org.odata4j.exceptions.NotFoundException;
 import org.odata4j.exceptions.NotImplementedException;
+import org.odata4j.expression.AndExpression;
+import org.odata4j.expression.BoolCommonExpression;
+import org.odata4j.expression.BoolParenExpression;
+import org.odata4j.expression.CommonExpression;
+import org.odata4j.expression.EntitySimpleProperty;
+import org.odata4j.expression.EqExpression;
+import org.odata4j.expression.StringLiteral;
 import org.odata4j.format.xml.EdmxFormatWriter;
 import org.odata4j.producer.BaseResponse;
 import org.odata4j.producer.CountResponse;
@@ -52,12 +60,14 @@ import org.odata4j.producer.EntityQueryInfo;
 import org.odata4j.producer.EntityResponse;
 import org.odata4j.producer.ExpressionEvaluator;
 import org.odata4j.producer.ExpressionEvaluator.VariableResolver;
+import org.odata4j.producer.InlineCount;
 import org.odata4j.producer.ODataContext;
 import org.odata4j.producer.ODataProducer;
 import org.odata4j.producer.PropertyPath;
 import org.odata4j.producer.PropertyPathHelper;
 import org.odata4j.producer.QueryInfo;
 import org.odata4j.producer.Responses;
+import org.odata4j.producer.edm.MetadataIndex.PropertyEntry;
 
 /**
  * A producer for $metadata.
@@ -89,9 +99,14 @@ public class MetadataProducer implements ODataProducer {
     public static final String Flatten = "flatten";
   }
 
+  /** The default maximum number of entities returned in a single call. */
+  public static final int DEFAULT_MAX_RESULTS = 1000;
+
   private final ODataProducer dataProducer;
   private final EdmDataServices edm;
   private final EdmDecorator decorator;
+  private final int maxResults;
+  private volatile MetadataIndex index;
 
   /**
    * Creates a new MetadataProducer.
@@ -103,8 +118,21 @@ public class MetadataProducer implements ODataProducer {
    *                       for other metadata properties
    */
   public MetadataProducer(ODataProducer dataProducer, EdmDecorator edmDecorator) {
+    this(dataProducer, edmDecorator, DEFAULT_MAX_RESULTS);
+  }
+
+  /**
+   * Creates a new MetadataProducer.
+   *
+   * @param dataProducer  the data producer who defines the $metadata we will expose
+   * @param edmDecorator  an optional decorator
+   * @param maxResults  the maximum number of entities to return in a single call;
+   *                     larger results are paged with a skip token
+   */
+  public MetadataProducer(ODataProducer dataProducer, EdmDecorator edmDecorator, int maxResults) {
     this.dataProducer = dataProducer;
     this.decorator = edmDecorator;
+    this.maxResults = maxResults;
     edm = new MetadataEdmGenerator().generateEdm(edmDecorator).build();
   }
 
@@ -119,6 +147,17 @@ public class MetadataProducer implements ODataProducer {
     return edm;
   }
 
+  private MetadataIndex getIndex() {
+    // the model of the data producer may be replaced at any time, e.g. by registering new entity sets
+    EdmDataServices model = dataProducer.getMetadata();
+    MetadataIndex rt = index;
+    if (rt == null || rt.getMetadata() != model) {
+      rt = new MetadataIndex(model);
+      index = rt;
+    }
+    return rt;
+  }
+
   // request context
   protected class Context implements VariableResolver {
 
@@ -130,6 +169,7 @@ public class MetadataProducer implements ODataProducer {
       this.entitySet = edm.findEdmEntitySet(entitySetName);
       this.queryInfo = queryInfo;
       this.entityKey = key;
+      this.index = getIndex();
       setLocale();
       pathHelper = new PropertyPathHelper(queryInfo.select, queryInfo.expand, getCustomOption(PropertyPathHelper.OptionSelectR), getCustomOption(PropertyPathHelper.OptionExpandR));
       flatten = getCustomBoolean(CustomOptions.Flatten, false);
@@ -176,6 +216,9 @@ public class MetadataProducer implements ODataProducer {
     EdmEntitySet entitySet;
     QueryInfo queryInfo;
     OEntityKey entityKey;
+    MetadataIndex index;
+    Integer inlineCount;
+    String skipToken;
     Locale locale = Locale.ENGLISH;
     PropertyPathHelper pathHelper;
     List<OEntity> entities = new LinkedList<OEntity>();
@@ -302,31 +345,134 @@ public class MetadataProducer implements ODataProducer {
       throw new NotFoundException("EntitySet " + entitySetName + " not found");
     }
 
-    return Responses.entities(c.entities, c.entitySet,
-        null, // inline count
-        null); // skip token.
+    return Responses.entities(c.entities, c.entitySet, c.inlineCount, c.skipToken);
+  }
+
+  /**
+   * Collects the <code>property eq 'literal'</code> terms of a conjunctive filter, those can be
+   * answered from the index.
+   *
+   * @return the literals by property name, or null if the terms contradict each other
+   */
+  private static Map<String, String> getEqualities(BoolCommonExpression filter) {
+    Map<String, String> rt = new HashMap<String, String>();
+    return filter == null || collectEqualities(filter, rt) ? rt : null;
+  }
+
+  private static boolean collectEqualities(CommonExpression expression, Map<String, String> equalities) {
+    if (expression instanceof BoolParenExpression)
+      return collectEqualities(((BoolParenExpression) expression).getExpression(), equalities);
+    if (expression instanceof AndExpression) {
+      AndExpression and = (AndExpression) expression;
+      return collectEqualities(and.getLHS(), equalities) && collectEqualities(and.getRHS(), equalities);
+    }
+    if (expression instanceof EqExpression) {
+      EqExpression eq = (EqExpression) expression;
+      CommonExpression lhs = eq.getLHS();
+      CommonExpression rhs = eq.getRHS();
+      if (lhs instanceof StringLiteral && rhs instanceof EntitySimpleProperty) {
+        lhs = eq.getRHS();
+        rhs = eq.getLHS();
+      }
+      if (lhs instanceof EntitySimpleProperty && rhs instanceof StringLiteral) {
+        String name = ((EntitySimpleProperty) lhs).getPropertyName();
+        String value = ((StringLiteral) rhs).getValue();
+        String previous = equalities.put(name, value);
+        return previous == null || previous.equals(value);
+      }
+    }
+    // anything else is left to the expression evaluator
+    return true;
+  }
+
+  /**
+   * Filters and pages the candidates of a query.
+   *
+   * <p>Candidates narrowed by the index are still evaluated against the whole filter. Only the entities of the
+   * requested page are built; a skip token is returned when the page is cut off by the maximum number of results.</p>
+   */
+  protected abstract class Page<T> {
+
+    /** Gets the item the filter variables of a candidate are resolved against. */
+    protected abstract EdmItem getResolverItem(T candidate);
+
+    protected abstract OEntityKey getEntityKey(T candidate);
+
+    protected abstract OEntity getEntity(T candidate);
+
+    public void addEntities(Context c, Iterable<T> candidates) {
+      QueryInfo q = c.queryInfo;
+      ExpressionEvaluator f = q != null && q.filter != null ? new ExpressionEvaluator(c) : null;
+      boolean countAll = q != null && q.inlineCount == InlineCount.ALLPAGES;
+      String skipToken = q == null ? null : q.skipToken;
+      int skip = q == null || q.skip == null ? 0 : q.skip;
+      // $top below the page size ends the result, no skip token needed
+      boolean paged = q == null || q.top == null || q.top > maxResults;
+      int limit = paged ? maxResults : q.top;
+
+      int count = 0;
+      T last = null;
+      boolean truncated = false;
+      for (T candidate : candidates) {
+        if (f != null) {
+          c.pushResolver(getResolverItem(candidate));
+          boolean add = f.evaluate(q.filter);
+          c.popResolver();
+          if (!add)
+            continue;
+        }
+        count++;
+        if (skipToken != null) {
+          if (skipToken.equals(getEntityKey(candidate).toKeyString()))
+            skipToken = null;
+        } else if (skip > 0) {
+          skip--;
+        } else if (c.entities.size() < limit) {
+          c.addEntity(getEntity(candidate));
+          last = candidate;
+        } else {
+          truncated = true;
+          if (!countAll)
+            break;
+        }
+      }
+
+      if (countAll)
+        c.inlineCount = count;
+      if (truncated && paged && last != null)
+        c.skipToken = getEntityKey(last).toKeyString();
+    }
   }
 
   protected void getSchemas(Context c) {
-    EdmDataServices ds = dataProducer.getMetadata();
-    ExpressionEvaluator f = null;
-    if (c.queryInfo != null && c.queryInfo.filter != null) {
-      f = new ExpressionEvaluator(c); // , c.queryInfo.filter); // TODO add resolver
+    Map<String, String> eq = getEqualities(c.queryInfo == null ? null : c.queryInfo.filter);
+    Iterable<EdmSchema> candidates = Collections.emptyList();
+    if (eq != null) {
+      String namespace = eq.get(Edm.Schema.Namespace);
+      if (namespace == null) {
+        candidates = c.index.getSchemas();
+      } else if (c.index.findSchema(namespace) != null) {
+        candidates = Collections.singletonList(c.index.findSchema(namespace));
+      }
     }
 
-    for (EdmSchema schema : ds.getSchemas()) {
-      boolean add = true;
-      if (f != null) {
-        c.pushResolver(schema);
-        add = f.evaluate(c.queryInfo.filter);
+    final Context context = c;
+    new Page<EdmSchema>() {
+      @Override
+      protected EdmItem getResolverItem(EdmSchema candidate) {
+        return candidate;
       }
-      if (add) {
-        c.addEntity(getSchema(c, schema));
+
+      @Override
+      protected OEntityKey getEntityKey(EdmSchema candidate) {
+        return OEntityKey.create(Edm.Schema.Namespace, candidate.getNamespace());
       }
-      if (f != null) {
-        c.popResolver();
+
+      @Override
+      protected OEntity getEntity(EdmSchema candidate) {
+        return getSchema(context, candidate);
       }
-    }
+    }.addEntities(c, candidates);
   }
 
   protected OEntity getSchema(Context c, EdmSchema schema) {
@@ -384,27 +530,39 @@ public class MetadataProducer implements ODataProducer {
   }
 
   protected void getEntityTypes(Context c, boolean isRoot) {
-    EdmDataServices ds = dataProducer.getMetadata();
-    ExpressionEvaluator f = null;
-    if (c.queryInfo != null && c.queryInfo.filter != null) {
-      f = new ExpressionEvaluator(c); // , c.queryInfo.filter); // TODO add resolver
+    getStructuralTypes(c, true, isRoot);
+  }
+
+  private void getStructuralTypes(final Context c, boolean isEntity, final boolean isRoot) {
+    Map<String, String> eq = getEqualities(c.queryInfo == null ? null : c.queryInfo.filter);
+    Iterable<EdmStructuralType> candidates = eq == null
+        ? Collections.<EdmStructuralType> emptyList()
+        : c.index.getStructuralTypes(isEntity, eq.get(Edm.StructuralType.Namespace), eq.get(Edm.StructuralType.Name));
+    if (isRoot) {
+      candidates = Enumerable.create(candidates).where(new Predicate1<EdmStructuralType>() {
+        @Override
+        public boolean apply(EdmStructuralType input) {
+          return input.isRootType();
+        }
+      });
     }
 
-    for (EdmEntityType et : ds.getEntityTypes()) {
-      if ((isRoot && et.isRootType()) || (!isRoot)) {
-        boolean add = true;
-        if (f != null) {
-          c.pushResolver(et);
-          add = f.evaluate(c.queryInfo.filter);
-        }
-        if (add) {
-          c.addEntity(getStructuralType(c, et));
-        }
-        if (f != null) {
-          c.popResolver();
-        }
+    new Page<EdmStructuralType>() {
+      @Override
+      protected EdmItem getResolverItem(EdmStructuralType candidate) {
+        return candidate;
       }
-    }
+
+      @Override
+      protected OEntityKey getEntityKey(EdmStructuralType candidate) {
+        return OEntityKey.create(Edm.StructuralType.Namespace, candidate.getNamespace(), Edm.StructuralType.Name, candidate.getName());
+      }
+
+      @Override
+      protected OEntity getEntity(EdmStructuralType candidate) {
+        return getStructuralType(c, candidate);
+      }
+    }.addEntities(c, candidates);
   }
 
   private OEntity getStructuralType(Context c, EdmStructuralType st) {
@@ -485,7 +643,7 @@ public class MetadataProducer implements ODataProducer {
     // --------------- SubTypes-------------------------------------
     if (c.pathHelper.isSelected(Edm.StructuralType.NavProps.SubTypes)) {
       if (c.pathHelper.isExpanded(Edm.StructuralType.NavProps.SubTypes)) {
-        List<EdmStructuralType> stypes = Enumerable.create(dataProducer.getMetadata().getSubTypes(st)).toList();
+        List<EdmStructuralType> stypes = c.index.getSubTypes(st);
         List<OEntity> subtypes = new ArrayList<OEntity>(stypes.size());
         // these are not root types...
         EdmEntitySet baseSet = c.entitySet;
@@ -630,81 +788,41 @@ public class MetadataProducer implements ODataProducer {
     }
 
     return OEntities.create(entitySet,
-        OEntityKey.create(Edm.Property.Namespace, et.getNamespace(), Edm.Property.EntityTypeName, et.getName(), Edm.Property.Name, p.getName()),
+        getPropertyKey(et, p),
         props,
         Collections.<OLink> emptyList());
   }
 
-  protected void getComplexTypes(Context c, boolean isRoot) {
-    EdmDataServices ds = dataProducer.getMetadata();
-
-    ExpressionEvaluator f = null;
-    if (c.queryInfo != null && c.queryInfo.filter != null) {
-      f = new ExpressionEvaluator(c); // , c.queryInfo.filter); // TODO add resolver
-    }
-
-    for (EdmComplexType ct : ds.getComplexTypes()) {
-      if ((isRoot && ct.isRootType()) || (!isRoot)) {
-        boolean add = true;
-        if (f != null) {
-          c.pushResolver(ct);
-          add = f.evaluate(c.queryInfo.filter);
-        }
-        if (add) {
-          c.addEntity(getStructuralType(c, ct));
-        }
-        if (f != null) {
-          c.popResolver();
-        }
-      }
-    }
+  private static OEntityKey getPropertyKey(EdmStructuralType et, EdmProperty p) {
+    return OEntityKey.create(Edm.Property.Namespace, et.getNamespace(), Edm.Property.EntityTypeName, et.getName(), Edm.Property.Name, p.getName());
   }
 
-  protected void getProperties(Context c) {
-    EdmDataServices ds = dataProducer.getMetadata();
+  protected void getComplexTypes(Context c, boolean isRoot) {
+    getStructuralTypes(c, false, isRoot);
+  }
 
-    ExpressionEvaluator f = null;
-    if (c.queryInfo != null && c.queryInfo.filter != null) {
-      f = new ExpressionEvaluator(c);
-    }
+  protected void getProperties(final Context c) {
+    Map<String, String> eq = getEqualities(c.queryInfo == null ? null : c.queryInfo.filter);
+    List<PropertyEntry> candidates = eq == null
+        ? Collections.<PropertyEntry> emptyList()
+        : c.index.getProperties(eq.get(Edm.Property.Namespace), eq.get(Edm.Property.EntityTypeName), eq.get(Edm.Property.Name));
 
-    for (EdmComplexType ct : ds.getComplexTypes()) {
-      if (ct.isRootType()) {
-        addStructuralTypeProperties(c, ct, f);
+    new Page<PropertyEntry>() {
+      @Override
+      protected EdmItem getResolverItem(PropertyEntry candidate) {
+        return candidate.property;
       }
-    }
 
-    for (EdmEntityType ct : ds.getEntityTypes()) {
-      if (ct.isRootType()) {
-        addStructuralTypeProperties(c, ct, f);
+      @Override
+      protected OEntityKey getEntityKey(PropertyEntry candidate) {
+        return getPropertyKey(candidate.queryType, candidate.property);
       }
-    }
-  }
 
-  protected void addStructuralTypeProperties(Context c, EdmStructuralType st, ExpressionEvaluator ev) {
-    for (EdmProperty prop : st.getProperties()) {
-      boolean add = true;
-      if (ev != null) {
-        c.pushResolver(prop);
-        add = ev.evaluate(c.queryInfo.filter);
-      }
-      if (add) {
-        c.addEntity(this.getProperty(st, st, prop, c));
-      }
-      if (ev != null) {
-        c.popResolver();
+      @Override
+      protected OEntity getEntity(PropertyEntry candidate) {
+        return getProperty(candidate.queryType, candidate.queryType, candidate.property, c);
       }
-    }
-
-    EdmDataServices ds = dataProducer.getMetadata();
-    Iterator<?> candidates = (st instanceof EdmComplexType) ? ds.getComplexTypes().iterator() : ds.getEntityTypes().iterator();
-    // down the subtypes hole...
-    while (candidates.hasNext()) {
-      EdmStructuralType item = (EdmStructuralType) candidates.next();
-      if (item.getBaseType() != null && item.getBaseType().equals(st)) {
-        addStructuralTypeProperties(c, item, ev);
-      }
-    }
+    }.addEntities(c, candidates);
   }
 
   @Override
@@ -731,40 +849,31 @@ public class MetadataProducer implements ODataProducer {
   }
 
   protected void findSchema(Context c) {
-    EdmDataServices ds = dataProducer.getMetadata();
     String nm = (String) c.entityKey.asSingleValue();
-    for (EdmSchema s : ds.getSchemas()) {
-      if (nm.equals(s.getNamespace())) {
-        c.entities.add(this.getSchema(c, s));
-      }
+    EdmSchema s = c.index.findSchema(nm);
+    if (s != null) {
+      c.entities.add(this.getSchema(c, s));
     }
   }
 
   protected void findStructuralType(Context c, boolean isEntity, boolean root) {
-    EdmDataServices ds = dataProducer.getMetadata();
-    Iterable<?> candidates = isEntity ? ds.getEntityTypes() : ds.getComplexTypes();
-    for (Object eto : candidates) {
-      EdmStructuralType st = (EdmStructuralType) eto;
+    String namespace = null;
+    String name = null;
+    for (OProperty<?> keyprop : c.entityKey.asComplexProperties()) {
+      if (keyprop.getName().equals(Edm.EntityType.Namespace)) {
+        namespace = keyprop.getValue().toString();
+      } else if (keyprop.getName().equals(Edm.EntityType.Name)) {
+        name = keyprop.getValue().toString();
+      } else {
+        throw new RuntimeException(keyprop.getName() + " is not a key property of " + c.entitySet.getName());
+      }
+    }
 
+    for (EdmStructuralType st : c.index.getStructuralTypes(isEntity, namespace, name)) {
       if (root && st.getBaseType() != null) {
         continue;
       }
-      boolean matchedAll = true;
-      for (OProperty<?> keyprop : c.entityKey.asComplexProperties()) {
-        String val = null;
-        if (keyprop.getName().equals(Edm.EntityType.Namespace)) {
-          val = st.getNamespace();
-        } else if (keyprop.getName().equals(Edm.EntityType.Name)) {
-          val = st.getName();
-        } else {
-          throw new RuntimeException(keyprop.getName() + " is not a key property of " + c.entitySet.getName());
-        }
-        if (!keyprop.getValue().toString().equals(val)) {
-          matchedAll = false;
-          break;
-        }
-      }
-      if (matchedAll) {
+      if ((namespace == null || namespace.equals(st.getNamespace())) && (name == null || name.equals(st.getName()))) {
         c.entities.add(this.getStructuralType(c, st));
       }
     }
@@ -0,0 +1,20 @@
+package org.odata4j.producer.inmemory;
+
+/**
+ * Implemented by entity sources that know their size without being iterated.
+ *
+ * <p>The in-memory producer checks for this interface on the <code>Func</code> registered
+ * for an entity set and on the iterables it returns. An unfiltered <code>$count</code>
+ * or <code>$inlinecount</code> then costs a single call instead of a pass over all objects.
+ * Iterables that are <code>java.util.Collection</code>s are sized automatically.</p>
+ */
+public interface InMemoryCountable {
+
+  /**
+   * Gets the number of objects of this source.
+   *
+   * @return the number of objects
+   */
+  int count();
+
+}
@@ -1,9 +1,12 @@
 package org.odata4j.producer.inmemory;
 
 import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.Date;
 import java.util.Set;
 
 import org.core4j.Enumerable;
+import org.joda.time.LocalDateTime;
 import org.odata4j.edm.EdmSimpleType;
 import org.odata4j.edm.EdmType;
 import org.odata4j.expression.AddExpression;
@@ -16,6 +19,7 @@ import org.odata4j.expression.BooleanLiteral;
 import org.odata4j.expression.CastExpression;
 import org.odata4j.expression.CommonExpression;
 import org.odata4j.expression.ConcatMethodCallExpression;
+import org.odata4j.expression.DayMethodCallExpression;
 import org.odata4j.expression.DivExpression;
 import org.odata4j.expression.EndsWithMethodCallExpression;
 import org.odata4j.expression.EntitySimpleProperty;
@@ -23,18 +27,22 @@ import org.odata4j.expression.EqExpression;
 import org.odata4j.expression.Expression;
 import org.odata4j.expression.GeExpression;
 import org.odata4j.expression.GtExpression;
+import org.odata4j.expression.HourMethodCallExpression;
 import org.odata4j.expression.IndexOfMethodCallExpression;
 import org.odata4j.expression.LeExpression;
 import org.odata4j.expression.LengthMethodCallExpression;
 import org.odata4j.expression.LiteralExpression;
 import org.odata4j.expression.LtExpression;
+import org.odata4j.expression.MinuteMethodCallExpression;
 import org.odata4j.expression.ModExpression;
+import org.odata4j.expression.MonthMethodCallExpression;
 import org.odata4j.expression.MulExpression;
 import org.odata4j.expression.NeExpression;
 import org.odata4j.expression.NotExpression;
 import org.odata4j.expression.OrExpression;
 import org.odata4j.expression.ParenExpression;
 import org.odata4j.expression.ReplaceMethodCallExpression;
+import org.odata4j.expression.SecondMethodCallExpression;
 import org.odata4j.expression.StartsWithMethodCallExpression;
 import org.odata4j.expression.SubExpression;
 import org.odata4j.expression.SubstringMethodCallExpression;
@@ -42,6 +50,7 @@ import org.odata4j.expression.SubstringOfMethodCallExpression;
 import org.odata4j.expression.ToLowerMethodCallExpression;
 import org.odata4j.expression.ToUpperMethodCallExpression;
 import org.odata4j.expression.TrimMethodCallExpression;
+import org.odata4j.expression.YearMethodCallExpression;
 import org.odata4j.internal.TypeConverter;
 
 public class InMemoryEvaluation {
@@ -157,9 +166,48 @@ public class InMemoryEvaluation {
       return left == null ? 0 : left.length();
     }
 
+    if (expression instanceof YearMethodCallExpression) {
+      LocalDateTime value = evaluateToDateTime(((YearMethodCallExpression) expression).getTarget(), target, properties);
+      return value == null ? null : value.getYear();
+    }
+
+    if (expression instanceof MonthMethodCallExpression) {
+      LocalDateTime value = evaluateToDateTime(((MonthMethodCallExpression) expression).getTarget(), target, properties);
+      return value == null ? null : value.getMonthOfYear();
+    }
+
+    if (expression instanceof DayMethodCallExpression) {
+      LocalDateTime value = evaluateToDateTime(((DayMethodCallExpression) expression).getTarget(), target, properties);
+      return value == null ? null : value.getDayOfMonth();
+    }
+
+    if (expression instanceof HourMethodCallExpression) {
+      LocalDateTime value = evaluateToDateTime(((HourMethodCallExpression) expression).getTarget(), target, properties);
+      return value == null ? null : value.getHourOfDay();
+    }
+
+    if (expression instanceof MinuteMethodCallExpression) {
+      LocalDateTime value = evaluateToDateTime(((MinuteMethodCallExpression) expression).getTarget(), target, properties);
+      return value == null ? null : value.getMinuteOfHour();
+    }
+
+    if (expression instanceof SecondMethodCallExpression) {
+      LocalDateTime value = evaluateToDateTime(((SecondMethodCallExpression) expression).getTarget(), target, properties);
+      return value == null ? null : value.getSecondOfMinute();
+    }
+
     throw new UnsupportedOperationException("unsupported expression " + expression);
   }
 
+  private static LocalDateTime evaluateToDateTime(CommonExpression expression, Object target, PropertyModel properties) {
+    Object value = evaluate(expression, target, properties);
+    if (value == null || value instanceof LocalDateTime)
+      return (LocalDateTime) value;
+    if (value instanceof Date || value instanceof Calendar)
+      return new LocalDateTime(value);
+    throw new UnsupportedOperationException("unsupported date time value " + value);
+  }
+
   private static String evaluateToString(CommonExpression expression, Object target, PropertyModel properties) {
     Object value = evaluate(expression, target, properties);
     if (value == null)
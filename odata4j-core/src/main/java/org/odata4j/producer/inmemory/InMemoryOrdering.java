@@ -0,0 +1,116 @@
+package org.odata4j.producer.inmemory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.odata4j.expression.OrderByExpression;
+import org.odata4j.expression.OrderByExpression.Direction;
+
+/**
+ * Sorts in-memory objects by a list of $orderby expressions.
+ *
+ * <p>The sort keys of each object are evaluated once up front and compared with a
+ * single multi-key comparator. If only the first <code>bound</code> objects are
+ * needed, a bounded heap selects them in O(n log bound) instead of sorting the whole set.
+ * Ties keep the original order. Null values sort before non-null values.</p>
+ */
+public class InMemoryOrdering {
+
+  private InMemoryOrdering() {}
+
+  /**
+   * Sorts the given objects.
+   *
+   * @param objects  the objects to sort
+   * @param orderBys  the $orderby expressions, most significant first
+   * @param properties  the property model used to evaluate the expressions
+   * @param bound  the number of leading objects needed, or a negative value to sort all objects
+   * @return the first <code>bound</code> (or all) objects in order
+   */
+  public static List<Object> sort(Iterable<?> objects, List<OrderByExpression> orderBys, PropertyModel properties, int bound) {
+    final int[] signs = new int[orderBys.size()];
+    for (int i = 0; i < signs.length; i++)
+      signs[i] = orderBys.get(i).getDirection() == Direction.DESCENDING ? -1 : 1;
+    Comparator<SortEntry> comparator = new Comparator<SortEntry>() {
+      @Override
+      public int compare(SortEntry o1, SortEntry o2) {
+        for (int i = 0; i < signs.length; i++) {
+          int c = compareKeys(o1.keys[i], o2.keys[i]);
+          if (c != 0)
+            return signs[i] * c;
+        }
+        return o1.index < o2.index ? -1 : (o1.index == o2.index ? 0 : 1);
+      }
+    };
+
+    List<SortEntry> entries;
+    if (bound < 0) {
+      entries = new ArrayList<SortEntry>();
+      int index = 0;
+      for (Object object : objects)
+        entries.add(new SortEntry(object, evaluateKeys(object, orderBys, properties), index++));
+      Collections.sort(entries, comparator);
+    } else {
+      entries = selectTop(objects, orderBys, properties, bound, comparator);
+    }
+
+    List<Object> rt = new ArrayList<Object>(entries.size());
+    for (SortEntry entry : entries)
+      rt.add(entry.value);
+    return rt;
+  }
+
+  private static List<SortEntry> selectTop(Iterable<?> objects, List<OrderByExpression> orderBys, PropertyModel properties, int bound, Comparator<SortEntry> comparator) {
+    if (bound == 0)
+      return new ArrayList<SortEntry>();
+    // max-heap holding the smallest "bound" entries seen so far
+    PriorityQueue<SortEntry> heap = new PriorityQueue<SortEntry>(Math.min(bound, 1024), Collections.reverseOrder(comparator));
+    int index = 0;
+    for (Object object : objects) {
+      SortEntry entry = new SortEntry(object, evaluateKeys(object, orderBys, properties), index++);
+      if (heap.size() < bound) {
+        heap.add(entry);
+      } else if (comparator.compare(entry, heap.peek()) < 0) {
+        heap.poll();
+        heap.add(entry);
+      }
+    }
+    List<SortEntry> entries = new ArrayList<SortEntry>(heap);
+    Collections.sort(entries, comparator);
+    return entries;
+  }
+
+  private static Object[] evaluateKeys(Object object, List<OrderByExpression> orderBys, PropertyModel properties) {
+    Object[] keys = new Object[orderBys.size()];
+    for (int i = 0; i < keys.length; i++)
+      keys[i] = InMemoryEvaluation.evaluate(orderBys.get(i).getExpression(), object, properties);
+    return keys;
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static int compareKeys(Object lhs, Object rhs) {
+    if (lhs == rhs)
+      return 0;
+    if (lhs == null)
+      return -1;
+    if (rhs == null)
+      return 1;
+    return ((Comparable) lhs).compareTo(rhs);
+  }
+
+  private static class SortEntry {
+    final Object value;
+    final Object[] keys;
+    final int index;
+
+    SortEntry(Object value, Object[] keys, int index) {
+      this.value = value;
+      this.keys = keys;
+      this.index = index;
+    }
+  }
+
+}
@@ -0,0 +1,119 @@
+package org.odata4j.producer.inmemory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.core4j.Func1;
+import org.core4j.Predicate1;
+
+/**
+ * Filters and projects lists in parallel chunks on an executor.
+ *
+ * <p>The list is split into contiguous chunks, one task per chunk, and the chunk results
+ * are concatenated in chunk order, so the output keeps the order of the input.
+ * Lists with fewer than two chunks are processed on the calling thread.</p>
+ */
+public class InMemoryParallelism {
+
+  private final ExecutorService executor;
+  private final int chunkSize;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param executor  the executor running the chunk tasks
+   * @param chunkSize  the minimum number of elements per chunk
+   */
+  public InMemoryParallelism(ExecutorService executor, int chunkSize) {
+    if (executor == null)
+      throw new IllegalArgumentException("executor cannot be null");
+    if (chunkSize < 1)
+      throw new IllegalArgumentException("chunkSize must be positive");
+    this.executor = executor;
+    this.chunkSize = chunkSize;
+  }
+
+  public ExecutorService getExecutor() {
+    return executor;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * Returns the elements of the list matching the predicate, in list order.
+   */
+  public <T> List<T> filter(List<T> list, final Predicate1<? super T> predicate) {
+    return run(list, new Func1<List<T>, List<T>>() {
+      @Override
+      public List<T> apply(List<T> chunk) {
+        List<T> rt = new ArrayList<T>();
+        for (T element : chunk) {
+          if (predicate.apply(element))
+            rt.add(element);
+        }
+        return rt;
+      }
+    });
+  }
+
+  /**
+   * Applies the function to every element of the list, in list order.
+   */
+  public <T, R> List<R> select(List<T> list, final Func1<? super T, R> fn) {
+    return run(list, new Func1<List<T>, List<R>>() {
+      @Override
+      public List<R> apply(List<T> chunk) {
+        List<R> rt = new ArrayList<R>(chunk.size());
+        for (T element : chunk)
+          rt.add(fn.apply(element));
+        return rt;
+      }
+    });
+  }
+
+  private <T, R> List<R> run(List<T> list, final Func1<List<T>, List<R>> chunkFn) {
+    int size = list.size();
+    // aim for a few chunks per thread so that uneven chunks even out
+    int chunks = Math.min(size / chunkSize, Runtime.getRuntime().availableProcessors() * 4);
+    if (chunks < 2)
+      return chunkFn.apply(list);
+
+    List<Future<List<R>>> futures = new ArrayList<Future<List<R>>>(chunks);
+    try {
+      for (int i = 0; i < chunks; i++) {
+        final List<T> chunk = list.subList((int) ((long) size * i / chunks), (int) ((long) size * (i + 1) / chunks));
+        futures.add(executor.submit(new Callable<List<R>>() {
+          @Override
+          public List<R> call() throws Exception {
+            return chunkFn.apply(chunk);
+          }
+        }));
+      }
+
+      List<R> rt = new ArrayList<R>();
+      for (Future<List<R>> future : futures)
+        rt.addAll(future.get());
+      return rt;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new RuntimeException(cause);
+    } finally {
+      for (Future<List<R>> future : futures)
+        future.cancel(true);
+    }
+  }
+
+}
@@ -3,13 +3,14 @@ package org.odata4j.producer.inmemory;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 import org.core4j.Enumerable;
 import org.core4j.Func;
@@ -49,9 +50,9 @@ import org.odata4j.edm.EdmStructuralType;
 import org.odata4j.edm.EdmType;
 import org.odata4j.exceptions.NotFoundException;
 import org.odata4j.exceptions.NotImplementedException;
+import org.odata4j.exceptions.ODataProducerException;
 import org.odata4j.expression.BoolCommonExpression;
 import org.odata4j.expression.OrderByExpression;
-import org.odata4j.expression.OrderByExpression.Direction;
 import org.odata4j.producer.BaseResponse;
 import org.odata4j.producer.CountResponse;
 import org.odata4j.producer.EntitiesResponse;
@@ -63,6 +64,7 @@ import org.odata4j.producer.ODataContext;
 import org.odata4j.producer.ODataProducer;
 import org.odata4j.producer.PropertyPathHelper;
 import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.RequestDeadline;
 import org.odata4j.producer.Responses;
 import org.odata4j.producer.edm.MetadataProducer;
 import org.odata4j.producer.inmemory.InMemoryProducer.RequestContext.RequestType;
@@ -93,6 +95,8 @@ public class InMemoryProducer implements ODataProducer {
 
   private boolean includeNullPropertyValues = true;
   private final boolean flattenEdm;
+  private InMemoryParallelism parallelism;
+  private int parallelThreshold;
 
   private static final int DEFAULT_MAX_RESULTS = 100;
 
@@ -171,6 +175,19 @@ public class InMemoryProducer implements ODataProducer {
     this.includeNullPropertyValues = value;
   }
 
+  /**
+   * Enables parallel $filter evaluation and OEntity projection for entity sets with
+   * at least <code>threshold</code> objects. Only sources with a known size (collections
+   * or {@link InMemoryCountable}s) are processed in parallel.
+   *
+   * @param parallelism  the parallel executor, or null to process all requests on the calling thread
+   * @param threshold  the minimum number of objects to go parallel
+   */
+  public void setParallelism(InMemoryParallelism parallelism, int threshold) {
+    this.parallelism = parallelism;
+    this.parallelThreshold = threshold;
+  }
+
   /**
    * Registers a POJO class as an EdmComplexType.
    *
@@ -479,16 +496,18 @@ public class InMemoryProducer implements ODataProducer {
   protected Iterable<?> getRelatedPojos(EdmNavigationProperty navProp, Object srcObject, InMemoryEntityInfo<?> srcInfo) {
     if (navProp.getToRole().getMultiplicity() == EdmMultiplicity.MANY) {
       Iterable<?> i = srcInfo.getPropertyModel().getCollectionValue(srcObject, navProp.getName());
-      return i == null ? Collections.EMPTY_LIST : i;
+      return i == null ? Collections.<Object>emptyList() : i;
     } else {
       // can be null
       return Collections.singletonList(srcInfo.getPropertyModel().getPropertyValue(srcObject, navProp.getName()));
     }
   }
 
-  private static Predicate1<Object> filterToPredicate(final BoolCommonExpression filter, final PropertyModel properties) {
+  private static Predicate1<Object> filterToPredicate(final BoolCommonExpression filter, final PropertyModel properties, final RequestDeadline deadline) {
     return new Predicate1<Object>() {
       public boolean apply(Object input) {
+        if (deadline != null)
+          deadline.check();
         return InMemoryEvaluation.evaluate(filter, input, properties);
       }
     };
@@ -506,40 +525,109 @@ public class InMemoryProducer implements ODataProducer {
 
     final InMemoryEntityInfo<?> ei = eis.get(entitySetName);
 
-    Enumerable<Object> objects = ei.getWithContext == null
-        ? Enumerable.create(ei.get.apply()).cast(Object.class)
-        : Enumerable.create(ei.getWithContext.apply(rc)).cast(Object.class);
+    Iterable<?> source = ei.getWithContext == null ? ei.get.apply() : ei.getWithContext.apply(rc);
 
-    return getEntitiesResponse(rc, rc.getEntitySet(), objects, ei.getPropertyModel());
+    return getEntitiesResponse(rc, rc.getEntitySet(), source, ei.getPropertyModel());
   }
 
   protected EntitiesResponse getEntitiesResponse(final RequestContext rc, final EdmEntitySet targetEntitySet, Enumerable<Object> objects, PropertyModel propertyModel) {
-    // apply filter
+    return getEntitiesResponse(rc, targetEntitySet, (Iterable<?>) objects, propertyModel);
+  }
+
+  protected EntitiesResponse getEntitiesResponse(final RequestContext rc, final EdmEntitySet targetEntitySet, Iterable<?> source, PropertyModel propertyModel) {
+    RequestDeadline deadline = RequestDeadline.get(rc.getODataContext());
+    if (deadline == null)
+      return getEntitiesResponse(rc, targetEntitySet, source, propertyModel, null);
+    deadline.check();
+    try {
+      return getEntitiesResponse(rc, targetEntitySet, source, propertyModel, deadline);
+    } catch (RuntimeException e) {
+      // the enumerables wrap the failed check
+      if (deadline.isExpired() && !(e instanceof ODataProducerException))
+        throw deadline.exceeded(e);
+      throw e;
+    }
+  }
+
+  private EntitiesResponse getEntitiesResponse(final RequestContext rc, final EdmEntitySet targetEntitySet, Iterable<?> source, PropertyModel propertyModel,
+      final RequestDeadline deadline) {
+    Enumerable<Object> objects = Enumerable.create(source).cast(Object.class);
     final QueryInfo queryInfo = rc.getQueryInfo();
+    final InMemoryParallelism parallelism = getParallelism(source);
+
+    // apply filter
+    List<Object> filtered = null;
     if (queryInfo != null && queryInfo.filter != null) {
-      objects = objects.where(filterToPredicate(queryInfo.filter, propertyModel));
+      if (parallelism != null) {
+        filtered = parallelism.filter(toList(source), filterToPredicate(queryInfo.filter, propertyModel, deadline));
+        objects = Enumerable.create(filtered);
+      } else {
+        objects = objects.where(filterToPredicate(queryInfo.filter, propertyModel, deadline));
+      }
     }
 
     // compute inlineCount, must be done after applying filter
     Integer inlineCount = null;
     if (queryInfo != null && queryInfo.inlineCount == InlineCount.ALLPAGES) {
-      objects = Enumerable.create(objects.toList()); // materialize up front, since we're about to count
-      inlineCount = objects.count();
+      int size = filtered != null ? filtered.size() : queryInfo.filter == null ? sizeOf(source) : -1;
+      if (size >= 0) {
+        inlineCount = size;
+      } else {
+        objects = Enumerable.create(objects.toList()); // materialize up front, since we're about to count
+        inlineCount = objects.count();
+      }
+    }
+
+    // the page size
+    int limit = this.maxResults;
+    if (queryInfo != null && queryInfo.top != null && queryInfo.top < limit) {
+      limit = queryInfo.top;
     }
 
-    // apply ordering
+    // apply ordering; without a skipToken only the first skip + limit + 1 objects are needed
     if (queryInfo != null && queryInfo.orderBy != null) {
-      objects = orderBy(objects, queryInfo.orderBy, propertyModel);
+      int bound = -1;
+      if (queryInfo.skipToken == null) {
+        long needed = (queryInfo.skip == null ? 0L : queryInfo.skip) + limit + 1L;
+        bound = needed > Integer.MAX_VALUE ? -1 : (int) needed;
+      }
+      objects = orderBy(objects, queryInfo.orderBy, propertyModel, bound);
     }
 
-    // work with oentities
-    Enumerable<OEntity> entities = objects.select(new Func1<Object, OEntity>() {
+    // expanding moves the current path of the path helper, so parallel tasks each use a copy
+    final boolean parallel = parallelism != null && (queryInfo == null || queryInfo.skipToken == null);
+    Func1<Object, OEntity> toOEntity = new Func1<Object, OEntity>() {
       @Override
       public OEntity apply(Object input) {
-        return toOEntity(targetEntitySet, input, rc.getPathHelper());
+        if (deadline != null)
+          deadline.check();
+        return toOEntity(targetEntitySet, input, parallel ? new PropertyPathHelper(rc.getPathHelper()) : rc.getPathHelper());
       }
-    });
+    };
+
+    List<OEntity> entitiesList;
+    if (parallel) {
+      // skip and limit the objects, then project the page in parallel
+      if (queryInfo != null && queryInfo.skip != null) {
+        objects = objects.skip(queryInfo.skip);
+      }
+      entitiesList = parallelism.select(objects.take(limit + 1).toList(), toOEntity);
+    } else {
+      entitiesList = getEntitiesList(objects.select(toOEntity), queryInfo, limit);
+    }
 
+    // determine skipToken if necessary
+    String skipToken = null;
+    if (entitiesList.size() > limit) {
+      entitiesList = Enumerable.create(entitiesList).take(limit).toList();
+      skipToken = entitiesList.size() == 0 ? null : Enumerable.create(entitiesList).last().getEntityKey().toKeyString();
+    }
+
+    return Responses.entities(entitiesList, targetEntitySet, inlineCount, skipToken);
+
+  }
+
+  private List<OEntity> getEntitiesList(Enumerable<OEntity> entities, final QueryInfo queryInfo, int limit) {
     // skip records by $skipToken
     if (queryInfo != null && queryInfo.skipToken != null) {
       final Boolean[] skipping = new Boolean[] { true };
@@ -562,24 +650,31 @@ public class InMemoryProducer implements ODataProducer {
     }
 
     // apply limit
-    int limit = this.maxResults;
-    if (queryInfo != null && queryInfo.top != null && queryInfo.top < limit) {
-      limit = queryInfo.top;
-    }
     entities = entities.take(limit + 1);
 
     // materialize OEntities
-    List<OEntity> entitiesList = entities.toList();
-
-    // determine skipToken if necessary
-    String skipToken = null;
-    if (entitiesList.size() > limit) {
-      entitiesList = Enumerable.create(entitiesList).take(limit).toList();
-      skipToken = entitiesList.size() == 0 ? null : Enumerable.create(entitiesList).last().getEntityKey().toKeyString();
-    }
+    return entities.toList();
+  }
 
-    return Responses.entities(entitiesList, targetEntitySet, inlineCount, skipToken);
+  /**
+   * Returns the parallel executor to use for the given source, or null if the source
+   * is to be processed on the calling thread.
+   */
+  private InMemoryParallelism getParallelism(Iterable<?> source) {
+    if (parallelism == null)
+      return null;
+    int size = sizeOf(source);
+    return size >= 0 && size >= parallelThreshold ? parallelism : null;
+  }
 
+  @SuppressWarnings("unchecked")
+  private static List<Object> toList(Iterable<?> source) {
+    if (source instanceof List && source instanceof RandomAccess)
+      return (List<Object>) source;
+    List<Object> rt = source instanceof Collection ? new ArrayList<Object>(((Collection<?>) source).size()) : new ArrayList<Object>();
+    for (Object object : source)
+      rt.add(object);
+    return rt;
   }
 
   @Override
@@ -594,65 +689,86 @@ public class InMemoryProducer implements ODataProducer {
 
     final InMemoryEntityInfo<?> ei = eis.get(entitySetName);
 
-    final PropertyPathHelper pathHelper = new PropertyPathHelper(queryInfo);
-
-    Enumerable<Object> objects = ei.getWithContext == null
-        ? Enumerable.create(ei.get.apply()).cast(Object.class)
-        : Enumerable.create(ei.getWithContext.apply(rc)).cast(Object.class);
-
-    // apply filter
-    if (queryInfo != null && queryInfo.filter != null) {
-      objects = objects.where(filterToPredicate(queryInfo.filter, ei.properties));
-    }
-
     // inlineCount is not applicable to $count queries
     if (queryInfo != null && queryInfo.inlineCount == InlineCount.ALLPAGES) {
       throw new UnsupportedOperationException("$inlinecount cannot be applied to the resource segment '$count'");
     }
 
-    // ignore ordering for count
-
-    // work with oentities.
-    Enumerable<OEntity> entities = objects.select(new Func1<Object, OEntity>() {
-      @Override
-      public OEntity apply(Object input) {
-        return toOEntity(rc.getEntitySet(), input, pathHelper);
-      }
-    });
-
     // skipToken is not applicable to $count queries
     if (queryInfo != null && queryInfo.skipToken != null) {
       throw new UnsupportedOperationException("Skip tokens can only be provided for requests that return collections of entities.");
     }
 
-    // skip records by $skip amount
-    // http://services.odata.org/Northwind/Northwind.svc/Customers/$count/?$skip=5
-    if (queryInfo != null && queryInfo.skip != null) {
-      entities = entities.skip(queryInfo.skip);
+    // a countable source can answer an unfiltered count without producing its objects
+    if (ei.getWithContext == null && ei.get instanceof InMemoryCountable && (queryInfo == null || queryInfo.filter == null)) {
+      return Responses.count(applySkipAndTop(((InMemoryCountable) ei.get).count(), queryInfo));
     }
 
-    // apply $top.  maxResults is not applicable to $count but $top is.
+    RequestDeadline deadline = RequestDeadline.get(context);
+    if (deadline != null)
+      deadline.check();
+
+    Iterable<?> source = ei.getWithContext == null ? ei.get.apply() : ei.getWithContext.apply(rc);
+
+    return Responses.count(count(source, queryInfo, ei.getPropertyModel(), deadline));
+  }
+
+  /**
+   * Counts the objects matching the $filter of the given query, after applying $skip and $top.
+   * Ordering is ignored and no OEntities are created.
+   */
+  private long count(Iterable<?> source, QueryInfo queryInfo, PropertyModel propertyModel, RequestDeadline deadline) {
+    if (queryInfo == null || queryInfo.filter == null) {
+      int size = sizeOf(source);
+      if (size >= 0)
+        return applySkipAndTop(size, queryInfo);
+    }
+
+    // stop as soon as $skip + $top objects have been found
+    // http://services.odata.org/Northwind/Northwind.svc/Customers/$count/?$skip=5
     // http://services.odata.org/Northwind/Northwind.svc/Customers/$count/?$top=55
-    int limit = Integer.MAX_VALUE;
-    if (queryInfo != null && queryInfo.top != null && queryInfo.top < limit) {
-      limit = queryInfo.top;
+    long needed = Long.MAX_VALUE;
+    if (queryInfo != null && queryInfo.top != null)
+      needed = (queryInfo.skip == null ? 0L : queryInfo.skip) + queryInfo.top;
+
+    Predicate1<Object> predicate = queryInfo != null && queryInfo.filter != null
+        ? filterToPredicate(queryInfo.filter, propertyModel, deadline)
+        : null;
+    long count = 0;
+    if (needed > 0) {
+      for (Object object : source) {
+        if (deadline != null)
+          deadline.check();
+        if ((predicate == null || predicate.apply(object)) && ++count >= needed)
+          break;
+      }
     }
-    entities = entities.take(limit);
+    return applySkipAndTop(count, queryInfo);
+  }
 
-    return Responses.count(entities.count());
+  private static long applySkipAndTop(long count, QueryInfo queryInfo) {
+    if (queryInfo != null && queryInfo.skip != null)
+      count = Math.max(0, count - queryInfo.skip);
+    // maxResults is not applicable to $count but $top is.
+    if (queryInfo != null && queryInfo.top != null)
+      count = Math.min(count, queryInfo.top);
+    return count;
   }
 
-  private Enumerable<Object> orderBy(Enumerable<Object> iter, List<OrderByExpression> orderBys, final PropertyModel properties) {
-    for (final OrderByExpression orderBy : Enumerable.create(orderBys).reverse())
-      iter = iter.orderBy(new Comparator<Object>() {
-        @SuppressWarnings({ "unchecked", "rawtypes" })
-        public int compare(Object o1, Object o2) {
-          Comparable lhs = (Comparable) InMemoryEvaluation.evaluate(orderBy.getExpression(), o1, properties);
-          Comparable rhs = (Comparable) InMemoryEvaluation.evaluate(orderBy.getExpression(), o2, properties);
-          return (orderBy.getDirection() == Direction.ASCENDING ? 1 : -1) * lhs.compareTo(rhs);
-        }
-      });
-    return iter;
+  /**
+   * Returns the number of objects of the given source if it can be determined without
+   * iterating the source, otherwise -1.
+   */
+  private static int sizeOf(Iterable<?> source) {
+    if (source instanceof Collection)
+      return ((Collection<?>) source).size();
+    if (source instanceof InMemoryCountable)
+      return ((InMemoryCountable) source).count();
+    return -1;
+  }
+
+  private Enumerable<Object> orderBy(Enumerable<Object> iter, List<OrderByExpression> orderBys, PropertyModel properties, int bound) {
+    return Enumerable.create(InMemoryOrdering.sort(iter, orderBys, properties, bound));
   }
 
   @Override
@@ -772,7 +888,7 @@ public class InMemoryProducer implements ODataProducer {
 
     if (navProp.getToRole().getMultiplicity() == EdmMultiplicity.MANY) {
       // apply filter, orderby, etc.
-      return getEntitiesResponse(rc, targetEntitySet, Enumerable.create(relatedPojos), eis.get(targetEntitySet.getName()).getPropertyModel());
+      return getEntitiesResponse(rc, targetEntitySet, relatedPojos, eis.get(targetEntitySet.getName()).getPropertyModel());
     } else {
       return Responses.entity(this.toOEntity(targetEntitySet, relatedPojos.iterator().next(), rc.getPathHelper()));
     }
@@ -780,7 +896,41 @@ public class InMemoryProducer implements ODataProducer {
 
   @Override
   public CountResponse getNavPropertyCount(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, QueryInfo queryInfo) {
-    throw new NotImplementedException();
+
+    RequestContext rc = RequestContext.newBuilder(RequestType.GetNavPropertyCount)
+        .entitySetName(entitySetName)
+        .entitySet(getMetadata().getEdmEntitySet(entitySetName))
+        .entityKey(entityKey)
+        .navPropName(navProp)
+        .queryInfo(queryInfo)
+        .odataContext(context)
+        .build();
+
+    EdmNavigationProperty navProperty = rc.getEntitySet().getType().findNavigationProperty(navProp);
+    if (navProperty == null)
+      throw new NotFoundException("Navigation property " + navProp + " is not found");
+
+    // inlineCount and skipToken are not applicable to $count queries
+    if (queryInfo != null && queryInfo.inlineCount == InlineCount.ALLPAGES) {
+      throw new UnsupportedOperationException("$inlinecount cannot be applied to the resource segment '$count'");
+    }
+    if (queryInfo != null && queryInfo.skipToken != null) {
+      throw new UnsupportedOperationException("Skip tokens can only be provided for requests that return collections of entities.");
+    }
+
+    Object obj = getEntityPojo(rc);
+    if (obj == null)
+      throw new NotFoundException("No entity found in entityset " + entitySetName
+          + " for key " + entityKey.toKeyStringWithoutParentheses());
+
+    Iterable<?> relatedPojos = getRelatedPojos(navProperty, obj, findEntityInfoForClass(obj.getClass()));
+    if (navProperty.getToRole().getMultiplicity() != EdmMultiplicity.MANY) {
+      // a single related entity, which may be null
+      relatedPojos = relatedPojos.iterator().next() == null ? Collections.<Object>emptyList() : relatedPojos;
+    }
+
+    EdmEntitySet targetEntitySet = findEntitySetForNavProperty(navProperty);
+    return Responses.count(count(relatedPojos, queryInfo, eis.get(targetEntitySet.getName()).getPropertyModel(), RequestDeadline.get(context)));
   }
 
   @Override
@@ -816,7 +966,7 @@ public class InMemoryProducer implements ODataProducer {
   public static class RequestContext {
 
     public enum RequestType {
-      GetEntity, GetEntities, GetEntitiesCount, GetNavProperty
+      GetEntity, GetEntities, GetEntitiesCount, GetNavProperty, GetNavPropertyCount
     };
 
     public final RequestType requestType;
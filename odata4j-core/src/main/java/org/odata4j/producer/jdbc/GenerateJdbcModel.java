@@ -6,6 +6,7 @@ import java.sql.ResultSet;
 
 import org.core4j.ThrowingFunc1;
 import org.odata4j.producer.jdbc.JdbcModel.JdbcColumn;
+import org.odata4j.producer.jdbc.JdbcModel.JdbcForeignKey;
 import org.odata4j.producer.jdbc.JdbcModel.JdbcPrimaryKey;
 import org.odata4j.producer.jdbc.JdbcModel.JdbcSchema;
 import org.odata4j.producer.jdbc.JdbcModel.JdbcTable;
@@ -61,6 +62,24 @@ public class GenerateJdbcModel implements ThrowingFunc1<Connection, JdbcModel> {
       primaryKey.primaryKeyName = primaryKeys.getString("PK_NAME");
       table.primaryKeys.add(primaryKey);
     }
+
+    // foreign keys
+    for (JdbcSchema schema : model.schemas) {
+      for (JdbcTable table : schema.tables) {
+        ResultSet importedKeys = meta.getImportedKeys(null, schema.schemaName, table.tableName);
+        while (importedKeys.next()) {
+          JdbcForeignKey foreignKey = new JdbcForeignKey();
+          foreignKey.columnName = importedKeys.getString("FKCOLUMN_NAME");
+          foreignKey.primaryKeySchemaName = importedKeys.getString("PKTABLE_SCHEM");
+          foreignKey.primaryKeyTableName = importedKeys.getString("PKTABLE_NAME");
+          foreignKey.primaryKeyColumnName = importedKeys.getString("PKCOLUMN_NAME");
+          foreignKey.sequenceNumber = importedKeys.getInt("KEY_SEQ");
+          foreignKey.foreignKeyName = importedKeys.getString("FK_NAME");
+          table.foreignKeys.add(foreignKey);
+        }
+        importedKeys.close();
+      }
+    }
     return model;
   }
 
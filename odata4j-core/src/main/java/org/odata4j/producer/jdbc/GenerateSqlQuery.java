@@ -5,6 +5,7 @@ import java.util.List;
 
 import org.odata4j.core.ImmutableList;
 import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmProperty;
 import org.odata4j.expression.BoolCommonExpression;
 import org.odata4j.producer.jdbc.JdbcModel.JdbcTable;
 import org.odata4j.producer.jdbc.SqlStatement.SqlParameter;
@@ -12,8 +13,16 @@ import org.odata4j.producer.jdbc.SqlStatement.SqlParameter;
 public class GenerateSqlQuery {
 
   public SqlStatement generate(JdbcMetadataMapping mapping, EdmEntitySet entitySet, BoolCommonExpression filter) {
-    JdbcTable table = mapping.getMappedTable(entitySet);
-    StringBuilder sb = new StringBuilder("SELECT * FROM " + table.tableName);
+    return generate(mapping, entitySet, entitySet.getType().getProperties(), filter);
+  }
+
+  /**
+   * Generates a query for the columns mapped to the given properties.
+   *
+   * @param properties  the properties to read, see {@link JdbcBaseCommand#getProjectedProperties}
+   */
+  public SqlStatement generate(JdbcMetadataMapping mapping, EdmEntitySet entitySet, Iterable<EdmProperty> properties, BoolCommonExpression filter) {
+    StringBuilder sb = select(mapping, entitySet, properties);
     List<SqlParameter> params = new ArrayList<SqlParameter>();
     if (filter != null) {
       GenerateWhereClause whereClauseGen = newWhereClauseGenerator(entitySet, mapping);
@@ -23,6 +32,53 @@ public class GenerateSqlQuery {
     return new SqlStatement(sb.toString(), ImmutableList.copyOf(params));
   }
 
+  /**
+   * Generates a query for the rows whose columns mapped to the key properties match one of the given tuples:
+   * {@code WHERE A IN (?, ?)} for a single key property, {@code WHERE (A = ? AND B = ?) OR (A = ? AND B = ?)} otherwise.
+   *
+   * @param keyValues  the tuples, each with a value per key property
+   */
+  public SqlStatement generate(JdbcMetadataMapping mapping, EdmEntitySet entitySet, Iterable<EdmProperty> properties,
+      List<EdmProperty> keyProperties, List<List<Object>> keyValues) {
+    StringBuilder sb = select(mapping, entitySet, properties);
+    List<SqlParameter> params = new ArrayList<SqlParameter>();
+    sb.append(" WHERE ");
+    if (keyProperties.size() == 1) {
+      sb.append(mapping.getMappedColumn(keyProperties.get(0)).columnName).append(" IN (");
+      for (int i = 0; i < keyValues.size(); i++) {
+        sb.append(i == 0 ? "?" : ", ?");
+        params.add(new SqlParameter(keyValues.get(i).get(0), null));
+      }
+      sb.append(")");
+    } else {
+      for (int i = 0; i < keyValues.size(); i++) {
+        sb.append(i == 0 ? "(" : " OR (");
+        for (int j = 0; j < keyProperties.size(); j++) {
+          if (j > 0)
+            sb.append(" AND ");
+          sb.append(mapping.getMappedColumn(keyProperties.get(j)).columnName).append(" = ?");
+          params.add(new SqlParameter(keyValues.get(i).get(j), null));
+        }
+        sb.append(")");
+      }
+    }
+    return new SqlStatement(sb.toString(), ImmutableList.copyOf(params));
+  }
+
+  private StringBuilder select(JdbcMetadataMapping mapping, EdmEntitySet entitySet, Iterable<EdmProperty> properties) {
+    JdbcTable table = mapping.getMappedTable(entitySet);
+    StringBuilder sb = new StringBuilder("SELECT ");
+    boolean first = true;
+    for (EdmProperty property : properties) {
+      if (!first)
+        sb.append(", ");
+      sb.append(mapping.getMappedColumn(property).columnName);
+      first = false;
+    }
+    sb.append(" FROM " + table.tableName);
+    return sb;
+  }
+
   public GenerateWhereClause newWhereClauseGenerator(EdmEntitySet entitySet, JdbcMetadataMapping mapping) {
     return new GenerateWhereClause(entitySet, mapping);
   }
@@ -0,0 +1,50 @@
+package org.odata4j.producer.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.odata4j.core.ImmutableList;
+import org.odata4j.core.OProperty;
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmProperty;
+import org.odata4j.expression.BoolCommonExpression;
+import org.odata4j.producer.jdbc.JdbcModel.JdbcColumn;
+import org.odata4j.producer.jdbc.JdbcModel.JdbcTable;
+import org.odata4j.producer.jdbc.SqlStatement.SqlParameter;
+
+public class GenerateSqlUpdate {
+
+  /**
+   * Generates an UPDATE of the given properties; key properties are not updated.
+   *
+   * @return the statement, or null if there is no property to update
+   */
+  public SqlStatement generate(JdbcMetadataMapping mapping, EdmEntitySet entitySet, Iterable<OProperty<?>> properties, BoolCommonExpression filter) {
+    JdbcTable table = mapping.getMappedTable(entitySet);
+    StringBuilder sql = new StringBuilder("UPDATE " + table.tableName + " SET ");
+    List<SqlParameter> params = new ArrayList<SqlParameter>();
+    for (OProperty<?> prop : properties) {
+      if (entitySet.getType().getKeys().contains(prop.getName()))
+        continue;
+      if (!params.isEmpty())
+        sql.append(", ");
+      EdmProperty edmProp = entitySet.getType().findProperty(prop.getName());
+      JdbcColumn column = mapping.getMappedColumn(edmProp);
+      sql.append(column.columnName).append(" = ?");
+      params.add(new SqlParameter(prop.getValue(), prop.getValue() == null ? Integer.valueOf(column.columnType) : null));
+    }
+    if (params.isEmpty())
+      return null;
+    if (filter != null) {
+      GenerateWhereClause whereClauseGen = newWhereClauseGenerator(entitySet, mapping);
+      whereClauseGen.visitNode(filter);
+      whereClauseGen.append(sql, params);
+    }
+    return new SqlStatement(sql.toString(), ImmutableList.copyOf(params));
+  }
+
+  public GenerateWhereClause newWhereClauseGenerator(EdmEntitySet entitySet, JdbcMetadataMapping mapping) {
+    return new GenerateWhereClause(entitySet, mapping);
+  }
+
+}
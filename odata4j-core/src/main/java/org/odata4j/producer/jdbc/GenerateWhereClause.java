@@ -1,8 +1,11 @@
 package org.odata4j.producer.jdbc;
 
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 import org.odata4j.edm.EdmEntitySet;
@@ -15,6 +18,7 @@ import org.odata4j.expression.BinaryLiteral;
 import org.odata4j.expression.BoolParenExpression;
 import org.odata4j.expression.BooleanLiteral;
 import org.odata4j.expression.ByteLiteral;
+import org.odata4j.expression.CommonExpression;
 import org.odata4j.expression.CastExpression;
 import org.odata4j.expression.CeilingMethodCallExpression;
 import org.odata4j.expression.ConcatMethodCallExpression;
@@ -67,9 +71,18 @@ import org.odata4j.expression.ToLowerMethodCallExpression;
 import org.odata4j.expression.ToUpperMethodCallExpression;
 import org.odata4j.expression.TrimMethodCallExpression;
 import org.odata4j.expression.YearMethodCallExpression;
+import org.odata4j.internal.TypeConverter;
 import org.odata4j.producer.jdbc.JdbcModel.JdbcColumn;
 import org.odata4j.producer.jdbc.SqlStatement.SqlParameter;
 
+/**
+ * Translates a filter expression into a SQL where clause.
+ *
+ * <p>Expressions without a translation throw an {@link UnsupportedOperationException},
+ * see {@link JdbcFilterPlanner} for evaluating those in memory instead.
+ * Override the <code>get*Function</code> methods for databases with other function names,
+ * and {@link #getLikeEscape()} for databases that treat a backslash in a string literal as an escape.</p>
+ */
 public class GenerateWhereClause extends PreOrderVisitor {
 
   private final StringBuilder sb = new StringBuilder();
@@ -79,6 +92,8 @@ public class GenerateWhereClause extends PreOrderVisitor {
   private final JdbcMetadataMapping mapping;
 
   private Stack<String> nextBetween = new Stack<String>();
+  private Stack<String> nextAfter = new Stack<String>();
+  private Map<CommonExpression, String> literalTemplates = new IdentityHashMap<CommonExpression, String>();
 
   public GenerateWhereClause(EdmEntitySet entitySet, JdbcMetadataMapping mapping) {
     this.entitySet = entitySet;
@@ -91,6 +106,16 @@ public class GenerateWhereClause extends PreOrderVisitor {
     params.addAll(this.params);
   }
 
+  @Override
+  public void visitNode(SubstringOfMethodCallExpression obj) {
+    obj.visitThis(this);
+    beforeDescend();
+    visitNode(obj.getTarget());
+    betweenDescend();
+    visitNode(obj.getValue());
+    afterDescend();
+  }
+
   @Override
   public void beforeDescend() {
 
@@ -98,7 +123,7 @@ public class GenerateWhereClause extends PreOrderVisitor {
 
   @Override
   public void afterDescend() {
-
+    sb.append(nextAfter.pop());
   }
 
   @Override
@@ -131,6 +156,7 @@ public class GenerateWhereClause extends PreOrderVisitor {
   @Override
   public void visit(AndExpression expr) {
     nextBetween.push(" AND ");
+    nextAfter.push("");
   }
 
   @Override
@@ -150,7 +176,8 @@ public class GenerateWhereClause extends PreOrderVisitor {
 
   @Override
   public void visit(DateTimeLiteral expr) {
-    throw new UnsupportedOperationException();
+    sb.append("?");
+    params.add(new SqlParameter(TypeConverter.convert(expr.getValue(), Timestamp.class), Types.TIMESTAMP));
   }
 
   @Override
@@ -160,7 +187,8 @@ public class GenerateWhereClause extends PreOrderVisitor {
 
   @Override
   public void visit(DecimalLiteral expr) {
-    throw new UnsupportedOperationException();
+    sb.append("?");
+    params.add(new SqlParameter(expr.getValue(), Types.DECIMAL));
   }
 
   @Override
@@ -170,29 +198,34 @@ public class GenerateWhereClause extends PreOrderVisitor {
 
   @Override
   public void visit(EndsWithMethodCallExpression expr) {
-    throw new UnsupportedOperationException();
+    like(expr.getValue(), "%%%s");
   }
 
   @Override
   public void visit(EntitySimpleProperty expr) {
     EdmProperty edmProp = entitySet.getType().findProperty(expr.getPropertyName());
-    JdbcColumn column = mapping.getMappedColumn(edmProp);
+    JdbcColumn column = edmProp == null ? null : mapping.getMappedColumn(edmProp);
+    if (column == null)
+      throw new UnsupportedOperationException("Unmapped property: " + expr.getPropertyName());
     sb.append(column.columnName);
   }
 
   @Override
   public void visit(EqExpression expr) {
-    nextBetween.push(" = ");
+    nextBetween.push(isNull(expr.getRHS()) ? " IS " : " = ");
+    nextAfter.push("");
   }
 
   @Override
   public void visit(GeExpression expr) {
     nextBetween.push(" >= ");
+    nextAfter.push("");
   }
 
   @Override
   public void visit(GtExpression expr) {
     nextBetween.push(" > ");
+    nextAfter.push("");
   }
 
   @Override
@@ -222,12 +255,14 @@ public class GenerateWhereClause extends PreOrderVisitor {
 
   @Override
   public void visit(SingleLiteral expr) {
-    throw new UnsupportedOperationException();
+    sb.append("?");
+    params.add(new SqlParameter(expr.getValue(), Types.REAL));
   }
 
   @Override
   public void visit(DoubleLiteral expr) {
-    throw new UnsupportedOperationException();
+    sb.append("?");
+    params.add(new SqlParameter(expr.getValue(), Types.DOUBLE));
   }
 
   @Override
@@ -238,7 +273,8 @@ public class GenerateWhereClause extends PreOrderVisitor {
 
   @Override
   public void visit(Int64Literal expr) {
-    throw new UnsupportedOperationException();
+    sb.append("?");
+    params.add(new SqlParameter(expr.getValue(), Types.BIGINT));
   }
 
   @Override
@@ -249,6 +285,7 @@ public class GenerateWhereClause extends PreOrderVisitor {
   @Override
   public void visit(LeExpression expr) {
     nextBetween.push(" <= ");
+    nextAfter.push("");
   }
 
   @Override
@@ -259,6 +296,7 @@ public class GenerateWhereClause extends PreOrderVisitor {
   @Override
   public void visit(LtExpression expr) {
     nextBetween.push(" < ");
+    nextAfter.push("");
   }
 
   @Override
@@ -273,7 +311,8 @@ public class GenerateWhereClause extends PreOrderVisitor {
 
   @Override
   public void visit(NeExpression expr) {
-    nextBetween.push(" <> ");
+    nextBetween.push(isNull(expr.getRHS()) ? " IS NOT " : " <> ");
+    nextAfter.push("");
   }
 
   @Override
@@ -283,27 +322,34 @@ public class GenerateWhereClause extends PreOrderVisitor {
 
   @Override
   public void visit(NotExpression expr) {
-    throw new UnsupportedOperationException();
+    sb.append("NOT (");
+    nextAfter.push(")");
   }
 
   @Override
   public void visit(NullLiteral expr) {
-    throw new UnsupportedOperationException();
+    if (!literalTemplates.containsKey(expr))
+      throw new UnsupportedOperationException("null is only supported in eq and ne");
+    sb.append("NULL");
   }
 
   @Override
   public void visit(OrExpression expr) {
-    throw new UnsupportedOperationException();
+    sb.append("(");
+    nextBetween.push(" OR ");
+    nextAfter.push(")");
   }
 
   @Override
   public void visit(ParenExpression expr) {
-    throw new UnsupportedOperationException();
+    sb.append("(");
+    nextAfter.push(")");
   }
 
   @Override
   public void visit(BoolParenExpression expr) {
-    throw new UnsupportedOperationException();
+    sb.append("(");
+    nextAfter.push(")");
   }
 
   @Override
@@ -313,13 +359,15 @@ public class GenerateWhereClause extends PreOrderVisitor {
 
   @Override
   public void visit(StartsWithMethodCallExpression expr) {
-    throw new UnsupportedOperationException();
+    like(expr.getValue(), "%s%%");
   }
 
   @Override
   public void visit(StringLiteral expr) {
+    String template = literalTemplates.get(expr);
+    String value = template == null ? expr.getValue() : String.format(template, escapeLike(expr.getValue()));
     sb.append("?");
-    params.add(new SqlParameter(expr.getValue(), Types.VARCHAR));
+    params.add(new SqlParameter(value, Types.VARCHAR));
   }
 
   @Override
@@ -334,7 +382,9 @@ public class GenerateWhereClause extends PreOrderVisitor {
 
   @Override
   public void visit(SubstringOfMethodCallExpression expr) {
-    throw new UnsupportedOperationException();
+    if (expr.getTarget() == null)
+      throw new UnsupportedOperationException();
+    like(expr.getValue(), "%%%s%%");
   }
 
   @Override
@@ -344,12 +394,12 @@ public class GenerateWhereClause extends PreOrderVisitor {
 
   @Override
   public void visit(ToLowerMethodCallExpression expr) {
-    throw new UnsupportedOperationException();
+    function(getToLowerFunction());
   }
 
   @Override
   public void visit(ToUpperMethodCallExpression expr) {
-    throw new UnsupportedOperationException();
+    function(getToUpperFunction());
   }
 
   @Override
@@ -359,32 +409,32 @@ public class GenerateWhereClause extends PreOrderVisitor {
 
   @Override
   public void visit(YearMethodCallExpression expr) {
-    throw new UnsupportedOperationException();
+    function(getDatePartFunction("YEAR"));
   }
 
   @Override
   public void visit(MonthMethodCallExpression expr) {
-    throw new UnsupportedOperationException();
+    function(getDatePartFunction("MONTH"));
   }
 
   @Override
   public void visit(DayMethodCallExpression expr) {
-    throw new UnsupportedOperationException();
+    function(getDatePartFunction("DAY"));
   }
 
   @Override
   public void visit(HourMethodCallExpression expr) {
-    throw new UnsupportedOperationException();
+    function(getDatePartFunction("HOUR"));
   }
 
   @Override
   public void visit(MinuteMethodCallExpression expr) {
-    throw new UnsupportedOperationException();
+    function(getDatePartFunction("MINUTE"));
   }
 
   @Override
   public void visit(SecondMethodCallExpression expr) {
-    throw new UnsupportedOperationException();
+    function(getDatePartFunction("SECOND"));
   }
 
   @Override
@@ -412,4 +462,67 @@ public class GenerateWhereClause extends PreOrderVisitor {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Gets the function converting a string to lower case, <code>%s</code> stands for its argument.
+   */
+  protected String getToLowerFunction() {
+    return "LOWER(%s)";
+  }
+
+  /**
+   * Gets the function converting a string to upper case, <code>%s</code> stands for its argument.
+   */
+  protected String getToUpperFunction() {
+    return "UPPER(%s)";
+  }
+
+  /**
+   * Gets the function extracting a part of a date time value, <code>%s</code> stands for its argument.
+   *
+   * @param part  one of YEAR, MONTH, DAY, HOUR, MINUTE or SECOND
+   */
+  protected String getDatePartFunction(String part) {
+    return "EXTRACT(" + part + " FROM %s)";
+  }
+
+  /**
+   * Gets the character escaping <code>%</code> and <code>_</code> in LIKE patterns.
+   * MySQL and MariaDB need another character than the default backslash, e.g. <code>'!'</code>.
+   */
+  protected char getLikeEscape() {
+    return '\\';
+  }
+
+  private void function(String function) {
+    int i = function.indexOf("%s");
+    sb.append(function.substring(0, i));
+    nextAfter.push(function.substring(i + 2));
+  }
+
+  private void like(CommonExpression pattern, String template) {
+    if (!(pattern instanceof StringLiteral))
+      throw new UnsupportedOperationException("LIKE needs a string literal pattern");
+    literalTemplates.put(pattern, template);
+    nextBetween.push(" LIKE ");
+    nextAfter.push(" ESCAPE '" + getLikeEscape() + "'");
+  }
+
+  private boolean isNull(CommonExpression expr) {
+    if (!(expr instanceof NullLiteral))
+      return false;
+    literalTemplates.put(expr, null);
+    return true;
+  }
+
+  private String escapeLike(String value) {
+    char escape = getLikeEscape();
+    StringBuilder rt = new StringBuilder();
+    for (char c : value.toCharArray()) {
+      if (c == '%' || c == '_' || c == escape)
+        rt.append(escape);
+      rt.append(c);
+    }
+    return rt.toString();
+  }
+
 }
\ No newline at end of file
@@ -1,41 +1,99 @@
 package org.odata4j.producer.jdbc;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.core4j.Enumerable;
 import org.core4j.Func1;
+import org.core4j.ThrowingFunc1;
 import org.odata4j.core.NamedValue;
-import org.odata4j.core.OEntities;
 import org.odata4j.core.OEntity;
 import org.odata4j.core.OEntityKey;
-import org.odata4j.core.OLink;
+import org.odata4j.core.OFuncs;
 import org.odata4j.core.OProperties;
 import org.odata4j.core.OProperty;
+import org.odata4j.core.Throwables;
 import org.odata4j.edm.EdmEntitySet;
 import org.odata4j.edm.EdmEntityType;
 import org.odata4j.edm.EdmProperty;
+import org.odata4j.edm.EdmSimpleType;
+import org.odata4j.exceptions.BadRequestException;
+import org.odata4j.exceptions.NotFoundException;
 import org.odata4j.expression.BoolCommonExpression;
+import org.odata4j.expression.EntitySimpleProperty;
 import org.odata4j.expression.Expression;
-import org.odata4j.producer.jdbc.JdbcModel.JdbcColumn;
+import org.odata4j.producer.inmemory.InMemoryEvaluation;
+import org.odata4j.producer.inmemory.PropertyModel;
 
 public class JdbcBaseCommand {
 
   protected OEntity toOEntity(JdbcMetadataMapping mapping, EdmEntitySet entitySet, ResultSet results) throws SQLException {
-    List<OProperty<?>> properties = new ArrayList<OProperty<?>>();
+    return toOEntity(mapping, entitySet, entitySet.getType().getProperties(), null, results);
+  }
+
+  /**
+   * Creates an entity from the current row of a query generated for the given properties.
+   * Key properties are only used for the entity key unless they are selected.
+   * Prefer a {@link #newRowMapper row mapper} when reading more than one row.
+   */
+  protected OEntity toOEntity(JdbcMetadataMapping mapping, EdmEntitySet entitySet, Iterable<EdmProperty> projectedProperties,
+      List<EntitySimpleProperty> select, ResultSet results) throws SQLException {
+    return newRowMapper(mapping, entitySet, projectedProperties, select, results).toOEntity(results);
+  }
+
+  /**
+   * Creates the row mapper for a result set of a query generated for the given properties.
+   */
+  protected JdbcRowMapper newRowMapper(JdbcMetadataMapping mapping, EdmEntitySet entitySet, Iterable<EdmProperty> projectedProperties,
+      List<EntitySimpleProperty> select, ResultSet results) throws SQLException {
+    return new JdbcRowMapper(mapping, entitySet, projectedProperties, select, results);
+  }
+
+  /**
+   * Gets the properties to read for a $select: the key properties and the selected properties.
+   */
+  protected List<EdmProperty> getProjectedProperties(EdmEntitySet entitySet, List<EntitySimpleProperty> select) {
+    List<EdmProperty> properties = new ArrayList<EdmProperty>();
     for (EdmProperty edmProperty : entitySet.getType().getProperties()) {
-      JdbcColumn column = mapping.getMappedColumn(edmProperty);
-      Object value = results.getObject(column.columnName);
-      OProperty<?> property = OProperties.simple(edmProperty.getName(), value);
-      properties.add(property);
+      if (entitySet.getType().getKeys().contains(edmProperty.getName()) || isSelected(edmProperty.getName(), select))
+        properties.add(edmProperty);
     }
+    return properties;
+  }
+
+  /**
+   * Gets the properties to read for a $select and a residual filter: all properties if there is
+   * a residual filter to evaluate, otherwise the key properties and the selected properties.
+   */
+  protected List<EdmProperty> getProjectedProperties(EdmEntitySet entitySet, List<EntitySimpleProperty> select, BoolCommonExpression residualFilter) {
+    return getProjectedProperties(entitySet, residualFilter == null ? select : null);
+  }
 
-    OEntityKey entityKey = OEntityKey.infer(entitySet, properties);
-    return OEntities.create(entitySet, entityKey, properties, Collections.<OLink> emptyList());
+  /**
+   * Evaluates the residual filter against the current row of a query generated for all properties.
+   *
+   * @see JdbcFilterPlanner
+   */
+  protected boolean evaluate(JdbcRowMapper rowMapper, BoolCommonExpression residualFilter, ResultSet results) {
+    return residualFilter == null || InMemoryEvaluation.evaluate(residualFilter, results, new RowPropertyModel(rowMapper));
+  }
+
+  protected static boolean isSelected(String name, List<EntitySimpleProperty> select) {
+    if (select == null || select.isEmpty())
+      return true;
+    for (EntitySimpleProperty prop : select) {
+      if (prop.isSelectionMatch(name))
+        return true;
+    }
+    return false;
   }
 
   protected BoolCommonExpression prependPrimaryKeyFilter(JdbcMetadataMapping mapping, EdmEntityType entityType,
@@ -63,4 +121,152 @@ public class JdbcBaseCommand {
     return newFilter;
   }
 
+  /**
+   * Updates the row of an entity.  An update sets all non-key properties, properties missing in the
+   * entity to null; a merge only sets the properties of the entity.  Within a change set the update
+   * is added to the change set instead of being executed.
+   */
+  protected void updateEntity(JdbcProducerCommandContext jdbcContext, String entitySetName, OEntity entity, boolean merge) {
+    JdbcMetadataMapping mapping = jdbcContext.getBackend().getMetadataMapping();
+    EdmEntitySet entitySet = mapping.getMetadata().findEdmEntitySet(entitySetName);
+    if (entitySet == null)
+      throw new NotFoundException();
+
+    Map<String, OProperty<?>> values = new HashMap<String, OProperty<?>>();
+    for (OProperty<?> property : entity.getProperties()) {
+      if (entitySet.getType().findProperty(property.getName()) == null)
+        throw new BadRequestException("Unknown property " + property.getName());
+      values.put(property.getName(), property);
+    }
+    List<OProperty<?>> properties = new ArrayList<OProperty<?>>();
+    for (EdmProperty edmProperty : entitySet.getType().getProperties()) {
+      OProperty<?> property = values.get(edmProperty.getName());
+      if (property == null && !merge)
+        property = OProperties.null_(edmProperty.getName(), (EdmSimpleType<?>) edmProperty.getType());
+      if (property != null)
+        properties.add(property);
+    }
+
+    OEntityKey entityKey = entity.getEntityKey() != null ? entity.getEntityKey() : OEntityKey.infer(entitySet, entity.getProperties());
+    BoolCommonExpression filter = prependPrimaryKeyFilter(mapping, entitySet.getType(), entityKey, null);
+    final SqlStatement sqlStatement = jdbcContext.get(GenerateSqlUpdate.class).generate(mapping, entitySet, properties, filter);
+    if (sqlStatement == null)
+      return;
+
+    JdbcChangeSet changeSet = jdbcContext.getBackend().getChangeSet();
+    if (changeSet != null) {
+      changeSet.add(sqlStatement, "Entity not updated");
+      return;
+    }
+    executeForOneRow(jdbcContext.getJdbc(), sqlStatement, "updated");
+  }
+
+  /**
+   * Executes a statement that has to change exactly one row, in a transaction that is rolled back
+   * if it changes none or several.
+   *
+   * @param verb  what the statement does to the row, for the error messages
+   */
+  protected static void executeForOneRow(Jdbc jdbc, final SqlStatement sqlStatement, final String verb) {
+    jdbc.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+          PreparedStatement stmt = sqlStatement.asPreparedStatement(conn);
+          int updated;
+          try {
+            updated = stmt.executeUpdate();
+          } finally {
+            SqlStatement.close(stmt);
+          }
+          if (updated == 0)
+            throw new BadRequestException("Entity not " + verb);
+          if (updated > 1)
+            throw new BadRequestException("The key matches " + updated + " entities, none " + verb);
+          conn.commit();
+        } catch (Exception e) {
+          conn.rollback();
+          throw e;
+        } finally {
+          conn.setAutoCommit(autoCommit);
+        }
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Reads the property values of the current row of a result set.  The properties are those of the
+   * entity type; JDBC entity types have no collections, and rows cannot be changed.
+   */
+  private static class RowPropertyModel implements PropertyModel {
+
+    private final JdbcRowMapper rowMapper;
+    private final EdmEntityType entityType;
+
+    public RowPropertyModel(JdbcRowMapper rowMapper) {
+      this.rowMapper = rowMapper;
+      this.entityType = rowMapper.getEntitySet().getType();
+    }
+
+    @Override
+    public Object getPropertyValue(Object target, String propertyName) {
+      try {
+        return rowMapper.getValue((ResultSet) target, propertyName);
+      } catch (SQLException e) {
+        throw Throwables.propagate(e);
+      }
+    }
+
+    @Override
+    public void setPropertyValue(Object target, String propertyName, Object value) {
+      throw new UnsupportedOperationException("Rows of " + rowMapper.getEntitySet().getName() + " are read-only");
+    }
+
+    @Override
+    public Iterable<String> getPropertyNames() {
+      return entityType.getProperties().select(OFuncs.name(EdmProperty.class));
+    }
+
+    @Override
+    public Iterable<String> getDeclaredPropertyNames() {
+      return entityType.getDeclaredProperties().select(OFuncs.name(EdmProperty.class));
+    }
+
+    @Override
+    public Class<?> getPropertyType(String propertyName) {
+      EdmProperty property = entityType.findProperty(propertyName);
+      return property != null && property.getType() instanceof EdmSimpleType
+          ? ((EdmSimpleType<?>) property.getType()).getCanonicalJavaType()
+          : null;
+    }
+
+    @Override
+    public Iterable<?> getCollectionValue(Object target, String collectionName) {
+      throw new IllegalArgumentException("No collection found for collectionName " + collectionName);
+    }
+
+    @Override
+    public void setCollectionValue(Object target, String collectionName, Collection<?> value) {
+      throw new UnsupportedOperationException("Rows of " + rowMapper.getEntitySet().getName() + " are read-only");
+    }
+
+    @Override
+    public Iterable<String> getCollectionNames() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public Iterable<String> getDeclaredCollectionNames() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public Class<?> getCollectionElementType(String collectionName) {
+      return null;
+    }
+  }
+
 }
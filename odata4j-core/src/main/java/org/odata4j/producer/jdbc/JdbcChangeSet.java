@@ -0,0 +1,158 @@
+package org.odata4j.producer.jdbc;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.core4j.ThrowingFunc1;
+import org.odata4j.exceptions.BadRequestException;
+import org.odata4j.exceptions.ServerErrorException;
+
+/**
+ * The writes of a {@code $batch} change set, applied in a single transaction.
+ *
+ * <p>Consecutive statements with the same SQL, e.g. the inserts into one table, are sent to the database
+ * as one JDBC batch. The order of the statements is kept, so writes depending on each other are applied
+ * in the order of the change set.</p>
+ */
+public class JdbcChangeSet {
+
+  private static class Change {
+    final SqlStatement statement;
+    final String notAppliedMessage;
+
+    Change(SqlStatement statement, String notAppliedMessage) {
+      this.statement = statement;
+      this.notAppliedMessage = notAppliedMessage;
+    }
+  }
+
+  private final List<Change> changes = new ArrayList<Change>();
+
+  /**
+   * Adds a statement that has to change at least one row.
+   *
+   * @param notAppliedMessage  the message of the error if the statement changes no row
+   */
+  public void add(SqlStatement statement, String notAppliedMessage) {
+    changes.add(new Change(statement, notAppliedMessage));
+  }
+
+  public int size() {
+    return changes.size();
+  }
+
+  /**
+   * Executes the statements in a single transaction, which is rolled back if a statement fails.
+   *
+   * @throws BadRequestException  if a statement changes no row, or violates a constraint or has invalid data
+   * @throws ServerErrorException  if a statement fails for another reason, e.g. a lost connection
+   */
+  public void execute(Jdbc jdbc) {
+    if (changes.isEmpty())
+      return;
+    jdbc.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+          executeBatches(conn);
+          conn.commit();
+        } catch (SQLException e) {
+          conn.rollback();
+          if (isDataError(e))
+            throw new BadRequestException("Change set not applied: " + e.getMessage(), e);
+          throw new ServerErrorException("Change set not applied: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+          conn.rollback();
+          throw e;
+        } finally {
+          conn.setAutoCommit(autoCommit);
+        }
+        return null;
+      }
+    });
+  }
+
+  private void executeBatches(Connection conn) throws SQLException {
+    int start = 0;
+    while (start < changes.size()) {
+      String sql = changes.get(start).statement.sql;
+      int end = start + 1;
+      while (end < changes.size() && changes.get(end).statement.sql.equals(sql))
+        end++;
+
+      PreparedStatement stmt = conn.prepareStatement(sql);
+      try {
+        for (int i = start; i < end; i++)
+          changes.get(i).statement.addBatch(stmt);
+        int[] updated;
+        try {
+          updated = stmt.executeBatch();
+        } catch (BatchUpdateException e) {
+          throw diagnose(conn, e, start, end);
+        }
+        for (int i = 0; i < updated.length; i++) {
+          if (updated[i] == 0)
+            throw new BadRequestException(changes.get(start + i).notAppliedMessage);
+        }
+      } finally {
+        stmt.close();
+      }
+      start = end;
+    }
+  }
+
+  /**
+   * Adds the error of the statement a batch failed at, if the driver does not report it with the batch
+   * failure, by executing the statement on its own.  The transaction is rolled back afterwards anyway.
+   */
+  private BatchUpdateException diagnose(Connection conn, BatchUpdateException e, int start, int end) {
+    if (e.getSQLState() != null || e.getNextException() != null || e.getCause() != null)
+      return e;
+    int[] updated = e.getUpdateCounts();
+    int failed = updated == null ? 0 : updated.length;
+    for (int i = 0; updated != null && i < updated.length; i++) {
+      if (updated[i] == Statement.EXECUTE_FAILED) {
+        failed = i;
+        break;
+      }
+    }
+    if (start + failed >= end)
+      return e;
+    try {
+      PreparedStatement stmt = changes.get(start + failed).statement.asPreparedStatement(conn);
+      try {
+        stmt.executeUpdate();
+      } finally {
+        SqlStatement.close(stmt);
+      }
+    } catch (SQLException cause) {
+      e.setNextException(cause);
+    }
+    return e;
+  }
+
+  /**
+   * Tells whether a statement failed because of the data written: SQLState class 22 (data exception)
+   * or 23 (integrity constraint violation), also as the cause of a failed batch.
+   */
+  private static boolean isDataError(SQLException e) {
+    String state = e.getSQLState();
+    if (state != null && (state.startsWith("22") || state.startsWith("23")))
+      return true;
+    if (e instanceof BatchUpdateException) {
+      if (e.getNextException() != null)
+        return isDataError(e.getNextException());
+      if (e.getCause() instanceof SQLException && e.getCause() != e)
+        return isDataError((SQLException) e.getCause());
+    }
+    return false;
+  }
+
+}
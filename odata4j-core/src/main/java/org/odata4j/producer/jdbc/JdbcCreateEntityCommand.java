@@ -2,12 +2,15 @@ package org.odata4j.producer.jdbc;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.util.Collections;
 
 import org.core4j.ThrowingFunc1;
 import org.odata4j.command.Command;
 import org.odata4j.command.CommandResult;
+import org.odata4j.core.OEntities;
 import org.odata4j.core.OEntity;
 import org.odata4j.core.OEntityKey;
+import org.odata4j.core.OLink;
 import org.odata4j.edm.EdmEntitySet;
 import org.odata4j.exceptions.BadRequestException;
 import org.odata4j.exceptions.NotFoundException;
@@ -31,11 +34,34 @@ public class JdbcCreateEntityCommand implements Command<CreateEntityCommandConte
 
     GenerateSqlInsert insertGen = jdbcContext.get(GenerateSqlInsert.class);
     final SqlStatement sqlStatement = insertGen.generate(mapping, entitySet, context.getEntity());
+
+    JdbcChangeSet changeSet = jdbcContext.getBackend().getChangeSet();
+    if (changeSet != null) {
+      // the row is inserted when the change set is committed, so answer with the entity as sent;
+      // a key generated by the database is not known by then
+      OEntityKey entityKey;
+      try {
+        entityKey = OEntityKey.infer(entitySet, context.getEntity().getProperties());
+      } catch (IllegalArgumentException e) {
+        throw new BadRequestException("Entities created in a change set need their key", e);
+      }
+      changeSet.add(sqlStatement, "Entity not inserted");
+      OEntity newEntity = OEntities.create(entitySet, entityKey, context.getEntity().getProperties(), Collections.<OLink> emptyList());
+      context.setResult(Responses.entity(newEntity));
+      return CommandResult.CONTINUE;
+    }
+
+    OEntityKey entityKey = OEntityKey.infer(entitySet, context.getEntity().getProperties());
     jdbcContext.getJdbc().execute(new ThrowingFunc1<Connection, Void>() {
       @Override
       public Void apply(Connection conn) throws Exception {
         PreparedStatement stmt = sqlStatement.asPreparedStatement(conn);
-        int updated = stmt.executeUpdate();
+        int updated;
+        try {
+          updated = stmt.executeUpdate();
+        } finally {
+          SqlStatement.close(stmt);
+        }
         if (updated == 0)
           throw new BadRequestException("Entity not inserted");
         return null;
@@ -43,7 +69,6 @@ public class JdbcCreateEntityCommand implements Command<CreateEntityCommandConte
     });
 
     // now re-query for inserted entity
-    OEntityKey entityKey = OEntityKey.infer(entitySet, context.getEntity().getProperties());
     GetEntityCommandContext getEntityCommandContext = jdbcContext.getBackend().newGetEntityCommandContext(entitySetName, entityKey, null);
     jdbcContext.getBackend().getCommand(GetEntityCommandContext.class).execute(getEntityCommandContext);
     OEntity newEntity = getEntityCommandContext.getResult().getEntity();
@@ -0,0 +1,252 @@
+package org.odata4j.producer.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.odata4j.core.OEntities;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OLink;
+import org.odata4j.core.OLinks;
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmProperty;
+import org.odata4j.exceptions.BadRequestException;
+import org.odata4j.expression.EntitySimpleProperty;
+import org.odata4j.producer.jdbc.JdbcMetadataMapping.JdbcNavigation;
+
+/**
+ * Reads the related entities of an {@code $expand} and stitches them into inline links.
+ *
+ * <p>The related entities of a navigation property are read for all entities of a level at once,
+ * restricting the joined columns to the values found on the level above, e.g.
+ * {@code WHERE CUSTOMER_ID IN (?, ?, ?)}. That is one query per navigation property and level
+ * instead of one per entity; only very large pages are split into several queries.</p>
+ */
+public class JdbcExpander {
+
+  /** A navigation property to expand, and the ones to expand from its entities. */
+  private static class Node {
+    final EdmEntitySet entitySet;
+    final JdbcNavigation navigation;
+    final Map<String, Node> children = new LinkedHashMap<String, Node>();
+    private Set<EdmProperty> joinProperties;
+
+    Node(EdmEntitySet entitySet, JdbcNavigation navigation) {
+      this.entitySet = entitySet;
+      this.navigation = navigation;
+    }
+
+    /** Gets the properties joining the entities of this node to the ones above and below. */
+    Set<EdmProperty> getJoinProperties() {
+      if (joinProperties == null) {
+        joinProperties = new LinkedHashSet<EdmProperty>();
+        if (navigation != null)
+          joinProperties.addAll(navigation.targetProperties);
+        for (Node child : children.values())
+          joinProperties.addAll(child.navigation.sourceProperties);
+      }
+      return joinProperties;
+    }
+  }
+
+  /** An entity read from a row, with the values of its join properties. */
+  private static class Row {
+    final OEntity entity;
+    final Map<String, Object> values = new HashMap<String, Object>();
+
+    Row(OEntity entity) {
+      this.entity = entity;
+    }
+
+    /** Gets the values of the given properties, or null if one of them is null. */
+    List<Object> getKey(List<EdmProperty> properties) {
+      List<Object> key = new ArrayList<Object>(properties.size());
+      for (EdmProperty property : properties) {
+        Object value = values.get(property.getName());
+        if (value == null)
+          return null;
+        key.add(normalize(value));
+      }
+      return key;
+    }
+  }
+
+  /** The entities of a query and the navigation properties to expand from them. */
+  public class Expansion {
+
+    private final JdbcProducerCommandContext jdbcContext;
+    private final JdbcMetadataMapping mapping;
+    private final Node root;
+    private final List<Row> rows = new ArrayList<Row>();
+
+    private Expansion(JdbcProducerCommandContext jdbcContext, JdbcMetadataMapping mapping, Node root) {
+      this.jdbcContext = jdbcContext;
+      this.mapping = mapping;
+      this.root = root;
+    }
+
+    /**
+     * Adds the properties needed to join the related entities to the properties read by the query.
+     */
+    public List<EdmProperty> project(List<EdmProperty> properties) {
+      List<EdmProperty> rt = new ArrayList<EdmProperty>(properties);
+      for (EdmProperty property : root.getJoinProperties()) {
+        if (!rt.contains(property))
+          rt.add(property);
+      }
+      return rt;
+    }
+
+    /**
+     * Adds the entity read from the current row of the query.
+     */
+    public void add(OEntity entity, JdbcRowMapper rowMapper, ResultSet results) throws SQLException {
+      rows.add(newRow(root, entity, rowMapper, results));
+    }
+
+    /**
+     * Reads the related entities of the entities added.
+     *
+     * @return the entities added, in the same order, with inline links to their related entities
+     */
+    public List<OEntity> expand(Connection conn) throws SQLException {
+      return JdbcExpander.this.expand(this, conn, root, rows);
+    }
+  }
+
+  /**
+   * Creates the expansion of a query.
+   *
+   * @param expand  the navigation properties to expand, possibly paths like {@code Orders/Details}
+   * @param select  the selected properties; only selected navigation properties are expanded
+   * @return the expansion, or null if there is nothing to expand
+   * @throws BadRequestException  if a navigation property does not exist
+   */
+  public Expansion newExpansion(JdbcProducerCommandContext jdbcContext, JdbcMetadataMapping mapping, EdmEntitySet entitySet,
+      List<EntitySimpleProperty> expand, List<EntitySimpleProperty> select) {
+    if (expand == null || expand.isEmpty())
+      return null;
+
+    Node root = new Node(entitySet, null);
+    for (EntitySimpleProperty path : expand) {
+      Node node = root;
+      for (String name : path.getPropertyName().split("/")) {
+        Node child = node.children.get(name);
+        if (child == null) {
+          JdbcNavigation navigation = mapping.getMappedNavigation(node.entitySet, name);
+          if (navigation == null)
+            throw new BadRequestException("Unknown navigation property " + name);
+          child = new Node(navigation.targetEntitySet, navigation);
+          node.children.put(name, child);
+        }
+        node = child;
+      }
+    }
+    for (Iterator<String> names = root.children.keySet().iterator(); names.hasNext();) {
+      if (!JdbcBaseCommand.isSelected(names.next(), select))
+        names.remove();
+    }
+    return root.children.isEmpty() ? null : new Expansion(jdbcContext, mapping, root);
+  }
+
+  /**
+   * Gets the maximum number of join values in a query for related entities.  More values are split into several queries.
+   */
+  public int getMaxJoinValues() {
+    return 500;
+  }
+
+  private List<OEntity> expand(Expansion expansion, Connection conn, Node node, List<Row> rows) throws SQLException {
+    Map<String, Map<List<Object>, List<OEntity>>> related = new HashMap<String, Map<List<Object>, List<OEntity>>>();
+    for (Map.Entry<String, Node> child : node.children.entrySet()) {
+      JdbcNavigation navigation = child.getValue().navigation;
+      Set<List<Object>> keys = new LinkedHashSet<List<Object>>();
+      for (Row row : rows) {
+        List<Object> key = row.getKey(navigation.sourceProperties);
+        if (key != null)
+          keys.add(key);
+      }
+
+      List<Row> targetRows = query(expansion, conn, child.getValue(), new ArrayList<List<Object>>(keys));
+      List<OEntity> targets = expand(expansion, conn, child.getValue(), targetRows);
+      Map<List<Object>, List<OEntity>> targetsByKey = new HashMap<List<Object>, List<OEntity>>();
+      for (int i = 0; i < targetRows.size(); i++) {
+        List<Object> key = targetRows.get(i).getKey(navigation.targetProperties);
+        if (!targetsByKey.containsKey(key))
+          targetsByKey.put(key, new ArrayList<OEntity>());
+        targetsByKey.get(key).add(targets.get(i));
+      }
+      related.put(child.getKey(), targetsByKey);
+    }
+
+    List<OEntity> rt = new ArrayList<OEntity>(rows.size());
+    for (Row row : rows) {
+      if (node.children.isEmpty()) {
+        rt.add(row.entity);
+        continue;
+      }
+      List<OLink> links = new ArrayList<OLink>();
+      for (Map.Entry<String, Node> child : node.children.entrySet()) {
+        JdbcNavigation navigation = child.getValue().navigation;
+        List<Object> key = row.getKey(navigation.sourceProperties);
+        List<OEntity> targets = key == null ? null : related.get(child.getKey()).get(key);
+        if (targets == null)
+          targets = Collections.emptyList();
+        // relation and href are filled in by the format writers
+        if (navigation.isMany)
+          links.add(OLinks.relatedEntitiesInline(null, child.getKey(), null, targets));
+        else
+          links.add(OLinks.relatedEntityInline(null, child.getKey(), null, targets.isEmpty() ? null : targets.get(0)));
+      }
+      rt.add(OEntities.create(node.entitySet, row.entity.getEntityKey(), row.entity.getProperties(), links));
+    }
+    return rt;
+  }
+
+  private List<Row> query(Expansion expansion, Connection conn, Node node, List<List<Object>> keys) throws SQLException {
+    List<Row> rows = new ArrayList<Row>();
+    Iterable<EdmProperty> properties = node.entitySet.getType().getProperties();
+    GenerateSqlQuery queryGen = expansion.jdbcContext.get(GenerateSqlQuery.class);
+    int fetchSize = expansion.jdbcContext.getBackend().getFetchSize();
+    int maxJoinValues = getMaxJoinValues();
+    for (int start = 0; start < keys.size(); start += maxJoinValues) {
+      List<List<Object>> chunk = keys.subList(start, Math.min(keys.size(), start + maxJoinValues));
+      SqlStatement sqlStatement = queryGen.generate(expansion.mapping, node.entitySet, properties, node.navigation.targetProperties, chunk);
+      PreparedStatement stmt = sqlStatement.asQuery(conn, fetchSize);
+      try {
+        ResultSet results = stmt.executeQuery();
+        JdbcRowMapper rowMapper = new JdbcRowMapper(expansion.mapping, node.entitySet, properties, null, results);
+        while (results.next())
+          rows.add(newRow(node, rowMapper.toOEntity(results), rowMapper, results));
+      } finally {
+        SqlStatement.close(stmt);
+      }
+    }
+    return rows;
+  }
+
+  private static Row newRow(Node node, OEntity entity, JdbcRowMapper rowMapper, ResultSet results) throws SQLException {
+    Row row = new Row(entity);
+    for (EdmProperty property : node.getJoinProperties())
+      row.values.put(property.getName(), rowMapper.getValue(results, property.getName()));
+    return row;
+  }
+
+  /** Makes join values of integral columns of different sizes comparable. */
+  private static Object normalize(Object value) {
+    if (value instanceof Byte || value instanceof Short || value instanceof Integer)
+      return ((Number) value).longValue();
+    return value;
+  }
+
+}
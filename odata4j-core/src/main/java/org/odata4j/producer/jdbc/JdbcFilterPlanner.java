@@ -0,0 +1,74 @@
+package org.odata4j.producer.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.expression.AndExpression;
+import org.odata4j.expression.BoolCommonExpression;
+import org.odata4j.expression.BoolParenExpression;
+import org.odata4j.expression.Expression;
+
+/**
+ * Splits a filter into the conjuncts translated to SQL and a residual predicate evaluated in memory.
+ *
+ * <p>Every top-level conjunct the where clause generator can translate is pushed down,
+ * the others are combined into the residual filter, so no filter is rejected for lack of a translation.</p>
+ */
+public class JdbcFilterPlanner {
+
+  public static class FilterPlan {
+    /** the conjuncts translated to SQL, or null */
+    public final BoolCommonExpression sqlFilter;
+    /** the conjuncts evaluated against each row, or null */
+    public final BoolCommonExpression residualFilter;
+
+    public FilterPlan(BoolCommonExpression sqlFilter, BoolCommonExpression residualFilter) {
+      this.sqlFilter = sqlFilter;
+      this.residualFilter = residualFilter;
+    }
+  }
+
+  public FilterPlan plan(JdbcMetadataMapping mapping, EdmEntitySet entitySet, GenerateSqlQuery queryGen, BoolCommonExpression filter) {
+    List<BoolCommonExpression> sqlConjuncts = new ArrayList<BoolCommonExpression>();
+    List<BoolCommonExpression> residualConjuncts = new ArrayList<BoolCommonExpression>();
+    if (filter != null) {
+      for (BoolCommonExpression conjunct : getConjuncts(filter, new ArrayList<BoolCommonExpression>())) {
+        if (isTranslatable(mapping, entitySet, queryGen, conjunct))
+          sqlConjuncts.add(conjunct);
+        else
+          residualConjuncts.add(conjunct);
+      }
+    }
+    return new FilterPlan(and(sqlConjuncts), and(residualConjuncts));
+  }
+
+  protected boolean isTranslatable(JdbcMetadataMapping mapping, EdmEntitySet entitySet, GenerateSqlQuery queryGen, BoolCommonExpression conjunct) {
+    try {
+      queryGen.newWhereClauseGenerator(entitySet, mapping).visitNode(conjunct);
+      return true;
+    } catch (UnsupportedOperationException e) {
+      return false;
+    }
+  }
+
+  private static List<BoolCommonExpression> getConjuncts(BoolCommonExpression filter, List<BoolCommonExpression> conjuncts) {
+    if (filter instanceof AndExpression) {
+      getConjuncts(((AndExpression) filter).getLHS(), conjuncts);
+      getConjuncts(((AndExpression) filter).getRHS(), conjuncts);
+    } else if (filter instanceof BoolParenExpression && ((BoolParenExpression) filter).getExpression() instanceof AndExpression) {
+      getConjuncts((AndExpression) ((BoolParenExpression) filter).getExpression(), conjuncts);
+    } else {
+      conjuncts.add(filter);
+    }
+    return conjuncts;
+  }
+
+  private static BoolCommonExpression and(List<BoolCommonExpression> conjuncts) {
+    BoolCommonExpression rt = null;
+    for (BoolCommonExpression conjunct : conjuncts)
+      rt = rt == null ? conjunct : Expression.and(rt, conjunct);
+    return rt;
+  }
+
+}
@@ -11,11 +11,15 @@ import org.odata4j.command.Command;
 import org.odata4j.command.CommandResult;
 import org.odata4j.core.OEntity;
 import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmProperty;
 import org.odata4j.exceptions.NotFoundException;
 import org.odata4j.expression.BoolCommonExpression;
+import org.odata4j.expression.EntitySimpleProperty;
 import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.RequestDeadline;
 import org.odata4j.producer.Responses;
 import org.odata4j.producer.command.GetEntitiesCommandContext;
+import org.odata4j.producer.jdbc.JdbcFilterPlanner.FilterPlan;
 
 public class JdbcGetEntitiesCommand extends JdbcBaseCommand implements Command<GetEntitiesCommandContext> {
 
@@ -32,18 +36,41 @@ public class JdbcGetEntitiesCommand extends JdbcBaseCommand implements Command<G
 
     GenerateSqlQuery queryGen = jdbcContext.get(GenerateSqlQuery.class);
     BoolCommonExpression filter = context.getQueryInfo() == null ? null : context.getQueryInfo().filter;
-    final SqlStatement sqlStatement = queryGen.generate(mapping, entitySet, filter);
+    final List<EntitySimpleProperty> select = context.getQueryInfo() == null ? null : context.getQueryInfo().select;
+    FilterPlan filterPlan = jdbcContext.get(JdbcFilterPlanner.class).plan(mapping, entitySet, queryGen, filter);
+    final BoolCommonExpression residualFilter = filterPlan.residualFilter;
+    final JdbcExpander.Expansion expansion = jdbcContext.get(JdbcExpander.class).newExpansion(jdbcContext, mapping, entitySet,
+        context.getQueryInfo() == null ? null : context.getQueryInfo().expand, select);
+    List<EdmProperty> projectedProperties = getProjectedProperties(entitySet, select, residualFilter);
+    final List<EdmProperty> properties = expansion == null ? projectedProperties : expansion.project(projectedProperties);
+    final SqlStatement sqlStatement = queryGen.generate(mapping, entitySet, properties, filterPlan.sqlFilter);
     final List<OEntity> entities = new ArrayList<OEntity>();
+    final int fetchSize = jdbcContext.getBackend().getFetchSize();
+    final RequestDeadline deadline = RequestDeadline.current();
 
     jdbcContext.getJdbc().execute(new ThrowingFunc1<Connection, Void>() {
       @Override
       public Void apply(Connection conn) throws Exception {
-        PreparedStatement stmt = sqlStatement.asPreparedStatement(conn);
-        ResultSet results = stmt.executeQuery();
-        while (results.next()) {
-          OEntity entity = toOEntity(mapping, entitySet, results);
-          entities.add(entity);
+        PreparedStatement stmt = sqlStatement.asQuery(conn, fetchSize);
+        try {
+          ResultSet results = stmt.executeQuery();
+          JdbcRowMapper rowMapper = newRowMapper(mapping, entitySet, properties, select, results);
+          while (results.next()) {
+            if (deadline != null)
+              deadline.check();
+            if (!evaluate(rowMapper, residualFilter, results))
+              continue;
+            OEntity entity = rowMapper.toOEntity(results);
+            if (expansion != null)
+              expansion.add(entity, rowMapper, results);
+            else
+              entities.add(entity);
+          }
+        } finally {
+          SqlStatement.close(stmt);
         }
+        if (expansion != null)
+          entities.addAll(expansion.expand(conn));
         return null;
       }
     });
@@ -3,17 +3,21 @@ package org.odata4j.producer.jdbc;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.List;
 
 import org.core4j.ThrowingFunc1;
 import org.odata4j.command.Command;
 import org.odata4j.command.CommandResult;
 import org.odata4j.core.OEntity;
 import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmProperty;
 import org.odata4j.exceptions.NotFoundException;
 import org.odata4j.expression.BoolCommonExpression;
+import org.odata4j.expression.EntitySimpleProperty;
 import org.odata4j.producer.EntityResponse;
 import org.odata4j.producer.Responses;
 import org.odata4j.producer.command.GetEntityCommandContext;
+import org.odata4j.producer.jdbc.JdbcFilterPlanner.FilterPlan;
 
 public class JdbcGetEntityCommand extends JdbcBaseCommand implements Command<GetEntityCommandContext> {
 
@@ -31,16 +35,36 @@ public class JdbcGetEntityCommand extends JdbcBaseCommand implements Command<Get
     GenerateSqlQuery queryGen = jdbcContext.get(GenerateSqlQuery.class);
     BoolCommonExpression filter = context.getQueryInfo() == null ? null : context.getQueryInfo().filter;
     filter = prependPrimaryKeyFilter(mapping, entitySet.getType(), context.getEntityKey(), filter);
-    final SqlStatement sqlStatement = queryGen.generate(mapping, entitySet, filter);
+    final List<EntitySimpleProperty> select = context.getQueryInfo() == null ? null : context.getQueryInfo().select;
+    FilterPlan filterPlan = jdbcContext.get(JdbcFilterPlanner.class).plan(mapping, entitySet, queryGen, filter);
+    final BoolCommonExpression residualFilter = filterPlan.residualFilter;
+    final JdbcExpander.Expansion expansion = jdbcContext.get(JdbcExpander.class).newExpansion(jdbcContext, mapping, entitySet,
+        context.getQueryInfo() == null ? null : context.getQueryInfo().expand, select);
+    List<EdmProperty> projectedProperties = getProjectedProperties(entitySet, select, residualFilter);
+    final List<EdmProperty> properties = expansion == null ? projectedProperties : expansion.project(projectedProperties);
+    final SqlStatement sqlStatement = queryGen.generate(mapping, entitySet, properties, filterPlan.sqlFilter);
     OEntity entity = jdbcContext.getJdbc().execute(new ThrowingFunc1<Connection, OEntity>() {
       @Override
       public OEntity apply(Connection conn) throws Exception {
-        PreparedStatement stmt = sqlStatement.asPreparedStatement(conn);
-        ResultSet results = stmt.executeQuery();
-        if (results.next()) {
-          return toOEntity(mapping, entitySet, results);
+        OEntity entity = null;
+        PreparedStatement stmt = sqlStatement.asQuery(conn, 0);
+        try {
+          ResultSet results = stmt.executeQuery();
+          JdbcRowMapper rowMapper = newRowMapper(mapping, entitySet, properties, select, results);
+          while (results.next()) {
+            if (!evaluate(rowMapper, residualFilter, results))
+              continue;
+            entity = rowMapper.toOEntity(results);
+            if (expansion != null)
+              expansion.add(entity, rowMapper, results);
+            break;
+          }
+        } finally {
+          SqlStatement.close(stmt);
         }
-        return null;
+        if (entity == null || expansion == null)
+          return entity;
+        return expansion.expand(conn).get(0);
       }
     });
 
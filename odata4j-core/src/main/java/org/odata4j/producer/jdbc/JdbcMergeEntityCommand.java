@@ -0,0 +1,16 @@
+package org.odata4j.producer.jdbc;
+
+import org.odata4j.command.Command;
+import org.odata4j.command.CommandResult;
+import org.odata4j.producer.command.MergeEntityCommandContext;
+
+public class JdbcMergeEntityCommand extends JdbcBaseCommand implements Command<MergeEntityCommandContext> {
+
+  @Override
+  public CommandResult execute(MergeEntityCommandContext context) throws Exception {
+    JdbcProducerCommandContext jdbcContext = (JdbcProducerCommandContext) context;
+    updateEntity(jdbcContext, context.getEntitySetName(), context.getEntity(), true);
+    return CommandResult.CONTINUE;
+  }
+
+}
@@ -1,5 +1,7 @@
 package org.odata4j.producer.jdbc;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import org.odata4j.edm.EdmDataServices;
@@ -11,16 +13,42 @@ import org.odata4j.producer.jdbc.JdbcModel.JdbcTable;
 
 public class JdbcMetadataMapping implements EdmDataServicesProvider {
 
+  /**
+   * The join behind a navigation property derived from a foreign key: the related entities are the rows
+   * of the target entity set whose target properties equal the source properties of the source entity.
+   */
+  public static class JdbcNavigation {
+    public final EdmEntitySet targetEntitySet;
+    public final List<EdmProperty> sourceProperties;
+    public final List<EdmProperty> targetProperties;
+    /** whether the navigation property leads to many entities, i.e. from the referenced to the referencing table */
+    public final boolean isMany;
+
+    public JdbcNavigation(EdmEntitySet targetEntitySet, List<EdmProperty> sourceProperties, List<EdmProperty> targetProperties, boolean isMany) {
+      this.targetEntitySet = targetEntitySet;
+      this.sourceProperties = sourceProperties;
+      this.targetProperties = targetProperties;
+      this.isMany = isMany;
+    }
+  }
+
   private final EdmDataServices metadata;
   private final JdbcModel model;
   private final Map<EdmEntitySet, JdbcTable> entitySetMapping;
   private final Map<EdmProperty, JdbcColumn> propertyMapping;
+  private final Map<EdmEntitySet, Map<String, JdbcNavigation>> navigationMapping;
 
   public JdbcMetadataMapping(EdmDataServices metadata, JdbcModel model, Map<EdmEntitySet, JdbcTable> entitySetMapping, Map<EdmProperty, JdbcColumn> propertyMapping) {
+    this(metadata, model, entitySetMapping, propertyMapping, Collections.<EdmEntitySet, Map<String, JdbcNavigation>> emptyMap());
+  }
+
+  public JdbcMetadataMapping(EdmDataServices metadata, JdbcModel model, Map<EdmEntitySet, JdbcTable> entitySetMapping, Map<EdmProperty, JdbcColumn> propertyMapping,
+      Map<EdmEntitySet, Map<String, JdbcNavigation>> navigationMapping) {
     this.metadata = metadata;
     this.model = model;
     this.entitySetMapping = entitySetMapping;
     this.propertyMapping = propertyMapping;
+    this.navigationMapping = navigationMapping;
   }
 
   @Override
@@ -41,4 +69,12 @@ public class JdbcMetadataMapping implements EdmDataServicesProvider {
     return propertyMapping.get(edmProperty);
   }
 
+  /**
+   * Gets the join behind a navigation property of an entity set, or null if the entity set has no such navigation property.
+   */
+  public JdbcNavigation getMappedNavigation(EdmEntitySet entitySet, String navigationPropertyName) {
+    Map<String, JdbcNavigation> navigations = navigationMapping.get(entitySet);
+    return navigations == null ? null : navigations.get(navigationPropertyName);
+  }
+
 }
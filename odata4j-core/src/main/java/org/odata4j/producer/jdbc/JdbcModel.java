@@ -24,6 +24,7 @@ public class JdbcModel {
 
     public final List<JdbcModel.JdbcColumn> columns = new ArrayList<JdbcModel.JdbcColumn>();
     public final List<JdbcModel.JdbcPrimaryKey> primaryKeys = new ArrayList<JdbcModel.JdbcPrimaryKey>();
+    public final List<JdbcModel.JdbcForeignKey> foreignKeys = new ArrayList<JdbcModel.JdbcForeignKey>();
   }
 
   public static class JdbcPrimaryKey {
@@ -32,6 +33,16 @@ public class JdbcModel {
     public String primaryKeyName;
   }
 
+  /** A column of a foreign key, referencing a column of another table's primary key. */
+  public static class JdbcForeignKey {
+    public String columnName;
+    public String primaryKeySchemaName;
+    public String primaryKeyTableName;
+    public String primaryKeyColumnName;
+    public int sequenceNumber;
+    public String foreignKeyName;
+  }
+
   public static class JdbcColumn {
     public String columnName;
     public int columnType; // java.sql.Types
@@ -2,31 +2,76 @@ package org.odata4j.producer.jdbc;
 
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.core4j.Enumerable;
 import org.core4j.Func1;
 import org.odata4j.core.ImmutableMap;
+import org.odata4j.core.OPredicates;
+import org.odata4j.edm.EdmAssociation;
+import org.odata4j.edm.EdmAssociationEnd;
+import org.odata4j.edm.EdmAssociationSet;
+import org.odata4j.edm.EdmAssociationSetEnd;
 import org.odata4j.edm.EdmDataServices;
 import org.odata4j.edm.EdmEntityContainer;
 import org.odata4j.edm.EdmEntitySet;
 import org.odata4j.edm.EdmEntityType;
+import org.odata4j.edm.EdmMultiplicity;
+import org.odata4j.edm.EdmNavigationProperty;
 import org.odata4j.edm.EdmProperty;
+import org.odata4j.edm.EdmReferentialConstraint;
 import org.odata4j.edm.EdmSchema;
 import org.odata4j.edm.EdmSimpleType;
 import org.odata4j.edm.EdmType;
+import org.odata4j.producer.jdbc.JdbcMetadataMapping.JdbcNavigation;
 import org.odata4j.producer.jdbc.JdbcModel.JdbcColumn;
+import org.odata4j.producer.jdbc.JdbcModel.JdbcForeignKey;
 import org.odata4j.producer.jdbc.JdbcModel.JdbcPrimaryKey;
 import org.odata4j.producer.jdbc.JdbcModel.JdbcSchema;
 import org.odata4j.producer.jdbc.JdbcModel.JdbcTable;
 
+/**
+ * Maps the tables of a database to entity sets and their columns to properties.
+ *
+ * <p>A foreign key referencing the primary key of a table in the same schema becomes an association
+ * with a navigation property on both ends: from the referencing entity to the referenced one, and
+ * from the referenced entity to the many referencing ones.</p>
+ */
 public class JdbcModelToMetadata implements Func1<JdbcModel, JdbcMetadataMapping> {
 
+  /** A navigation property whose entity sets are not built yet. */
+  private static class NavigationBuilder {
+    final EdmEntitySet.Builder source;
+    final String name;
+    final EdmEntitySet.Builder target;
+    final List<String> sourcePropertyNames;
+    final List<String> targetPropertyNames;
+    final boolean isMany;
+
+    NavigationBuilder(EdmEntitySet.Builder source, String name, EdmEntitySet.Builder target, List<String> sourcePropertyNames,
+        List<String> targetPropertyNames, boolean isMany) {
+      this.source = source;
+      this.name = name;
+      this.target = target;
+      this.sourcePropertyNames = sourcePropertyNames;
+      this.targetPropertyNames = targetPropertyNames;
+      this.isMany = isMany;
+    }
+  }
+
   private static final Map<Integer, EdmType> SIMPLE_TYPE_MAPPING = ImmutableMap.<Integer, EdmType> of(
       Types.INTEGER, EdmSimpleType.INT32,
       Types.VARCHAR, EdmSimpleType.STRING,
-      Types.BOOLEAN, EdmSimpleType.BOOLEAN);
+      Types.BOOLEAN, EdmSimpleType.BOOLEAN,
+      Types.TIMESTAMP, EdmSimpleType.DATETIME,
+      Types.DATE, EdmSimpleType.DATETIME);
 
   public String getModelNamespace() {
     return "JdbcModel";
@@ -52,6 +97,14 @@ public class JdbcModelToMetadata implements Func1<JdbcModel, JdbcMetadataMapping
     return rename(columnName);
   }
 
+  /**
+   * Gets the name of a navigation property leading to the entities of a table.  Names clashing with other
+   * members of the entity type get a numeric suffix.
+   */
+  public String getNavigationPropertyName(String tableName) {
+    return rename(tableName);
+  }
+
   public String rename(String dbName) {
     return dbName;
   }
@@ -72,6 +125,9 @@ public class JdbcModelToMetadata implements Func1<JdbcModel, JdbcMetadataMapping
 
     Map<EdmEntitySet.Builder, JdbcTable> entitySetMapping = new HashMap<EdmEntitySet.Builder, JdbcTable>();
     Map<EdmProperty.Builder, JdbcColumn> propertyMapping = new HashMap<EdmProperty.Builder, JdbcColumn>();
+    Map<JdbcTable, EdmEntitySet.Builder> tableMapping = new HashMap<JdbcTable, EdmEntitySet.Builder>();
+    Map<JdbcTable, EdmEntityType.Builder> entityTypeMapping = new HashMap<JdbcTable, EdmEntityType.Builder>();
+    Map<JdbcSchema, EdmEntityContainer.Builder> containerMapping = new HashMap<JdbcSchema, EdmEntityContainer.Builder>();
 
     for (JdbcSchema jdbcSchema : jdbcModel.schemas) {
       for (JdbcTable jdbcTable : jdbcSchema.tables) {
@@ -107,6 +163,8 @@ public class JdbcModelToMetadata implements Func1<JdbcModel, JdbcMetadataMapping
             .setEntityType(entityType);
         entitySets.add(entitySet);
         entitySetMapping.put(entitySet, jdbcTable);
+        tableMapping.put(jdbcTable, entitySet);
+        entityTypeMapping.put(jdbcTable, entityType);
       }
 
       String entityContainerName = getEntityContainerName(jdbcSchema.schemaName);
@@ -115,12 +173,39 @@ public class JdbcModelToMetadata implements Func1<JdbcModel, JdbcMetadataMapping
           .setIsDefault(jdbcSchema.isDefault)
           .addEntitySets(entitySets);
       entityContainers.add(entityContainer);
+      containerMapping.put(jdbcSchema, entityContainer);
+    }
+
+    // associations
+    List<EdmAssociation.Builder> associations = new ArrayList<EdmAssociation.Builder>();
+    List<NavigationBuilder> navigations = new ArrayList<NavigationBuilder>();
+    for (JdbcSchema jdbcSchema : jdbcModel.schemas) {
+      for (JdbcTable jdbcTable : jdbcSchema.tables) {
+        EdmEntitySet.Builder entitySet = tableMapping.get(jdbcTable);
+        if (entitySet == null)
+          continue;
+        for (List<JdbcForeignKey> foreignKey : getForeignKeys(jdbcTable)) {
+          JdbcForeignKey first = foreignKey.get(0);
+          JdbcTable referencedTable = first.primaryKeySchemaName == null || !first.primaryKeySchemaName.equals(jdbcSchema.schemaName)
+              ? null
+              : Enumerable.create(jdbcSchema.tables).firstOrNull(JdbcModel.tableNameEquals(first.primaryKeyTableName));
+          EdmEntitySet.Builder referencedEntitySet = referencedTable == null ? null : tableMapping.get(referencedTable);
+          if (referencedEntitySet == null || !referencesPrimaryKey(foreignKey, referencedTable))
+            continue;
+          EdmAssociationSet.Builder associationSet = addAssociation(modelNamespace,
+              jdbcTable, entitySet, entityTypeMapping.get(jdbcTable),
+              referencedTable, referencedEntitySet, entityTypeMapping.get(referencedTable),
+              foreignKey, associations, navigations);
+          containerMapping.get(jdbcSchema).addAssociationSets(Collections.singletonList(associationSet));
+        }
+      }
     }
 
     List<EdmSchema.Builder> edmSchemas = new ArrayList<EdmSchema.Builder>();
     EdmSchema.Builder modelSchema = EdmSchema.newBuilder()
         .setNamespace(modelNamespace)
-        .addEntityTypes(entityTypes);
+        .addEntityTypes(entityTypes)
+        .addAssociations(associations);
     edmSchemas.add(modelSchema);
     for (EdmEntityContainer.Builder entityContainer : entityContainers) {
       String containerSchemaNamespace = getContainerNamespace(entityContainer.getName());
@@ -141,7 +226,128 @@ public class JdbcModelToMetadata implements Func1<JdbcModel, JdbcMetadataMapping
     for (Map.Entry<EdmProperty.Builder, JdbcColumn> entry : propertyMapping.entrySet()) {
       finalPropertyMapping.put(entry.getKey().build(), entry.getValue());
     }
-    return new JdbcMetadataMapping(metadata, jdbcModel, finalEntitySetMapping, finalPropertyMapping);
+    Map<EdmEntitySet, Map<String, JdbcNavigation>> finalNavigationMapping = new HashMap<EdmEntitySet, Map<String, JdbcNavigation>>();
+    for (NavigationBuilder navigation : navigations) {
+      EdmEntitySet source = navigation.source.build();
+      EdmEntitySet target = navigation.target.build();
+      if (!finalNavigationMapping.containsKey(source))
+        finalNavigationMapping.put(source, new HashMap<String, JdbcNavigation>());
+      finalNavigationMapping.get(source).put(navigation.name, new JdbcNavigation(target,
+          getProperties(source.getType(), navigation.sourcePropertyNames),
+          getProperties(target.getType(), navigation.targetPropertyNames),
+          navigation.isMany));
+    }
+    return new JdbcMetadataMapping(metadata, jdbcModel, finalEntitySetMapping, finalPropertyMapping, finalNavigationMapping);
+  }
+
+  private EdmAssociationSet.Builder addAssociation(String modelNamespace,
+      JdbcTable jdbcTable, EdmEntitySet.Builder entitySet, EdmEntityType.Builder entityType,
+      JdbcTable referencedTable, EdmEntitySet.Builder referencedEntitySet, EdmEntityType.Builder referencedEntityType,
+      List<JdbcForeignKey> foreignKey, List<EdmAssociation.Builder> associations, List<NavigationBuilder> navigations) {
+
+    List<String> propertyNames = new ArrayList<String>();
+    List<String> referencedPropertyNames = new ArrayList<String>();
+    boolean isNullable = false;
+    for (JdbcForeignKey column : foreignKey) {
+      propertyNames.add(getPropertyName(column.columnName));
+      referencedPropertyNames.add(getPropertyName(column.primaryKeyColumnName));
+      JdbcColumn jdbcColumn = Enumerable.create(jdbcTable.columns).firstOrNull(JdbcModel.columnNameEquals(column.columnName));
+      isNullable |= jdbcColumn == null || jdbcColumn.isNullable;
+    }
+
+    String associationName = getAssociationName(associations, entityType, referencedEntityType);
+    String role = entityType.getName();
+    String referencedRole = referencedEntityType.getName().equals(role) ? role + "1" : referencedEntityType.getName();
+    EdmAssociationEnd.Builder end = EdmAssociationEnd.newBuilder().setRole(role).setType(entityType)
+        .setMultiplicity(EdmMultiplicity.MANY);
+    EdmAssociationEnd.Builder referencedEnd = EdmAssociationEnd.newBuilder().setRole(referencedRole).setType(referencedEntityType)
+        .setMultiplicity(isNullable ? EdmMultiplicity.ZERO_TO_ONE : EdmMultiplicity.ONE);
+    EdmAssociation.Builder association = EdmAssociation.newBuilder()
+        .setNamespace(modelNamespace)
+        .setName(associationName)
+        .setEnds(end, referencedEnd)
+        .setRefConstraint(EdmReferentialConstraint.newBuilder()
+            .setPrincipalRole(referencedRole)
+            .addPrincipalReferences(referencedPropertyNames)
+            .setDependentRole(role)
+            .addDependentReferences(propertyNames));
+    associations.add(association);
+
+    String navigationName = getUniqueMemberName(entityType, getNavigationPropertyName(referencedTable.tableName));
+    entityType.addNavigationProperties(EdmNavigationProperty.newBuilder(navigationName)
+        .setRelationship(association)
+        .setFromTo(end, referencedEnd));
+    navigations.add(new NavigationBuilder(entitySet, navigationName, referencedEntitySet, propertyNames, referencedPropertyNames, false));
+
+    String referencedNavigationName = getUniqueMemberName(referencedEntityType, getNavigationPropertyName(jdbcTable.tableName));
+    referencedEntityType.addNavigationProperties(EdmNavigationProperty.newBuilder(referencedNavigationName)
+        .setRelationship(association)
+        .setFromTo(referencedEnd, end));
+    navigations.add(new NavigationBuilder(referencedEntitySet, referencedNavigationName, entitySet, referencedPropertyNames, propertyNames, true));
+
+    return EdmAssociationSet.newBuilder()
+        .setName(associationName)
+        .setAssociation(association)
+        .setEnds(EdmAssociationSetEnd.newBuilder().setRole(end).setEntitySet(entitySet),
+            EdmAssociationSetEnd.newBuilder().setRole(referencedEnd).setEntitySet(referencedEntitySet));
+  }
+
+  /** Gets the columns of each foreign key of a table, ordered by their position in the key. */
+  private static List<List<JdbcForeignKey>> getForeignKeys(JdbcTable jdbcTable) {
+    Map<String, List<JdbcForeignKey>> foreignKeys = new LinkedHashMap<String, List<JdbcForeignKey>>();
+    for (JdbcForeignKey column : jdbcTable.foreignKeys) {
+      String name = column.foreignKeyName != null ? column.foreignKeyName : column.primaryKeyTableName;
+      if (!foreignKeys.containsKey(name))
+        foreignKeys.put(name, new ArrayList<JdbcForeignKey>());
+      foreignKeys.get(name).add(column);
+    }
+    List<List<JdbcForeignKey>> rt = new ArrayList<List<JdbcForeignKey>>(foreignKeys.values());
+    for (List<JdbcForeignKey> foreignKey : rt) {
+      Collections.sort(foreignKey, new Comparator<JdbcForeignKey>() {
+        @Override
+        public int compare(JdbcForeignKey a, JdbcForeignKey b) {
+          return a.sequenceNumber - b.sequenceNumber;
+        }
+      });
+    }
+    return rt;
+  }
+
+  /** Whether a foreign key references the primary key, so a referencing row has at most one referenced row. */
+  private static boolean referencesPrimaryKey(List<JdbcForeignKey> foreignKey, JdbcTable referencedTable) {
+    Set<String> columnNames = new HashSet<String>();
+    for (JdbcForeignKey column : foreignKey)
+      columnNames.add(column.primaryKeyColumnName);
+    Set<String> primaryKeyColumnNames = new HashSet<String>();
+    for (JdbcPrimaryKey primaryKey : referencedTable.primaryKeys)
+      primaryKeyColumnNames.add(primaryKey.columnName);
+    return columnNames.size() == foreignKey.size() && columnNames.equals(primaryKeyColumnNames);
+  }
+
+  private static String getAssociationName(List<EdmAssociation.Builder> associations, EdmEntityType.Builder fromEntityType, EdmEntityType.Builder toEntityType) {
+    for (int i = 0;; i++) {
+      String associationName = i == 0
+          ? String.format("FK_%s_%s", fromEntityType.getName(), toEntityType.getName())
+          : String.format("FK_%s_%s_%d", fromEntityType.getName(), toEntityType.getName(), i);
+      if (Enumerable.create(associations).firstOrNull(OPredicates.nameEquals(EdmAssociation.Builder.class, associationName)) == null)
+        return associationName;
+    }
+  }
+
+  private static String getUniqueMemberName(EdmEntityType.Builder entityType, String name) {
+    for (int i = 0;; i++) {
+      String memberName = i == 0 ? name : name + i;
+      if (entityType.findProperty(memberName) == null
+          && Enumerable.create(entityType.getNavigationProperties()).firstOrNull(OPredicates.nameEquals(EdmNavigationProperty.Builder.class, memberName)) == null)
+        return memberName;
+    }
+  }
+
+  private static List<EdmProperty> getProperties(EdmEntityType entityType, List<String> propertyNames) {
+    List<EdmProperty> properties = new ArrayList<EdmProperty>();
+    for (String propertyName : propertyNames)
+      properties.add(entityType.findProperty(propertyName));
+    return properties;
   }
 
 }
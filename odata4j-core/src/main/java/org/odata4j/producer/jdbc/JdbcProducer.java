@@ -8,7 +8,11 @@ import java.util.Map;
 import org.odata4j.command.Command;
 import org.odata4j.command.CommandContext;
 import org.odata4j.command.CommandExecution;
+import org.odata4j.core.OExtension;
 import org.odata4j.core.Throwables;
+import org.odata4j.producer.ChangeSetExtension;
+import org.odata4j.producer.ODataContext;
+import org.odata4j.producer.ODataProducer;
 import org.odata4j.producer.command.CommandProducer;
 import org.odata4j.producer.command.ProducerCommandContext;
 
@@ -21,12 +25,25 @@ public class JdbcProducer extends CommandProducer {
     private final Map<Class<?>, List<Command<?>>> postCommands = new HashMap<Class<?>, List<Command<?>>>();
 
     private Jdbc jdbc;
+    private int fetchSize;
 
     public Builder jdbc(Jdbc jdbc) {
       this.jdbc = jdbc;
       return this;
     }
 
+    /**
+     * Sets the number of rows to fetch per round trip when reading entities.
+     *
+     * @param fetchSize  the fetch size, or 0 for the driver default
+     */
+    public Builder fetchSize(int fetchSize) {
+      if (fetchSize < 0)
+        throw new IllegalArgumentException("fetchSize must not be negative");
+      this.fetchSize = fetchSize;
+      return this;
+    }
+
     public <TContext extends ProducerCommandContext<?>> Builder insert(Class<TContext> contextType, Command<?> command) {
       return preOrPost(contextType, command, preCommands);
     }
@@ -59,6 +76,11 @@ public class JdbcProducer extends CommandProducer {
           return jdbc;
         }
 
+        @Override
+        public int getFetchSize() {
+          return fetchSize;
+        }
+
         @Override
         protected <TContext extends CommandContext> List<Command<?>> getPreCommands(Class<TContext> contextType) {
           return preCommands.get(contextType);
@@ -96,6 +118,24 @@ public class JdbcProducer extends CommandProducer {
 
   private final JdbcProducerBackend jdbcBackend;
 
+  private final ChangeSetExtension changeSetExtension = new ChangeSetExtension() {
+
+    @Override
+    public void beginChangeSet(ODataContext context) {
+      jdbcBackend.beginChangeSet();
+    }
+
+    @Override
+    public void commitChangeSet(ODataContext context) {
+      jdbcBackend.commitChangeSet();
+    }
+
+    @Override
+    public void rollbackChangeSet(ODataContext context) {
+      jdbcBackend.rollbackChangeSet();
+    }
+  };
+
   protected JdbcProducer(JdbcProducerBackend jdbcBackend) {
     super(jdbcBackend);
     this.jdbcBackend = jdbcBackend;
@@ -109,4 +149,15 @@ public class JdbcProducer extends CommandProducer {
     return jdbcBackend.getJdbc();
   }
 
+  /**
+   * Exposes a {@link ChangeSetExtension}: the writes of a {@code $batch} change set are applied in one transaction.
+   * Entities created in a change set must carry their key, and are answered as sent, without database defaults.
+   */
+  @Override
+  public <TExtension extends OExtension<ODataProducer>> TExtension findExtension(Class<TExtension> clazz) {
+    if (ChangeSetExtension.class.equals(clazz))
+      return clazz.cast(changeSetExtension);
+    return super.findExtension(clazz);
+  }
+
 }
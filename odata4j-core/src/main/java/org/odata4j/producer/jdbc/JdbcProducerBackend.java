@@ -1,8 +1,9 @@
 package org.odata4j.producer.jdbc;
 
-import java.lang.reflect.Proxy;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.odata4j.command.ChainCommand;
 import org.odata4j.command.Command;
@@ -13,8 +14,11 @@ import org.odata4j.core.OEntityId;
 import org.odata4j.core.OEntityKey;
 import org.odata4j.core.OFunctionParameter;
 import org.odata4j.core.Throwables;
+import org.odata4j.edm.EdmDataServicesProvider;
 import org.odata4j.edm.EdmFunctionImport;
+import org.odata4j.producer.EntitiesResponse;
 import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.EntityResponse;
 import org.odata4j.producer.QueryInfo;
 import org.odata4j.producer.command.CallFunctionCommandContext;
 import org.odata4j.producer.command.CloseCommandContext;
@@ -39,6 +43,9 @@ import org.odata4j.producer.command.UpdateLinkCommandContext;
 
 public abstract class JdbcProducerBackend implements CommandProducerBackend {
 
+  private final ConcurrentMap<Class<?>, Command<?>> commands = new ConcurrentHashMap<Class<?>, Command<?>>();
+  private final ThreadLocal<JdbcChangeSet> changeSets = new ThreadLocal<JdbcChangeSet>();
+
   @Override
   abstract public CommandExecution getCommandExecution();
 
@@ -50,6 +57,47 @@ public abstract class JdbcProducerBackend implements CommandProducerBackend {
 
   abstract protected <T> T get(Class<T> instanceType);
 
+  /**
+   * Gets the number of rows to fetch per round trip when reading entities, or 0 for the driver default.
+   */
+  public int getFetchSize() {
+    return 0;
+  }
+
+  /**
+   * Starts collecting the writes on the current thread in a change set instead of executing them.
+   */
+  public void beginChangeSet() {
+    if (changeSets.get() != null)
+      throw new IllegalStateException("A change set is already active");
+    changeSets.set(new JdbcChangeSet());
+  }
+
+  /**
+   * Gets the change set of the current thread, or null if writes are executed immediately.
+   */
+  public JdbcChangeSet getChangeSet() {
+    return changeSets.get();
+  }
+
+  /**
+   * Executes the writes of the current change set in a single transaction.
+   */
+  public void commitChangeSet() {
+    JdbcChangeSet changeSet = changeSets.get();
+    if (changeSet == null)
+      throw new IllegalStateException("No change set is active");
+    changeSets.remove();
+    changeSet.execute(getJdbc());
+  }
+
+  /**
+   * Discards the writes of the current change set, if any.
+   */
+  public void rollbackChangeSet() {
+    changeSets.remove();
+  }
+
   public JdbcMetadataMapping getMetadataMapping() {
     GetMetadataCommandContext context = newGetMetadataCommandContext();
     try {
@@ -80,9 +128,24 @@ public abstract class JdbcProducerBackend implements CommandProducerBackend {
     };
   }
 
+  /**
+   * Gets the command chain for a context type.  Chains are built on first use and reused afterwards,
+   * so the pre and post commands must not change once the backend is in use.
+   */
+  @SuppressWarnings("unchecked")
   @Override
   public <TContext extends CommandContext> Command<TContext> getCommand(Class<TContext> contextType) {
+    Command<TContext> command = (Command<TContext>) commands.get(contextType);
+    if (command == null) {
+      command = newCommand(contextType);
+      Command<TContext> existing = (Command<TContext>) commands.putIfAbsent(contextType, command);
+      if (existing != null)
+        command = existing;
+    }
+    return command;
+  }
 
+  protected <TContext extends CommandContext> Command<TContext> newCommand(Class<TContext> contextType) {
     ChainCommand.Builder<TContext> chain = ChainCommand.newBuilder();
     chain.addAll(getPreCommands(ProducerCommandContext.class));
     if (CloseCommandContext.class.isAssignableFrom(contextType)) {
@@ -108,6 +171,14 @@ public abstract class JdbcProducerBackend implements CommandProducerBackend {
       chain.addAll(getPreCommands(DeleteEntityCommandContext.class));
       chain.add(new JdbcDeleteEntityCommand());
       chain.addAll(getPostCommands(DeleteEntityCommandContext.class));
+    } else if (UpdateEntityCommandContext.class.isAssignableFrom(contextType)) {
+      chain.addAll(getPreCommands(UpdateEntityCommandContext.class));
+      chain.add(new JdbcUpdateEntityCommand());
+      chain.addAll(getPostCommands(UpdateEntityCommandContext.class));
+    } else if (MergeEntityCommandContext.class.isAssignableFrom(contextType)) {
+      chain.addAll(getPreCommands(MergeEntityCommandContext.class));
+      chain.add(new JdbcMergeEntityCommand());
+      chain.addAll(getPostCommands(MergeEntityCommandContext.class));
     } else {
       throw new UnsupportedOperationException("TODO implement: " + contextType.getSimpleName());
     }
@@ -115,37 +186,198 @@ public abstract class JdbcProducerBackend implements CommandProducerBackend {
     return chain.build();
   }
 
-  @SuppressWarnings("unchecked")
-  private <T> T newContext(Class<?> contextType, Object... args) {
-    return (T) Proxy.newProxyInstance(
-        getClass().getClassLoader(),
-        new Class<?>[] { contextType, JdbcProducerCommandContext.class },
-        new JdbcProducerBackendInvocationHandler(this, contextType, args));
+  private abstract class Context<TResult> implements ProducerCommandContext<TResult>, JdbcProducerCommandContext {
+
+    private TResult result;
+
+    @Override
+    public TResult getResult() {
+      return result;
+    }
+
+    @Override
+    public void setResult(TResult result) {
+      this.result = result;
+    }
+
+    @Override
+    public Jdbc getJdbc() {
+      return JdbcProducerBackend.this.getJdbc();
+    }
+
+    @Override
+    public JdbcProducerBackend getBackend() {
+      return JdbcProducerBackend.this;
+    }
+
+    @Override
+    public <T> T get(Class<T> instanceType) {
+      return JdbcProducerBackend.this.get(instanceType);
+    }
+
+    @Override
+    public String toString() {
+      return "JdbcProducer context for " + getClass().getInterfaces()[0].getSimpleName();
+    }
+  }
+
+  private class CloseContext extends Context<Void> implements CloseCommandContext {
+  }
+
+  private class GetMetadataContext extends Context<EdmDataServicesProvider> implements GetMetadataCommandContext {
+  }
+
+  private class GetEntitiesContext extends Context<EntitiesResponse> implements GetEntitiesCommandContext {
+
+    private final String entitySetName;
+    private final QueryInfo queryInfo;
+
+    public GetEntitiesContext(String entitySetName, QueryInfo queryInfo) {
+      this.entitySetName = entitySetName;
+      this.queryInfo = queryInfo;
+    }
+
+    @Override
+    public String getEntitySetName() {
+      return entitySetName;
+    }
+
+    @Override
+    public QueryInfo getQueryInfo() {
+      return queryInfo;
+    }
+  }
+
+  private class GetEntityContext extends Context<EntityResponse> implements GetEntityCommandContext {
+
+    private final String entitySetName;
+    private final OEntityKey entityKey;
+    private final EntityQueryInfo queryInfo;
+
+    public GetEntityContext(String entitySetName, OEntityKey entityKey, EntityQueryInfo queryInfo) {
+      this.entitySetName = entitySetName;
+      this.entityKey = entityKey;
+      this.queryInfo = queryInfo;
+    }
+
+    @Override
+    public String getEntitySetName() {
+      return entitySetName;
+    }
+
+    @Override
+    public OEntityKey getEntityKey() {
+      return entityKey;
+    }
+
+    @Override
+    public EntityQueryInfo getQueryInfo() {
+      return queryInfo;
+    }
+  }
+
+  private class CreateEntityContext extends Context<EntityResponse> implements CreateEntityCommandContext {
+
+    private final String entitySetName;
+    private final OEntity entity;
+
+    public CreateEntityContext(String entitySetName, OEntity entity) {
+      this.entitySetName = entitySetName;
+      this.entity = entity;
+    }
+
+    @Override
+    public String getEntitySetName() {
+      return entitySetName;
+    }
+
+    @Override
+    public OEntity getEntity() {
+      return entity;
+    }
+  }
+
+  private class DeleteEntityContext extends Context<Void> implements DeleteEntityCommandContext {
+
+    private final String entitySetName;
+    private final OEntityKey entityKey;
+
+    public DeleteEntityContext(String entitySetName, OEntityKey entityKey) {
+      this.entitySetName = entitySetName;
+      this.entityKey = entityKey;
+    }
+
+    @Override
+    public String getEntitySetName() {
+      return entitySetName;
+    }
+
+    @Override
+    public OEntityKey getEntityKey() {
+      return entityKey;
+    }
+  }
+
+  private class UpdateEntityContext extends Context<Void> implements UpdateEntityCommandContext {
+
+    private final String entitySetName;
+    private final OEntity entity;
+
+    public UpdateEntityContext(String entitySetName, OEntity entity) {
+      this.entitySetName = entitySetName;
+      this.entity = entity;
+    }
+
+    @Override
+    public String getEntitySetName() {
+      return entitySetName;
+    }
+
+    @Override
+    public OEntity getEntity() {
+      return entity;
+    }
+  }
+
+  private class MergeEntityContext extends Context<Void> implements MergeEntityCommandContext {
+
+    private final String entitySetName;
+    private final OEntity entity;
+
+    public MergeEntityContext(String entitySetName, OEntity entity) {
+      this.entitySetName = entitySetName;
+      this.entity = entity;
+    }
+
+    @Override
+    public String getEntitySetName() {
+      return entitySetName;
+    }
+
+    @Override
+    public OEntity getEntity() {
+      return entity;
+    }
   }
 
   @Override
   public CloseCommandContext newCloseCommandContext() {
-    return newContext(CloseCommandContext.class);
+    return new CloseContext();
   }
 
   @Override
   public GetMetadataCommandContext newGetMetadataCommandContext() {
-    return newContext(GetMetadataCommandContext.class);
+    return new GetMetadataContext();
   }
 
   @Override
   public GetEntitiesCommandContext newGetEntitiesCommandContext(String entitySetName, QueryInfo queryInfo) {
-    return newContext(GetEntitiesCommandContext.class,
-        "entitySetName", entitySetName,
-        "queryInfo", queryInfo);
+    return new GetEntitiesContext(entitySetName, queryInfo);
   }
 
   @Override
   public GetEntityCommandContext newGetEntityCommandContext(String entitySetName, OEntityKey entityKey, EntityQueryInfo queryInfo) {
-    return newContext(GetEntityCommandContext.class,
-        "entitySetName", entitySetName,
-        "entityKey", entityKey,
-        "queryInfo", queryInfo);
+    return new GetEntityContext(entitySetName, entityKey, queryInfo);
   }
 
   @Override
@@ -170,9 +402,7 @@ public abstract class JdbcProducerBackend implements CommandProducerBackend {
 
   @Override
   public CreateEntityCommandContext newCreateEntityCommandContext(String entitySetName, OEntity entity) {
-    return newContext(CreateEntityCommandContext.class,
-        "entitySetName", entitySetName,
-        "entity", entity);
+    return new CreateEntityContext(entitySetName, entity);
   }
 
   @Override
@@ -182,19 +412,17 @@ public abstract class JdbcProducerBackend implements CommandProducerBackend {
 
   @Override
   public DeleteEntityCommandContext newDeleteEntityCommandContext(String entitySetName, OEntityKey entityKey) {
-    return newContext(DeleteEntityCommandContext.class,
-        "entitySetName", entitySetName,
-        "entityKey", entityKey);
+    return new DeleteEntityContext(entitySetName, entityKey);
   }
 
   @Override
   public MergeEntityCommandContext newMergeEntityCommandContext(String entitySetName, OEntity entity) {
-    throw new UnsupportedOperationException();
+    return new MergeEntityContext(entitySetName, entity);
   }
 
   @Override
   public UpdateEntityCommandContext newUpdateEntityCommandContext(String entitySetName, OEntity entity) {
-    throw new UnsupportedOperationException();
+    return new UpdateEntityContext(entitySetName, entity);
   }
 
   @Override
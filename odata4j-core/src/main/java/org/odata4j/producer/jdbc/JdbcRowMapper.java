@@ -0,0 +1,212 @@
+package org.odata4j.producer.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.LocalDateTime;
+import org.joda.time.LocalTime;
+import org.odata4j.core.OEntities;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.core.OLink;
+import org.odata4j.core.OProperties;
+import org.odata4j.core.OProperty;
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmProperty;
+import org.odata4j.edm.EdmSimpleType;
+import org.odata4j.edm.EdmType;
+import org.odata4j.expression.EntitySimpleProperty;
+import org.odata4j.internal.TypeConverter;
+
+/**
+ * Converts the rows of a result set into entities.
+ *
+ * <p>A row mapper is created once per result set: it resolves the column index and a typed
+ * getter of each projected property up front, so mapping a row does no name lookups.</p>
+ */
+public class JdbcRowMapper {
+
+  private static abstract class ColumnReader {
+    abstract Object read(ResultSet results, int index) throws SQLException;
+  }
+
+  private static final ColumnReader OBJECT = new ColumnReader() {
+    @Override
+    Object read(ResultSet results, int index) throws SQLException {
+      return results.getObject(index);
+    }
+  };
+
+  private static final Map<EdmType, ColumnReader> READERS = new HashMap<EdmType, ColumnReader>();
+  static {
+    READERS.put(EdmSimpleType.STRING, new ColumnReader() {
+      @Override
+      Object read(ResultSet results, int index) throws SQLException {
+        return results.getString(index);
+      }
+    });
+    READERS.put(EdmSimpleType.BOOLEAN, new ColumnReader() {
+      @Override
+      Object read(ResultSet results, int index) throws SQLException {
+        boolean value = results.getBoolean(index);
+        return results.wasNull() ? null : value;
+      }
+    });
+    READERS.put(EdmSimpleType.INT16, new ColumnReader() {
+      @Override
+      Object read(ResultSet results, int index) throws SQLException {
+        short value = results.getShort(index);
+        return results.wasNull() ? null : value;
+      }
+    });
+    READERS.put(EdmSimpleType.INT32, new ColumnReader() {
+      @Override
+      Object read(ResultSet results, int index) throws SQLException {
+        int value = results.getInt(index);
+        return results.wasNull() ? null : value;
+      }
+    });
+    READERS.put(EdmSimpleType.INT64, new ColumnReader() {
+      @Override
+      Object read(ResultSet results, int index) throws SQLException {
+        long value = results.getLong(index);
+        return results.wasNull() ? null : value;
+      }
+    });
+    READERS.put(EdmSimpleType.SINGLE, new ColumnReader() {
+      @Override
+      Object read(ResultSet results, int index) throws SQLException {
+        float value = results.getFloat(index);
+        return results.wasNull() ? null : value;
+      }
+    });
+    READERS.put(EdmSimpleType.DOUBLE, new ColumnReader() {
+      @Override
+      Object read(ResultSet results, int index) throws SQLException {
+        double value = results.getDouble(index);
+        return results.wasNull() ? null : value;
+      }
+    });
+    READERS.put(EdmSimpleType.DECIMAL, new ColumnReader() {
+      @Override
+      Object read(ResultSet results, int index) throws SQLException {
+        return results.getBigDecimal(index);
+      }
+    });
+    READERS.put(EdmSimpleType.DATETIME, new ColumnReader() {
+      @Override
+      Object read(ResultSet results, int index) throws SQLException {
+        return TypeConverter.convert(results.getTimestamp(index), LocalDateTime.class);
+      }
+    });
+    READERS.put(EdmSimpleType.TIME, new ColumnReader() {
+      @Override
+      Object read(ResultSet results, int index) throws SQLException {
+        return TypeConverter.convert(results.getTime(index), LocalTime.class);
+      }
+    });
+    READERS.put(EdmSimpleType.BINARY, new ColumnReader() {
+      @Override
+      Object read(ResultSet results, int index) throws SQLException {
+        return results.getBytes(index);
+      }
+    });
+  }
+
+  private final EdmEntitySet entitySet;
+  private final int size;
+  private final String[] names;
+  private final EdmSimpleType<?>[] types;
+  private final int[] indexes;
+  private final ColumnReader[] readers;
+  private final boolean[] selected;
+  private final int[] keys;
+  private final Map<String, Integer> positions = new HashMap<String, Integer>();
+
+  /**
+   * Creates a row mapper for a result set of a query generated for the given properties.
+   *
+   * @param projectedProperties  the properties read by the query, including the key properties
+   * @param select  the selected properties; the others are only used for the entity key
+   */
+  public JdbcRowMapper(JdbcMetadataMapping mapping, EdmEntitySet entitySet, Iterable<EdmProperty> projectedProperties,
+      List<EntitySimpleProperty> select, ResultSet results) throws SQLException {
+    this.entitySet = entitySet;
+    List<EdmProperty> properties = new ArrayList<EdmProperty>();
+    for (EdmProperty property : projectedProperties)
+      properties.add(property);
+
+    size = properties.size();
+    names = new String[size];
+    types = new EdmSimpleType<?>[size];
+    indexes = new int[size];
+    readers = new ColumnReader[size];
+    selected = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      EdmProperty property = properties.get(i);
+      names[i] = property.getName();
+      types[i] = property.getType() instanceof EdmSimpleType ? (EdmSimpleType<?>) property.getType() : null;
+      indexes[i] = results.findColumn(mapping.getMappedColumn(property).columnName);
+      ColumnReader reader = READERS.get(property.getType());
+      readers[i] = reader == null ? OBJECT : reader;
+      selected[i] = JdbcBaseCommand.isSelected(names[i], select);
+      positions.put(names[i], i);
+    }
+
+    List<String> keyNames = entitySet.getType().getKeys();
+    keys = new int[keyNames.size()];
+    for (int i = 0; i < keys.length; i++) {
+      Integer position = positions.get(keyNames.get(i));
+      if (position == null)
+        throw new IllegalArgumentException("Key property " + keyNames.get(i) + " is not projected");
+      keys[i] = position;
+    }
+  }
+
+  /**
+   * Creates an entity from the current row.
+   */
+  public OEntity toOEntity(ResultSet results) throws SQLException {
+    OProperty<?>[] row = new OProperty<?>[size];
+    List<OProperty<?>> properties = new ArrayList<OProperty<?>>(size);
+    for (int i = 0; i < size; i++) {
+      row[i] = toOProperty(i, readers[i].read(results, indexes[i]));
+      if (selected[i])
+        properties.add(row[i]);
+    }
+
+    List<OProperty<?>> keyProperties = new ArrayList<OProperty<?>>(keys.length);
+    for (int key : keys)
+      keyProperties.add(row[key]);
+    OEntityKey entityKey = OEntityKey.infer(entitySet, keyProperties);
+    return OEntities.create(entitySet, entityKey, properties, Collections.<OLink> emptyList());
+  }
+
+  /**
+   * Reads the value of a property from the current row.
+   */
+  public Object getValue(ResultSet results, String propertyName) throws SQLException {
+    Integer position = positions.get(propertyName);
+    if (position == null)
+      throw new IllegalArgumentException("Property " + propertyName + " is not projected");
+    return readers[position].read(results, indexes[position]);
+  }
+
+  public EdmEntitySet getEntitySet() {
+    return entitySet;
+  }
+
+  private OProperty<?> toOProperty(int i, Object value) {
+    if (value == null && types[i] != null)
+      return OProperties.null_(names[i], types[i]);
+    if (readers[i] == OBJECT)
+      return OProperties.simple(names[i], value);
+    return OProperties.simple(names[i], types[i], value);
+  }
+
+}
@@ -0,0 +1,16 @@
+package org.odata4j.producer.jdbc;
+
+import org.odata4j.command.Command;
+import org.odata4j.command.CommandResult;
+import org.odata4j.producer.command.UpdateEntityCommandContext;
+
+public class JdbcUpdateEntityCommand extends JdbcBaseCommand implements Command<UpdateEntityCommandContext> {
+
+  @Override
+  public CommandResult execute(UpdateEntityCommandContext context) throws Exception {
+    JdbcProducerCommandContext jdbcContext = (JdbcProducerCommandContext) context;
+    updateEntity(jdbcContext, context.getEntitySetName(), context.getEntity(), false);
+    return CommandResult.CONTINUE;
+  }
+
+}
@@ -17,7 +17,9 @@ import org.odata4j.producer.command.DeleteEntityCommandContext;
 import org.odata4j.producer.command.GetEntitiesCommandContext;
 import org.odata4j.producer.command.GetEntityCommandContext;
 import org.odata4j.producer.command.GetMetadataCommandContext;
+import org.odata4j.producer.command.MergeEntityCommandContext;
 import org.odata4j.producer.command.ProducerCommandContext;
+import org.odata4j.producer.command.UpdateEntityCommandContext;
 
 public class LoggingCommand implements Command<ProducerCommandContext<?>> {
   private static final Logger log = Logger.getLogger(LoggingCommand.class.getName());
@@ -49,6 +51,16 @@ public class LoggingCommand implements Command<ProducerCommandContext<?>> {
       log("deleteEntity",
           "entitySetName", c.getEntitySetName(),
           "entityKey", c.getEntityKey());
+    } else if (context instanceof UpdateEntityCommandContext) {
+      UpdateEntityCommandContext c = (UpdateEntityCommandContext) context;
+      log("updateEntity",
+          "entitySetName", c.getEntitySetName(),
+          "entity", c.getEntity());
+    } else if (context instanceof MergeEntityCommandContext) {
+      MergeEntityCommandContext c = (MergeEntityCommandContext) context;
+      log("mergeEntity",
+          "entitySetName", c.getEntitySetName(),
+          "entity", c.getEntity());
     } else {
       throw new UnsupportedOperationException("TODO implement logging for : " + context);
     }
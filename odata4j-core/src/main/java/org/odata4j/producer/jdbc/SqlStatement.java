@@ -2,9 +2,11 @@ package org.odata4j.producer.jdbc;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import org.odata4j.core.ImmutableList;
+import org.odata4j.producer.RequestDeadline;
 
 public class SqlStatement {
   public static class SqlParameter {
@@ -27,6 +29,90 @@ public class SqlStatement {
 
   public PreparedStatement asPreparedStatement(Connection conn) throws SQLException {
     PreparedStatement stmt = conn.prepareStatement(sql);
+    setParameters(stmt);
+    applyDeadline(stmt);
+    return stmt;
+  }
+
+  /**
+   * Prepares the statement as a forward-only, read-only query.
+   * Some drivers only stream the rows of a query when auto-commit is off.
+   * The query is limited to the time left for the request on the current thread; close the statement
+   * with {@link #close(PreparedStatement)} when done, so it is not cancelled with the request afterwards.
+   *
+   * @param fetchSize  the number of rows to fetch per round trip, or 0 for the driver default
+   */
+  public PreparedStatement asQuery(Connection conn, int fetchSize) throws SQLException {
+    PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    if (fetchSize > 0)
+      stmt.setFetchSize(fetchSize);
+    setParameters(stmt);
+    applyDeadline(stmt);
+    return stmt;
+  }
+
+  /**
+   * Closes a statement prepared by {@link #asPreparedStatement} or {@link #asQuery}, which is then
+   * no longer cancelled with the request on the current thread.
+   */
+  public static void close(PreparedStatement stmt) throws SQLException {
+    RequestDeadline deadline = RequestDeadline.current();
+    if (deadline != null)
+      deadline.removeCancelListener(new Canceller(stmt));
+    stmt.close();
+  }
+
+  /**
+   * Sets the parameters on a statement prepared for this statement's SQL and adds them to its batch.
+   */
+  public void addBatch(PreparedStatement stmt) throws SQLException {
+    setParameters(stmt);
+    stmt.addBatch();
+  }
+
+  /**
+   * Sets the query timeout of a statement to the time left for the request on the current thread,
+   * and cancels the statement if the request is cancelled before the statement is closed.
+   */
+  private static void applyDeadline(PreparedStatement stmt) throws SQLException {
+    RequestDeadline deadline = RequestDeadline.current();
+    if (deadline == null)
+      return;
+    deadline.check();
+    stmt.setQueryTimeout(deadline.getRemainingSeconds());
+    deadline.onCancel(new Canceller(stmt));
+  }
+
+  /** Cancels a statement; equal for the same statement, so {@link #close} can remove it. */
+  private static class Canceller implements Runnable {
+
+    private final PreparedStatement stmt;
+
+    Canceller(PreparedStatement stmt) {
+      this.stmt = stmt;
+    }
+
+    @Override
+    public void run() {
+      try {
+        stmt.cancel();
+      } catch (SQLException e) {
+        // the statement is done already
+      }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Canceller && ((Canceller) obj).stmt == stmt;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(stmt);
+    }
+  }
+
+  private void setParameters(PreparedStatement stmt) throws SQLException {
     for (int i = 0; i < params.size(); i++) {
       SqlParameter p = params.get(i);
       if (p.sqlType == null) {
@@ -35,7 +121,6 @@ public class SqlStatement {
         stmt.setObject(i + 1, p.value, p.sqlType);
       }
     }
-    return stmt;
   }
 
 }
\ No newline at end of file
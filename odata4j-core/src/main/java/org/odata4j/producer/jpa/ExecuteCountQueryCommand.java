@@ -12,7 +12,8 @@ public class ExecuteCountQueryCommand implements Command {
     String jpql = context.getJPQLQuery();
 
     // jpql -> jpa query
-    Query tq = context.getEntityManager().createQuery(jpql);
+    Query tq = JPAProducer.setHints(context.getEntityManager().createQuery(jpql), context.getQueryHints());
+    JPAProducer.setTimeout(tq, context.getDeadline());
 
     // execute jpa query
     Long count = (Long) tq.getSingleResult();
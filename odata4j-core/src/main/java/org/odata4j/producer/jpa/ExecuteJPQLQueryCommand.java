@@ -32,7 +32,8 @@ public class ExecuteJPQLQueryCommand implements Command {
     String jpql = context.getJPQLQuery();
 
     // jpql -> jpa query
-    Query tq = context.getEntityManager().createQuery(jpql);
+    Query tq = JPAProducer.setHints(context.getEntityManager().createQuery(jpql), context.getQueryHints());
+    JPAProducer.setTimeout(tq, context.getDeadline());
 
     Integer inlineCount = context.getQueryInfo() != null
         && context.getQueryInfo().inlineCount == InlineCount.ALLPAGES
@@ -12,11 +12,14 @@ import javax.persistence.metamodel.SingularAttribute;
 
 import org.core4j.Enumerable;
 import org.odata4j.core.OEntityKey;
+import org.odata4j.edm.EdmEntitySet;
 import org.odata4j.edm.EdmNavigationProperty;
 import org.odata4j.edm.EdmProperty;
 import org.odata4j.expression.BoolCommonExpression;
+import org.odata4j.expression.EntitySimpleProperty;
 import org.odata4j.expression.OrderByExpression;
 import org.odata4j.expression.OrderByExpression.Direction;
+import org.odata4j.producer.QueryInfo;
 
 public class GenerateJPQLCommand implements Command {
 
@@ -109,13 +112,20 @@ public class GenerateJPQLCommand implements Command {
       }
     }
 
+    JPQLGenerator jpqlGen = new JPQLGenerator(context.getEntity()
+        .getKeyAttributeName(), alias);
+
     String select = isCount ? "COUNT(" + alias + ")" : alias;
+    if (!isCount) {
+      List<String> paths = new ArrayList<String>();
+      List<String> projection = generateProjection(context, jpqlGen, alias, paths);
+      if (projection != null)
+        select = Enumerable.create(paths).join(", ");
+      context.setJPQLProjection(projection);
+    }
 
     String jpql = String.format("SELECT %s FROM %s", select, from);
 
-    JPQLGenerator jpqlGen = new JPQLGenerator(context.getEntity()
-        .getKeyAttributeName(), alias);
-
     if (context.getQueryInfo() != null
         && context.getQueryInfo().filter != null) {
       String filterPredicate = jpqlGen
@@ -155,6 +165,65 @@ public class GenerateJPQLCommand implements Command {
     return jpql;
   }
 
+  /**
+   * Generates a tuple select of the key, selected and ordered properties if the query
+   * selects a subset of the simple properties and expands nothing.
+   *
+   * @return the property names in tuple order, or null to select whole entities
+   */
+  private List<String> generateProjection(JPAContext context,
+      JPQLGenerator jpqlGen, String alias, List<String> paths) {
+    QueryInfo query = context.getQueryInfo();
+    if (query == null || query.select == null || query.select.isEmpty()
+        || (query.expand != null && !query.expand.isEmpty())
+        || context.getEdmPropertyBase() instanceof EdmProperty)
+      return null;
+
+    EdmEntitySet ees = context.getEntity().getEdmEntitySet();
+    SingularAttribute<?, ?> idAtt = JPAEdmGenerator
+        .getIdAttribute(context.getEntity().getJPAEntityType());
+    boolean hasEmbeddedCompositeKey =
+        idAtt.getPersistentAttributeType() == PersistentAttributeType.EMBEDDED;
+
+    // key properties first
+    List<String> names = new ArrayList<String>();
+    for (String key : ees.getType().getKeys()) {
+      names.add(key);
+      paths.add(hasEmbeddedCompositeKey
+          ? alias + "." + idAtt.getName() + "." + key
+          : alias + "." + key);
+    }
+    boolean allSelected = true;
+    for (EdmProperty ep : ees.getType().getProperties()) {
+      if (names.contains(ep.getName()))
+        continue;
+      if (ep.getType().isSimple() && JPAProducer.isSelected(ep.getName(), query.select)) {
+        names.add(ep.getName());
+        paths.add(alias + "." + ep.getName());
+      } else {
+        allSelected = false;
+      }
+    }
+    if (allSelected)
+      return null;
+
+    // ordered properties must be selected, and feed the skip token
+    if (query.orderBy != null) {
+      for (OrderByExpression orderBy : query.orderBy) {
+        if (!(orderBy.getExpression() instanceof EntitySimpleProperty))
+          return null;
+        String name = ((EntitySimpleProperty) orderBy.getExpression()).getPropertyName();
+        if (name.indexOf('/') >= 0 || ees.getType().findProperty(name) == null)
+          return null;
+        if (!names.contains(name)) {
+          names.add(name);
+          paths.add(jpqlGen.toJpql(orderBy.getExpression()));
+        }
+      }
+    }
+    return names;
+  }
+
   private String addWhereExpression(String expression,
       String nextExpression, String condition) {
 
@@ -1,5 +1,9 @@
 package org.odata4j.producer.jpa;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 import javax.persistence.EntityManager;
 import javax.persistence.EntityTransaction;
 import javax.persistence.metamodel.EntityType;
@@ -11,6 +15,7 @@ import org.odata4j.edm.EdmEntitySet;
 import org.odata4j.edm.EdmPropertyBase;
 import org.odata4j.producer.BaseResponse;
 import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.RequestDeadline;
 
 public class JPAContext implements Context {
 
@@ -26,10 +31,15 @@ public class JPAContext implements Context {
   private QueryInfo queryInfo;
 
   private String jpqlQuery;
+  private List<String> jpqlProjection;
   private EdmPropertyBase edmPropertyBase;
 
   private JPAResult result;
 
+  private Map<String, Object> queryHints = Collections.emptyMap();
+
+  private RequestDeadline deadline;
+
   private BaseResponse response;
 
   // update, merge, delete
@@ -109,6 +119,18 @@ public class JPAContext implements Context {
     this.jpqlQuery = jpqlQuery;
   }
 
+  /**
+   * Gets the names of the properties selected by the JPQL query, in tuple order,
+   * or null if the query selects whole entities.
+   */
+  public List<String> getJPQLProjection() {
+    return jpqlProjection;
+  }
+
+  public void setJPQLProjection(List<String> jpqlProjection) {
+    this.jpqlProjection = jpqlProjection;
+  }
+
   public EdmPropertyBase getEdmPropertyBase() {
     return edmPropertyBase;
   }
@@ -125,6 +147,24 @@ public class JPAContext implements Context {
     this.result = result;
   }
 
+  /** Gets the hints to pass to the queries and finds of this request. */
+  public Map<String, Object> getQueryHints() {
+    return queryHints;
+  }
+
+  public void setQueryHints(Map<String, Object> queryHints) {
+    this.queryHints = queryHints == null ? Collections.<String, Object> emptyMap() : queryHints;
+  }
+
+  /** Gets the deadline of this request, or null if it has none. */
+  public RequestDeadline getDeadline() {
+    return deadline;
+  }
+
+  public void setDeadline(RequestDeadline deadline) {
+    this.deadline = deadline;
+  }
+
   public BaseResponse getResponse() {
     return response;
   }
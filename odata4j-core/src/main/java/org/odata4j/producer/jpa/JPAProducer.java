@@ -15,6 +15,8 @@ import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.Query;
+import javax.persistence.QueryTimeoutException;
 import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.CollectionAttribute;
 import javax.persistence.metamodel.EmbeddableType;
@@ -42,6 +44,7 @@ import org.odata4j.edm.EdmDecorator;
 import org.odata4j.edm.EdmFunctionImport;
 import org.odata4j.exceptions.BadRequestException;
 import org.odata4j.exceptions.NotImplementedException;
+import org.odata4j.exceptions.ODataProducerException;
 import org.odata4j.expression.EntitySimpleProperty;
 import org.odata4j.internal.TypeConverter;
 import org.odata4j.producer.BaseResponse;
@@ -53,6 +56,7 @@ import org.odata4j.producer.EntityResponse;
 import org.odata4j.producer.ODataContext;
 import org.odata4j.producer.ODataProducer;
 import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.RequestDeadline;
 import org.odata4j.producer.Responses;
 import org.odata4j.producer.edm.MetadataProducer;
 
@@ -70,6 +74,9 @@ public class JPAProducer implements ODataProducer {
     GetCount
   };
 
+  /** The standard hint for the query timeout in milliseconds. */
+  static final String QUERY_TIMEOUT_HINT = "javax.persistence.query.timeout";
+
   private final EntityManagerFactory emf;
   private final EdmDataServices metadata;
   private final int maxResults;
@@ -275,7 +282,7 @@ public class JPAProducer implements ODataProducer {
   @Override
   public EntitiesResponse getEntities(ODataContext context, String entitySetName, QueryInfo queryInfo) {
     JPAContext jpaContext = new JPAContext(metadata, entitySetName, queryInfo);
-    getEntitiesCommand.execute(jpaContext);
+    executeQuery(getEntitiesCommand, jpaContext, context);
     return (EntitiesResponse) jpaContext.getResponse();
   }
 
@@ -283,7 +290,7 @@ public class JPAProducer implements ODataProducer {
   public EntityResponse getEntity(ODataContext context, String entitySetName, OEntityKey entityKey, EntityQueryInfo queryInfo) {
     JPAContext jpaContext = new JPAContext(metadata, entitySetName, entityKey, null,
         queryInfo);
-    getEntityCommand.execute(jpaContext);
+    executeQuery(getEntityCommand, jpaContext, context);
     return (EntityResponse) jpaContext.getResponse();
   }
 
@@ -291,7 +298,7 @@ public class JPAProducer implements ODataProducer {
   public BaseResponse getNavProperty(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, QueryInfo queryInfo) {
     JPAContext jpaContext = new JPAContext(metadata, entitySetName, entityKey,
         navProp, queryInfo);
-    getEntitiesCommand.execute(jpaContext);
+    executeQuery(getEntitiesCommand, jpaContext, context);
     return jpaContext.getResponse();
   }
 
@@ -384,7 +391,7 @@ public class JPAProducer implements ODataProducer {
   @Override
   public CountResponse getEntitiesCount(ODataContext context, String entitySetName, QueryInfo queryInfo) {
     JPAContext jpaContext = new JPAContext(metadata, entitySetName, queryInfo);
-    getCountCommand.execute(jpaContext);
+    executeQuery(getCountCommand, jpaContext, context);
     return (CountResponse) jpaContext.getResponse();
   }
 
@@ -392,7 +399,7 @@ public class JPAProducer implements ODataProducer {
   public CountResponse getNavPropertyCount(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, QueryInfo queryInfo) {
     JPAContext jpaContext = new JPAContext(metadata, entitySetName, entityKey,
         navProp, queryInfo);
-    getCountCommand.execute(jpaContext);
+    executeQuery(getCountCommand, jpaContext, context);
     return (CountResponse) jpaContext.getResponse();
   }
 
@@ -685,6 +692,43 @@ public class JPAProducer implements ODataProducer {
     return jpaEntity;
   }
 
+  static Query setHints(Query query, Map<String, Object> hints) {
+    for (Map.Entry<String, Object> hint : hints.entrySet())
+      query.setHint(hint.getKey(), hint.getValue());
+    return query;
+  }
+
+  /**
+   * Limits a query to the time left for the request.
+   *
+   * @param deadline  the deadline of the request, or null
+   */
+  static Query setTimeout(Query query, RequestDeadline deadline) {
+    if (deadline != null) {
+      deadline.check();
+      query.setHint(QUERY_TIMEOUT_HINT, deadline.getRemainingMillis());
+    }
+    return query;
+  }
+
+  /**
+   * Executes a read chain within the deadline of the request.  Errors of a request that ran out of time,
+   * like a query timeout, are reported as the expired deadline.
+   */
+  private void executeQuery(Command command, JPAContext jpaContext, ODataContext context) {
+    RequestDeadline deadline = RequestDeadline.get(context);
+    if (deadline != null)
+      deadline.check();
+    jpaContext.setDeadline(deadline);
+    try {
+      command.execute(jpaContext);
+    } catch (RuntimeException e) {
+      if (deadline != null && (e instanceof QueryTimeoutException || deadline.isExpired() && !(e instanceof ODataProducerException)))
+        throw deadline.exceeded(e);
+      throw e;
+    }
+  }
+
   static boolean isSelected(String name, List<EntitySimpleProperty> select) {
     if (select != null && !select.isEmpty()) {
       for (EntitySimpleProperty prop : select) {
@@ -0,0 +1,95 @@
+package org.odata4j.producer.jpa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.odata4j.producer.jpa.JPAProducer.CommandType;
+
+/**
+ * Runs the read chains of a {@link JPAProducer} in read-only mode.
+ *
+ * <p>The GetEntities, GetEntity, GetLinks and GetCount chains get a {@link ReadOnlyEntityManagerCommand}
+ * in place of their {@link EntityManagerCommand}. Their queries then run with read-only hints and never
+ * flush, so providers neither snapshot nor dirty-check the loaded objects. The write chains are
+ * not modified.</p>
+ *
+ * <pre>
+ * JPAReadOnlyBehavior behavior = new JPAReadOnlyBehavior(emf, true, true);
+ * JPAProducer producer = new JPAProducer(emf, metadata, maxResults, null, behavior);
+ * </pre>
+ *
+ * <p>With thread bound EntityManagers, every thread that served a read keeps an open EntityManager.
+ * Without detaching results it also keeps everything it loaded, and later reads on that thread may
+ * see stale objects; only do that for small, read-mostly data.</p>
+ */
+public class JPAReadOnlyBehavior implements JPAProducerBehavior {
+
+  /** Read-only and no-flush hints understood by EclipseLink and Hibernate; providers ignore hints they don't know. */
+  public static final Map<String, Object> DEFAULT_HINTS;
+
+  static {
+    Map<String, Object> hints = new HashMap<String, Object>();
+    hints.put("eclipselink.read-only", "True");
+    hints.put("org.hibernate.readOnly", Boolean.TRUE);
+    hints.put("org.hibernate.flushMode", "MANUAL");
+    DEFAULT_HINTS = Collections.unmodifiableMap(hints);
+  }
+
+  private static final Set<CommandType> READ_TYPES = EnumSet.of(
+      CommandType.GetEntities,
+      CommandType.GetEntity,
+      CommandType.GetLinks,
+      CommandType.GetCount);
+
+  private final ReadOnlyEntityManagerCommand entityManagerCommand;
+
+  /**
+   * Creates a behavior with the default hints and an EntityManager per request.
+   */
+  public JPAReadOnlyBehavior(EntityManagerFactory emf) {
+    this(emf, false, true);
+  }
+
+  /**
+   * Creates a behavior with the default hints.
+   *
+   * @param emf  the factory of the producer
+   * @param threadBound  whether each thread reuses one EntityManager
+   * @param detachResults  whether a reused EntityManager is cleared after each request
+   */
+  public JPAReadOnlyBehavior(EntityManagerFactory emf, boolean threadBound, boolean detachResults) {
+    this(emf, threadBound, detachResults, DEFAULT_HINTS);
+  }
+
+  public JPAReadOnlyBehavior(EntityManagerFactory emf, boolean threadBound, boolean detachResults, Map<String, Object> queryHints) {
+    this.entityManagerCommand = new ReadOnlyEntityManagerCommand(emf, queryHints, threadBound, detachResults);
+  }
+
+  @Override
+  public List<Command> modify(CommandType type, List<Command> commands) {
+    if (!READ_TYPES.contains(type))
+      return commands;
+
+    // one command for all chains, so a thread bound EntityManager serves every kind of read
+    List<Command> rt = new ArrayList<Command>(commands.size());
+    for (Command command : commands)
+      rt.add(command instanceof EntityManagerCommand ? entityManagerCommand : command);
+    return rt;
+  }
+
+  /**
+   * Closes the EntityManager bound to the calling thread, if any; for example when a worker
+   * thread ends.
+   */
+  public void closeThreadEntityManager() {
+    entityManagerCommand.closeThreadEntityManager();
+  }
+
+}
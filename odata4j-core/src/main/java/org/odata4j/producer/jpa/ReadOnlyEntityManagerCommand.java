@@ -0,0 +1,80 @@
+package org.odata4j.producer.jpa;
+
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.FlushModeType;
+
+/**
+ * Provides the EntityManager for a read chain, in place of {@link EntityManagerCommand}.
+ *
+ * <p>The EntityManager never flushes before queries, and the given hints are passed to every
+ * query and find of the request. If thread bound, each thread keeps one EntityManager across
+ * requests; it is closed and replaced only after a failed request.</p>
+ */
+public class ReadOnlyEntityManagerCommand implements Filter {
+
+  private final EntityManagerFactory emf;
+  private final Map<String, Object> queryHints;
+  private final boolean threadBound;
+  private final boolean detachResults;
+  private final ThreadLocal<EntityManager> threadEntityManager = new ThreadLocal<EntityManager>();
+
+  /**
+   * @param emf  the factory to create EntityManagers with
+   * @param queryHints  the hints for queries and finds
+   * @param threadBound  whether each thread reuses one EntityManager
+   * @param detachResults  whether a reused EntityManager is cleared after each request, taking the
+   *                       loaded objects out of its persistence context
+   */
+  public ReadOnlyEntityManagerCommand(EntityManagerFactory emf, Map<String, Object> queryHints, boolean threadBound, boolean detachResults) {
+    this.emf = emf;
+    this.queryHints = queryHints;
+    this.threadBound = threadBound;
+    this.detachResults = detachResults;
+  }
+
+  @Override
+  public boolean execute(JPAContext context) {
+    EntityManager em = threadBound ? threadEntityManager.get() : null;
+    if (em == null || !em.isOpen()) {
+      em = emf.createEntityManager();
+      em.setFlushMode(FlushModeType.COMMIT);
+      if (threadBound)
+        threadEntityManager.set(em);
+    }
+    context.setEntityManager(em);
+    context.setQueryHints(queryHints);
+
+    return false;
+  }
+
+  @Override
+  public boolean postProcess(JPAContext context, Exception exception) {
+    EntityManager em = context.getEntityManager();
+    context.setEntityManager(null);
+
+    if (threadBound && exception == null && em.isOpen()) {
+      if (detachResults)
+        em.clear();
+    } else {
+      if (threadBound)
+        threadEntityManager.remove();
+      em.close();
+    }
+
+    return false;
+  }
+
+  /**
+   * Closes the EntityManager bound to the calling thread, if any.
+   */
+  public void closeThreadEntityManager() {
+    EntityManager em = threadEntityManager.get();
+    threadEntityManager.remove();
+    if (em != null && em.isOpen())
+      em.close();
+  }
+
+}
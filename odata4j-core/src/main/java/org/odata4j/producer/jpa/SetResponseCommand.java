@@ -69,10 +69,13 @@ public class SetResponseCommand implements Command {
       //  move this back to ExecuteJPQLQueryCommand
       String skipToken = null;
       if (result.createSkipToken()) {
+        OEntity last = context.getJPQLProjection() == null
+            ? Enumerable.create(entities).last()
+            : tupleToOEntity(context, Enumerable.create(result.getEntities()).last(), true);
         skipToken = JPASkipToken.create(context.getQueryInfo() == null
             ? null
             : context.getQueryInfo().orderBy,
-            Enumerable.create(entities).last());
+            last);
       }
 
       context.setResponse(Responses.entities(entities, context.getEntity()
@@ -96,6 +99,9 @@ public class SetResponseCommand implements Command {
   }
 
   private OEntity makeEntity(JPAContext context, Object jpaEntity) {
+    if (context.getJPQLProjection() != null)
+      return tupleToOEntity(context, jpaEntity, false);
+
     return jpaEntityToOEntity(
         context.getMetadata(),
         accessor.getEntity(context).getEdmEntitySet(),
@@ -283,6 +289,56 @@ public class SetResponseCommand implements Command {
     }
   }
 
+  /**
+   * Creates an entity from a row of a projection query, without loading the JPA entity.
+   *
+   * @param allProperties  whether to include the projected properties that were not selected,
+   *          e.g. the ordered properties needed for a skip token
+   */
+  private OEntity tupleToOEntity(JPAContext context, Object tuple, boolean allProperties) {
+    EdmEntitySet ees = accessor.getEntity(context).getEdmEntitySet();
+    List<EntitySimpleProperty> select = context.getQueryInfo().select;
+    List<String> names = context.getJPQLProjection();
+
+    // a single select item is returned as is, not as an array
+    Object[] values = names.size() == 1 ? new Object[] { tuple } : (Object[]) tuple;
+    Map<String, Object> valuesByName = new HashMap<String, Object>();
+    for (int i = 0; i < names.size(); i++)
+      valuesByName.put(names.get(i), values[i]);
+
+    List<OProperty<?>> properties = new ArrayList<OProperty<?>>();
+    for (EdmProperty ep : ees.getType().getProperties()) {
+      if (valuesByName.containsKey(ep.getName())
+          && (allProperties || JPAProducer.isSelected(ep.getName(), select)))
+        properties.add(OProperties.simple(
+            ep.getName(),
+            (EdmSimpleType<?>) ep.getType(),
+            valuesByName.get(ep.getName())));
+    }
+
+    List<OLink> links = new ArrayList<OLink>();
+    for (EdmNavigationProperty ep : ees.getType().getNavigationProperties()) {
+      if (JPAProducer.isSelected(ep.getName(), select)) {
+        if (ep.getToRole().getMultiplicity() == EdmMultiplicity.MANY) {
+          links.add(OLinks.relatedEntities(null, ep.getName(), null));
+        } else {
+          links.add(OLinks.relatedEntity(null, ep.getName(), null));
+        }
+      }
+    }
+
+    OEntityKey key;
+    if (ees.getType().getKeys().size() == 1) {
+      key = OEntityKey.create(valuesByName.get(ees.getType().getKeys().get(0)));
+    } else {
+      Map<String, Object> nameValues = new HashMap<String, Object>();
+      for (String keyName : ees.getType().getKeys())
+        nameValues.put(keyName, valuesByName.get(keyName));
+      key = OEntityKey.create(nameValues);
+    }
+    return OEntities.create(ees, key, properties, links);
+  }
+
   private static List<EntitySimpleProperty> shiftSelectListDown(List<EntitySimpleProperty> select) {
     List<EntitySimpleProperty> newList = new ArrayList<EntitySimpleProperty>(select.size());
     for (EntitySimpleProperty selectItem : select) {
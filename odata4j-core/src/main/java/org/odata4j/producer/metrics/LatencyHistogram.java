@@ -0,0 +1,113 @@
+package org.odata4j.producer.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two nanosecond buckets.
+ *
+ * <p>Bucket <code>i</code> counts samples in <code>[2^i, 2^(i+1))</code> nanoseconds, so percentiles
+ * are accurate to within a factor of two, which is plenty to spot regressions and outliers.</p>
+ */
+public class LatencyHistogram {
+
+  static final int BUCKETS = 64;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong minNanos = new AtomicLong(Long.MAX_VALUE);
+  private final AtomicLong maxNanos = new AtomicLong(0);
+
+  public void record(long nanos) {
+    if (nanos < 0)
+      nanos = 0;
+    buckets.incrementAndGet(bucketOf(nanos));
+    count.incrementAndGet();
+    totalNanos.addAndGet(nanos);
+
+    long min;
+    while (nanos < (min = minNanos.get()) && !minNanos.compareAndSet(min, nanos)) {}
+    long max;
+    while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {}
+  }
+
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++)
+      counts[i] = buckets.get(i);
+    long n = count.get();
+    return new Snapshot(n, totalNanos.get(), n == 0 ? 0 : minNanos.get(), maxNanos.get(), counts);
+  }
+
+  static int bucketOf(long nanos) {
+    return nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+  }
+
+  /** An immutable point-in-time view of a {@link LatencyHistogram}. */
+  public static class Snapshot {
+
+    private final long count;
+    private final long totalNanos;
+    private final long minNanos;
+    private final long maxNanos;
+    private final long[] buckets;
+
+    Snapshot(long count, long totalNanos, long minNanos, long maxNanos, long[] buckets) {
+      this.count = count;
+      this.totalNanos = totalNanos;
+      this.minNanos = minNanos;
+      this.maxNanos = maxNanos;
+      this.buckets = buckets;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    public long getMinNanos() {
+      return minNanos;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    public long getMeanNanos() {
+      return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * Gets the approximate latency below which the given fraction of samples fall.
+     *
+     * @param fraction  the percentile as a fraction, e.g. 0.99
+     * @return the upper bound of the bucket containing the percentile, capped at the maximum seen
+     */
+    public long getPercentileNanos(double fraction) {
+      if (count == 0)
+        return 0;
+      long rank = (long) Math.ceil(fraction * count);
+      long seen = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        seen += buckets[i];
+        if (seen >= rank)
+          return i >= 62 ? maxNanos : Math.min((1L << (i + 1)) - 1, maxNanos);
+      }
+      return maxNanos;
+    }
+
+    /** Gets the number of samples in bucket <code>[2^index, 2^(index+1))</code> nanoseconds. */
+    public long getBucketSamples(int index) {
+      return buckets[index];
+    }
+
+    public int getBucketCount() {
+      return buckets.length;
+    }
+  }
+
+}
@@ -0,0 +1,271 @@
+package org.odata4j.producer.metrics;
+
+import java.util.Map;
+
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityId;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.core.OExtension;
+import org.odata4j.core.OFunctionParameter;
+import org.odata4j.edm.EdmFunctionImport;
+import org.odata4j.producer.BaseResponse;
+import org.odata4j.producer.CountResponse;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.EntityIdResponse;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.EntityResponse;
+import org.odata4j.producer.ODataContext;
+import org.odata4j.producer.ODataProducer;
+import org.odata4j.producer.ODataProducerDelegate;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.metrics.ProducerMetrics.Operation;
+import org.odata4j.producer.metrics.ProducerMetrics.Phase;
+
+/**
+ * A producer decorator recording latency, entity counts and errors of every call
+ * into a {@link ProducerMetrics} registry.
+ *
+ * <pre>
+ * ODataProducer producer = new MetricsProducer(new InMemoryProducer("MyNamespace"));
+ * ...
+ * List&lt;OperationMetrics&gt; metrics = producer.findExtension(ProducerMetrics.class).snapshot();
+ * </pre>
+ */
+public class MetricsProducer extends ODataProducerDelegate {
+
+  private final ODataProducer delegate;
+  private final ProducerMetrics metrics;
+
+  public MetricsProducer(ODataProducer delegate) {
+    this(delegate, new ProducerMetrics());
+  }
+
+  public MetricsProducer(ODataProducer delegate, ProducerMetrics metrics) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public ODataProducer getDelegate() {
+    return delegate;
+  }
+
+  public ProducerMetrics getMetrics() {
+    return metrics;
+  }
+
+  @Override
+  public EntitiesResponse getEntities(ODataContext context, String entitySetName, QueryInfo queryInfo) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      EntitiesResponse rt = super.getEntities(context, entitySetName, queryInfo);
+      if (rt != null)
+        metrics.recordEntities(entitySetName, Operation.GetEntities, rt.getEntities().size());
+      failed = false;
+      return rt;
+    } finally {
+      record(entitySetName, Operation.GetEntities, start, failed);
+    }
+  }
+
+  @Override
+  public CountResponse getEntitiesCount(ODataContext context, String entitySetName, QueryInfo queryInfo) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      CountResponse rt = super.getEntitiesCount(context, entitySetName, queryInfo);
+      failed = false;
+      return rt;
+    } finally {
+      record(entitySetName, Operation.GetEntitiesCount, start, failed);
+    }
+  }
+
+  @Override
+  public EntityResponse getEntity(ODataContext context, String entitySetName, OEntityKey entityKey, EntityQueryInfo queryInfo) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      EntityResponse rt = super.getEntity(context, entitySetName, entityKey, queryInfo);
+      if (rt != null && rt.getEntity() != null)
+        metrics.recordEntities(entitySetName, Operation.GetEntity, 1);
+      failed = false;
+      return rt;
+    } finally {
+      record(entitySetName, Operation.GetEntity, start, failed);
+    }
+  }
+
+  @Override
+  public BaseResponse getNavProperty(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, QueryInfo queryInfo) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      BaseResponse rt = super.getNavProperty(context, entitySetName, entityKey, navProp, queryInfo);
+      if (rt instanceof EntitiesResponse)
+        metrics.recordEntities(entitySetName, Operation.GetNavProperty, ((EntitiesResponse) rt).getEntities().size());
+      else if (rt instanceof EntityResponse && ((EntityResponse) rt).getEntity() != null)
+        metrics.recordEntities(entitySetName, Operation.GetNavProperty, 1);
+      failed = false;
+      return rt;
+    } finally {
+      record(entitySetName, Operation.GetNavProperty, start, failed);
+    }
+  }
+
+  @Override
+  public CountResponse getNavPropertyCount(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, QueryInfo queryInfo) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      CountResponse rt = super.getNavPropertyCount(context, entitySetName, entityKey, navProp, queryInfo);
+      failed = false;
+      return rt;
+    } finally {
+      record(entitySetName, Operation.GetNavPropertyCount, start, failed);
+    }
+  }
+
+  @Override
+  public EntityResponse createEntity(ODataContext context, String entitySetName, OEntity entity) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      EntityResponse rt = super.createEntity(context, entitySetName, entity);
+      metrics.recordEntities(entitySetName, Operation.CreateEntity, 1);
+      failed = false;
+      return rt;
+    } finally {
+      record(entitySetName, Operation.CreateEntity, start, failed);
+    }
+  }
+
+  @Override
+  public EntityResponse createEntity(ODataContext context, String entitySetName, OEntityKey entityKey, String navProp, OEntity entity) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      EntityResponse rt = super.createEntity(context, entitySetName, entityKey, navProp, entity);
+      metrics.recordEntities(entitySetName, Operation.CreateEntity, 1);
+      failed = false;
+      return rt;
+    } finally {
+      record(entitySetName, Operation.CreateEntity, start, failed);
+    }
+  }
+
+  @Override
+  public void deleteEntity(ODataContext context, String entitySetName, OEntityKey entityKey) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      super.deleteEntity(context, entitySetName, entityKey);
+      failed = false;
+    } finally {
+      record(entitySetName, Operation.DeleteEntity, start, failed);
+    }
+  }
+
+  @Override
+  public void mergeEntity(ODataContext context, String entitySetName, OEntity entity) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      super.mergeEntity(context, entitySetName, entity);
+      failed = false;
+    } finally {
+      record(entitySetName, Operation.MergeEntity, start, failed);
+    }
+  }
+
+  @Override
+  public void updateEntity(ODataContext context, String entitySetName, OEntity entity) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      super.updateEntity(context, entitySetName, entity);
+      failed = false;
+    } finally {
+      record(entitySetName, Operation.UpdateEntity, start, failed);
+    }
+  }
+
+  @Override
+  public EntityIdResponse getLinks(ODataContext context, OEntityId sourceEntity, String targetNavProp) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      EntityIdResponse rt = super.getLinks(context, sourceEntity, targetNavProp);
+      failed = false;
+      return rt;
+    } finally {
+      record(sourceEntity.getEntitySetName(), Operation.GetLinks, start, failed);
+    }
+  }
+
+  @Override
+  public void createLink(ODataContext context, OEntityId sourceEntity, String targetNavProp, OEntityId targetEntity) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      super.createLink(context, sourceEntity, targetNavProp, targetEntity);
+      failed = false;
+    } finally {
+      record(sourceEntity.getEntitySetName(), Operation.CreateLink, start, failed);
+    }
+  }
+
+  @Override
+  public void updateLink(ODataContext context, OEntityId sourceEntity, String targetNavProp, OEntityKey oldTargetEntityKey, OEntityId newTargetEntity) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      super.updateLink(context, sourceEntity, targetNavProp, oldTargetEntityKey, newTargetEntity);
+      failed = false;
+    } finally {
+      record(sourceEntity.getEntitySetName(), Operation.UpdateLink, start, failed);
+    }
+  }
+
+  @Override
+  public void deleteLink(ODataContext context, OEntityId sourceEntity, String targetNavProp, OEntityKey targetEntityKey) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      super.deleteLink(context, sourceEntity, targetNavProp, targetEntityKey);
+      failed = false;
+    } finally {
+      record(sourceEntity.getEntitySetName(), Operation.DeleteLink, start, failed);
+    }
+  }
+
+  @Override
+  public BaseResponse callFunction(ODataContext context, EdmFunctionImport name, Map<String, OFunctionParameter> params, QueryInfo queryInfo) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      BaseResponse rt = super.callFunction(context, name, params, queryInfo);
+      if (rt instanceof EntitiesResponse)
+        metrics.recordEntities(name.getName(), Operation.CallFunction, ((EntitiesResponse) rt).getEntities().size());
+      failed = false;
+      return rt;
+    } finally {
+      record(name.getName(), Operation.CallFunction, start, failed);
+    }
+  }
+
+  @Override
+  public <TExtension extends OExtension<ODataProducer>> TExtension findExtension(Class<TExtension> clazz) {
+    if (clazz.isInstance(metrics))
+      return clazz.cast(metrics);
+    return super.findExtension(clazz);
+  }
+
+  private void record(String entitySetName, Operation operation, long start, boolean failed) {
+    metrics.recordTime(entitySetName, operation, Phase.Execute, System.nanoTime() - start);
+    if (failed)
+      metrics.recordError(entitySetName, operation);
+  }
+
+}
@@ -0,0 +1,80 @@
+package org.odata4j.producer.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.odata4j.producer.metrics.ProducerMetrics.Operation;
+import org.odata4j.producer.metrics.ProducerMetrics.Phase;
+
+/**
+ * An immutable snapshot of the metrics recorded for one operation on one entity set.
+ *
+ * @see ProducerMetrics#snapshot()
+ */
+public class OperationMetrics {
+
+  private final String entitySetName;
+  private final Operation operation;
+  private final long errorCount;
+  private final long entityCount;
+  private final long byteCount;
+  private final Map<Phase, LatencyHistogram.Snapshot> latencies;
+
+  OperationMetrics(String entitySetName, Operation operation, long errorCount, long entityCount, long byteCount,
+      EnumMap<Phase, LatencyHistogram.Snapshot> latencies) {
+    this.entitySetName = entitySetName;
+    this.operation = operation;
+    this.errorCount = errorCount;
+    this.entityCount = entityCount;
+    this.byteCount = byteCount;
+    this.latencies = Collections.unmodifiableMap(latencies);
+  }
+
+  /** Gets the entity-set (or function) name, null for service-level operations like $batch. */
+  public String getEntitySetName() {
+    return entitySetName;
+  }
+
+  public Operation getOperation() {
+    return operation;
+  }
+
+  /** Gets the number of producer calls, i.e. the count of the {@link Phase#Execute} histogram. */
+  public long getCount() {
+    return getLatency(Phase.Execute).getCount();
+  }
+
+  public long getErrorCount() {
+    return errorCount;
+  }
+
+  /** Gets the error rate as a fraction of all producer calls. */
+  public double getErrorRate() {
+    long count = getCount();
+    return count == 0 ? 0 : (double) errorCount / count;
+  }
+
+  /** Gets the total number of entities returned. */
+  public long getEntityCount() {
+    return entityCount;
+  }
+
+  /** Gets the total number of serialized response bytes (utf-8). */
+  public long getByteCount() {
+    return byteCount;
+  }
+
+  public LatencyHistogram.Snapshot getLatency(Phase phase) {
+    return latencies.get(phase);
+  }
+
+  @Override
+  public String toString() {
+    LatencyHistogram.Snapshot execute = getLatency(Phase.Execute);
+    return String.format("%s[%s,count=%s,errors=%s,entities=%s,bytes=%s,mean=%sns,p99=%sns]",
+        operation, entitySetName, execute.getCount(), errorCount, entityCount, byteCount,
+        execute.getMeanNanos(), execute.getPercentileNanos(0.99));
+  }
+
+}
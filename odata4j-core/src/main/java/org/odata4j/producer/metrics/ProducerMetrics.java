@@ -0,0 +1,155 @@
+package org.odata4j.producer.metrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.odata4j.core.OExtension;
+import org.odata4j.producer.ODataProducer;
+
+/**
+ * Thread-safe, in-process registry of per-entity-set and per-operation metrics.
+ *
+ * <p>Metrics are recorded by a {@link MetricsProducer} around each producer call, and by the
+ * resources for the parse and serialize phases of a request. They are pulled with {@link #snapshot()},
+ * either directly or through the <code>$metrics</code> endpoint.</p>
+ *
+ * <p>A {@link MetricsProducer} exposes its registry as a producer extension:
+ * <code>producer.findExtension(ProducerMetrics.class)</code>.</p>
+ */
+public class ProducerMetrics implements OExtension<ODataProducer> {
+
+  /** The instrumented operations. */
+  public enum Operation {
+    GetEntities, GetEntitiesCount, GetEntity, GetNavProperty, GetNavPropertyCount,
+    CreateEntity, UpdateEntity, MergeEntity, DeleteEntity,
+    GetLinks, CreateLink, UpdateLink, DeleteLink,
+    CallFunction, Batch
+  }
+
+  /** The timed phases of a request. */
+  public enum Phase {
+    /** Parsing of the query options or request payload. */
+    Parse,
+    /** The producer call itself. */
+    Execute,
+    /** Writing the response payload. */
+    Serialize
+  }
+
+  private final ConcurrentMap<Key, Stats> stats = new ConcurrentHashMap<Key, Stats>();
+
+  public void recordTime(String entitySetName, Operation operation, Phase phase, long elapsedNanos) {
+    stats(entitySetName, operation).latencies.get(phase).record(elapsedNanos);
+  }
+
+  public void recordError(String entitySetName, Operation operation) {
+    stats(entitySetName, operation).errors.incrementAndGet();
+  }
+
+  public void recordEntities(String entitySetName, Operation operation, long count) {
+    stats(entitySetName, operation).entities.addAndGet(count);
+  }
+
+  public void recordBytes(String entitySetName, Operation operation, long bytes) {
+    stats(entitySetName, operation).bytes.addAndGet(bytes);
+  }
+
+  /** Records the utf-8 encoded size of a serialized response. */
+  public void recordBytes(String entitySetName, Operation operation, CharSequence payload) {
+    recordBytes(entitySetName, operation, utf8Length(payload));
+  }
+
+  /**
+   * Takes a snapshot of all metrics recorded so far.
+   *
+   * @return one entry per entity set and operation seen
+   */
+  public List<OperationMetrics> snapshot() {
+    List<OperationMetrics> rt = new ArrayList<OperationMetrics>();
+    for (Map.Entry<Key, Stats> entry : stats.entrySet()) {
+      Stats s = entry.getValue();
+      EnumMap<Phase, LatencyHistogram.Snapshot> latencies = new EnumMap<Phase, LatencyHistogram.Snapshot>(Phase.class);
+      for (Phase phase : Phase.values())
+        latencies.put(phase, s.latencies.get(phase).snapshot());
+      rt.add(new OperationMetrics(entry.getKey().entitySetName, entry.getKey().operation,
+          s.errors.get(), s.entities.get(), s.bytes.get(), latencies));
+    }
+    return rt;
+  }
+
+  /** Discards all metrics recorded so far. */
+  public void reset() {
+    stats.clear();
+  }
+
+  private Stats stats(String entitySetName, Operation operation) {
+    Key key = new Key(entitySetName, operation);
+    Stats s = stats.get(key);
+    if (s == null) {
+      Stats newStats = new Stats();
+      s = stats.putIfAbsent(key, newStats);
+      if (s == null)
+        s = newStats;
+    }
+    return s;
+  }
+
+  static long utf8Length(CharSequence s) {
+    long rt = 0;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c < 0x80)
+        rt += 1;
+      else if (c < 0x800)
+        rt += 2;
+      else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+        rt += 4;
+        i++;
+      } else
+        rt += 3;
+    }
+    return rt;
+  }
+
+  private static class Stats {
+    final EnumMap<Phase, LatencyHistogram> latencies = new EnumMap<Phase, LatencyHistogram>(Phase.class);
+    final AtomicLong errors = new AtomicLong();
+    final AtomicLong entities = new AtomicLong();
+    final AtomicLong bytes = new AtomicLong();
+
+    Stats() {
+      for (Phase phase : Phase.values())
+        latencies.put(phase, new LatencyHistogram());
+    }
+  }
+
+  private static class Key {
+    final String entitySetName;
+    final Operation operation;
+
+    Key(String entitySetName, Operation operation) {
+      this.entitySetName = entitySetName;
+      this.operation = operation;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * operation.hashCode() + (entitySetName == null ? 0 : entitySetName.hashCode());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key))
+        return false;
+      Key other = (Key) obj;
+      return operation == other.operation
+          && (entitySetName == null ? other.entitySetName == null : entitySetName.equals(other.entitySetName));
+    }
+  }
+
+}
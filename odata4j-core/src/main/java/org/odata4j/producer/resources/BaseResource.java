@@ -31,6 +31,9 @@ import org.odata4j.producer.ODataContext;
 import org.odata4j.producer.ODataProducer;
 import org.odata4j.producer.OMediaLinkExtension;
 import org.odata4j.producer.OMediaLinkExtensions;
+import org.odata4j.producer.metrics.ProducerMetrics;
+import org.odata4j.producer.metrics.ProducerMetrics.Operation;
+import org.odata4j.producer.metrics.ProducerMetrics.Phase;
 
 public abstract class BaseResource {
 
@@ -105,7 +108,7 @@ public abstract class BaseResource {
 
     // write the stream
     try {
-      InternalUtil.copyInputToOutput(payload, outStream);
+      InternalUtil.copyInputToOutput(payload, outStream, InternalUtil.MEDIA_COPY_BUFFER_SIZE);
     } finally {
       outStream.close();
     }
@@ -122,4 +125,26 @@ public abstract class BaseResource {
     ContextResolver<ODataProducer> producerResolver = providers.getContextResolver(ODataProducer.class,MediaType.WILDCARD_TYPE);
     return producerResolver.getContext(ODataProducer.class);
   }
+
+  /**
+   * Gets the metrics registry of the producer, if it is instrumented with a
+   * {@link org.odata4j.producer.metrics.MetricsProducer}.
+   *
+   * @return the metrics registry, or null
+   */
+  protected ProducerMetrics getProducerMetrics(ODataProducer producer) {
+    return producer.findExtension(ProducerMetrics.class);
+  }
+
+  /** Records the time elapsed since <code>start</code> (from {@link System#nanoTime()}), if metrics are enabled. */
+  protected static void recordTime(ProducerMetrics metrics, String entitySetName, Operation operation, Phase phase, long start) {
+    if (metrics != null)
+      metrics.recordTime(entitySetName, operation, phase, System.nanoTime() - start);
+  }
+
+  /** Records the size of a serialized response payload, if metrics are enabled. */
+  protected static void recordBytes(ProducerMetrics metrics, String entitySetName, Operation operation, String payload) {
+    if (metrics != null)
+      metrics.recordBytes(entitySetName, operation, payload);
+  }
 }
\ No newline at end of file
@@ -1,6 +1,13 @@
 package org.odata4j.producer.resources;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.ws.rs.core.Cookie;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.UriInfo;
 
@@ -15,14 +22,29 @@ public class BatchBodyPart {
   private String entity;
   private String uri;
   private String uriLast;
+  private String changeSet;
 
   BatchBodyPart(HttpHeaders httpHeaders, UriInfo uriInfo) {
     this.httpHeaders = httpHeaders;
     this.uriInfo = uriInfo;
   }
 
+  /**
+   * Gets the headers of the batch request, overridden by the headers of this part.
+   */
   public HttpHeaders getHttpHeaders() {
-    return httpHeaders;
+    return new PartHttpHeaders(headers);
+  }
+
+  /**
+   * Gets the headers of the batch request, overridden by the headers of this part and the given header.
+   * The headers of this part are left unchanged.
+   */
+  HttpHeaders getHttpHeaders(String name, String value) {
+    HeaderMap partHeaders = new HeaderMap();
+    partHeaders.putAll(headers);
+    partHeaders.putSingle(name, value);
+    return new PartHttpHeaders(partHeaders);
   }
 
   public UriInfo getUriInfo() {
@@ -64,6 +86,17 @@ public class BatchBodyPart {
     this.httpMethod = httpMethod;
   }
 
+  /**
+   * Gets the boundary of the change set this part belongs to, or null if it is not part of a change set.
+   */
+  public String getChangeSet() {
+    return changeSet;
+  }
+
+  void setChangeSet(String changeSet) {
+    this.changeSet = changeSet;
+  }
+
   public String getEntitySetName() {
     int i = this.uriLast.indexOf('(');
     return i != -1
@@ -78,4 +111,60 @@ public class BatchBodyPart {
         : null;
   }
 
+  private class PartHttpHeaders implements HttpHeaders {
+
+    private final MultivaluedMap<String, String> headers;
+
+    PartHttpHeaders(MultivaluedMap<String, String> headers) {
+      this.headers = headers;
+    }
+
+    @Override
+    public List<String> getRequestHeader(String name) {
+      List<String> values = headers.get(name);
+      return values != null ? values : httpHeaders.getRequestHeader(name);
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getRequestHeaders() {
+      HeaderMap rt = new HeaderMap();
+      for (Map.Entry<String, List<String>> header : httpHeaders.getRequestHeaders().entrySet())
+        rt.put(header.getKey(), header.getValue());
+      rt.putAll(headers);
+      return rt;
+    }
+
+    @Override
+    public List<MediaType> getAcceptableMediaTypes() {
+      String accept = headers.getFirst(ACCEPT);
+      if (accept == null)
+        return httpHeaders.getAcceptableMediaTypes();
+      List<MediaType> rt = new ArrayList<MediaType>();
+      for (String type : accept.split(","))
+        rt.add(MediaType.valueOf(type.trim()));
+      return rt;
+    }
+
+    @Override
+    public List<Locale> getAcceptableLanguages() {
+      return httpHeaders.getAcceptableLanguages();
+    }
+
+    @Override
+    public MediaType getMediaType() {
+      String contentType = headers.getFirst(CONTENT_TYPE);
+      return contentType != null ? MediaType.valueOf(contentType) : httpHeaders.getMediaType();
+    }
+
+    @Override
+    public Locale getLanguage() {
+      return httpHeaders.getLanguage();
+    }
+
+    @Override
+    public Map<String, Cookie> getCookies() {
+      return httpHeaders.getCookies();
+    }
+  }
+
 }
@@ -0,0 +1,37 @@
+package org.odata4j.producer.resources;
+
+import java.util.List;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.ext.Providers;
+
+/**
+ * Serves batch requests sent to <code>$batch</code> at the service root.
+ *
+ * <p>The response is multipart for any requested format, so no particular media type is produced.</p>
+ */
+@Path("{first: \\$}batch")
+public class BatchRequestResource {
+
+  @POST
+  @Consumes(ODataBatchProvider.MULTIPART_MIXED)
+  public Response processBatch(
+      @Context Providers providers,
+      @Context HttpHeaders headers,
+      @Context Request request,
+      @Context SecurityContext securityContext,
+      @QueryParam("$format") String format,
+      @QueryParam("$callback") String callback,
+      List<BatchBodyPart> bodyParts) throws Exception {
+    return new EntitiesRequestResource().processBatch(providers, headers, request, securityContext, format, callback, bodyParts);
+  }
+
+}
@@ -3,6 +3,7 @@ package org.odata4j.producer.resources;
 import java.io.InputStream;
 import java.io.StringWriter;
 import java.net.URI;
+import java.security.Principal;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -33,17 +34,25 @@ import org.odata4j.core.ODataVersion;
 import org.odata4j.core.OEntity;
 import org.odata4j.edm.EdmEntitySet;
 import org.odata4j.exceptions.NotFoundException;
+import org.odata4j.exceptions.ODataProducerException;
 import org.odata4j.exceptions.UnsupportedMediaTypeException;
 import org.odata4j.format.FormatWriter;
 import org.odata4j.format.FormatWriterFactory;
 import org.odata4j.internal.InternalUtil;
+import org.odata4j.producer.ChangeSetExtension;
 import org.odata4j.producer.CountResponse;
 import org.odata4j.producer.EntitiesResponse;
 import org.odata4j.producer.EntityResponse;
+import org.odata4j.producer.ErrorResponse;
 import org.odata4j.producer.ODataContext;
 import org.odata4j.producer.ODataContextImpl;
 import org.odata4j.producer.ODataProducer;
 import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.cache.ResponseCache;
+import org.odata4j.producer.cache.SerializedResponse;
+import org.odata4j.producer.metrics.ProducerMetrics;
+import org.odata4j.producer.metrics.ProducerMetrics.Operation;
+import org.odata4j.producer.metrics.ProducerMetrics.Phase;
 
 // ignoreParens below is there to trim the parentheses from the entity set name when they are present - e.g. '/my.svc/Users()'.
 @Path("{entitySetName: [^/()]+?}{ignoreParens: (?:\\(\\))?}")
@@ -96,6 +105,7 @@ public class EntitiesRequestResource extends BaseResource {
 
     ODataContext odataContext = ODataContextImpl.builder()
         .aspect(httpHeaders)
+        .deadline(httpHeaders)
         .aspect(securityContext)
         .aspect(producer)
         .aspect(entitySet)
@@ -108,8 +118,11 @@ public class EntitiesRequestResource extends BaseResource {
     }
 
     // also on the plus side we can now parse the stream directly off the wire....
-    return createEntity(httpHeaders, uriInfo, securityContext, producer, entitySetName,
-        this.getRequestEntity(httpHeaders, uriInfo, payload, producer.getMetadata(), entitySetName, null), odataContext);
+    long start = System.nanoTime();
+    OEntity entity = this.getRequestEntity(httpHeaders, uriInfo, payload, producer.getMetadata(), entitySetName, null);
+    recordTime(getProducerMetrics(producer), entitySetName, Operation.CreateEntity, Phase.Parse, start);
+
+    return createEntity(httpHeaders, uriInfo, securityContext, producer, entitySetName, entity, odataContext);
   }
 
   protected Response createEntity(
@@ -123,15 +136,19 @@ public class EntitiesRequestResource extends BaseResource {
 
     EntityResponse response = producer.createEntity(odataContext, entitySetName, entity);
 
+    ProducerMetrics metrics = getProducerMetrics(producer);
+    long start = System.nanoTime();
     FormatWriter<EntityResponse> writer = FormatWriterFactory
         .getFormatWriter(EntityResponse.class, httpHeaders.getAcceptableMediaTypes(), null, null);
     StringWriter sw = new StringWriter();
     writer.write(uriInfo, sw, response);
+    recordTime(metrics, entitySetName, Operation.CreateEntity, Phase.Serialize, start);
 
     String relid = InternalUtil.getEntityRelId(response.getEntity());
     String entryId = uriInfo.getBaseUri().toString() + relid;
 
     String responseEntity = sw.toString();
+    recordBytes(metrics, entitySetName, Operation.CreateEntity, responseEntity);
 
     return Response
         .ok(responseEntity, writer.getContentType())
@@ -327,6 +344,7 @@ public class EntitiesRequestResource extends BaseResource {
       String expand,
       String select) throws Exception {
 
+    long parseStart = System.nanoTime();
     QueryInfo query = new QueryInfo(
         OptionsQueryParser.parseInlineCount(inlineCount),
         OptionsQueryParser.parseTop(top),
@@ -340,6 +358,7 @@ public class EntitiesRequestResource extends BaseResource {
 
     ODataContextImpl odataContext = ODataContextImpl.builder()
         .aspect(httpHeaders)
+        .deadline(httpHeaders)
         .aspect(uriInfo)
         .aspect(securityContext)
         .aspect(producer)
@@ -353,11 +372,16 @@ public class EntitiesRequestResource extends BaseResource {
       return FunctionResource.callFunction(ODataHttpMethod.GET, httpHeaders, uriInfo, securityContext, producer, entitySetName, format, callback, query);
     }
 
+    ProducerMetrics metrics = getProducerMetrics(producer);
+    Operation operation = isCount ? Operation.GetEntitiesCount : Operation.GetEntities;
+    recordTime(metrics, entitySetName, operation, Phase.Parse, parseStart);
+
     Response response = null;
     if (isCount) {
       CountResponse countResponse = producer.getEntitiesCount(odataContext, entitySetName, query);
 
       String entity = Long.toString(countResponse.getCount());
+      recordBytes(metrics, entitySetName, operation, entity);
 
       // TODO remove this hack, check whether we are Version 2.0 compatible anyway
       ODataVersion version = ODataVersion.V2;
@@ -374,6 +398,26 @@ public class EntitiesRequestResource extends BaseResource {
         throw new NotFoundException(entitySetName);
       }
 
+      // the serialized tier of the response cache answers repeated queries without serializing them again,
+      // as long as the producer returns the very response a payload was serialized from
+      ResponseCache cache = producer.findExtension(ResponseCache.class);
+      ResponseCache.Lookup<SerializedResponse> serialized = null;
+      if (cache != null && cache.isSerializedTierEnabled()) {
+        serialized = cache.lookupSerialized(producer.getMetadata(), entitySetName, query,
+            httpHeaders.getAcceptableMediaTypes() + "|" + format + "|" + callback + "|" + uriInfo.getBaseUri()
+                + "|" + getUserName(securityContext));
+        SerializedResponse cached = serialized.get();
+        if (cached != null && cached.isSerializedFrom(entitiesResponse)) {
+          if (metrics != null)
+            metrics.recordBytes(entitySetName, operation, cached.getData().length);
+          return Response
+              .ok(cached.getData(), cached.getContentType())
+              .header(ODataConstants.Headers.DATA_SERVICE_VERSION, ODataVersion.V2.asString)
+              .build();
+        }
+      }
+
+      long serializeStart = System.nanoTime();
       StringWriter sw = new StringWriter();
       FormatWriter<EntitiesResponse> fw =
           FormatWriterFactory.getFormatWriter(
@@ -384,6 +428,10 @@ public class EntitiesRequestResource extends BaseResource {
 
       fw.write(uriInfo, sw, entitiesResponse);
       String entity = sw.toString();
+      recordTime(metrics, entitySetName, operation, Phase.Serialize, serializeStart);
+      recordBytes(metrics, entitySetName, operation, entity);
+      if (serialized != null)
+        serialized.put(new SerializedResponse(fw.getContentType(), entity.getBytes(ODataConstants.Charsets.Upper.UTF_8), entitiesResponse));
 
       // TODO remove this hack, check whether we are Version 2.0 compatible anyway
       ODataVersion version = MediaType.valueOf(fw.getContentType()).isCompatible(MediaType.APPLICATION_JSON_TYPE)
@@ -397,6 +445,17 @@ public class EntitiesRequestResource extends BaseResource {
     return response;
   }
 
+  private static String getUserName(SecurityContext securityContext) {
+    Principal principal;
+    try {
+      principal = securityContext == null ? null : securityContext.getUserPrincipal();
+    } catch (UnsupportedOperationException e) {
+      // containers without authentication, like the lightweight http server of Jersey
+      principal = null;
+    }
+    return principal == null ? null : principal.getName();
+  }
+
   @POST
   @Path("{batch: [$]batch}")
   @Consumes(ODataBatchProvider.MULTIPART_MIXED)
@@ -430,10 +489,90 @@ public class EntitiesRequestResource extends BaseResource {
 
     ODataContext odataContext = ODataContextImpl.builder()
         .aspect(headers)
+        .deadline(headers)
         .aspect(securityContext)
         .aspect(producer)
         .build();
 
+    ProducerMetrics metrics = getProducerMetrics(producer);
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      ChangeSetExtension changeSet = producer.findExtension(ChangeSetExtension.class);
+      // the parts of a change set are applied as one unit, the other parts one by one
+      int first = 0;
+      while (first < bodyParts.size()) {
+        String partChangeSet = bodyParts.get(first).getChangeSet();
+        int end = first + 1;
+        while (partChangeSet != null && end < bodyParts.size() && partChangeSet.equals(bodyParts.get(end).getChangeSet()))
+          end++;
+        List<BatchBodyPart> parts = bodyParts.subList(first, end);
+        if (changeSet != null && partChangeSet != null)
+          processChangeSet(changeSet, providers, securityContext, format, callback, parts, er, changesetBoundary, batchResponse, producer, odataContext);
+        else
+          processBatchParts(providers, securityContext, format, callback, parts, er, changesetBoundary, batchResponse, producer, odataContext, false);
+        first = end;
+      }
+      failed = false;
+    } finally {
+      recordTime(metrics, null, Operation.Batch, Phase.Execute, start);
+      if (failed && metrics != null)
+        metrics.recordError(null, Operation.Batch);
+    }
+
+    batchResponse.append("--").append(changesetBoundary).append("--\n");
+    batchResponse.append("--").append(batchBoundary).append("--\n");
+
+    String entity = batchResponse.toString();
+    recordBytes(metrics, null, Operation.Batch, entity);
+
+    return Response
+        .status(Status.ACCEPTED)
+        .type(ODataBatchProvider.MULTIPART_MIXED + ";boundary="
+            + batchBoundary).header(
+            ODataConstants.Headers.DATA_SERVICE_VERSION,
+            ODataConstants.DATA_SERVICE_VERSION_HEADER)
+        .entity(entity).build();
+  }
+
+  private void processChangeSet(ChangeSetExtension changeSet, Providers providers, SecurityContext securityContext, String format, String callback,
+      List<BatchBodyPart> bodyParts, EntityRequestResource er, String changesetBoundary, StringBuilder batchResponse,
+      ODataProducer producer, ODataContext odataContext) throws Exception {
+    // the parts are answered once the change set is applied; a failure is the only answer of the change set
+    StringBuilder changeSetResponse = new StringBuilder();
+    boolean done = false;
+    changeSet.beginChangeSet(odataContext);
+    try {
+      if (processBatchParts(providers, securityContext, format, callback, bodyParts, er, changesetBoundary, changeSetResponse, producer, odataContext, true)) {
+        try {
+          changeSet.commitChangeSet(odataContext);
+        } catch (ODataProducerException e) {
+          BatchBodyPart bodyPart = bodyParts.get(0);
+          changeSetResponse.setLength(0);
+          appendResponsePart(changeSetResponse, changesetBoundary, null,
+              getErrorResponse(bodyPart.getHttpHeaders(), bodyPart.getUriInfo(), format, callback, e));
+        }
+      } else {
+        changeSet.rollbackChangeSet(odataContext);
+      }
+      done = true;
+    } finally {
+      if (!done)
+        changeSet.rollbackChangeSet(odataContext);
+    }
+    batchResponse.append(changeSetResponse);
+  }
+
+  /**
+   * Processes the parts of a batch request.
+   *
+   * @param atomic  whether a failing operation fails the whole change set; its error response
+   *                then replaces the responses of the preceding parts and the remaining parts are skipped
+   * @return false if an operation failed
+   */
+  private boolean processBatchParts(Providers providers, SecurityContext securityContext, String format, String callback,
+      List<BatchBodyPart> bodyParts, EntityRequestResource er, String changesetBoundary, StringBuilder batchResponse,
+      ODataProducer producer, ODataContext odataContext, boolean atomic) throws Exception {
     for (BatchBodyPart bodyPart : bodyParts) {
       HttpHeaders httpHeaders = bodyPart.getHttpHeaders();
       UriInfo uriInfo = bodyPart.getUriInfo();
@@ -442,46 +581,63 @@ public class EntitiesRequestResource extends BaseResource {
       String entityString = bodyPart.getEntity();
       Response response = null;
 
-      switch (bodyPart.getHttpMethod()) {
-      case POST:
-        response = this.createEntity(httpHeaders, uriInfo, securityContext, producer,
-            entitySetName,
-            getRequestEntity(httpHeaders, uriInfo, entityString, producer.getMetadata(), entitySetName, null), odataContext);
-        break;
-      case PUT:
-        response = er.updateEntity(httpHeaders, uriInfo, securityContext, providers,
-            entitySetName, entityId, entityString, odataContext);
-        break;
-      case MERGE:
-        response = er.mergeEntity(httpHeaders, uriInfo, providers, securityContext, entitySetName,
-            entityId, entityString);
-        break;
-      case DELETE:
-        response = er.deleteEntity(httpHeaders, uriInfo, providers, securityContext, format, callback, entitySetName, entityId);
-        break;
-      case GET:
-        throw new UnsupportedOperationException("Not supported yet.");
+      try {
+        switch (bodyPart.getHttpMethod()) {
+        case POST:
+          response = this.createEntity(httpHeaders, uriInfo, securityContext, producer,
+              entitySetName,
+              getRequestEntity(httpHeaders, uriInfo, entityString, producer.getMetadata(), entitySetName, null), odataContext);
+          break;
+        case PUT:
+          response = er.updateEntity(httpHeaders, uriInfo, securityContext, providers,
+              entitySetName, entityId, entityString, odataContext);
+          break;
+        case MERGE:
+          // mergeEntity serves tunnelled requests
+          response = er.mergeEntity(bodyPart.getHttpHeaders(ODataConstants.Headers.X_HTTP_METHOD, "MERGE"), uriInfo, providers, securityContext, entitySetName,
+              entityId, entityString);
+          break;
+        case DELETE:
+          response = er.deleteEntity(httpHeaders, uriInfo, providers, securityContext, format, callback, entitySetName, entityId);
+          break;
+        case GET:
+          throw new UnsupportedOperationException("Not supported yet.");
+        }
+      } catch (ODataProducerException e) {
+        // a failing operation is answered in its own response part
+        response = getErrorResponse(httpHeaders, uriInfo, format, callback, e);
+        if (atomic) {
+          batchResponse.setLength(0);
+          appendResponsePart(batchResponse, changesetBoundary, bodyPart, response);
+          return false;
+        }
       }
 
-      batchResponse.append("\n--").append(changesetBoundary);
-      batchResponse.append("\n").append(ODataConstants.Headers.CONTENT_TYPE).append(": application/http");
-      batchResponse.append("\nContent-Transfer-Encoding: binary\n");
-
-      batchResponse.append(ODataBatchProvider.createResponseBodyPart(
-          bodyPart,
-          response));
+      appendResponsePart(batchResponse, changesetBoundary, bodyPart, response);
     }
+    return true;
+  }
 
-    batchResponse.append("--").append(changesetBoundary).append("--\n");
-    batchResponse.append("--").append(batchBoundary).append("--\n");
+  private static void appendResponsePart(StringBuilder batchResponse, String changesetBoundary, BatchBodyPart bodyPart, Response response) {
+    batchResponse.append("\n--").append(changesetBoundary);
+    batchResponse.append("\n").append(ODataConstants.Headers.CONTENT_TYPE).append(": application/http");
+    batchResponse.append("\nContent-Transfer-Encoding: binary\n");
 
-    return Response
-        .status(Status.ACCEPTED)
-        .type(ODataBatchProvider.MULTIPART_MIXED + ";boundary="
-            + batchBoundary).header(
-            ODataConstants.Headers.DATA_SERVICE_VERSION,
-            ODataConstants.DATA_SERVICE_VERSION_HEADER)
-        .entity(batchResponse.toString()).build();
+    batchResponse.append(ODataBatchProvider.createResponseBodyPart(
+        bodyPart,
+        response));
+  }
+
+  private static Response getErrorResponse(HttpHeaders httpHeaders, UriInfo uriInfo, String format, String callback, ODataProducerException exception) {
+    FormatWriter<ErrorResponse> fw = FormatWriterFactory.getFormatWriter(ErrorResponse.class, httpHeaders.getAcceptableMediaTypes(), format, callback);
+    StringWriter sw = new StringWriter();
+    fw.write(uriInfo, sw, ExceptionMappingProvider.getErrorResponse(exception, false));
+
+    return Response.status(exception.getHttpStatus())
+        .type(fw.getContentType())
+        .header(ODataConstants.Headers.DATA_SERVICE_VERSION, ODataConstants.DATA_SERVICE_VERSION_HEADER)
+        .entity(sw.toString())
+        .build();
   }
 
   private static void log(String operation, Object... namedArgs) {
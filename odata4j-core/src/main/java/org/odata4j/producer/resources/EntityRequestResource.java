@@ -38,6 +38,9 @@ import org.odata4j.producer.ODataContext;
 import org.odata4j.producer.ODataContextImpl;
 import org.odata4j.producer.ODataProducer;
 import org.odata4j.producer.OMediaLinkExtension;
+import org.odata4j.producer.metrics.ProducerMetrics;
+import org.odata4j.producer.metrics.ProducerMetrics.Operation;
+import org.odata4j.producer.metrics.ProducerMetrics.Phase;
 
 @Path("{entitySetName: [^/()]+?}{id: \\([^/()]+?\\)}")
 public class EntityRequestResource extends BaseResource {
@@ -67,6 +70,7 @@ public class EntityRequestResource extends BaseResource {
 
     ODataContext odataContext = ODataContextImpl.builder()
         .aspect(httpHeaders)
+        .deadline(httpHeaders)
         .aspect(securityContext)
         .aspect(producer)
         .aspect(entitySet)
@@ -161,7 +165,7 @@ public class EntityRequestResource extends BaseResource {
     ODataProducer producer = getODataProducer(providers);
 
     OEntityKey entityKey = OEntityKey.parse(id);
-    ODataContext context = ODataContextImpl.builder().aspect(httpHeaders).aspect(securityContext).aspect(producer).build();
+    ODataContext context = ODataContextImpl.builder().aspect(httpHeaders).deadline(httpHeaders).aspect(securityContext).aspect(producer).build();
 
     String method = httpHeaders.getRequestHeaders().getFirst(ODataConstants.Headers.X_HTTP_METHOD);
     if ("MERGE".equals(method)) {
@@ -225,6 +229,7 @@ public class EntityRequestResource extends BaseResource {
 
     ODataContext odataContext = ODataContextImpl.builder()
         .aspect(httpHeaders)
+        .deadline(httpHeaders)
         .aspect(securityContext)
         .aspect(producer)
         .aspect(entitySet)
@@ -292,16 +297,20 @@ public class EntityRequestResource extends BaseResource {
 
     EntityResponse response;
     try {
-      response = producer.getEntity(ODataContextImpl.builder().aspect(httpHeaders).aspect(securityContext).aspect(producer).build(),
+      response = producer.getEntity(ODataContextImpl.builder().aspect(httpHeaders).deadline(httpHeaders).aspect(securityContext).aspect(producer).build(),
           entitySetName, OEntityKey.parse(id), query);
     } catch (IllegalArgumentException e) {
       throw new BadRequestException("Illegal key " + id, e);
     }
 
+    ProducerMetrics metrics = getProducerMetrics(producer);
+    long start = System.nanoTime();
     StringWriter sw = new StringWriter();
     FormatWriter<EntityResponse> fw = FormatWriterFactory.getFormatWriter(EntityResponse.class, httpHeaders.getAcceptableMediaTypes(), format, callback);
     fw.write(uriInfo, sw, response);
     String entity = sw.toString();
+    recordTime(metrics, entitySetName, Operation.GetEntity, Phase.Serialize, start);
+    recordBytes(metrics, entitySetName, Operation.GetEntity, entity);
 
     return Response.ok(entity, fw.getContentType()).header(ODataConstants.Headers.DATA_SERVICE_VERSION, ODataConstants.DATA_SERVICE_VERSION_HEADER).build();
   }
@@ -5,6 +5,7 @@ import java.io.StringWriter;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.ExceptionMapper;
@@ -16,6 +17,7 @@ import org.odata4j.core.OError;
 import org.odata4j.core.OErrors;
 import org.odata4j.exceptions.ODataProducerException;
 import org.odata4j.exceptions.ServerErrorException;
+import org.odata4j.exceptions.ServiceUnavailableException;
 import org.odata4j.format.FormatWriter;
 import org.odata4j.format.FormatWriterFactory;
 import org.odata4j.producer.ErrorResponse;
@@ -23,14 +25,15 @@ import org.odata4j.producer.ErrorResponseExtension;
 import org.odata4j.producer.Responses;
 
 /**
- * Provider for correctly formatted server errors.  Every {@link RuntimeException} that
- * is not already an {@link ODataProducerException} is wrapped into a {@link ServerErrorException}
- * (resulting in an HTTP {@link Status#INTERNAL_SERVER_ERROR}).
+ * Provider for correctly formatted server errors.  Every exception that is not already an
+ * {@link ODataProducerException}, including the checked exceptions resources may throw, is wrapped
+ * into a {@link ServerErrorException} (resulting in an HTTP {@link Status#INTERNAL_SERVER_ERROR}).
+ * Since every failure results in a response, response filters run for every request.
  *
  * @see ErrorResponseExtension
  */
 @Provider
-public class ExceptionMappingProvider extends BaseResource implements ExceptionMapper<RuntimeException> {
+public class ExceptionMappingProvider extends BaseResource implements ExceptionMapper<Exception> {
 
   @Context
   protected Providers providers;
@@ -40,8 +43,12 @@ public class ExceptionMappingProvider extends BaseResource implements ExceptionM
   @Context
   protected HttpHeaders httpHeaders;
 
-  @Override
   public Response toResponse(RuntimeException e) {
+    return toResponse((Exception) e);
+  }
+
+  @Override
+  public Response toResponse(Exception e) {
     ODataProducerException exception;
     if (e instanceof ODataProducerException)
       exception = (ODataProducerException) e;
@@ -56,11 +63,13 @@ public class ExceptionMappingProvider extends BaseResource implements ExceptionM
     StringWriter sw = new StringWriter();
     fw.write(uriInfo, sw, getErrorResponse(exception, includeInnerError));
 
-    return Response.status(exception.getHttpStatus())
+    ResponseBuilder response = Response.status(exception.getHttpStatus())
         .type(fw.getContentType())
         .header(ODataConstants.Headers.DATA_SERVICE_VERSION, ODataConstants.DATA_SERVICE_VERSION_HEADER)
-        .entity(sw.toString())
-        .build();
+        .entity(sw.toString());
+    if (exception instanceof ServiceUnavailableException && ((ServiceUnavailableException) exception).getRetryAfter() != null)
+      response.header(ODataConstants.Headers.RETRY_AFTER, ((ServiceUnavailableException) exception).getRetryAfter());
+    return response.build();
   }
 
   public static ErrorResponse getErrorResponse(ODataProducerException exception, boolean includeInnerError) {
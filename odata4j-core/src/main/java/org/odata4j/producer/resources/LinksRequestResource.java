@@ -63,7 +63,7 @@ public class LinksRequestResource extends BaseResource {
     ODataProducer producer = getODataProducer(providers);
 
     OEntityId newTargetEntity = parseRequestUri(httpHeaders, uriInfo, payload);
-    producer.createLink(ODataContextImpl.builder().aspect(httpHeaders).aspect(securityContext).build(), sourceEntity, targetNavProp, newTargetEntity);
+    producer.createLink(ODataContextImpl.builder().aspect(httpHeaders).deadline(httpHeaders).aspect(securityContext).build(), sourceEntity, targetNavProp, newTargetEntity);
     return noContent();
   }
 
@@ -83,7 +83,7 @@ public class LinksRequestResource extends BaseResource {
     ODataProducer producer = getODataProducer(providers);
 
     OEntityId newTargetEntity = parseRequestUri(httpHeaders, uriInfo, payload);
-    producer.updateLink(ODataContextImpl.builder().aspect(httpHeaders).aspect(securityContext).build(), sourceEntity, targetNavProp, targetEntityKey, newTargetEntity);
+    producer.updateLink(ODataContextImpl.builder().aspect(httpHeaders).deadline(httpHeaders).aspect(securityContext).build(), sourceEntity, targetNavProp, targetEntityKey, newTargetEntity);
     return noContent();
   }
 
@@ -111,7 +111,7 @@ public class LinksRequestResource extends BaseResource {
 
     ODataProducer producer = getODataProducer(providers);
 
-    producer.deleteLink(ODataContextImpl.builder().aspect(httpHeaders).aspect(securityContext).build(), sourceEntity, targetNavProp, targetEntityKey);
+    producer.deleteLink(ODataContextImpl.builder().aspect(httpHeaders).deadline(httpHeaders).aspect(securityContext).build(), sourceEntity, targetNavProp, targetEntityKey);
     return noContent();
   }
 
@@ -132,7 +132,7 @@ public class LinksRequestResource extends BaseResource {
 
     ODataProducer producer = getODataProducer(providers);
 
-    EntityIdResponse response = producer.getLinks(ODataContextImpl.builder().aspect(httpHeaders).aspect(securityContext).build(), sourceEntity, targetNavProp);
+    EntityIdResponse response = producer.getLinks(ODataContextImpl.builder().aspect(httpHeaders).deadline(httpHeaders).aspect(securityContext).build(), sourceEntity, targetNavProp);
 
     StringWriter sw = new StringWriter();
     String serviceRootUri = uriInfo.getBaseUri().toString();
@@ -0,0 +1,79 @@
+package org.odata4j.producer.resources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import org.odata4j.internal.InternalUtil;
+import org.odata4j.producer.OMediaResource;
+
+/**
+ * Writes a range of a media resource, reading it from the resource's file channel if it has one.
+ * The length of the range is reported up front, so the container can send a Content-Length
+ * instead of chunking the response.
+ */
+@Provider
+public class MediaResourceProvider implements MessageBodyWriter<MediaResourceProvider.MediaResourceRange> {
+
+  /** A range of a media resource. */
+  public static class MediaResourceRange {
+
+    private final OMediaResource mediaResource;
+    private final long offset;
+    private final long count;
+
+    public MediaResourceRange(OMediaResource mediaResource, long offset, long count) {
+      this.mediaResource = mediaResource;
+      this.offset = offset;
+      this.count = count;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public void write(OutputStream outStream) throws IOException {
+      FileChannel channel = mediaResource.getFileChannel();
+      if (channel != null) {
+        try {
+          InternalUtil.copyChannelToOutput(channel, offset, count, outStream, InternalUtil.MEDIA_COPY_BUFFER_SIZE);
+        } finally {
+          channel.close();
+        }
+        return;
+      }
+      InputStream inStream = mediaResource.getInputStream(offset, count);
+      try {
+        InternalUtil.copyInputToOutput(inStream, outStream, InternalUtil.MEDIA_COPY_BUFFER_SIZE);
+      } finally {
+        inStream.close();
+      }
+    }
+  }
+
+  @Override
+  public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return MediaResourceRange.class.isAssignableFrom(type);
+  }
+
+  @Override
+  public long getSize(MediaResourceRange range, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return range.getCount();
+  }
+
+  @Override
+  public void writeTo(MediaResourceRange range, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+      MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
+    range.write(entityStream);
+  }
+
+}
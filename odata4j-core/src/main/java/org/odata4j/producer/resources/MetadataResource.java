@@ -8,9 +8,12 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Providers;
@@ -20,6 +23,7 @@ import org.odata4j.edm.EdmDataServices;
 import org.odata4j.exceptions.NotImplementedException;
 import org.odata4j.format.FormatType;
 import org.odata4j.format.xml.EdmxFormatWriter;
+import org.odata4j.internal.InternalUtil;
 import org.odata4j.producer.ODataProducer;
 import org.odata4j.producer.edm.MetadataProducer;
 
@@ -34,6 +38,7 @@ public class MetadataResource extends BaseResource {
       @Context HttpHeaders httpHeaders,
       @Context UriInfo uriInfo,
       @Context Providers providers,
+      @Context Request request,
       @QueryParam("$format") String format) {
 
     ODataProducer producer = getODataProducer(providers);
@@ -54,8 +59,16 @@ public class MetadataResource extends BaseResource {
       }
       EdmDataServices s = source.getMetadata();
       EdmxFormatWriter.write(s, w);
+      String edmx = w.toString();
 
-      return Response.ok(w.toString(), ODataConstants.APPLICATION_XML_CHARSET_UTF8)
+      // lets consumers revalidate their cached copy instead of downloading it again
+      EntityTag entityTag = new EntityTag(InternalUtil.hexDigest("MD5", edmx));
+      ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+      if (notModified != null)
+        return notModified.tag(entityTag).build();
+
+      return Response.ok(edmx, ODataConstants.APPLICATION_XML_CHARSET_UTF8)
+          .tag(entityTag)
           .header(ODataConstants.Headers.DATA_SERVICE_VERSION, ODataConstants.DATA_SERVICE_VERSION_HEADER)
           .build();
     }
@@ -0,0 +1,127 @@
+package org.odata4j.producer.resources;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Providers;
+
+import org.odata4j.core.ODataConstants;
+import org.odata4j.exceptions.NotImplementedException;
+import org.odata4j.format.json.JsonWriter;
+import org.odata4j.producer.metrics.LatencyHistogram;
+import org.odata4j.producer.metrics.OperationMetrics;
+import org.odata4j.producer.metrics.ProducerMetrics;
+import org.odata4j.producer.metrics.ProducerMetrics.Phase;
+
+/**
+ * Serves a json snapshot of the producer metrics at <code>$metrics</code>.
+ *
+ * <p>Only available if the producer is instrumented with a {@link org.odata4j.producer.metrics.MetricsProducer}.</p>
+ */
+@Path("{first: \\$}metrics")
+public class MetricsResource extends BaseResource {
+
+  private static final double[] PERCENTILES = { 0.5, 0.9, 0.99 };
+
+  @GET
+  @Produces(ODataConstants.APPLICATION_JAVASCRIPT_CHARSET_UTF8)
+  public Response getMetrics(@Context Providers providers) {
+    ProducerMetrics metrics = getProducerMetrics(getODataProducer(providers));
+    if (metrics == null) {
+      throw new NotImplementedException("Metrics not enabled for this producer");
+    }
+
+    StringWriter sw = new StringWriter();
+    write(new JsonWriter(sw), metrics.snapshot());
+
+    return Response.ok(sw.toString(), ODataConstants.APPLICATION_JAVASCRIPT_CHARSET_UTF8).build();
+  }
+
+  private static void write(JsonWriter jw, List<OperationMetrics> snapshot) {
+    jw.startObject();
+    jw.writeName("operations");
+    jw.startArray();
+    boolean first = true;
+    for (OperationMetrics m : snapshot) {
+      if (!first)
+        jw.writeSeparator();
+      first = false;
+
+      jw.startObject();
+      jw.writeName("entitySet");
+      if (m.getEntitySetName() == null)
+        jw.writeNull();
+      else
+        jw.writeString(m.getEntitySetName());
+      jw.writeSeparator();
+      jw.writeName("operation");
+      jw.writeString(m.getOperation().name());
+      writeLong(jw, "count", m.getCount());
+      writeLong(jw, "errors", m.getErrorCount());
+      jw.writeSeparator();
+      jw.writeName("errorRate");
+      jw.writeNumber((float) m.getErrorRate());
+      writeLong(jw, "entities", m.getEntityCount());
+      writeLong(jw, "bytes", m.getByteCount());
+      jw.writeSeparator();
+      jw.writeName("latency");
+      jw.startObject();
+      boolean firstPhase = true;
+      for (Phase phase : Phase.values()) {
+        LatencyHistogram.Snapshot latency = m.getLatency(phase);
+        if (latency.getCount() == 0)
+          continue;
+        if (!firstPhase)
+          jw.writeSeparator();
+        firstPhase = false;
+        jw.writeName(phase.name());
+        write(jw, latency);
+      }
+      jw.endObject();
+      jw.endObject();
+    }
+    jw.endArray();
+    jw.endObject();
+  }
+
+  private static void write(JsonWriter jw, LatencyHistogram.Snapshot latency) {
+    jw.startObject();
+    jw.writeName("count");
+    jw.writeRaw(Long.toString(latency.getCount()));
+    writeLong(jw, "totalNanos", latency.getTotalNanos());
+    writeLong(jw, "minNanos", latency.getMinNanos());
+    writeLong(jw, "maxNanos", latency.getMaxNanos());
+    writeLong(jw, "meanNanos", latency.getMeanNanos());
+    for (double p : PERCENTILES)
+      writeLong(jw, "p" + Math.round(p * 100) + "Nanos", latency.getPercentileNanos(p));
+
+    // non-empty buckets as [upper bound in nanos, count]
+    jw.writeSeparator();
+    jw.writeName("histogram");
+    jw.startArray();
+    boolean first = true;
+    for (int i = 0; i < latency.getBucketCount(); i++) {
+      long count = latency.getBucketSamples(i);
+      if (count == 0)
+        continue;
+      if (!first)
+        jw.writeSeparator();
+      first = false;
+      jw.writeRaw("[" + (i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1) + ", " + count + "]");
+    }
+    jw.endArray();
+    jw.endObject();
+  }
+
+  private static void writeLong(JsonWriter jw, String name, long value) {
+    jw.writeSeparator();
+    jw.writeName(name);
+    jw.writeRaw(Long.toString(value));
+  }
+
+}
@@ -22,6 +22,8 @@ import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.Provider;
 
+import org.odata4j.core.ODataConstants.Charsets;
+
 @Provider
 @Consumes(ODataBatchProvider.MULTIPART_MIXED)
 public class ODataBatchProvider implements MessageBodyReader<List<BatchBodyPart>> {
@@ -41,6 +43,8 @@ public class ODataBatchProvider implements MessageBodyReader<List<BatchBodyPart>
 
   public static final String MULTIPART_MIXED = "multipart/mixed";
 
+  private static final int MAX_BOUNDARY_LINE = 1024;
+
   public static String createResponseBodyPart(BatchBodyPart bodyPart, Response response) {
     final String CONTENT_ID = "Content-ID";
     StringBuilder body = new StringBuilder("\nHTTP/1.1 ");
@@ -51,7 +55,7 @@ public class ODataBatchProvider implements MessageBodyReader<List<BatchBodyPart>
     body.append(status.getReasonPhrase());
     body.append('\n');
 
-    if (bodyPart.getHeaders().containsKey(CONTENT_ID)) {
+    if (bodyPart != null && bodyPart.getHeaders().containsKey(CONTENT_ID)) {
       body.append(CONTENT_ID);
       body.append(": ");
       body.append(bodyPart.getHeaders().getFirst(CONTENT_ID));
@@ -60,8 +64,12 @@ public class ODataBatchProvider implements MessageBodyReader<List<BatchBodyPart>
 
     for (String key : response.getMetadata().keySet()) {
       body.append(key).append(": ");
+      boolean first = true;
       for (Object value : response.getMetadata().get(key)) {
-        body.append(value).append(";");
+        if (!first)
+          body.append(", ");
+        first = false;
+        body.append(value);
       }
       body.append('\n');
     }
@@ -97,15 +105,23 @@ public class ODataBatchProvider implements MessageBodyReader<List<BatchBodyPart>
       InputStream inputStream) throws IOException, WebApplicationException {
     List<BatchBodyPart> parts = new ArrayList<BatchBodyPart>();
 
-    BufferedReader br = new BufferedReader(new InputStreamReader(inputStream));
+    BufferedReader br = new BufferedReader(new InputStreamReader(inputStream, Charsets.Upper.UTF_8));
     final String ContentType = "content-type:";
     String currentLine = "";
+    String changeSet = null;
 
     while ((currentLine = br.readLine()) != null) {
-      if (currentLine.toLowerCase().startsWith(ContentType)) {
+      if (changeSet != null && currentLine.equals("--" + changeSet + "--")) {
+        changeSet = null;
+      } else if (currentLine.toLowerCase().startsWith(ContentType)) {
         String ctype = currentLine.substring(ContentType.length()).trim();
         if (ctype.toLowerCase().startsWith("application/http")) {
-          parts.add(parseBodyPart(br));
+          BatchBodyPart part = parseBodyPart(br);
+          part.setChangeSet(changeSet);
+          parts.add(part);
+        } else if (ctype.toLowerCase().startsWith(MULTIPART_MIXED)) {
+          // the parts up to the closing boundary form a change set
+          changeSet = MediaType.valueOf(ctype).getParameters().get("boundary");
         }
       }
     }
@@ -116,14 +132,17 @@ public class ODataBatchProvider implements MessageBodyReader<List<BatchBodyPart>
 
   private BatchBodyPart parseBodyPart(BufferedReader br) throws IOException {
     BatchBodyPart block = new BatchBodyPart(httpHeaders, uriInfo);
-    final int SKIP_CONTENT_BEGIN = 2;
 
     String line = "";
+    br.mark(MAX_BOUNDARY_LINE);
     while ((line = br.readLine()) != null) {
       if (line.equals("")) {
+        br.mark(MAX_BOUNDARY_LINE);
         continue;
       }
       if (line.startsWith("--")) {
+        // leave the boundary to the caller, it may close a change set
+        br.reset();
         return validateBodyPart(block);
       }
 
@@ -148,25 +167,35 @@ public class ODataBatchProvider implements MessageBodyReader<List<BatchBodyPart>
         block.getHeaders().putSingle(key, value);
 
         if (key.toLowerCase().equals("content-length")) {
-          int capacity = Integer.parseInt(value) - SKIP_CONTENT_BEGIN;
-          char[] buf = new char[capacity];
-          int offset = 0;
-
-          br.skip(SKIP_CONTENT_BEGIN);
-
-          while (offset != capacity) {
-            offset += br.read(buf, offset, capacity - offset);
-          }
-
-          block.setEntity(new String(buf));
+          // the empty line ending the headers, then the entity
+          br.readLine();
+          block.setEntity(readEntity(br, Integer.parseInt(value)));
           return validateBodyPart(block);
         }
       }
+      br.mark(MAX_BOUNDARY_LINE);
     }
 
     throw new IllegalArgumentException("Cann't parse block");
   }
 
+  /**
+   * Reads an entity of the given length in utf-8 bytes.
+   */
+  private static String readEntity(BufferedReader br, int length) throws IOException {
+    StringBuilder entity = new StringBuilder(length);
+    int bytes = 0;
+    while (bytes < length) {
+      int c = br.read();
+      if (c == -1)
+        throw new IllegalArgumentException("Unexpected end of body part");
+      entity.append((char) c);
+      // a surrogate pair is four bytes in utf-8
+      bytes += c < 0x80 ? 1 : c < 0x800 ? 2 : c >= 0xD800 && c <= 0xDFFF ? 2 : 3;
+    }
+    return entity.toString();
+  }
+
   private static BatchBodyPart validateBodyPart(BatchBodyPart block) {
     if (block.getHttpMethod() == null ? "" == null : block.getHttpMethod().toString().equals("")) {
       throw new IllegalArgumentException("Block HTTP METHOD is empty.");
@@ -82,7 +82,7 @@ public class PropertyRequestResource extends BaseResource {
       OEntity entity = getRequestEntity(httpHeaders, uriInfo, payload, metadata, ees.getName(), OEntityKey.parse(id));
 
       // execute the create
-      EntityResponse response = producer.createEntity(ODataContextImpl.builder().aspect(httpHeaders).aspect(securityContext).build(),
+      EntityResponse response = producer.createEntity(ODataContextImpl.builder().aspect(httpHeaders).deadline(httpHeaders).aspect(securityContext).build(),
           entitySetName, OEntityKey.parse(id), navProp, entity);
 
       if (response == null) {
@@ -166,7 +166,7 @@ public class PropertyRequestResource extends BaseResource {
       navProp = navProp.replace("/$count", "");
 
       CountResponse response = producer.getNavPropertyCount(
-          ODataContextImpl.builder().aspect(httpHeaders).aspect(securityContext).build(),
+          ODataContextImpl.builder().aspect(httpHeaders).deadline(httpHeaders).aspect(securityContext).build(),
           entitySetName,
           OEntityKey.parse(id),
           navProp,
@@ -189,7 +189,7 @@ public class PropertyRequestResource extends BaseResource {
     else {
 
       BaseResponse response = producer.getNavProperty(
-          ODataContextImpl.builder().aspect(httpHeaders).aspect(securityContext).build(),
+          ODataContextImpl.builder().aspect(httpHeaders).deadline(httpHeaders).aspect(securityContext).build(),
           entitySetName,
           OEntityKey.parse(id),
           navProp,
@@ -1,30 +1,51 @@
 package org.odata4j.producer.resources;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.ext.Providers;
 
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.odata4j.core.ODataConstants.Headers;
+import org.odata4j.core.OEntity;
 import org.odata4j.core.OEntityKey;
 import org.odata4j.edm.EdmEntitySet;
 import org.odata4j.exceptions.NotFoundException;
 import org.odata4j.exceptions.NotImplementedException;
+import org.odata4j.internal.InternalUtil;
 import org.odata4j.producer.EntityQueryInfo;
 import org.odata4j.producer.EntityResponse;
 import org.odata4j.producer.ODataContext;
 import org.odata4j.producer.ODataContextImpl;
 import org.odata4j.producer.ODataProducer;
 import org.odata4j.producer.OMediaLinkExtension;
+import org.odata4j.producer.OMediaResource;
+import org.odata4j.producer.OMediaResourceExtension;
+import org.odata4j.producer.resources.MediaResourceProvider.MediaResourceRange;
 
 public class ValueRequestResource extends BaseResource {
 
+  private static final int PARTIAL_CONTENT = 206;
+  private static final int REQUESTED_RANGE_NOT_SATISFIABLE = 416;
+  private static final String BYTES_UNIT = "bytes";
+  private static final DateTimeFormatter HTTP_DATE = DateTimeFormat.forPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'")
+      .withZoneUTC().withLocale(Locale.US);
+
   @GET
   public Response get(
       @Context HttpHeaders httpHeaders,
@@ -41,6 +62,7 @@ public class ValueRequestResource extends BaseResource {
     if (entitySet != null && entitySet.getType().getHasStream()) {
       ODataContext odataContext = ODataContextImpl.builder()
           .aspect(httpHeaders)
+          .deadline(httpHeaders)
           .aspect(securityContext)
           .aspect(producer)
           .aspect(entitySet)
@@ -68,10 +90,137 @@ public class ValueRequestResource extends BaseResource {
 
     EntityResponse entityResponse = producer.getEntity(odataContext,
         entitySet.getName(), OEntityKey.parse(entityId), queryInfo);
-    InputStream entityStream = mediaLinkExtension.getInputStreamForMediaLinkEntry(odataContext, entityResponse.getEntity(), null, queryInfo);
-    String contentType = mediaLinkExtension.getMediaLinkContentType(odataContext, entityResponse.getEntity());
-    String contentDisposition = mediaLinkExtension.getMediaLinkContentDisposition(odataContext, entityResponse.getEntity());
-    return Response.ok(entityStream, contentType).header("Content-Disposition", contentDisposition).build();
+    OEntity mle = entityResponse.getEntity();
+    String contentType = mediaLinkExtension.getMediaLinkContentType(odataContext, mle);
+    String contentDisposition = mediaLinkExtension.getMediaLinkContentDisposition(odataContext, mle);
+
+    if (mediaLinkExtension instanceof OMediaResourceExtension) {
+      OMediaResource mediaResource = ((OMediaResourceExtension) mediaLinkExtension).getMediaResource(odataContext, mle, queryInfo);
+      if (mediaResource != null)
+        return getMediaResourceResponse(httpHeaders, mediaResource, contentType, contentDisposition);
+    }
+
+    final InputStream entityStream = mediaLinkExtension.getInputStreamForMediaLinkEntry(odataContext, mle, null, queryInfo);
+    StreamingOutput output = new StreamingOutput() {
+      @Override
+      public void write(OutputStream outStream) throws IOException {
+        try {
+          InternalUtil.copyInputToOutput(entityStream, outStream, InternalUtil.MEDIA_COPY_BUFFER_SIZE);
+        } finally {
+          entityStream.close();
+        }
+      }
+    };
+    return Response.ok(output, contentType).header("Content-Disposition", contentDisposition).build();
+  }
+
+  /**
+   * Answers a single byte range of the media resource with 206 Partial Content, or all of it
+   * if there is no usable Range header. Multiple ranges are answered with the full content,
+   * as HTTP allows.
+   */
+  private static Response getMediaResourceResponse(HttpHeaders httpHeaders, OMediaResource mediaResource, String contentType, String contentDisposition) {
+    long length = mediaResource.getLength();
+    String entityTag = mediaResource.getEntityTag();
+    String lastModified = mediaResource.getLastModified() == null ? null : HTTP_DATE.print(mediaResource.getLastModified().getTime());
+
+    String range = getRequestHeader(httpHeaders, Headers.RANGE);
+    long[] bytes = null;
+    if (range != null && isUnchanged(getRequestHeader(httpHeaders, Headers.IF_RANGE), entityTag, lastModified)) {
+      bytes = parseRange(range, length);
+      if (bytes != null && bytes.length == 0)
+        return Response.status(REQUESTED_RANGE_NOT_SATISFIABLE)
+            .header(Headers.CONTENT_RANGE, BYTES_UNIT + " */" + length)
+            .build();
+    }
+
+    ResponseBuilder rb;
+    long offset = 0;
+    long count = length;
+    if (bytes == null) {
+      rb = Response.ok();
+    } else {
+      offset = bytes[0];
+      count = bytes[1] - bytes[0] + 1;
+      rb = Response.status(PARTIAL_CONTENT)
+          .header(Headers.CONTENT_RANGE, BYTES_UNIT + " " + bytes[0] + "-" + bytes[1] + "/" + length);
+    }
+    rb.entity(new MediaResourceRange(mediaResource, offset, count))
+        .type(contentType)
+        .header(Headers.ACCEPT_RANGES, BYTES_UNIT)
+        .header("Content-Disposition", contentDisposition);
+    if (entityTag != null)
+      rb.tag(new EntityTag(entityTag));
+    if (lastModified != null)
+      rb.header(Headers.LAST_MODIFIED, lastModified);
+    return rb.build();
+  }
+
+  /** Gets a request header as sent; some runtimes split values at commas, which are part of ranges and dates. */
+  private static String getRequestHeader(HttpHeaders httpHeaders, String name) {
+    List<String> values = httpHeaders.getRequestHeader(name);
+    if (values == null || values.isEmpty())
+      return null;
+    StringBuilder sb = new StringBuilder();
+    for (String value : values) {
+      if (sb.length() > 0)
+        sb.append(", ");
+      sb.append(value.trim());
+    }
+    return sb.toString();
+  }
+
+  /**
+   * An If-Range validator matches if it is the current strong entity tag or the exact Last-Modified date.
+   * Some runtimes remove the quotes of an entity tag.
+   */
+  private static boolean isUnchanged(String ifRange, String entityTag, String lastModified) {
+    if (ifRange == null)
+      return true;
+    ifRange = ifRange.trim();
+    if (ifRange.startsWith("W/"))
+      return false;
+    if (entityTag != null && (ifRange.equals("\"" + entityTag + "\"") || ifRange.equals(entityTag)))
+      return true;
+    return lastModified != null && ifRange.equals(lastModified);
+  }
+
+  /**
+   * Parses a single byte range.
+   *
+   * @return the first and last byte position, an empty array if the range is not satisfiable,
+   *         or null if the header is to be ignored
+   */
+  private static long[] parseRange(String range, long length) {
+    int eq = range.indexOf('=');
+    if (eq < 0 || !BYTES_UNIT.equalsIgnoreCase(range.substring(0, eq).trim()))
+      return null;
+    String spec = range.substring(eq + 1).trim();
+    int dash = spec.indexOf('-');
+    if (dash < 0 || spec.indexOf(',') >= 0)
+      return null;
+    try {
+      String first = spec.substring(0, dash).trim();
+      String last = spec.substring(dash + 1).trim();
+      if (first.length() == 0) {
+        // suffix range: the last n bytes
+        long suffix = Long.parseLong(last);
+        if (suffix < 0)
+          return null;
+        if (suffix == 0 || length == 0)
+          return new long[0];
+        return new long[] { Math.max(0, length - suffix), length - 1 };
+      }
+      long start = Long.parseLong(first);
+      long end = last.length() == 0 ? Long.MAX_VALUE : Long.parseLong(last);
+      if (start < 0 || end < start)
+        return null;
+      if (start >= length)
+        return new long[0];
+      return new long[] { start, Math.min(end, length - 1) };
+    } catch (NumberFormatException e) {
+      return null;
+    }
   }
 
-}
\ No newline at end of file
+}
@@ -1,5 +1,8 @@
 package org.odata4j.producer.server;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+
 import javax.ws.rs.core.Application;
 
 import org.odata4j.producer.resources.AbstractODataApplication;
@@ -43,4 +46,40 @@ public interface ODataServer {
    * @see RootApplication
    */
   ODataServer setRootApplication(Class<? extends Application> rootApp);
+
+  /**
+   * Sets the pool of worker threads that handle the requests.
+   *
+   * @param threads  the maximum number of requests handled at the same time
+   * @param queueCapacity  the maximum number of requests waiting for a worker
+   * @return this server
+   * @see ODataServerExecutors#newWorkerPool
+   */
+  ODataServer setThreadPool(int threads, int queueCapacity);
+
+  /**
+   * Sets what happens to a request when all workers are busy and the queue is full.
+   * The default answers it with 503 Service Unavailable.
+   *
+   * @param handler  the rejection policy of the worker pool
+   * @return this server
+   */
+  ODataServer setRejectedExecutionHandler(RejectedExecutionHandler handler);
+
+  /**
+   * Sets the executor that handles the requests, instead of the worker pool.
+   * The server does not shut it down.
+   *
+   * @param executor  the executor
+   * @return this server
+   */
+  ODataServer setExecutor(Executor executor);
+
+  /**
+   * Sets the maximum number of connections waiting to be accepted.
+   *
+   * @param backlog  the backlog, or 0 for the system default
+   * @return this server
+   */
+  ODataServer setBacklog(int backlog);
 }
@@ -0,0 +1,96 @@
+package org.odata4j.producer.server;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker pools for {@link ODataServer} implementations.
+ */
+public class ODataServerExecutors {
+
+  /** The number of worker threads used if none is configured. */
+  public static final int DEFAULT_THREADS = 16;
+
+  /** The number of requests that may wait for a worker if none is configured. */
+  public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private static final ThreadLocal<Boolean> REJECTED = new ThreadLocal<Boolean>();
+
+  private ODataServerExecutors() {}
+
+  /**
+   * Creates a bounded pool of worker threads.
+   *
+   * <p>The pool starts threads on demand, up to <code>threads</code>, and lets
+   * them die after a minute without work. Requests beyond that wait in a queue
+   * of <code>queueCapacity</code>; requests beyond that are passed to the handler.</p>
+   *
+   * @param name  the prefix of the thread names
+   * @param threads  the maximum number of threads
+   * @param queueCapacity  the maximum number of waiting tasks, 0 for none
+   * @param handler  the rejection policy
+   * @return a new pool, to be shut down by the caller
+   */
+  public static ThreadPoolExecutor newWorkerPool(final String name, int threads, int queueCapacity, RejectedExecutionHandler handler) {
+    if (threads < 1)
+      throw new IllegalArgumentException("threads must be positive");
+    if (queueCapacity < 0)
+      throw new IllegalArgumentException("queueCapacity must not be negative");
+
+    BlockingQueue<Runnable> queue = queueCapacity == 0
+        ? new SynchronousQueue<Runnable>()
+        : new LinkedBlockingQueue<Runnable>(queueCapacity);
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue,
+        new ThreadFactory() {
+          private final AtomicInteger count = new AtomicInteger();
+
+          @Override
+          public Thread newThread(Runnable r) {
+            return new Thread(r, name + "-" + count.incrementAndGet());
+          }
+        }, handler);
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  /**
+   * Gets the default rejection policy: answer the request with 503 Service Unavailable.
+   *
+   * <p>The request is run on the thread that accepted it, marked as rejected, and the
+   * servers answer it without handling it, see {@link #isRejected()}. The accepting
+   * thread is only held for reading the request headers and writing the answer.</p>
+   */
+  public static RejectedExecutionHandler defaultRejectedExecutionHandler() {
+    return new RejectedExecutionHandler() {
+      @Override
+      public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+        if (executor.isShutdown())
+          throw new RejectedExecutionException("The worker pool is shut down");
+        REJECTED.set(Boolean.TRUE);
+        try {
+          r.run();
+        } finally {
+          REJECTED.remove();
+        }
+      }
+    };
+  }
+
+  /**
+   * Tells whether the current thread runs a request rejected by the
+   * {@link #defaultRejectedExecutionHandler() default rejection policy}.
+   */
+  public static boolean isRejected() {
+    return REJECTED.get() != null;
+  }
+
+}
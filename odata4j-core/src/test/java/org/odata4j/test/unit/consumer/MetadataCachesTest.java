@@ -0,0 +1,94 @@
+package org.odata4j.test.unit.consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.odata4j.consumer.CachedMetadata;
+import org.odata4j.consumer.MetadataCache;
+import org.odata4j.consumer.MetadataCaches;
+import org.odata4j.edm.EdmDataServices;
+import org.odata4j.edm.EdmEntityContainer;
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmEntityType;
+import org.odata4j.edm.EdmProperty;
+import org.odata4j.edm.EdmSchema;
+import org.odata4j.edm.EdmSimpleType;
+
+public class MetadataCachesTest {
+
+  private static final String SERVICE_ROOT_URI = "http://localhost/MetadataCachesTest.svc/";
+
+  private File directory;
+
+  @Before
+  public void setup() throws Exception {
+    directory = File.createTempFile("metadata", "");
+    directory.delete();
+  }
+
+  @After
+  public void teardown() {
+    MetadataCaches.onDisk(directory).remove(SERVICE_ROOT_URI);
+    directory.delete();
+  }
+
+  @Test
+  public void inMemoryIsShared() {
+    CachedMetadata metadata = new CachedMetadata(EdmDataServices.EMPTY, "\"1\"", null);
+    MetadataCaches.inMemory().put(SERVICE_ROOT_URI, metadata);
+    assertSame(metadata, MetadataCaches.inMemory().get(SERVICE_ROOT_URI));
+    MetadataCaches.inMemory().remove(SERVICE_ROOT_URI);
+    assertNull(MetadataCaches.inMemory().get(SERVICE_ROOT_URI));
+  }
+
+  @Test
+  public void onDiskSurvivesTheInMemoryCache() {
+    MetadataCaches.onDisk(directory).put(SERVICE_ROOT_URI, new CachedMetadata(metadata(), "\"abc\"", "Tue, 15 Nov 1994 08:12:31 GMT"));
+
+    // as after a restart
+    MetadataCaches.inMemory().remove(SERVICE_ROOT_URI);
+    MetadataCache cache = MetadataCaches.onDisk(directory);
+    CachedMetadata cached = cache.get(SERVICE_ROOT_URI);
+
+    assertNotNull(cached);
+    assertEquals("\"abc\"", cached.getEntityTag());
+    assertEquals("Tue, 15 Nov 1994 08:12:31 GMT", cached.getLastModified());
+    EdmEntitySet entitySet = cached.getMetadata().findEdmEntitySet("Letters");
+    assertNotNull(entitySet);
+    assertEquals(EdmSimpleType.STRING, entitySet.getType().findProperty("Word").getType());
+
+    // now served from memory
+    assertSame(cached, cache.get(SERVICE_ROOT_URI));
+  }
+
+  @Test
+  public void withoutValidatorsNotOnDisk() {
+    MetadataCaches.onDisk(directory).put(SERVICE_ROOT_URI, new CachedMetadata(metadata(), null, null));
+    MetadataCaches.inMemory().remove(SERVICE_ROOT_URI);
+    assertNull(MetadataCaches.onDisk(directory).get(SERVICE_ROOT_URI));
+  }
+
+  private static EdmDataServices metadata() {
+    EdmEntityType.Builder type = EdmEntityType.newBuilder()
+        .setNamespace("Test")
+        .setName("Letter")
+        .addKeys("Name")
+        .addProperties(EdmProperty.newBuilder("Name").setType(EdmSimpleType.STRING),
+            EdmProperty.newBuilder("Word").setType(EdmSimpleType.STRING));
+    EdmEntityContainer.Builder container = EdmEntityContainer.newBuilder()
+        .setName("Container")
+        .setIsDefault(true)
+        .addEntitySets(EdmEntitySet.newBuilder().setName("Letters").setEntityType(type));
+    return EdmDataServices.newBuilder()
+        .addSchemas(EdmSchema.newBuilder().setNamespace("Test").addEntityTypes(type).addEntityContainers(container))
+        .build();
+  }
+
+}
@@ -0,0 +1,99 @@
+package org.odata4j.test.unit.format.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.odata4j.format.json.JsonStreamReaderFactory;
+import org.odata4j.format.json.JsonStreamReaderFactory.JsonParseException;
+import org.odata4j.format.json.JsonStreamReaderFactory.JsonStreamTokenizer;
+
+public class JsonStreamTokenizerTest {
+
+  private static final String JSON = "{ \"d\" : [ {\"s\": \"a\\\"b\\\\c\\u00e9\\n\", \"i\": -12, \"x\": 1.5E+3, \"t\": true,\"f\":false , \"n\":null} ] }";
+  private static final String TOKENS = "[LEFT_CURLY_BRACKET, STRING(d), COLON, LEFT_BRACKET, LEFT_CURLY_BRACKET, "
+      + "STRING(s), COLON, STRING(a\"b\\cé\n), COMMA, STRING(i), COLON, NUMBER(-12), COMMA, STRING(x), COLON, NUMBER(1.5E+3), COMMA, "
+      + "STRING(t), COLON, TRUE(true), COMMA, STRING(f), COLON, FALSE(false), COMMA, STRING(n), COLON, NULL(null), "
+      + "RIGHT_CURLY_BRACKET, RIGHT_BRACKET, RIGHT_CURLY_BRACKET]";
+
+  @Test
+  public void tokens() {
+    assertEquals(TOKENS, tokenize(new StringReader(JSON)).toString());
+  }
+
+  @Test
+  public void tokensAcrossReads() {
+    // every token spans several reads from the underlying reader
+    assertEquals(TOKENS, tokenize(new OneCharReader(JSON)).toString());
+  }
+
+  @Test
+  public void longString() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 20000; i++)
+      sb.append(i % 100 == 0 ? "\\t" : "x");
+    String expected = sb.toString().replace("\\t", "\t");
+
+    List<String> tokens = tokenize(new StringReader("[\"" + sb + "\", 12345678901234]"));
+    assertEquals("STRING(" + expected + ")", tokens.get(1));
+    assertEquals("NUMBER(12345678901234)", tokens.get(3));
+  }
+
+  @Test
+  public void numberAtEnd() {
+    assertEquals("[NUMBER(42)]", tokenize(new OneCharReader("42")).toString());
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void illegalNumber() {
+    tokenize(new StringReader("[1-2]"));
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void illegalExponent() {
+    tokenize(new StringReader("[1e]"));
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void illegalConstant() {
+    tokenize(new StringReader("[undefined]"));
+  }
+
+  @Test(expected = JsonParseException.class)
+  public void unterminatedString() {
+    tokenize(new StringReader("[\"abc"));
+  }
+
+  @Test
+  public void empty() {
+    assertFalse(JsonStreamReaderFactory.createJsonStreamTokenizer(new StringReader(" \n ")).hasNext());
+  }
+
+  private static List<String> tokenize(Reader reader) {
+    JsonStreamTokenizer tokenizer = JsonStreamReaderFactory.createJsonStreamTokenizer(reader);
+    List<String> rt = new ArrayList<String>();
+    while (tokenizer.hasNext())
+      rt.add(tokenizer.nextToken().toString());
+    return rt;
+  }
+
+  private static class OneCharReader extends FilterReader {
+
+    OneCharReader(String s) {
+      super(new StringReader(s));
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      return super.read(cbuf, off, Math.min(len, 1));
+    }
+  }
+
+}
@@ -2,6 +2,7 @@ package org.odata4j.test.unit.format.xml;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
@@ -282,6 +283,43 @@ public class EdmxFormatParserTest {
     assertEquals(MYNAMESPACE, annot2.findAnnotationElement(MYNAMESPACE, "yetanother").getNamespace().getUri());
   }
 
+  @Test
+  public void testAliasedReferences() {
+    String edmx = "<edmx:Edmx Version=\"1.0\" xmlns:edmx=\"http://schemas.microsoft.com/ado/2007/06/edmx\">"
+        + "<edmx:DataServices m:DataServiceVersion=\"2.0\" xmlns:m=\"http://schemas.microsoft.com/ado/2007/08/dataservices/metadata\">"
+        + "<Schema Namespace=\"Example\" Alias=\"Ex\" xmlns=\"http://schemas.microsoft.com/ado/2008/09/edm\">"
+        + "<ComplexType Name=\"Address\"><Property Name=\"City\" Type=\"Edm.String\"/></ComplexType>"
+        + "<EntityType Name=\"Person\"><Key><PropertyRef Name=\"Id\"/></Key>"
+        + "<Property Name=\"Id\" Type=\"Edm.Int32\" Nullable=\"false\"/><Property Name=\"Address\" Type=\"Ex.Address\"/>"
+        + "<NavigationProperty Name=\"Manager\" Relationship=\"Ex.PersonManager\" FromRole=\"Person\" ToRole=\"Manager\"/></EntityType>"
+        + "<EntityType Name=\"Employee\" BaseType=\"Ex.Person\"/>"
+        + "<Association Name=\"PersonManager\"><End Role=\"Person\" Type=\"Ex.Person\" Multiplicity=\"*\"/>"
+        + "<End Role=\"Manager\" Type=\"Example.Employee\" Multiplicity=\"0..1\"/></Association>"
+        + "<EntityContainer Name=\"Container\" m:IsDefaultEntityContainer=\"true\">"
+        + "<EntitySet Name=\"People\" EntityType=\"Ex.Person\"/><EntitySet Name=\"Employees\" EntityType=\"Example.Employee\"/>"
+        + "<AssociationSet Name=\"PersonManagers\" Association=\"Ex.PersonManager\">"
+        + "<End Role=\"Person\" EntitySet=\"People\"/><End Role=\"Manager\" EntitySet=\"Employees\"/></AssociationSet>"
+        + "<FunctionImport Name=\"Managers\" EntitySet=\"Employees\" ReturnType=\"Collection(Ex.Employee)\" m:HttpMethod=\"GET\"/>"
+        + "</EntityContainer></Schema></edmx:DataServices></edmx:Edmx>";
+    EdmDataServices d = new EdmxFormatParser().parseMetadata(StaxUtil.newXMLEventReader(new StringReader(edmx)));
+
+    EdmEntityType person = d.findEdmEntitySet("People").getType();
+    EdmEntityType employee = d.findEdmEntitySet("Employees").getType();
+    assertSame(person, employee.getBaseType());
+    assertSame(d.findEdmComplexType("Example.Address"), person.findProperty("Address").getType());
+    assertSame(employee, person.findNavigationProperty("Manager").getToRole().getType());
+
+    EdmAssociationSet associationSet = d.findSchema("Example").findEntityContainer("Container").getAssociationSets().get(0);
+    assertEquals("Example.PersonManager", person.findNavigationProperty("Manager").getRelationship().getFQNamespaceName());
+    assertEquals("Example.PersonManager", associationSet.getAssociation().getFQNamespaceName());
+    assertSame(d.findEdmEntitySet("People"), associationSet.getEnd1().getEntitySet());
+    assertSame(d.findEdmEntitySet("Employees"), associationSet.getEnd2().getEntitySet());
+
+    EdmFunctionImport managers = d.findEdmFunctionImport("Managers");
+    assertSame(d.findEdmEntitySet("Employees"), managers.getEntitySet());
+    assertEquals("Collection(Example.Employee)", managers.getReturnType().getFullyQualifiedTypeName());
+  }
+
   @Test
   public void testForAnnotationAttribute() {
     XMLEventReader2 reader = StaxUtil.newXMLEventReader(new BufferedReader(
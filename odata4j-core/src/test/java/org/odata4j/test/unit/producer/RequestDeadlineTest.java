@@ -0,0 +1,250 @@
+package org.odata4j.test.unit.producer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.core4j.Func;
+import org.core4j.ThrowingFunc1;
+import org.junit.After;
+import org.junit.Test;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.exceptions.BadRequestException;
+import org.odata4j.exceptions.ServiceUnavailableException;
+import org.odata4j.producer.ODataContext;
+import org.odata4j.producer.ODataContextImpl;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.RequestDeadline;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.jdbc.Jdbc;
+import org.odata4j.producer.jdbc.JdbcProducer;
+import org.odata4j.producer.resources.OptionsQueryParser;
+
+public class RequestDeadlineTest {
+
+  @After
+  public void tearDown() {
+    RequestDeadline.setDefaultTimeout(0);
+  }
+
+  @Test
+  public void timeoutFromDefaultAndHeader() {
+    RequestDeadline.setDefaultTimeout(0);
+    assertNull(RequestDeadline.forRequest(null));
+    assertTrue(RequestDeadline.forRequest("5000").getRemainingMillis() > 4000);
+
+    // a client may shorten the default timeout but not extend it
+    RequestDeadline.setDefaultTimeout(2000);
+    assertTrue(RequestDeadline.forRequest(null).getRemainingMillis() > 1000);
+    assertTrue(RequestDeadline.forRequest("100").getRemainingMillis() <= 100);
+    assertTrue(RequestDeadline.forRequest("60000").getRemainingMillis() <= 2000);
+
+    for (String invalid : new String[] { "soon", "0", "-1" }) {
+      try {
+        RequestDeadline.forRequest(invalid);
+        fail();
+      } catch (BadRequestException e) {
+        assertEquals("Invalid request timeout " + invalid, e.getMessage());
+      }
+    }
+  }
+
+  @Test
+  public void expiredDeadlineFailsFast() {
+    RequestDeadline deadline = RequestDeadline.after(0);
+    assertTrue(deadline.isExpired());
+    assertEquals(0, deadline.getRemainingMillis());
+    assertEquals(1, deadline.getRemainingSeconds());
+    try {
+      deadline.check();
+      fail();
+    } catch (ServiceUnavailableException e) {
+      assertEquals("Request deadline exceeded", e.getMessage());
+      assertEquals(Status.SERVICE_UNAVAILABLE, e.getHttpStatus());
+    }
+
+    RequestDeadline live = RequestDeadline.after(60000);
+    assertFalse(live.isExpired());
+    live.check();
+  }
+
+  @Test
+  public void cancel() {
+    final List<String> cancelled = new ArrayList<String>();
+    RequestDeadline deadline = RequestDeadline.after(60000);
+    deadline.onCancel(new Runnable() {
+      @Override
+      public void run() {
+        cancelled.add("statement");
+      }
+    });
+    deadline.cancel();
+    deadline.cancel();
+    assertEquals("[statement]", cancelled.toString());
+    assertTrue(deadline.isCancelled());
+    assertTrue(deadline.isExpired());
+
+    // listeners added too late run at once
+    deadline.onCancel(new Runnable() {
+      @Override
+      public void run() {
+        cancelled.add("late");
+      }
+    });
+    assertEquals("[statement, late]", cancelled.toString());
+    try {
+      deadline.check();
+      fail();
+    } catch (ServiceUnavailableException e) {
+      assertEquals("Request cancelled", e.getMessage());
+    }
+  }
+
+  @Test
+  public void inMemoryIterationStopsWhenCancelled() {
+    final RequestDeadline deadline = RequestDeadline.after(60000);
+    final int[] produced = new int[1];
+    InMemoryProducer producer = new InMemoryProducer("RequestDeadlineTest");
+    producer.register(Item.class, "Items", new Func<Iterable<Item>>() {
+      @Override
+      public Iterable<Item> apply() {
+        return new Iterable<Item>() {
+          @Override
+          public Iterator<Item> iterator() {
+            return new Iterator<Item>() {
+              @Override
+              public boolean hasNext() {
+                return produced[0] < 1000;
+              }
+
+              @Override
+              public Item next() {
+                if (++produced[0] == 3)
+                  deadline.cancel();
+                return new Item(produced[0]);
+              }
+
+              @Override
+              public void remove() {
+                throw new UnsupportedOperationException();
+              }
+            };
+          }
+        };
+      }
+    }, "Id");
+
+    ODataContext context = ODataContextImpl.builder().aspect(deadline).build();
+    QueryInfo query = QueryInfo.newBuilder().setFilter(OptionsQueryParser.parseFilter("Id gt 0")).build();
+    try {
+      producer.getEntities(context, "Items", query);
+      fail();
+    } catch (ServiceUnavailableException e) {
+      assertEquals("Request cancelled", e.getMessage());
+    }
+    assertEquals(3, produced[0]);
+
+    try {
+      producer.getEntitiesCount(ODataContextImpl.builder().aspect(RequestDeadline.after(0)).build(), "Items", query);
+      fail();
+    } catch (ServiceUnavailableException e) {
+      assertEquals("Request deadline exceeded", e.getMessage());
+    }
+  }
+
+  @Test
+  public void jdbcQueries() {
+    final List<String> cancelled = new ArrayList<String>();
+    Jdbc db = new Jdbc("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:deadline", "sa", "") {
+      @Override
+      public <T> T execute(final ThrowingFunc1<Connection, T> execute) {
+        return super.execute(new ThrowingFunc1<Connection, T>() {
+          @Override
+          public T apply(Connection conn) throws Exception {
+            return execute.apply(recordCancel(conn, Connection.class, cancelled));
+          }
+        });
+      }
+    };
+    db.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        conn.createStatement().execute("CREATE TABLE ITEM (ITEM_ID INTEGER NOT NULL, PRIMARY KEY (ITEM_ID))");
+        conn.createStatement().execute("INSERT INTO ITEM VALUES (1)");
+        return null;
+      }
+    });
+    JdbcProducer producer = JdbcProducer.newBuilder().jdbc(db).build();
+    try {
+      ODataContext live = ODataContextImpl.builder().aspect(RequestDeadline.after(60000)).build();
+      assertEquals(1, producer.getEntities(live, "ITEM", null).getEntities().size());
+      assertNull(RequestDeadline.current());
+
+      // closed statements are not cancelled with the request
+      producer.getEntity(live, "ITEM", OEntityKey.create(1), null);
+      RequestDeadline.get(live).cancel();
+      assertTrue(cancelled.isEmpty());
+
+      try {
+        producer.getEntities(ODataContextImpl.builder().aspect(RequestDeadline.after(0)).build(), "ITEM", null);
+        fail();
+      } catch (ServiceUnavailableException e) {
+        assertEquals("Request deadline exceeded", e.getMessage());
+      }
+      assertNull(RequestDeadline.current());
+    } finally {
+      producer.close();
+      db.execute(new ThrowingFunc1<Connection, Void>() {
+        @Override
+        public Void apply(Connection conn) throws Exception {
+          conn.createStatement().execute("DROP TABLE ITEM");
+          return null;
+        }
+      });
+    }
+  }
+
+  /** Proxies a connection or statement, recording the statements cancelled. */
+  private static <T> T recordCancel(final T target, Class<T> type, final List<String> cancelled) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("cancel"))
+          cancelled.add("statement");
+        try {
+          Object rt = method.invoke(target, args);
+          return rt instanceof PreparedStatement ? recordCancel((PreparedStatement) rt, PreparedStatement.class, cancelled) : rt;
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        }
+      }
+    }));
+  }
+
+  public static class Item {
+    private final int id;
+
+    public Item(int id) {
+      this.id = id;
+    }
+
+    public int getId() {
+      return id;
+    }
+  }
+
+}
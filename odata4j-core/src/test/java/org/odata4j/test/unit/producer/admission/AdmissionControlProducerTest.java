@@ -0,0 +1,211 @@
+package org.odata4j.test.unit.producer.admission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.core4j.Enumerable;
+import org.core4j.Func;
+import org.core4j.Funcs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.odata4j.exceptions.NotFoundException;
+import org.odata4j.exceptions.ServiceUnavailableException;
+import org.odata4j.producer.ODataContextImpl;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.RequestDeadline;
+import org.odata4j.producer.admission.AdmissionControlProducer;
+import org.odata4j.producer.admission.AdmissionController;
+import org.odata4j.producer.admission.AdmissionController.Permit;
+import org.odata4j.producer.admission.AdmissionStats;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.metrics.ProducerMetrics.Operation;
+
+public class AdmissionControlProducerTest {
+
+  private final CountDownLatch entered = new CountDownLatch(1);
+  private final CountDownLatch proceed = new CountDownLatch(1);
+  private AdmissionController admission;
+  private AdmissionControlProducer producer;
+  private Thread blocked;
+
+  @Before
+  public void setUp() {
+    InMemoryProducer inMemory = new InMemoryProducer("AdmissionControlProducerTest");
+    inMemory.register(String.class, String.class, "Slow", new Func<Iterable<String>>() {
+      @Override
+      public Iterable<String> apply() {
+        entered.countDown();
+        try {
+          proceed.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return Enumerable.create("one", "two");
+      }
+    }, Funcs.identity(String.class));
+    inMemory.register(String.class, String.class, "Fast", new Func<Iterable<String>>() {
+      @Override
+      public Iterable<String> apply() {
+        return Enumerable.create("three");
+      }
+    }, Funcs.identity(String.class));
+    admission = new AdmissionController().setMaxWaitMillis(0).setRetryAfterSeconds(3);
+    producer = new AdmissionControlProducer(inMemory, admission);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    proceed.countDown();
+    if (blocked != null)
+      blocked.join(10000);
+  }
+
+  private void blockSlow() throws Exception {
+    blocked = new Thread() {
+      @Override
+      public void run() {
+        producer.getEntities(null, "Slow", new QueryInfo());
+      }
+    };
+    blocked.start();
+    assertTrue(entered.await(10, TimeUnit.SECONDS));
+  }
+
+  private static AdmissionStats find(AdmissionController admission, String name) {
+    for (AdmissionStats stats : admission.snapshot()) {
+      if (stats.getName().equals(name))
+        return stats;
+    }
+    throw new AssertionError("no gate " + name);
+  }
+
+  @Test
+  public void entitySetLimit() throws Exception {
+    assertSame(admission, producer.findExtension(AdmissionController.class));
+    admission.setEntitySetLimit("Slow", 1);
+    blockSlow();
+
+    try {
+      producer.getEntitiesCount(null, "Slow", new QueryInfo());
+      fail();
+    } catch (ServiceUnavailableException e) {
+      assertEquals("Too many concurrent requests for Slow", e.getMessage());
+      assertEquals(Status.SERVICE_UNAVAILABLE, e.getHttpStatus());
+      assertEquals(Integer.valueOf(3), e.getRetryAfter());
+    }
+    // other entity sets are not affected
+    assertEquals(1, producer.getEntities(null, "Fast", new QueryInfo()).getEntities().size());
+
+    AdmissionStats slow = find(admission, "Slow");
+    assertEquals(1, slow.getLimit());
+    assertEquals(1, slow.getActive());
+    assertEquals(1, slow.getAdmittedCount());
+    assertEquals(1, slow.getRejectedCount());
+
+    proceed.countDown();
+    blocked.join(10000);
+    assertEquals(0, find(admission, "Slow").getActive());
+    assertEquals(2, producer.getEntitiesCount(null, "Slow", new QueryInfo()).getCount());
+  }
+
+  @Test
+  public void operationLimitAndDefaultEntitySetLimit() throws Exception {
+    admission.setOperationLimit(Operation.GetEntities, 1).setDefaultEntitySetLimit(5);
+    blockSlow();
+
+    try {
+      producer.getEntities(null, "Fast", new QueryInfo());
+      fail();
+    } catch (ServiceUnavailableException e) {
+      assertEquals("Too many concurrent requests for GetEntities", e.getMessage());
+    }
+    // other operations are not affected, and a rejected call holds no entity set permit
+    assertEquals(1, producer.getEntitiesCount(null, "Fast", new QueryInfo()).getCount());
+    assertEquals(0, find(admission, "Fast").getActive());
+    assertEquals(5, find(admission, "Fast").getLimit());
+    assertEquals(1, find(admission, "GetEntities").getRejectedCount());
+  }
+
+  @Test
+  public void defaultEntitySetLimitOnDeclaredEntitySets() throws Exception {
+    admission.setDefaultEntitySetLimit(5);
+    try {
+      producer.getEntities(null, "Unknown", new QueryInfo());
+      fail();
+    } catch (NotFoundException e) {
+      // no gate for names that are not in the metadata
+    }
+    producer.getEntities(null, "Fast", new QueryInfo());
+    assertEquals(1, admission.snapshot().size());
+    assertEquals(5, find(admission, "Fast").getLimit());
+
+    // changing the default limit replaces the gates
+    admission.setDefaultEntitySetLimit(2);
+    producer.getEntities(null, "Fast", new QueryInfo());
+    assertEquals(2, find(admission, "Fast").getLimit());
+    assertEquals(1, find(admission, "Fast").getAdmittedCount());
+  }
+
+  @Test
+  public void boundedWait() throws Exception {
+    admission.setEntitySetLimit("Slow", 1).setMaxWaitMillis(60000);
+    blockSlow();
+
+    // the wait never exceeds the deadline of the request
+    long start = System.nanoTime();
+    try {
+      producer.getEntities(ODataContextImpl.builder().aspect(RequestDeadline.after(50)).build(), "Slow", new QueryInfo());
+      fail();
+    } catch (ServiceUnavailableException e) {
+      assertEquals(Integer.valueOf(3), e.getRetryAfter());
+    }
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 10000);
+
+    // a waiting call gets the permit once it is released
+    Thread release = new Thread() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(50);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        proceed.countDown();
+      }
+    };
+    release.start();
+    assertEquals(2, producer.getEntities(null, "Slow", new QueryInfo()).getEntities().size());
+    release.join();
+  }
+
+  @Test
+  public void requestLimit() {
+    admission.setRequestLimit(1);
+    Permit permit = admission.admitRequest(null);
+    try {
+      admission.admitRequest(RequestDeadline.after(60000));
+      fail();
+    } catch (ServiceUnavailableException e) {
+      assertEquals("Too many concurrent requests for " + AdmissionController.REQUESTS, e.getMessage());
+    }
+    permit.release();
+    permit.release();
+    assertEquals(0, find(admission, AdmissionController.REQUESTS).getActive());
+    admission.admitRequest(null).release();
+
+    // removing a limit
+    admission.setRequestLimit(0);
+    admission.admitRequest(null);
+    admission.admitRequest(null);
+    assertTrue(admission.snapshot().isEmpty());
+  }
+
+}
@@ -0,0 +1,204 @@
+package org.odata4j.test.unit.producer.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+
+import org.core4j.Enumerable;
+import org.core4j.Func;
+import org.core4j.Funcs;
+import org.core4j.ThrowingFunc1;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.expression.ExpressionParser;
+import org.odata4j.producer.ChangeSetExtension;
+import org.odata4j.producer.CountResponse;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.cache.CacheStats;
+import org.odata4j.producer.cache.CachingProducer;
+import org.odata4j.producer.cache.ResponseCache;
+import org.odata4j.producer.cache.SerializedResponse;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.jdbc.Jdbc;
+import org.odata4j.producer.jdbc.JdbcProducer;
+
+public class CachingProducerTest {
+
+  private static final Jdbc DB = new Jdbc("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:cache", "sa", "");
+
+  private ResponseCache cache;
+  private CachingProducer producer;
+
+  @Before
+  public void setUp() {
+    execute("CREATE TABLE CUSTOMER (CUSTOMER_ID INTEGER NOT NULL, NAME VARCHAR(25) NOT NULL, PRIMARY KEY (CUSTOMER_ID))",
+        "CREATE TABLE ORDERS (ORDER_ID INTEGER NOT NULL, CUSTOMER_ID INTEGER, PRIMARY KEY (ORDER_ID), "
+            + "CONSTRAINT FK_ORDERS_CUSTOMER FOREIGN KEY (CUSTOMER_ID) REFERENCES CUSTOMER (CUSTOMER_ID))",
+        "INSERT INTO CUSTOMER VALUES (1, 'Alice')",
+        "INSERT INTO CUSTOMER VALUES (2, 'Bob')",
+        "INSERT INTO ORDERS VALUES (10, 1)",
+        "INSERT INTO ORDERS VALUES (11, 1)",
+        "INSERT INTO ORDERS VALUES (20, 2)");
+    cache = new ResponseCache();
+    producer = new CachingProducer(JdbcProducer.newBuilder().jdbc(DB).build(), cache);
+  }
+
+  @After
+  public void tearDown() {
+    producer.close();
+    execute("DROP TABLE ORDERS", "DROP TABLE CUSTOMER");
+  }
+
+  private static void execute(final String... statements) {
+    DB.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        for (String statement : statements)
+          conn.createStatement().execute(statement);
+        return null;
+      }
+    });
+  }
+
+  private static QueryInfo expand(String expand) {
+    return QueryInfo.newBuilder().setExpand(ExpressionParser.parseExpand(expand)).build();
+  }
+
+  @Test
+  public void readsAreCached() {
+    assertSame(cache, producer.findExtension(ResponseCache.class));
+    EntitiesResponse customers = producer.getEntities(null, "CUSTOMER", null);
+    assertSame(customers, producer.getEntities(null, "CUSTOMER", new QueryInfo()));
+    assertSame(producer.getEntity(null, "CUSTOMER", OEntityKey.create(1), null),
+        producer.getEntity(null, "CUSTOMER", OEntityKey.create(1), null));
+
+    // changes that bypass the producer only show after invalidation
+    execute("INSERT INTO CUSTOMER VALUES (3, 'Carol')");
+    assertEquals(2, producer.getEntities(null, "CUSTOMER", null).getEntities().size());
+    cache.invalidate("CUSTOMER");
+    assertEquals(3, producer.getEntities(null, "CUSTOMER", null).getEntities().size());
+
+    CacheStats stats = cache.getStats();
+    assertEquals(3, stats.getHitCount());
+    assertEquals(3, stats.getMissCount());
+    assertEquals(1, stats.getSize());
+    assertEquals(2, stats.getInvalidationCount());
+    assertEquals(0.5, stats.getHitRate(), 0.0);
+  }
+
+  @Test
+  public void writesInvalidateDependentEntries() {
+    EntitiesResponse customers = producer.getEntities(null, "CUSTOMER", expand("ORDERS"));
+    EntitiesResponse orders = producer.getEntities(null, "ORDERS", null);
+    producer.getEntity(null, "CUSTOMER", OEntityKey.create(2), new EntityQueryInfo(null, null, null, null));
+    assertEquals(3, cache.getStats().getSize());
+
+    producer.deleteEntity(null, "ORDERS", OEntityKey.create(11));
+
+    // the customers depend on the orders they expand, the single customer does not
+    assertEquals(1, cache.getStats().getSize());
+    assertNotSame(customers, producer.getEntities(null, "CUSTOMER", expand("ORDERS")));
+    assertNotSame(orders, producer.getEntities(null, "ORDERS", null));
+    assertEquals(2, producer.getEntities(null, "ORDERS", null).getEntities().size());
+  }
+
+  @Test
+  public void counts() {
+    InMemoryProducer inMemory = new InMemoryProducer("CachingProducerTest");
+    inMemory.register(String.class, String.class, "Strings", new Func<Iterable<String>>() {
+      @Override
+      public Iterable<String> apply() {
+        return Enumerable.create("one", "two", "three");
+      }
+    }, Funcs.identity(String.class));
+    CachingProducer strings = new CachingProducer(inMemory, cache);
+
+    CountResponse count = strings.getEntitiesCount(null, "Strings", null);
+    assertEquals(3, count.getCount());
+    assertSame(count, strings.getEntitiesCount(null, "Strings", new QueryInfo()));
+    assertNotSame(count, strings.getEntitiesCount(null, "Strings", QueryInfo.newBuilder().setTop(1).build()));
+    assertEquals(1, cache.getStats().getHitCount());
+
+    // responses of unknown entity sets are not cached
+    try {
+      strings.getEntitiesCount(null, "Unknown", null);
+      fail();
+    } catch (RuntimeException e) {
+      // expected
+    }
+    assertEquals(2, cache.getStats().getMissCount());
+  }
+
+  @Test
+  public void changeSetsInvalidateWhenCommitted() {
+    ChangeSetExtension changeSets = producer.findExtension(ChangeSetExtension.class);
+    changeSets.beginChangeSet(null);
+    producer.deleteEntity(null, "ORDERS", OEntityKey.create(20));
+    // a read before the commit caches the previous state
+    producer.getEntities(null, "ORDERS", null);
+    changeSets.commitChangeSet(null);
+
+    assertEquals(2, producer.getEntities(null, "ORDERS", null).getEntities().size());
+  }
+
+  @Test
+  public void timeToLiveAndEviction() throws Exception {
+    cache.setTimeToLive("CUSTOMER", 0).setTimeToLive("ORDERS", 50).setMaxEntries(2);
+    assertNotSame(producer.getEntities(null, "CUSTOMER", null), producer.getEntities(null, "CUSTOMER", null));
+    assertEquals(0, cache.getStats().getMissCount());
+
+    EntitiesResponse orders = producer.getEntities(null, "ORDERS", null);
+    assertSame(orders, producer.getEntities(null, "ORDERS", null));
+    Thread.sleep(100);
+    assertNotSame(orders, producer.getEntities(null, "ORDERS", null));
+
+    producer.getEntity(null, "ORDERS", OEntityKey.create(10), null);
+    producer.getEntity(null, "ORDERS", OEntityKey.create(11), null);
+    producer.getEntity(null, "ORDERS", OEntityKey.create(20), null);
+    assertEquals(2, cache.getStats().getSize());
+    assertEquals(2, cache.getStats().getEvictionCount());
+  }
+
+  @Test
+  public void serializedTier() {
+    cache.setMaxSerializedBytes(10);
+    ResponseCache.Lookup<SerializedResponse> lookup = cache.lookupSerialized(producer.getMetadata(), "CUSTOMER", expand("ORDERS"), "json");
+    assertNull(lookup.get());
+    lookup.put(new SerializedResponse("application/json", new byte[6]));
+    assertEquals(6, cache.lookupSerialized(producer.getMetadata(), "CUSTOMER", expand("ORDERS"), "json").get().getData().length);
+    assertNull(cache.lookupSerialized(producer.getMetadata(), "CUSTOMER", expand("ORDERS"), "atom").get());
+
+    // a payload is served only for the response it was serialized from
+    Object response = new Object();
+    SerializedResponse payload = new SerializedResponse("application/json", new byte[1], response);
+    assertTrue(payload.isSerializedFrom(response));
+    assertFalse(payload.isSerializedFrom(new Object()));
+    assertFalse(payload.isSerializedFrom(null));
+
+    // a payload stored after a change of an entity set it depends on is discarded
+    ResponseCache.Lookup<SerializedResponse> stale = cache.lookupSerialized(producer.getMetadata(), "CUSTOMER", null, "atom");
+    cache.invalidate("CUSTOMER");
+    stale.put(new SerializedResponse("application/atom+xml", new byte[1]));
+    assertEquals(0, cache.getStats().getSerializedSize());
+
+    // the size of the payloads is bounded
+    cache.lookupSerialized(producer.getMetadata(), "ORDERS", null, "json").put(new SerializedResponse("application/json", new byte[6]));
+    cache.lookupSerialized(producer.getMetadata(), "ORDERS", null, "atom").put(new SerializedResponse("application/atom+xml", new byte[6]));
+    CacheStats stats = cache.getStats();
+    assertEquals(1, stats.getSerializedSize());
+    assertEquals(6, stats.getSerializedBytes());
+    assertEquals(1, stats.getSerializedHitCount());
+    assertEquals(2, stats.getSerializedMissCount());
+  }
+
+}
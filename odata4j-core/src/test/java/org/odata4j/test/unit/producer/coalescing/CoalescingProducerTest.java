@@ -0,0 +1,203 @@
+package org.odata4j.test.unit.producer.coalescing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.SecurityContext;
+
+import org.core4j.Enumerable;
+import org.core4j.Func;
+import org.core4j.Funcs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.odata4j.core.OEntity;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.NormalizedQuery;
+import org.odata4j.producer.ODataContext;
+import org.odata4j.producer.ODataContextImpl;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.coalescing.CoalescingProducer;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.resources.OptionsQueryParser;
+
+public class CoalescingProducerTest {
+
+  private final AtomicInteger executions = new AtomicInteger();
+  private final CountDownLatch proceed = new CountDownLatch(1);
+  private CoalescingProducer producer;
+  private final List<Thread> threads = new ArrayList<Thread>();
+
+  @Before
+  public void setUp() {
+    InMemoryProducer inMemory = new InMemoryProducer("CoalescingProducerTest");
+    inMemory.register(String.class, String.class, "Slow", new Func<Iterable<String>>() {
+      @Override
+      public Iterable<String> apply() {
+        executions.incrementAndGet();
+        try {
+          proceed.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return Enumerable.create("one", "two");
+      }
+    }, Funcs.identity(String.class));
+    producer = new CoalescingProducer(inMemory);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    proceed.countDown();
+    for (Thread thread : threads)
+      thread.join(10000);
+  }
+
+  private List<EntitiesResponse> getEntitiesAsync(final ODataContext context, final QueryInfo query) {
+    final List<EntitiesResponse> rt = new ArrayList<EntitiesResponse>();
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        EntitiesResponse response = producer.getEntities(context, "Slow", query);
+        synchronized (rt) {
+          rt.add(response);
+        }
+      }
+    };
+    threads.add(thread);
+    thread.start();
+    return rt;
+  }
+
+  private static void waitFor(AtomicInteger counter, int value) throws Exception {
+    for (int i = 0; i < 1000 && counter.get() < value; i++)
+      Thread.sleep(10);
+    assertEquals(value, counter.get());
+  }
+
+  private void waitForCoalesced(long value) throws Exception {
+    for (int i = 0; i < 1000 && producer.getCoalescedCount() < value; i++)
+      Thread.sleep(10);
+    assertEquals(value, producer.getCoalescedCount());
+  }
+
+  private static ODataContext user(final String name) {
+    return ODataContextImpl.builder().aspect(new SecurityContext() {
+      @Override
+      public Principal getUserPrincipal() {
+        return new Principal() {
+          @Override
+          public String getName() {
+            return name;
+          }
+        };
+      }
+
+      @Override
+      public boolean isUserInRole(String role) {
+        return false;
+      }
+
+      @Override
+      public boolean isSecure() {
+        return false;
+      }
+
+      @Override
+      public String getAuthenticationScheme() {
+        return null;
+      }
+    }).build();
+  }
+
+  private static QueryInfo top(int top) {
+    return QueryInfo.newBuilder().setTop(top).build();
+  }
+
+  private static QueryInfo filter(String filter) {
+    return QueryInfo.newBuilder().setFilter(OptionsQueryParser.parseFilter(filter)).build();
+  }
+
+  @Test
+  public void identicalCallsShareOneExecution() throws Exception {
+    List<EntitiesResponse> first = getEntitiesAsync(user("alice"), top(5));
+    waitFor(executions, 1);
+    List<EntitiesResponse> second = getEntitiesAsync(user("alice"), top(5));
+    List<EntitiesResponse> third = getEntitiesAsync(user("alice"), top(5));
+    waitForCoalesced(2);
+    assertEquals(1, producer.getInFlightCount());
+
+    proceed.countDown();
+    for (Thread thread : threads)
+      thread.join(10000);
+    assertEquals(1, executions.get());
+    assertEquals(1, producer.getExecutionCount());
+    assertSame(first.get(0), second.get(0));
+    assertSame(first.get(0), third.get(0));
+    assertEquals(2, first.get(0).getEntities().size());
+    try {
+      first.get(0).getEntities().add((OEntity) null);
+      fail();
+    } catch (UnsupportedOperationException e) {
+      // shared responses are immutable
+    }
+
+    // completed calls are not kept
+    assertEquals(0, producer.getInFlightCount());
+    producer.getEntities(user("alice"), "Slow", top(5));
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  public void differentUsersAndQueriesExecuteSeparately() throws Exception {
+    getEntitiesAsync(user("alice"), top(1));
+    getEntitiesAsync(user("bob"), top(1));
+    getEntitiesAsync(null, top(1));
+    getEntitiesAsync(user("alice"), top(2));
+    waitFor(executions, 4);
+    assertEquals(0, producer.getCoalescedCount());
+    assertEquals(4, producer.getInFlightCount());
+  }
+
+  @Test
+  public void boundedWait() throws Exception {
+    producer.setMaxWaitMillis(0);
+    getEntitiesAsync(null, new QueryInfo());
+    waitFor(executions, 1);
+    getEntitiesAsync(null, new QueryInfo());
+    waitFor(executions, 2);
+    assertEquals(1, producer.getCoalescedCount());
+    assertEquals(1, producer.getAbandonedCount());
+  }
+
+  @Test
+  public void normalizedQuery() {
+    Map<String, String> options = new HashMap<String, String>();
+    options.put("b", "2");
+    options.put("a", "1");
+    Map<String, String> reordered = new HashMap<String, String>();
+    reordered.put("a", "1");
+    reordered.put("b", "2");
+    assertEquals(NormalizedQuery.of(QueryInfo.newBuilder().setTop(5).setCustomOptions(options).build()),
+        NormalizedQuery.of(QueryInfo.newBuilder().setTop(5).setCustomOptions(reordered).build()));
+    assertEquals(NormalizedQuery.of(new QueryInfo()), NormalizedQuery.of(null));
+
+    // string literals are quoted, so their content cannot be mistaken for the structure of the expression
+    assertEquals("filter=eq(simpleProperty(Id),string('a),string(''b'));", NormalizedQuery.of(filter("Id eq 'a),string(''b'")));
+    assertFalse(NormalizedQuery.of(filter("Id eq 'x'")).equals(NormalizedQuery.of(filter("Id eq 'X'"))));
+    assertTrue(NormalizedQuery.of(filter("Id eq 'x'")).equals(NormalizedQuery.of(filter("Id  eq  'x'"))));
+  }
+
+}
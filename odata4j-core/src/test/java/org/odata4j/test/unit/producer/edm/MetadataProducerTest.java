@@ -0,0 +1,147 @@
+package org.odata4j.test.unit.producer.edm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.core4j.Func;
+import org.junit.Before;
+import org.junit.Test;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.InlineCount;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.edm.Edm;
+import org.odata4j.producer.edm.MetadataProducer;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.resources.OptionsQueryParser;
+
+public class MetadataProducerTest {
+
+  private InMemoryProducer producer;
+
+  @Before
+  public void setup() {
+    producer = new InMemoryProducer("MetadataProducerTest");
+    producer.register(Item.class, "Items", new Func<Iterable<Item>>() {
+      @Override
+      public Iterable<Item> apply() {
+        return Collections.emptyList();
+      }
+    }, "Id");
+    producer.register(Owner.class, "Owners", new Func<Iterable<Owner>>() {
+      @Override
+      public Iterable<Owner> apply() {
+        return Collections.emptyList();
+      }
+    }, "Name");
+  }
+
+  @Test
+  public void equalityFilters() {
+    assertEquals("[Items.Price]", properties(filter("Name eq 'Price'")));
+    assertEquals("[Items.Name, Owners.Name]", properties(filter("'Name' eq Name")));
+    assertEquals("[Owners.Name]", properties(filter("EntityTypeName eq 'Owners' and (Name eq 'Name')")));
+    assertEquals("[]", properties(filter("Name eq 'Id' and Name eq 'Price'")));
+    assertEquals("[]", properties(filter("Name eq 'Unknown'")));
+  }
+
+  @Test
+  public void residualFilter() {
+    assertEquals("[Items.Name, Items.Price]", properties(filter("EntityTypeName eq 'Items' and Name ne 'Id'")));
+    assertEquals("[Items.Id, Owners.City]", properties(filter("Name eq 'Id' or Name eq 'City'")));
+  }
+
+  @Test
+  public void entityTypes() {
+    EntitiesResponse response = producer.getMetadataProducer().getEntities(null, Edm.EntitySets.EntityTypes,
+        QueryInfo.newBuilder().setFilter(OptionsQueryParser.parseFilter("Namespace eq 'MetadataProducerTest' and Name eq 'Owners'")).build());
+    assertEquals(1, response.getEntities().size());
+    assertEquals("Owners", response.getEntities().get(0).getProperty(Edm.EntityType.Name).getValue());
+
+    OEntityKey key = OEntityKey.create(Edm.EntityType.Namespace, "MetadataProducerTest", Edm.EntityType.Name, "Items");
+    OEntity item = producer.getMetadataProducer().getEntity(null, Edm.EntitySets.RootEntityTypes, key, EntityQueryInfo.newBuilder().build()).getEntity();
+    assertEquals("Items", item.getProperty(Edm.EntityType.Name).getValue());
+  }
+
+  @Test
+  public void topAndSkip() {
+    QueryInfo queryInfo = QueryInfo.newBuilder().setSkip(1).setTop(2).setInlineCount(InlineCount.ALLPAGES).build();
+    EntitiesResponse response = producer.getMetadataProducer().getEntities(null, Edm.EntitySets.Properties, queryInfo);
+    assertEquals(allProperties().subList(1, 3), names(response));
+    assertEquals(Integer.valueOf(5), response.getInlineCount());
+    assertNull(response.getSkipToken());
+  }
+
+  @Test
+  public void skipTokenPaging() {
+    MetadataProducer metadataProducer = new MetadataProducer(producer, null, 2);
+    List<String> all = new ArrayList<String>();
+    String skipToken = null;
+    int pages = 0;
+    do {
+      EntitiesResponse response = metadataProducer.getEntities(null, Edm.EntitySets.Properties, QueryInfo.newBuilder().setSkipToken(skipToken).build());
+      all.addAll(names(response));
+      skipToken = response.getSkipToken();
+      pages++;
+    } while (skipToken != null);
+
+    assertEquals(3, pages);
+    assertEquals(allProperties(), all);
+  }
+
+  private static QueryInfo filter(String filter) {
+    return QueryInfo.newBuilder().setFilter(OptionsQueryParser.parseFilter(filter)).build();
+  }
+
+  /** Gets the names of the matching properties, sorted. */
+  private String properties(QueryInfo queryInfo) {
+    List<String> rt = names(producer.getMetadataProducer().getEntities(null, Edm.EntitySets.Properties, queryInfo));
+    Collections.sort(rt);
+    return rt.toString();
+  }
+
+  /** Gets the names of all properties, in the order of the metadata producer. */
+  private List<String> allProperties() {
+    return names(producer.getMetadataProducer().getEntities(null, Edm.EntitySets.Properties, QueryInfo.newBuilder().build()));
+  }
+
+  private static List<String> names(EntitiesResponse response) {
+    List<String> rt = new ArrayList<String>();
+    for (OEntity entity : response.getEntities())
+      rt.add(entity.getProperty(Edm.Property.EntityTypeName).getValue() + "." + entity.getProperty(Edm.Property.Name).getValue());
+    return rt;
+  }
+
+  public static class Item {
+
+    public int getId() {
+      return 0;
+    }
+
+    public String getName() {
+      return null;
+    }
+
+    public double getPrice() {
+      return 0;
+    }
+  }
+
+  public static class Owner {
+
+    public String getName() {
+      return null;
+    }
+
+    public String getCity() {
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,188 @@
+package org.odata4j.test.unit.producer.inmemory;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.core4j.Func;
+import org.junit.Before;
+import org.junit.Test;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.InlineCount;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.inmemory.InMemoryCountable;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.resources.OptionsQueryParser;
+
+public class InMemoryCountTest {
+
+  private InMemoryProducer producer;
+  private CountableSource source;
+  private final List<Child> children = new ArrayList<Child>();
+
+  @Before
+  public void setup() {
+    for (int i = 0; i < 10; i++)
+      children.add(new Child(i));
+
+    final List<Parent> parents = new ArrayList<Parent>();
+    Parent parent = new Parent("p0");
+    parent.getChildren().addAll(children.subList(0, 7));
+    parent.setFavorite(children.get(3));
+    parents.add(parent);
+    parents.add(new Parent("p1"));
+
+    source = new CountableSource(children);
+    producer = new InMemoryProducer("InMemoryCountTest");
+    producer.register(Child.class, "Children", source, "Id");
+    producer.register(Parent.class, "Parents", new Func<Iterable<Parent>>() {
+      @Override
+      public Iterable<Parent> apply() {
+        return parents;
+      }
+    }, "Name");
+  }
+
+  @Test
+  public void countableSourceIsNotIterated() {
+    assertEquals(10L, producer.getEntitiesCount(null, "Children", null).getCount());
+    assertEquals(5L, producer.getEntitiesCount(null, "Children", QueryInfo.newBuilder().setSkip(5).build()).getCount());
+    assertEquals(3L, producer.getEntitiesCount(null, "Children", QueryInfo.newBuilder().setSkip(5).setTop(3).build()).getCount());
+    assertEquals(0L, producer.getEntitiesCount(null, "Children", QueryInfo.newBuilder().setSkip(50).build()).getCount());
+    assertEquals(0, source.applied);
+  }
+
+  @Test
+  public void filteredCount() {
+    QueryInfo queryInfo = QueryInfo.newBuilder().setFilter(OptionsQueryParser.parseFilter("Id ge 4")).build();
+    assertEquals(6L, producer.getEntitiesCount(null, "Children", queryInfo).getCount());
+
+    queryInfo = QueryInfo.newBuilder().setFilter(OptionsQueryParser.parseFilter("Id ge 4")).setSkip(1).setTop(2).build();
+    assertEquals(2L, producer.getEntitiesCount(null, "Children", queryInfo).getCount());
+  }
+
+  @Test
+  public void filteredCountStopsAtTop() {
+    QueryInfo queryInfo = QueryInfo.newBuilder().setFilter(OptionsQueryParser.parseFilter("Id ge 0")).setSkip(1).setTop(2).build();
+    assertEquals(2L, producer.getEntitiesCount(null, "Children", queryInfo).getCount());
+    assertEquals(3, source.iterated);
+  }
+
+  @Test
+  public void inlineCount() {
+    QueryInfo queryInfo = QueryInfo.newBuilder().setInlineCount(InlineCount.ALLPAGES).setTop(2).build();
+    EntitiesResponse response = producer.getEntities(null, "Children", queryInfo);
+    assertEquals(Integer.valueOf(10), response.getInlineCount());
+    assertEquals(2, response.getEntities().size());
+
+    queryInfo = QueryInfo.newBuilder().setInlineCount(InlineCount.ALLPAGES).setFilter(OptionsQueryParser.parseFilter("Id lt 3")).build();
+    response = producer.getEntities(null, "Children", queryInfo);
+    assertEquals(Integer.valueOf(3), response.getInlineCount());
+    assertEquals(3, response.getEntities().size());
+  }
+
+  @Test
+  public void navPropertyCount() {
+    OEntityKey p0 = OEntityKey.create("p0");
+    OEntityKey p1 = OEntityKey.create("p1");
+    assertEquals(7L, producer.getNavPropertyCount(null, "Parents", p0, "Children", null).getCount());
+    assertEquals(0L, producer.getNavPropertyCount(null, "Parents", p1, "Children", null).getCount());
+
+    QueryInfo queryInfo = QueryInfo.newBuilder().setFilter(OptionsQueryParser.parseFilter("Id gt 4")).build();
+    assertEquals(2L, producer.getNavPropertyCount(null, "Parents", p0, "Children", queryInfo).getCount());
+    assertEquals(3L, producer.getNavPropertyCount(null, "Parents", p0, "Children", QueryInfo.newBuilder().setTop(3).build()).getCount());
+
+    assertEquals(1L, producer.getNavPropertyCount(null, "Parents", p0, "Favorite", null).getCount());
+    assertEquals(0L, producer.getNavPropertyCount(null, "Parents", p1, "Favorite", null).getCount());
+  }
+
+  private static class CountableSource implements Func<Iterable<Child>>, InMemoryCountable {
+    private final List<Child> children;
+    private int applied;
+    private int iterated;
+
+    CountableSource(List<Child> children) {
+      this.children = children;
+    }
+
+    @Override
+    public int count() {
+      return children.size();
+    }
+
+    @Override
+    public Iterable<Child> apply() {
+      applied++;
+      // not a collection, so counts have to iterate
+      return new Iterable<Child>() {
+        @Override
+        public Iterator<Child> iterator() {
+          final Iterator<Child> it = children.iterator();
+          return new Iterator<Child>() {
+            @Override
+            public boolean hasNext() {
+              return it.hasNext();
+            }
+
+            @Override
+            public Child next() {
+              iterated++;
+              return it.next();
+            }
+
+            @Override
+            public void remove() {
+              throw new UnsupportedOperationException();
+            }
+          };
+        }
+      };
+    }
+  }
+
+  public static class Parent {
+    private final String name;
+    private List<Child> children = new ArrayList<Child>();
+    private Child favorite;
+
+    public Parent(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public List<Child> getChildren() {
+      return children;
+    }
+
+    public void setChildren(List<Child> children) {
+      this.children = children;
+    }
+
+    public Child getFavorite() {
+      return favorite;
+    }
+
+    public void setFavorite(Child favorite) {
+      this.favorite = favorite;
+    }
+  }
+
+  public static class Child {
+    private final int id;
+
+    public Child(int id) {
+      this.id = id;
+    }
+
+    public int getId() {
+      return id;
+    }
+  }
+
+}
@@ -0,0 +1,145 @@
+package org.odata4j.test.unit.producer.inmemory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.core4j.Func;
+import org.junit.Before;
+import org.junit.Test;
+import org.odata4j.core.OEntity;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.resources.OptionsQueryParser;
+
+public class InMemoryOrderingTest {
+
+  private static final int COUNT = 50;
+
+  private InMemoryProducer producer;
+
+  @Before
+  public void setup() {
+    final List<Item> items = new ArrayList<Item>();
+    for (int i = 0; i < COUNT; i++)
+      items.add(new Item(i, "g" + (i % 3), i % 5 == 0 ? null : Integer.valueOf((i * 7) % 11)));
+
+    producer = new InMemoryProducer("InMemoryOrderingTest", 10);
+    producer.register(Item.class, "Items", new Func<Iterable<Item>>() {
+      @Override
+      public Iterable<Item> apply() {
+        return items;
+      }
+    }, "Id");
+  }
+
+  @Test
+  public void multipleKeys() {
+    List<Integer> ids = ids(query("Group desc,Value,Id desc", null, null, null));
+    List<Integer> expected = expected(COUNT);
+    assertEquals(expected.subList(0, 10), ids);
+  }
+
+  @Test
+  public void topAndSkip() {
+    List<Integer> expected = expected(COUNT);
+    assertEquals(expected.subList(0, 5), ids(query("Group desc,Value,Id desc", 5, null, null)));
+    assertEquals(expected.subList(7, 12), ids(query("Group desc,Value,Id desc", 5, 7, null)));
+    assertEquals(expected.subList(48, 50), ids(query("Group desc,Value,Id desc", 5, 48, null)));
+    assertEquals(0, query("Group desc,Value,Id desc", 0, null, null).getEntities().size());
+  }
+
+  @Test
+  public void tiesKeepSourceOrder() {
+    List<Integer> ids = ids(query("Group", 3, null, null));
+    assertEquals(0, (int) ids.get(0));
+    assertEquals(3, (int) ids.get(1));
+    assertEquals(6, (int) ids.get(2));
+  }
+
+  @Test
+  public void pagesWithSkipToken() {
+    List<Integer> all = new ArrayList<Integer>();
+    String skipToken = null;
+    do {
+      EntitiesResponse response = query("Group desc,Value,Id desc", null, null, skipToken);
+      all.addAll(ids(response));
+      skipToken = response.getSkipToken();
+    } while (skipToken != null);
+    assertEquals(expected(COUNT), all);
+  }
+
+  @Test
+  public void lastPageHasNoSkipToken() {
+    EntitiesResponse response = query("Id", null, 40, null);
+    assertEquals(10, response.getEntities().size());
+    assertNull(response.getSkipToken());
+
+    response = query("Id", null, 39, null);
+    assertEquals(10, response.getEntities().size());
+    assertNotNull(response.getSkipToken());
+  }
+
+  private EntitiesResponse query(String orderBy, Integer top, Integer skip, String skipToken) {
+    QueryInfo queryInfo = QueryInfo.newBuilder()
+        .setOrderBy(OptionsQueryParser.parseOrderBy(orderBy))
+        .setTop(top)
+        .setSkip(skip)
+        .setSkipToken(skipToken)
+        .build();
+    return producer.getEntities(null, "Items", queryInfo);
+  }
+
+  private static List<Integer> ids(EntitiesResponse response) {
+    List<Integer> ids = new ArrayList<Integer>();
+    for (OEntity entity : response.getEntities())
+      ids.add((Integer) entity.getProperty("Id").getValue());
+    return ids;
+  }
+
+  // brute force order for "Group desc,Value,Id desc", nulls first
+  private static List<Integer> expected(int count) {
+    List<Integer> rt = new ArrayList<Integer>();
+    for (int group = 2; group >= 0; group--) {
+      for (int value = -1; value < 11; value++) {
+        for (int i = count - 1; i >= 0; i--) {
+          if (i % 3 != group)
+            continue;
+          int v = i % 5 == 0 ? -1 : (i * 7) % 11;
+          if (v == value)
+            rt.add(i);
+        }
+      }
+    }
+    return rt;
+  }
+
+  public static class Item {
+    private final int id;
+    private final String group;
+    private final Integer value;
+
+    public Item(int id, String group, Integer value) {
+      this.id = id;
+      this.group = group;
+      this.value = value;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public String getGroup() {
+      return group;
+    }
+
+    public Integer getValue() {
+      return value;
+    }
+  }
+
+}
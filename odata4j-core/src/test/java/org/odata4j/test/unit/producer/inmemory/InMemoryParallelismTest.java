@@ -0,0 +1,202 @@
+package org.odata4j.test.unit.producer.inmemory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.core4j.Func;
+import org.core4j.Func1;
+import org.core4j.Predicate1;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OLink;
+import org.odata4j.core.OProperty;
+import org.odata4j.core.ORelatedEntityLinkInline;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.InlineCount;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.inmemory.InMemoryParallelism;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.resources.OptionsQueryParser;
+
+public class InMemoryParallelismTest {
+
+  private static final int COUNT = 5000;
+
+  private ExecutorService executor;
+  private InMemoryProducer sequential;
+  private InMemoryProducer parallel;
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(4);
+    sequential = newProducer();
+    parallel = newProducer();
+    parallel.setParallelism(new InMemoryParallelism(executor, 100), 1000);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void sameResultsAsSequential() {
+    assertSameResults(QueryInfo.newBuilder().build());
+    assertSameResults(QueryInfo.newBuilder().setFilter(OptionsQueryParser.parseFilter("Value lt 30")).build());
+    assertSameResults(QueryInfo.newBuilder()
+        .setFilter(OptionsQueryParser.parseFilter("Value lt 30"))
+        .setInlineCount(InlineCount.ALLPAGES)
+        .setSkip(17)
+        .setTop(50)
+        .build());
+    assertSameResults(QueryInfo.newBuilder()
+        .setFilter(OptionsQueryParser.parseFilter("Value ge 50"))
+        .setOrderBy(OptionsQueryParser.parseOrderBy("Value desc"))
+        .setSkip(5)
+        .build());
+  }
+
+  @Test
+  public void pagesWithSkipToken() {
+    String skipToken = null;
+    do {
+      QueryInfo queryInfo = QueryInfo.newBuilder()
+          .setFilter(OptionsQueryParser.parseFilter("Value lt 10"))
+          .setSkipToken(skipToken)
+          .build();
+      EntitiesResponse expected = sequential.getEntities(null, "Items", queryInfo);
+      assertSameResults(queryInfo);
+      skipToken = expected.getSkipToken();
+    } while (skipToken != null);
+  }
+
+  @Test
+  public void expandAndSelect() {
+    for (int skip = 0; skip < COUNT; skip += 1000) {
+      QueryInfo queryInfo = QueryInfo.newBuilder()
+          .setExpand(OptionsQueryParser.parseExpand("Parent"))
+          .setSelect(OptionsQueryParser.parseSelect("Id,Parent"))
+          .setSkip(skip)
+          .build();
+      assertEquals(shapes(sequential.getEntities(null, "Items", queryInfo)), shapes(parallel.getEntities(null, "Items", queryInfo)));
+    }
+  }
+
+  @Test
+  public void filterKeepsOrder() {
+    List<Integer> list = new ArrayList<Integer>();
+    for (int i = 0; i < COUNT; i++)
+      list.add(i);
+    List<Integer> even = new InMemoryParallelism(executor, 10).filter(list, new Predicate1<Integer>() {
+      @Override
+      public boolean apply(Integer input) {
+        return input % 2 == 0;
+      }
+    });
+    assertEquals(COUNT / 2, even.size());
+    for (int i = 0; i < even.size(); i++)
+      assertEquals(i * 2, (int) even.get(i));
+  }
+
+  @Test
+  public void exceptionsArePropagated() {
+    List<Integer> list = new ArrayList<Integer>();
+    for (int i = 0; i < COUNT; i++)
+      list.add(i);
+    try {
+      new InMemoryParallelism(executor, 10).select(list, new Func1<Integer, Integer>() {
+        @Override
+        public Integer apply(Integer input) {
+          if (input == COUNT - 1)
+            throw new IllegalStateException("boom");
+          return input;
+        }
+      });
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("boom", e.getMessage());
+    }
+  }
+
+  private void assertSameResults(QueryInfo queryInfo) {
+    EntitiesResponse expected = sequential.getEntities(null, "Items", queryInfo);
+    EntitiesResponse actual = parallel.getEntities(null, "Items", queryInfo);
+    assertEquals(ids(expected), ids(actual));
+    assertEquals(expected.getInlineCount(), actual.getInlineCount());
+    assertEquals(expected.getSkipToken(), actual.getSkipToken());
+  }
+
+  private static List<Integer> ids(EntitiesResponse response) {
+    List<Integer> ids = new ArrayList<Integer>();
+    for (OEntity entity : response.getEntities())
+      ids.add((Integer) entity.getProperty("Id").getValue());
+    return ids;
+  }
+
+  private static List<String> shapes(EntitiesResponse response) {
+    List<String> shapes = new ArrayList<String>();
+    for (OEntity entity : response.getEntities()) {
+      StringBuilder shape = new StringBuilder(shape(entity));
+      for (OLink link : entity.getLinks()) {
+        OEntity related = ((ORelatedEntityLinkInline) link).getRelatedEntity();
+        shape.append(" ").append(link.getTitle()).append("=").append(related == null ? null : shape(related));
+      }
+      shapes.add(shape.toString());
+    }
+    return shapes;
+  }
+
+  private static String shape(OEntity entity) {
+    List<String> properties = new ArrayList<String>();
+    for (OProperty<?> property : entity.getProperties())
+      properties.add(property.getName() + ":" + property.getValue());
+    return properties.toString();
+  }
+
+  private static InMemoryProducer newProducer() {
+    final List<Item> items = new ArrayList<Item>();
+    for (int i = 0; i < COUNT; i++)
+      items.add(new Item(i, (i * 31) % 100, i == 0 ? null : items.get(i / 2)));
+
+    InMemoryProducer producer = new InMemoryProducer("InMemoryParallelismTest", 200);
+    producer.register(Item.class, "Items", new Func<Iterable<Item>>() {
+      @Override
+      public Iterable<Item> apply() {
+        return items;
+      }
+    }, "Id");
+    return producer;
+  }
+
+  public static class Item {
+    private final int id;
+    private final int value;
+    private final Item parent;
+
+    public Item(int id, int value, Item parent) {
+      this.id = id;
+      this.value = value;
+      this.parent = parent;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public int getValue() {
+      return value;
+    }
+
+    public Item getParent() {
+      return parent;
+    }
+  }
+
+}
@@ -0,0 +1,241 @@
+package org.odata4j.test.unit.producer.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.core4j.ThrowingFunc1;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.odata4j.core.OEntities;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.core.OLink;
+import org.odata4j.core.OProperties;
+import org.odata4j.core.OProperty;
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.exceptions.BadRequestException;
+import org.odata4j.exceptions.ServerErrorException;
+import org.odata4j.producer.ChangeSetExtension;
+import org.odata4j.producer.EntityResponse;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.jdbc.Jdbc;
+import org.odata4j.producer.jdbc.JdbcProducer;
+
+public class JdbcChangeSetTest {
+
+  private static final String ITEM = "ITEM";
+
+  private final List<String> preparedSql = new ArrayList<String>();
+  private SQLException writeFailure;
+
+  /** Records the SQL of the statements prepared for writes, and fails them with the write failure if set. */
+  private final Jdbc db = new Jdbc("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:changeset", "sa", "") {
+    @Override
+    public <T> T execute(final ThrowingFunc1<Connection, T> execute) {
+      return super.execute(new ThrowingFunc1<Connection, T>() {
+        @Override
+        public T apply(final Connection conn) throws Exception {
+          Connection recording = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+              if (method.getName().equals("prepareStatement") && !((String) args[0]).startsWith("SELECT")) {
+                preparedSql.add((String) args[0]);
+                if (writeFailure != null)
+                  throw writeFailure;
+              }
+              try {
+                return method.invoke(conn, args);
+              } catch (InvocationTargetException e) {
+                throw e.getCause();
+              }
+            }
+          });
+          return execute.apply(recording);
+        }
+      });
+    }
+  };
+
+  private JdbcProducer producer;
+  private ChangeSetExtension changeSet;
+  private EdmEntitySet entitySet;
+
+  @Before
+  public void setUp() {
+    db.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        conn.createStatement().execute("CREATE TABLE ITEM (ITEM_ID INTEGER NOT NULL, NAME VARCHAR(25) NOT NULL, QTY INTEGER, PRIMARY KEY (ITEM_ID))");
+        conn.createStatement().execute("INSERT INTO ITEM VALUES (1, 'one', 10)");
+        conn.createStatement().execute("INSERT INTO ITEM VALUES (2, 'two', 20)");
+        return null;
+      }
+    });
+    producer = JdbcProducer.newBuilder().jdbc(db).build();
+    changeSet = producer.findExtension(ChangeSetExtension.class);
+    entitySet = producer.getMetadata().findEdmEntitySet(ITEM);
+  }
+
+  @After
+  public void tearDown() {
+    producer.close();
+    db.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        conn.createStatement().execute("DROP TABLE ITEM");
+        return null;
+      }
+    });
+  }
+
+  @Test
+  public void updateAndMerge() {
+    producer.mergeEntity(null, ITEM, item(1, null, 11));
+    assertEquals("[1: one 11, 2: two 20]", items());
+    assertEquals("UPDATE ITEM SET QTY = ? WHERE ITEM_ID = ?", preparedSql.get(0));
+
+    producer.updateEntity(null, ITEM, item(2, "deux", null));
+    assertEquals("[1: one 11, 2: deux null]", items());
+    assertEquals("UPDATE ITEM SET NAME = ?, QTY = ? WHERE ITEM_ID = ?", preparedSql.get(1));
+
+    try {
+      producer.mergeEntity(null, ITEM, item(3, "three", null));
+      fail();
+    } catch (BadRequestException e) {
+      assertEquals("Entity not updated", e.getMessage());
+    }
+  }
+
+  @Test
+  public void changeSetIsBatched() {
+    changeSet.beginChangeSet(null);
+    EntityResponse created = producer.createEntity(null, ITEM, OEntities.createRequest(entitySet, properties(3, "three", 30), null));
+    producer.createEntity(null, ITEM, OEntities.createRequest(entitySet, properties(4, "four", 40), null));
+    producer.createEntity(null, ITEM, OEntities.createRequest(entitySet, properties(5, "five", 50), null));
+    producer.mergeEntity(null, ITEM, item(1, null, 12));
+    producer.mergeEntity(null, ITEM, item(3, null, 33));
+    producer.deleteEntity(null, ITEM, OEntityKey.create(2));
+
+    // nothing is written before the commit
+    assertEquals(OEntityKey.create(3), created.getEntity().getEntityKey());
+    assertEquals("[1: one 10, 2: two 20]", items());
+    assertEquals(0, preparedSql.size());
+
+    changeSet.commitChangeSet(null);
+    assertEquals("[1: one 12, 3: three 33, 4: four 40, 5: five 50]", items());
+    assertEquals(3, preparedSql.size());
+    assertEquals("INSERT INTO ITEM(ITEM_ID, NAME, QTY) VALUES (?, ?, ?)", preparedSql.get(0));
+    assertEquals("UPDATE ITEM SET QTY = ? WHERE ITEM_ID = ?", preparedSql.get(1));
+    assertEquals("DELETE FROM ITEM WHERE ITEM_ID = ?", preparedSql.get(2));
+
+    // the next writes are executed immediately
+    producer.deleteEntity(null, ITEM, OEntityKey.create(5));
+    assertEquals("[1: one 12, 3: three 33, 4: four 40]", items());
+  }
+
+  @Test
+  public void failedChangeSetIsRolledBack() {
+    changeSet.beginChangeSet(null);
+    producer.createEntity(null, ITEM, OEntities.createRequest(entitySet, properties(3, "three", 30), null));
+    producer.mergeEntity(null, ITEM, item(1, null, 11));
+    producer.deleteEntity(null, ITEM, OEntityKey.create(9));
+    try {
+      changeSet.commitChangeSet(null);
+      fail();
+    } catch (BadRequestException e) {
+      assertEquals("Entity not deleted", e.getMessage());
+    }
+    assertEquals("[1: one 10, 2: two 20]", items());
+
+    changeSet.beginChangeSet(null);
+    producer.createEntity(null, ITEM, OEntities.createRequest(entitySet, properties(1, "duplicate", 0), null));
+    try {
+      changeSet.commitChangeSet(null);
+      fail();
+    } catch (BadRequestException e) {
+      assertNotNull(e.getCause());
+    }
+    assertEquals("[1: one 10, 2: two 20]", items());
+  }
+
+  @Test
+  public void createInChangeSetNeedsKey() {
+    changeSet.beginChangeSet(null);
+    List<OProperty<?>> properties = properties(3, "three", 30);
+    properties.remove(0);
+    try {
+      producer.createEntity(null, ITEM, OEntities.createRequest(entitySet, properties, null));
+      fail();
+    } catch (BadRequestException e) {
+      assertEquals("Entities created in a change set need their key", e.getMessage());
+    }
+    changeSet.rollbackChangeSet(null);
+  }
+
+  @Test
+  public void serverFailureIsNotBadRequest() {
+    changeSet.beginChangeSet(null);
+    producer.mergeEntity(null, ITEM, item(1, null, 11));
+    writeFailure = new SQLException("Connection lost", "08006");
+    try {
+      changeSet.commitChangeSet(null);
+      fail();
+    } catch (ServerErrorException e) {
+      assertEquals(writeFailure, e.getCause());
+    }
+    writeFailure = null;
+    assertEquals("[1: one 10, 2: two 20]", items());
+  }
+
+  @Test
+  public void rolledBackChangeSetIsDiscarded() {
+    changeSet.beginChangeSet(null);
+    producer.deleteEntity(null, ITEM, OEntityKey.create(1));
+    changeSet.rollbackChangeSet(null);
+    changeSet.rollbackChangeSet(null);
+
+    changeSet.beginChangeSet(null);
+    changeSet.commitChangeSet(null);
+    assertEquals("[1: one 10, 2: two 20]", items());
+    assertEquals(0, preparedSql.size());
+  }
+
+  private OEntity item(int id, String name, Integer qty) {
+    List<OProperty<?>> properties = new ArrayList<OProperty<?>>();
+    if (name != null)
+      properties.add(OProperties.string("NAME", name));
+    if (qty != null)
+      properties.add(OProperties.int32("QTY", qty));
+    return OEntities.create(entitySet, OEntityKey.create(id), properties, Collections.<OLink> emptyList());
+  }
+
+  private static List<OProperty<?>> properties(int id, String name, int qty) {
+    List<OProperty<?>> properties = new ArrayList<OProperty<?>>();
+    properties.add(OProperties.int32("ITEM_ID", id));
+    properties.add(OProperties.string("NAME", name));
+    properties.add(OProperties.int32("QTY", qty));
+    return properties;
+  }
+
+  private String items() {
+    List<String> rt = new ArrayList<String>();
+    for (OEntity entity : producer.getEntities(null, ITEM, QueryInfo.newBuilder().build()).getEntities()) {
+      rt.add(entity.getEntityKey().asSingleValue() + ": " + entity.getProperty("NAME").getValue() + " " + entity.getProperty("QTY").getValue());
+    }
+    Collections.sort(rt);
+    return rt.toString();
+  }
+
+}
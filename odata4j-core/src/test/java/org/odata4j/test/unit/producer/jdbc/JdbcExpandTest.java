@@ -0,0 +1,219 @@
+package org.odata4j.test.unit.producer.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.core4j.ThrowingFunc1;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.core.ORelatedEntitiesLinkInline;
+import org.odata4j.core.ORelatedEntityLinkInline;
+import org.odata4j.edm.EdmAssociation;
+import org.odata4j.edm.EdmDataServices;
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmEntityType;
+import org.odata4j.edm.EdmMultiplicity;
+import org.odata4j.edm.EdmNavigationProperty;
+import org.odata4j.edm.EdmProperty;
+import org.odata4j.exceptions.BadRequestException;
+import org.odata4j.expression.BoolCommonExpression;
+import org.odata4j.expression.ExpressionParser;
+import org.odata4j.format.xml.EdmxFormatWriter;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.jdbc.GenerateSqlQuery;
+import org.odata4j.producer.jdbc.Jdbc;
+import org.odata4j.producer.jdbc.JdbcMetadataMapping;
+import org.odata4j.producer.jdbc.JdbcProducer;
+import org.odata4j.producer.jdbc.SqlStatement;
+
+public class JdbcExpandTest {
+
+  private static final Jdbc DB = new Jdbc("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:expand", "sa", "");
+
+  private static JdbcProducer producer;
+  private static CapturingGenerateSqlQuery queryGen = new CapturingGenerateSqlQuery();
+
+  private static class CapturingGenerateSqlQuery extends GenerateSqlQuery {
+
+    List<String> sql = new ArrayList<String>();
+
+    @Override
+    public SqlStatement generate(JdbcMetadataMapping mapping, EdmEntitySet entitySet, Iterable<EdmProperty> properties, BoolCommonExpression filter) {
+      SqlStatement statement = super.generate(mapping, entitySet, properties, filter);
+      sql.add(statement.sql);
+      return statement;
+    }
+
+    @Override
+    public SqlStatement generate(JdbcMetadataMapping mapping, EdmEntitySet entitySet, Iterable<EdmProperty> properties,
+        List<EdmProperty> keyProperties, List<List<Object>> keyValues) {
+      SqlStatement statement = super.generate(mapping, entitySet, properties, keyProperties, keyValues);
+      sql.add(statement.sql);
+      return statement;
+    }
+  }
+
+  @BeforeClass
+  public static void setupClass() {
+    DB.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        conn.createStatement().execute("CREATE TABLE CUSTOMER (CUSTOMER_ID INTEGER NOT NULL, NAME VARCHAR(25) NOT NULL, PRIMARY KEY (CUSTOMER_ID))");
+        conn.createStatement().execute("CREATE TABLE ORDERS (ORDER_ID INTEGER NOT NULL, CUSTOMER_ID INTEGER, PRIMARY KEY (ORDER_ID), "
+            + "CONSTRAINT FK_ORDERS_CUSTOMER FOREIGN KEY (CUSTOMER_ID) REFERENCES CUSTOMER (CUSTOMER_ID))");
+        conn.createStatement().execute("CREATE TABLE ORDER_LINE (ORDER_ID INTEGER NOT NULL, LINE_NO INTEGER NOT NULL, PRODUCT VARCHAR(25) NOT NULL, "
+            + "PRIMARY KEY (ORDER_ID, LINE_NO), CONSTRAINT FK_LINE_ORDERS FOREIGN KEY (ORDER_ID) REFERENCES ORDERS (ORDER_ID))");
+        conn.createStatement().execute("CREATE TABLE EMPLOYEE (EMPLOYEE_ID INTEGER NOT NULL, MANAGER_ID INTEGER, PRIMARY KEY (EMPLOYEE_ID), "
+            + "CONSTRAINT FK_EMPLOYEE_MANAGER FOREIGN KEY (MANAGER_ID) REFERENCES EMPLOYEE (EMPLOYEE_ID))");
+        conn.createStatement().execute("INSERT INTO CUSTOMER VALUES (1, 'Alice')");
+        conn.createStatement().execute("INSERT INTO CUSTOMER VALUES (2, 'Bob')");
+        conn.createStatement().execute("INSERT INTO CUSTOMER VALUES (3, 'Carol')");
+        conn.createStatement().execute("INSERT INTO ORDERS VALUES (10, 1)");
+        conn.createStatement().execute("INSERT INTO ORDERS VALUES (11, 1)");
+        conn.createStatement().execute("INSERT INTO ORDERS VALUES (20, 2)");
+        conn.createStatement().execute("INSERT INTO ORDERS VALUES (30, NULL)");
+        conn.createStatement().execute("INSERT INTO ORDER_LINE VALUES (10, 1, 'apple')");
+        conn.createStatement().execute("INSERT INTO ORDER_LINE VALUES (10, 2, 'pear')");
+        conn.createStatement().execute("INSERT INTO ORDER_LINE VALUES (20, 1, 'plum')");
+        return null;
+      }
+    });
+    producer = JdbcProducer.newBuilder()
+        .jdbc(DB)
+        .register(GenerateSqlQuery.class, queryGen)
+        .build();
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    producer.close();
+    DB.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        conn.createStatement().execute("DROP TABLE ORDER_LINE");
+        conn.createStatement().execute("DROP TABLE ORDERS");
+        conn.createStatement().execute("DROP TABLE CUSTOMER");
+        conn.createStatement().execute("DROP TABLE EMPLOYEE");
+        return null;
+      }
+    });
+  }
+
+  @Before
+  public void setUp() {
+    queryGen.sql.clear();
+  }
+
+  @Test
+  public void associationsFromForeignKeys() {
+    EdmDataServices metadata = producer.getMetadata();
+    EdmEntityType customer = metadata.findEdmEntitySet("CUSTOMER").getType();
+    EdmEntityType orders = metadata.findEdmEntitySet("ORDERS").getType();
+
+    EdmNavigationProperty customerOrders = customer.findNavigationProperty("ORDERS");
+    assertEquals(EdmMultiplicity.MANY, customerOrders.getToRole().getMultiplicity());
+    EdmNavigationProperty orderCustomer = orders.findNavigationProperty("CUSTOMER");
+    assertEquals(EdmMultiplicity.ZERO_TO_ONE, orderCustomer.getToRole().getMultiplicity());
+    assertEquals(EdmMultiplicity.ONE, metadata.findEdmEntitySet("ORDER_LINE").getType().findNavigationProperty("ORDERS").getToRole().getMultiplicity());
+
+    EdmAssociation association = orderCustomer.getRelationship();
+    assertEquals("FK_ORDERS_CUSTOMER", association.getName());
+    assertEquals("CUSTOMER", association.getRefConstraint().getPrincipalRole());
+    assertEquals("[CUSTOMER_ID]", association.getRefConstraint().getDependentReferences().toString());
+    assertNotNull(metadata.findEdmAssociationSet("FK_ORDERS_CUSTOMER"));
+
+    // a self reference gets a navigation property for each direction
+    EdmEntityType employee = metadata.findEdmEntitySet("EMPLOYEE").getType();
+    assertEquals(EdmMultiplicity.ZERO_TO_ONE, employee.findNavigationProperty("EMPLOYEE").getToRole().getMultiplicity());
+    assertEquals(EdmMultiplicity.MANY, employee.findNavigationProperty("EMPLOYEE1").getToRole().getMultiplicity());
+
+    StringWriter edmx = new StringWriter();
+    EdmxFormatWriter.write(metadata, edmx);
+    assertTrue(edmx.toString().contains("<NavigationProperty Name=\"ORDERS\""));
+  }
+
+  @Test
+  public void expandOneQueryPerLevel() {
+    List<OEntity> customers = producer.getEntities(null, "CUSTOMER", query("ORDERS/ORDER_LINE", null)).getEntities();
+    assertEquals(3, customers.size());
+    assertEquals(3, queryGen.sql.size());
+    assertEquals("SELECT ORDER_ID, CUSTOMER_ID FROM ORDERS WHERE CUSTOMER_ID IN (?, ?, ?)", queryGen.sql.get(1));
+    assertEquals("SELECT ORDER_ID, LINE_NO, PRODUCT FROM ORDER_LINE WHERE ORDER_ID IN (?, ?, ?)", queryGen.sql.get(2));
+
+    assertEquals("[10: [apple, pear], 11: []]", orders(customers.get(0)));
+    assertEquals("[20: [plum]]", orders(customers.get(1)));
+    assertEquals("[]", orders(customers.get(2)));
+  }
+
+  @Test
+  public void expandToOne() {
+    List<OEntity> orders = producer.getEntities(null, "ORDERS", query("CUSTOMER", "ORDER_ID,CUSTOMER")).getEntities();
+    assertEquals("SELECT ORDER_ID, CUSTOMER_ID FROM ORDERS", queryGen.sql.get(0));
+    assertEquals("SELECT CUSTOMER_ID, NAME FROM CUSTOMER WHERE CUSTOMER_ID IN (?, ?)", queryGen.sql.get(1));
+
+    assertEquals(4, orders.size());
+    OEntity order = orders.get(0);
+    assertEquals(1, order.getProperties().size());
+    assertEquals("Alice", order.getLink("CUSTOMER", ORelatedEntityLinkInline.class).getRelatedEntity().getProperty("NAME").getValue());
+    assertEquals("Alice", orders.get(1).getLink("CUSTOMER", ORelatedEntityLinkInline.class).getRelatedEntity().getProperty("NAME").getValue());
+    assertNull(orders.get(3).getLink("CUSTOMER", ORelatedEntityLinkInline.class).getRelatedEntity());
+  }
+
+  @Test
+  public void expandNotSelected() {
+    List<OEntity> orders = producer.getEntities(null, "ORDERS", query("CUSTOMER", "ORDER_ID")).getEntities();
+    assertEquals(1, queryGen.sql.size());
+    assertTrue(orders.get(0).getLinks().isEmpty());
+  }
+
+  @Test
+  public void expandEntity() {
+    EntityQueryInfo query = new EntityQueryInfo(null, null, ExpressionParser.parseExpand("ORDERS"), null);
+    OEntity customer = producer.getEntity(null, "CUSTOMER", OEntityKey.create(2), query).getEntity();
+    assertEquals("Bob", customer.getProperty("NAME").getValue());
+    assertEquals("SELECT ORDER_ID, CUSTOMER_ID FROM ORDERS WHERE CUSTOMER_ID IN (?)", queryGen.sql.get(1));
+    assertEquals(1, customer.getLink("ORDERS", ORelatedEntitiesLinkInline.class).getRelatedEntities().size());
+  }
+
+  @Test
+  public void unknownNavigationProperty() {
+    try {
+      producer.getEntities(null, "CUSTOMER", query("INVOICES", null));
+      fail();
+    } catch (BadRequestException e) {
+      assertEquals("Unknown navigation property INVOICES", e.getMessage());
+    }
+  }
+
+  private static String orders(OEntity customer) {
+    List<String> rt = new ArrayList<String>();
+    for (OEntity order : customer.getLink("ORDERS", ORelatedEntitiesLinkInline.class).getRelatedEntities()) {
+      List<Object> products = new ArrayList<Object>();
+      for (OEntity line : order.getLink("ORDER_LINE", ORelatedEntitiesLinkInline.class).getRelatedEntities())
+        products.add(line.getProperty("PRODUCT").getValue());
+      rt.add(order.getEntityKey().asSingleValue() + ": " + products);
+    }
+    return rt.toString();
+  }
+
+  private static QueryInfo query(String expand, String select) {
+    QueryInfo.Builder query = QueryInfo.newBuilder().setExpand(ExpressionParser.parseExpand(expand));
+    if (select != null)
+      query.setSelect(ExpressionParser.parseExpand(select));
+    return query.build();
+  }
+
+}
@@ -0,0 +1,189 @@
+package org.odata4j.test.unit.producer.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.core4j.ThrowingFunc1;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmProperty;
+import org.odata4j.expression.BoolCommonExpression;
+import org.odata4j.expression.Expression;
+import org.odata4j.expression.ExpressionParser;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.jdbc.GenerateSqlQuery;
+import org.odata4j.producer.jdbc.GenerateWhereClause;
+import org.odata4j.producer.jdbc.Jdbc;
+import org.odata4j.producer.jdbc.JdbcFilterPlanner;
+import org.odata4j.producer.jdbc.JdbcFilterPlanner.FilterPlan;
+import org.odata4j.producer.jdbc.JdbcMetadataMapping;
+import org.odata4j.producer.jdbc.JdbcProducer;
+import org.odata4j.producer.jdbc.SqlStatement;
+
+public class JdbcFilterTest {
+
+  private static final Jdbc DB = new Jdbc("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:filter", "sa", "");
+
+  private static JdbcProducer producer;
+  private static CapturingGenerateSqlQuery queryGen = new CapturingGenerateSqlQuery();
+
+  private static class CapturingGenerateSqlQuery extends GenerateSqlQuery {
+
+    JdbcMetadataMapping mapping;
+    EdmEntitySet entitySet;
+    String sql;
+    List<Object> params = new ArrayList<Object>();
+
+    @Override
+    public SqlStatement generate(JdbcMetadataMapping mapping, EdmEntitySet entitySet, Iterable<EdmProperty> properties, BoolCommonExpression filter) {
+      SqlStatement statement = super.generate(mapping, entitySet, properties, filter);
+      this.mapping = mapping;
+      this.entitySet = entitySet;
+      sql = statement.sql;
+      params.clear();
+      for (SqlStatement.SqlParameter param : statement.params)
+        params.add(param.value);
+      return statement;
+    }
+  }
+
+  @BeforeClass
+  public static void setupClass() {
+    DB.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        conn.createStatement().execute("CREATE TABLE EVENT (EVENT_ID INTEGER NOT NULL, NAME VARCHAR(25) NOT NULL, CATEGORY VARCHAR(25), HAPPENED TIMESTAMP NOT NULL, PRIMARY KEY (EVENT_ID))");
+        conn.createStatement().execute("INSERT INTO EVENT VALUES (1, 'Alpha', 'x', '2011-03-04 10:20:30')");
+        conn.createStatement().execute("INSERT INTO EVENT VALUES (2, 'Alps_x', 'y', '2012-01-01 00:00:00')");
+        conn.createStatement().execute("INSERT INTO EVENT VALUES (3, 'Beta 100%', 'x', '2011-12-31 23:59:59')");
+        conn.createStatement().execute("INSERT INTO EVENT VALUES (4, 'Zulu', NULL, '2010-06-15 12:00:00')");
+        return null;
+      }
+    });
+    producer = JdbcProducer.newBuilder()
+        .jdbc(DB)
+        .register(GenerateSqlQuery.class, queryGen)
+        .build();
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    producer.close();
+    DB.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        conn.createStatement().execute("DROP TABLE EVENT");
+        return null;
+      }
+    });
+  }
+
+  @Test
+  public void likeEscapesPattern() {
+    assertEquals("[2]", query("endswith(NAME, '_x')", "EVENT_ID"));
+    assertEquals("SELECT EVENT_ID FROM EVENT WHERE NAME LIKE ? ESCAPE '\\'", queryGen.sql);
+    assertEquals("%\\_x", queryGen.params.get(0));
+
+    assertEquals("[3]", query("substringof('0%', NAME)", "EVENT_ID"));
+    assertEquals("%0\\%%", queryGen.params.get(0));
+  }
+
+  @Test
+  public void likeEscapeOverridable() {
+    query("EVENT_ID gt 0", "EVENT_ID");
+    GenerateSqlQuery bangEscape = new GenerateSqlQuery() {
+      @Override
+      public GenerateWhereClause newWhereClauseGenerator(EdmEntitySet entitySet, JdbcMetadataMapping mapping) {
+        return new GenerateWhereClause(entitySet, mapping) {
+          @Override
+          protected char getLikeEscape() {
+            return '!';
+          }
+        };
+      }
+    };
+    SqlStatement statement = bangEscape.generate(queryGen.mapping, queryGen.entitySet, queryGen.entitySet.getType().getProperties(), parse("startswith(NAME, '!1_')"));
+    assertEquals("SELECT EVENT_ID, NAME, CATEGORY, HAPPENED FROM EVENT WHERE NAME LIKE ? ESCAPE '!'", statement.sql);
+    assertEquals("!!1!_%", statement.params.get(0).value);
+  }
+
+  @Test
+  public void orNotAndCase() {
+    assertEquals("[1, 2, 4]", query("startswith(toupper(NAME), 'AL') or not (tolower(NAME) ne 'zulu')", "EVENT_ID"));
+    assertEquals("SELECT EVENT_ID FROM EVENT WHERE (UPPER(NAME) LIKE ? ESCAPE '\\' OR NOT ((LOWER(NAME) <> ?)))", queryGen.sql);
+  }
+
+  @Test
+  public void isNull() {
+    assertEquals("[4]", query("CATEGORY eq null", "EVENT_ID"));
+    assertEquals("SELECT EVENT_ID FROM EVENT WHERE CATEGORY IS NULL", queryGen.sql);
+    assertEquals("[1, 2, 3]", query("CATEGORY ne null", "EVENT_ID"));
+  }
+
+  @Test
+  public void datePart() {
+    assertEquals("[1, 3]", query("year(HAPPENED) eq 2011", "EVENT_ID"));
+    assertEquals("SELECT EVENT_ID FROM EVENT WHERE EXTRACT(YEAR FROM HAPPENED) = ?", queryGen.sql);
+    assertEquals("[3]", query("month(HAPPENED) eq 12 and day(HAPPENED) eq 31", "EVENT_ID"));
+  }
+
+  @Test
+  public void residualEvaluatedInMemory() {
+    assertEquals("[Alpha, Alps_x]", query("startswith(NAME, 'Al') and length(NAME) ge 5 and CATEGORY ne 'z'", "NAME"));
+    assertEquals("SELECT EVENT_ID, NAME, CATEGORY, HAPPENED FROM EVENT WHERE NAME LIKE ? ESCAPE '\\' AND CATEGORY <> ?", queryGen.sql);
+
+    assertEquals("[1]", query("startswith(NAME, 'Al') and indexof(NAME, 'ha') eq 3", null));
+    assertEquals("[2, 3]", query("CATEGORY ne 'z' and (indexof(NAME, 'p') eq -1 or year(HAPPENED) eq 2012)", null));
+    assertEquals("SELECT EVENT_ID, NAME, CATEGORY, HAPPENED FROM EVENT WHERE CATEGORY <> ?", queryGen.sql);
+  }
+
+  @Test
+  public void residualOnGetEntity() {
+    EntityQueryInfo query = new EntityQueryInfo((BoolCommonExpression) ExpressionParser.parse("length(NAME) eq 5"), null, null, null);
+    OEntity entity = producer.getEntity(null, "EVENT", OEntityKey.create(1), query).getEntity();
+    assertEquals("SELECT EVENT_ID, NAME, CATEGORY, HAPPENED FROM EVENT WHERE EVENT_ID = ?", queryGen.sql);
+    assertEquals("Alpha", entity.getProperty("NAME").getValue());
+  }
+
+  @Test
+  public void planSplitsConjuncts() {
+    query("EVENT_ID gt 0", "EVENT_ID");
+    JdbcMetadataMapping mapping = queryGen.mapping;
+    EdmEntitySet entitySet = queryGen.entitySet;
+    JdbcFilterPlanner planner = new JdbcFilterPlanner();
+
+    FilterPlan plan = planner.plan(mapping, entitySet, queryGen, parse("NAME eq 'Alpha' and (trim(NAME) eq 'Alpha' and EVENT_ID gt 0)"));
+    assertEquals(Expression.asPrintString(parse("NAME eq 'Alpha' and EVENT_ID gt 0")), Expression.asPrintString(plan.sqlFilter));
+    assertEquals(Expression.asPrintString(parse("trim(NAME) eq 'Alpha'")), Expression.asPrintString(plan.residualFilter));
+
+    plan = planner.plan(mapping, entitySet, queryGen, parse("NAME eq 'Alpha'"));
+    assertNull(plan.residualFilter);
+
+    plan = planner.plan(mapping, entitySet, queryGen, parse("NAME eq 'Alpha' or trim(NAME) eq 'Alpha'"));
+    assertNull(plan.sqlFilter);
+  }
+
+  private static BoolCommonExpression parse(String filter) {
+    return (BoolCommonExpression) ExpressionParser.parse(filter);
+  }
+
+  private static String query(String filter, String select) {
+    QueryInfo.Builder query = QueryInfo.newBuilder().setFilter(parse(filter));
+    if (select != null)
+      query.setSelect(ExpressionParser.parseExpand(select));
+    List<Object> values = new ArrayList<Object>();
+    for (OEntity entity : producer.getEntities(null, "EVENT", query.build()).getEntities())
+      values.add(select == null || select.equals("EVENT_ID") ? entity.getEntityKey().asSingleValue() : entity.getProperties().get(0).getValue());
+    return values.toString();
+  }
+
+}
@@ -0,0 +1,93 @@
+package org.odata4j.test.unit.producer.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.odata4j.command.Command;
+import org.odata4j.command.CommandContext;
+import org.odata4j.command.CommandExecution;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.command.GetEntitiesCommandContext;
+import org.odata4j.producer.command.GetEntityCommandContext;
+import org.odata4j.producer.jdbc.GenerateSqlQuery;
+import org.odata4j.producer.jdbc.Jdbc;
+import org.odata4j.producer.jdbc.JdbcProducerBackend;
+import org.odata4j.producer.jdbc.JdbcProducerCommandContext;
+
+public class JdbcProducerBackendTest {
+
+  private static final Jdbc DB = new Jdbc("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:backend", "sa", "");
+
+  private final List<Class<?>> preCommandRequests = new ArrayList<Class<?>>();
+
+  private final JdbcProducerBackend backend = new JdbcProducerBackend() {
+
+    @Override
+    public CommandExecution getCommandExecution() {
+      return CommandExecution.DEFAULT;
+    }
+
+    @Override
+    public Jdbc getJdbc() {
+      return DB;
+    }
+
+    @Override
+    protected <TContext extends CommandContext> List<Command<?>> getPreCommands(Class<TContext> contextType) {
+      preCommandRequests.add(contextType);
+      return null;
+    }
+
+    @Override
+    protected <TContext extends CommandContext> List<Command<?>> getPostCommands(Class<TContext> contextType) {
+      return null;
+    }
+
+    @Override
+    protected <T> T get(Class<T> instanceType) {
+      try {
+        return instanceType.newInstance();
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+  };
+
+  @Test
+  public void commandChainsAreReused() {
+    Command<GetEntitiesCommandContext> command = backend.getCommand(GetEntitiesCommandContext.class);
+    int requests = preCommandRequests.size();
+    assertSame(command, backend.getCommand(GetEntitiesCommandContext.class));
+    assertEquals(requests, preCommandRequests.size());
+    assertTrue(command != (Object) backend.getCommand(GetEntityCommandContext.class));
+  }
+
+  @Test
+  public void contexts() {
+    QueryInfo queryInfo = QueryInfo.newBuilder().build();
+    GetEntitiesCommandContext entities = backend.newGetEntitiesCommandContext("Customer", queryInfo);
+    assertEquals("Customer", entities.getEntitySetName());
+    assertSame(queryInfo, entities.getQueryInfo());
+    assertNull(entities.getResult());
+    assertEquals("JdbcProducer context for GetEntitiesCommandContext", entities.toString());
+
+    EntityQueryInfo entityQueryInfo = EntityQueryInfo.newBuilder().build();
+    GetEntityCommandContext entity = backend.newGetEntityCommandContext("Customer", OEntityKey.create(1), entityQueryInfo);
+    assertEquals(OEntityKey.create(1), entity.getEntityKey());
+    assertSame(entityQueryInfo, entity.getQueryInfo());
+
+    JdbcProducerCommandContext jdbcContext = (JdbcProducerCommandContext) entity;
+    assertSame(DB, jdbcContext.getJdbc());
+    assertSame(backend, jdbcContext.getBackend());
+    assertTrue(jdbcContext.get(GenerateSqlQuery.class) instanceof GenerateSqlQuery);
+  }
+
+}
@@ -194,6 +194,16 @@ public class JdbcProducerTest {
     Assert.assertEquals(CUSTOMER, entitiesResponse.getEntitySet().getName());
     Assert.assertEquals(3, entitiesResponse.getEntities().size());
 
+    // updateEntity - id = 3
+    producer.updateEntity(null, CUSTOMER, newCustomer(customerEntitySet, 3, "Customer 3"));
+    entityResponse = producer.getEntity(null, CUSTOMER, OEntityKey.create(3), null);
+    Assert.assertEquals("Customer 3", entityResponse.getEntity().getProperty(CUSTOMER_NAME).getValue());
+
+    // mergeEntity - id = 3
+    producer.mergeEntity(null, CUSTOMER, newCustomer(customerEntitySet, 3, "Customer III"));
+    entityResponse = producer.getEntity(null, CUSTOMER, OEntityKey.create(3), null);
+    Assert.assertEquals("Customer III", entityResponse.getEntity().getProperty(CUSTOMER_NAME).getValue());
+
     // deleteEntity - id = 3
     producer.deleteEntity(null, CUSTOMER, OEntityKey.create(3));
     entitiesResponse = producer.getEntities(null, CUSTOMER, null);
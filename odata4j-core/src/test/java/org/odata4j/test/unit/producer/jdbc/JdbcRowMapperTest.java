@@ -0,0 +1,135 @@
+package org.odata4j.test.unit.producer.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.List;
+
+import org.core4j.ThrowingFunc1;
+import org.joda.time.LocalDateTime;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.odata4j.core.ImmutableList;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.edm.EdmSimpleType;
+import org.odata4j.edm.EdmType;
+import org.odata4j.expression.ExpressionParser;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.jdbc.Jdbc;
+import org.odata4j.producer.jdbc.JdbcModelToMetadata;
+import org.odata4j.producer.jdbc.JdbcProducer;
+import org.odata4j.producer.jdbc.SqlStatement;
+import org.odata4j.producer.jdbc.SqlStatement.SqlParameter;
+
+public class JdbcRowMapperTest {
+
+  private static final Jdbc DB = new Jdbc("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:rowmapper", "sa", "");
+
+  private static JdbcProducer producer;
+
+  @BeforeClass
+  public static void setupClass() {
+    DB.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        conn.createStatement().execute("CREATE TABLE MEASUREMENT (SERIES VARCHAR(10) NOT NULL, SEQ BIGINT NOT NULL, "
+            + "READING DOUBLE, AMOUNT DECIMAL(10,2), TAKEN TIMESTAMP, VALID BOOLEAN, PRIMARY KEY (SERIES, SEQ))");
+        conn.createStatement().execute("INSERT INTO MEASUREMENT VALUES ('a', 1, 1.5, 10.25, '2012-05-06 07:08:09', TRUE)");
+        conn.createStatement().execute("INSERT INTO MEASUREMENT VALUES ('a', 2, NULL, NULL, NULL, NULL)");
+        return null;
+      }
+    });
+    producer = JdbcProducer.newBuilder()
+        .jdbc(DB)
+        .fetchSize(1)
+        .register(JdbcModelToMetadata.class, new JdbcModelToMetadata() {
+          @Override
+          public EdmType getEdmType(int jdbcType, String columnTypeName, Integer columnSize) {
+            switch (jdbcType) {
+            case Types.BIGINT:
+              return EdmSimpleType.INT64;
+            case Types.DOUBLE:
+              return EdmSimpleType.DOUBLE;
+            case Types.DECIMAL:
+              return EdmSimpleType.DECIMAL;
+            default:
+              return super.getEdmType(jdbcType, columnTypeName, columnSize);
+            }
+          }
+        })
+        .build();
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    producer.close();
+    DB.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        conn.createStatement().execute("DROP TABLE MEASUREMENT");
+        return null;
+      }
+    });
+  }
+
+  @Test
+  public void typedValues() {
+    OEntity entity = producer.getEntity(null, "MEASUREMENT", OEntityKey.create("SERIES", "a", "SEQ", 1L), null).getEntity();
+    assertEquals(OEntityKey.create("SERIES", "a", "SEQ", 1L), entity.getEntityKey());
+    assertEquals(Long.valueOf(1), entity.getProperty("SEQ").getValue());
+    assertEquals(EdmSimpleType.INT64, entity.getProperty("SEQ").getType());
+    assertEquals(Double.valueOf(1.5), entity.getProperty("READING").getValue());
+    assertEquals(new BigDecimal("10.25"), entity.getProperty("AMOUNT").getValue());
+    assertEquals(new LocalDateTime(2012, 5, 6, 7, 8, 9), entity.getProperty("TAKEN").getValue());
+    assertEquals(Boolean.TRUE, entity.getProperty("VALID").getValue());
+  }
+
+  @Test
+  public void nullValues() {
+    List<OEntity> entities = producer.getEntities(null, "MEASUREMENT", null).getEntities();
+    assertEquals(2, entities.size());
+    OEntity entity = entities.get(1);
+    assertNull(entity.getProperty("READING").getValue());
+    assertEquals(EdmSimpleType.DOUBLE, entity.getProperty("READING").getType());
+    assertNull(entity.getProperty("TAKEN").getValue());
+    assertNull(entity.getProperty("VALID").getValue());
+  }
+
+  @Test
+  public void keyIsReadWhenNotSelected() {
+    QueryInfo query = QueryInfo.newBuilder()
+        .setSelect(ExpressionParser.parseExpand("READING"))
+        .build();
+    OEntity entity = producer.getEntities(null, "MEASUREMENT", query).getEntities().get(0);
+    assertEquals(OEntityKey.create("SERIES", "a", "SEQ", 1L), entity.getEntityKey());
+    assertEquals(1, entity.getProperties().size());
+  }
+
+  @Test
+  public void forwardOnlyQuery() {
+    DB.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        SqlStatement statement = new SqlStatement("SELECT SEQ FROM MEASUREMENT WHERE SERIES = ?",
+            ImmutableList.create(new SqlParameter("a", Types.VARCHAR)));
+        PreparedStatement stmt = statement.asQuery(conn, 100);
+        assertEquals(ResultSet.TYPE_FORWARD_ONLY, stmt.getResultSetType());
+        assertEquals(ResultSet.CONCUR_READ_ONLY, stmt.getResultSetConcurrency());
+        ResultSet results = stmt.executeQuery();
+        int rows = 0;
+        while (results.next())
+          rows++;
+        assertEquals(2, rows);
+        return null;
+      }
+    });
+  }
+
+}
@@ -0,0 +1,120 @@
+package org.odata4j.test.unit.producer.jdbc;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Connection;
+import java.util.List;
+
+import org.core4j.ThrowingFunc1;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.edm.EdmProperty;
+import org.odata4j.expression.BoolCommonExpression;
+import org.odata4j.expression.ExpressionParser;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.jdbc.GenerateSqlQuery;
+import org.odata4j.producer.jdbc.Jdbc;
+import org.odata4j.producer.jdbc.JdbcMetadataMapping;
+import org.odata4j.producer.jdbc.JdbcProducer;
+import org.odata4j.producer.jdbc.SqlStatement;
+
+public class JdbcSelectTest {
+
+  private static final Jdbc DB = new Jdbc("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:select", "sa", "");
+
+  private static JdbcProducer producer;
+  private static CapturingGenerateSqlQuery queryGen = new CapturingGenerateSqlQuery();
+
+  private static class CapturingGenerateSqlQuery extends GenerateSqlQuery {
+
+    String sql;
+
+    @Override
+    public SqlStatement generate(JdbcMetadataMapping mapping, EdmEntitySet entitySet, Iterable<EdmProperty> properties, BoolCommonExpression filter) {
+      SqlStatement statement = super.generate(mapping, entitySet, properties, filter);
+      sql = statement.sql;
+      return statement;
+    }
+  }
+
+  @BeforeClass
+  public static void setupClass() {
+    DB.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        conn.createStatement().execute("CREATE TABLE DOCUMENT (DOC_ID INTEGER NOT NULL, TITLE VARCHAR(25) NOT NULL, BODY VARCHAR(4000), PRIMARY KEY (DOC_ID))");
+        conn.createStatement().execute("INSERT INTO DOCUMENT (DOC_ID, TITLE, BODY) VALUES (1, 'One', 'First body')");
+        conn.createStatement().execute("INSERT INTO DOCUMENT (DOC_ID, TITLE, BODY) VALUES (2, 'Two', 'Second body')");
+        return null;
+      }
+    });
+    producer = JdbcProducer.newBuilder()
+        .jdbc(DB)
+        .register(GenerateSqlQuery.class, queryGen)
+        .build();
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    producer.close();
+    DB.execute(new ThrowingFunc1<Connection, Void>() {
+      @Override
+      public Void apply(Connection conn) throws Exception {
+        conn.createStatement().execute("DROP TABLE DOCUMENT");
+        return null;
+      }
+    });
+  }
+
+  @Test
+  public void allColumnsWithoutSelect() {
+    List<OEntity> entities = producer.getEntities(null, "DOCUMENT", null).getEntities();
+    assertEquals("SELECT DOC_ID, TITLE, BODY FROM DOCUMENT", queryGen.sql);
+    assertEquals(2, entities.size());
+    assertEquals(3, entities.get(0).getProperties().size());
+  }
+
+  @Test
+  public void selectedColumnsAndKey() {
+    QueryInfo query = QueryInfo.newBuilder()
+        .setSelect(ExpressionParser.parseExpand("TITLE"))
+        .build();
+    List<OEntity> entities = producer.getEntities(null, "DOCUMENT", query).getEntities();
+    assertEquals("SELECT DOC_ID, TITLE FROM DOCUMENT", queryGen.sql);
+    assertEquals(2, entities.size());
+
+    OEntity entity = entities.get(0);
+    assertEquals(OEntityKey.create(1), entity.getEntityKey());
+    assertEquals(1, entity.getProperties().size());
+    assertEquals("One", entity.getProperty("TITLE").getValue());
+  }
+
+  @Test
+  public void selectOnGetEntity() {
+    EntityQueryInfo query = new EntityQueryInfo(null, null, null, ExpressionParser.parseExpand("BODY"));
+    OEntity entity = producer.getEntity(null, "DOCUMENT", OEntityKey.create(2), query).getEntity();
+    assertEquals("SELECT DOC_ID, BODY FROM DOCUMENT WHERE DOC_ID = ?", queryGen.sql);
+    assertEquals(OEntityKey.create(2), entity.getEntityKey());
+    assertEquals("Second body", entity.getProperty("BODY").getValue());
+    assertEquals(1, entity.getProperties().size());
+  }
+
+  @Test
+  public void selectWithFilterOnUnselectedColumn() {
+    QueryInfo query = QueryInfo.newBuilder()
+        .setFilter((BoolCommonExpression) ExpressionParser.parse("BODY eq 'First body'"))
+        .setSelect(ExpressionParser.parseExpand("DOC_ID"))
+        .build();
+    List<OEntity> entities = producer.getEntities(null, "DOCUMENT", query).getEntities();
+    assertEquals("SELECT DOC_ID FROM DOCUMENT WHERE BODY = ?", queryGen.sql);
+    assertEquals(1, entities.size());
+    assertEquals(OEntityKey.create(1), entities.get(0).getEntityKey());
+    assertEquals(1, entities.get(0).getProperties().size());
+  }
+
+}
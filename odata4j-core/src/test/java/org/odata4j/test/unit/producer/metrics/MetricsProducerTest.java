@@ -0,0 +1,117 @@
+package org.odata4j.test.unit.producer.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.core4j.Enumerable;
+import org.core4j.Func;
+import org.core4j.Funcs;
+import org.junit.Test;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.exceptions.NotImplementedException;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.metrics.LatencyHistogram;
+import org.odata4j.producer.metrics.MetricsProducer;
+import org.odata4j.producer.metrics.OperationMetrics;
+import org.odata4j.producer.metrics.ProducerMetrics;
+import org.odata4j.producer.metrics.ProducerMetrics.Operation;
+import org.odata4j.producer.metrics.ProducerMetrics.Phase;
+
+public class MetricsProducerTest {
+
+  private static MetricsProducer newProducer() {
+    InMemoryProducer producer = new InMemoryProducer("MetricsProducerTest");
+    producer.register(String.class, String.class, "Strings", new Func<Iterable<String>>() {
+      @Override
+      public Iterable<String> apply() {
+        return Enumerable.create("one", "two", "three");
+      }
+    }, Funcs.identity(String.class));
+    return new MetricsProducer(producer);
+  }
+
+  private static OperationMetrics find(List<OperationMetrics> snapshot, String entitySetName, Operation operation) {
+    for (OperationMetrics m : snapshot) {
+      if (m.getOperation() == operation && entitySetName.equals(m.getEntitySetName()))
+        return m;
+    }
+    throw new AssertionError("no metrics for " + operation + " on " + entitySetName);
+  }
+
+  @Test
+  public void recordsCallsEntitiesAndErrors() {
+    MetricsProducer producer = newProducer();
+
+    producer.getEntities(null, "Strings", new QueryInfo());
+    producer.getEntities(null, "Strings", QueryInfo.newBuilder().setTop(2).build());
+    producer.getEntity(null, "Strings", OEntityKey.create("two"), new EntityQueryInfo(null, null, null, null));
+    try {
+      producer.deleteEntity(null, "Strings", OEntityKey.create("two"));
+      fail();
+    } catch (NotImplementedException e) {
+      // expected
+    }
+
+    List<OperationMetrics> snapshot = producer.findExtension(ProducerMetrics.class).snapshot();
+    assertEquals(3, snapshot.size());
+
+    OperationMetrics getEntities = find(snapshot, "Strings", Operation.GetEntities);
+    assertEquals(2, getEntities.getCount());
+    assertEquals(5, getEntities.getEntityCount());
+    assertEquals(0, getEntities.getErrorCount());
+    assertTrue(getEntities.getLatency(Phase.Execute).getMaxNanos() >= getEntities.getLatency(Phase.Execute).getMinNanos());
+
+    OperationMetrics getEntity = find(snapshot, "Strings", Operation.GetEntity);
+    assertEquals(1, getEntity.getCount());
+    assertEquals(1, getEntity.getEntityCount());
+
+    OperationMetrics deleteEntity = find(snapshot, "Strings", Operation.DeleteEntity);
+    assertEquals(1, deleteEntity.getCount());
+    assertEquals(1, deleteEntity.getErrorCount());
+    assertEquals(1.0, deleteEntity.getErrorRate(), 0.0);
+  }
+
+  @Test
+  public void exposesMetricsAsExtension() {
+    ProducerMetrics metrics = new ProducerMetrics();
+    MetricsProducer producer = new MetricsProducer(newProducer().getDelegate(), metrics);
+    assertSame(metrics, producer.findExtension(ProducerMetrics.class));
+
+    producer.getEntities(null, "Strings", new QueryInfo());
+    assertEquals(1, metrics.snapshot().size());
+    metrics.reset();
+    assertEquals(0, metrics.snapshot().size());
+  }
+
+  @Test
+  public void recordsBytes() {
+    ProducerMetrics metrics = new ProducerMetrics();
+    metrics.recordBytes("Strings", Operation.GetEntities, "ab\u00e9\u20ac");
+    assertEquals(1 + 1 + 2 + 3, metrics.snapshot().get(0).getByteCount());
+  }
+
+  @Test
+  public void histogramPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++)
+      histogram.record(i * 1000L);
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertEquals(100, snapshot.getCount());
+    assertEquals(1000, snapshot.getMinNanos());
+    assertEquals(100000, snapshot.getMaxNanos());
+    assertEquals(50500, snapshot.getMeanNanos());
+
+    // power-of-two buckets: within a factor of two of the exact value
+    long p50 = snapshot.getPercentileNanos(0.5);
+    assertTrue(p50 >= 50000 && p50 < 100000);
+    assertEquals(100000, snapshot.getPercentileNanos(1.0));
+  }
+
+}
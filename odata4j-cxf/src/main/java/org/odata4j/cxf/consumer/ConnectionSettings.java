@@ -0,0 +1,101 @@
+package org.odata4j.cxf.consumer;
+
+/**
+ * Connection pool and timeout settings of an {@link ODataCxfClient}.
+ *
+ * <p>Timeouts are in milliseconds; a value of zero means no timeout.</p>
+ */
+public class ConnectionSettings {
+
+  public static final int DEFAULT_MAX_CONNECTIONS = 100;
+  public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+  public static final long DEFAULT_IDLE_CONNECTION_TIMEOUT = 60000;
+
+  private final int maxConnections;
+  private final int maxConnectionsPerRoute;
+  private final int connectTimeout;
+  private final int socketTimeout;
+  private final long idleConnectionTimeout;
+
+  private ConnectionSettings(int maxConnections, int maxConnectionsPerRoute, int connectTimeout, int socketTimeout, long idleConnectionTimeout) {
+    this.maxConnections = maxConnections;
+    this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    this.connectTimeout = connectTimeout;
+    this.socketTimeout = socketTimeout;
+    this.idleConnectionTimeout = idleConnectionTimeout;
+  }
+
+  /** The maximum number of pooled connections over all routes. */
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  /** The maximum number of pooled connections to a single host. */
+  public int getMaxConnectionsPerRoute() {
+    return maxConnectionsPerRoute;
+  }
+
+  public int getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public int getSocketTimeout() {
+    return socketTimeout;
+  }
+
+  /** The time after which an unused keep-alive connection is closed. */
+  public long getIdleConnectionTimeout() {
+    return idleConnectionTimeout;
+  }
+
+  public static ConnectionSettings defaults() {
+    return newBuilder().build();
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+    private int connectTimeout;
+    private int socketTimeout;
+    private long idleConnectionTimeout = DEFAULT_IDLE_CONNECTION_TIMEOUT;
+
+    public Builder setMaxConnections(int maxConnections) {
+      if (maxConnections < 1)
+        throw new IllegalArgumentException("maxConnections must be positive");
+      this.maxConnections = maxConnections;
+      return this;
+    }
+
+    public Builder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+      if (maxConnectionsPerRoute < 1)
+        throw new IllegalArgumentException("maxConnectionsPerRoute must be positive");
+      this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+      return this;
+    }
+
+    public Builder setConnectTimeout(int connectTimeout) {
+      this.connectTimeout = connectTimeout;
+      return this;
+    }
+
+    public Builder setSocketTimeout(int socketTimeout) {
+      this.socketTimeout = socketTimeout;
+      return this;
+    }
+
+    public Builder setIdleConnectionTimeout(long idleConnectionTimeout) {
+      this.idleConnectionTimeout = idleConnectionTimeout;
+      return this;
+    }
+
+    public ConnectionSettings build() {
+      return new ConnectionSettings(maxConnections, Math.min(maxConnectionsPerRoute, maxConnections), connectTimeout, socketTimeout, idleConnectionTimeout);
+    }
+  }
+
+}
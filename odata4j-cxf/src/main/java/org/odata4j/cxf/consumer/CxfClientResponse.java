@@ -1,13 +1,10 @@
 package org.odata4j.cxf.consumer;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 import javax.ws.rs.core.MultivaluedMap;
 
 import org.apache.http.Header;
-import org.apache.http.HeaderElement;
 import org.apache.http.HttpResponse;
 import org.odata4j.consumer.ODataClientResponse;
 import org.odata4j.core.Throwables;
@@ -25,16 +22,17 @@ public class CxfClientResponse implements ODataClientResponse {
     return httpResponse;
   }
 
+  @Override
+  public int getStatus() {
+    return httpResponse.getStatusLine().getStatusCode();
+  }
+
   @Override
   public MultivaluedMap<String, String> getHeaders() {
+    // one value per header line, as date values contain commas
     HeaderMap headers = new HeaderMap();
-    for (Header header : httpResponse.getAllHeaders()) {
-      List<String> valueList = new ArrayList<String>();
-      for (HeaderElement element : header.getElements())
-        valueList.add(element.toString());
-
-      headers.put(header.getName(), valueList);
-    }
+    for (Header header : httpResponse.getAllHeaders())
+      headers.add(header.getName(), header.getValue());
 
     return headers;
   }
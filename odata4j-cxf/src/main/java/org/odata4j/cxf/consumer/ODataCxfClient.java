@@ -9,6 +9,8 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
@@ -30,9 +32,13 @@ import org.apache.http.client.methods.HttpOptions;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
 import org.apache.http.conn.params.ConnRoutePNames;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpConnectionParams;
 import org.core4j.Enumerable;
 import org.odata4j.consumer.AbstractODataClient;
 import org.odata4j.consumer.ODataClientRequest;
@@ -58,6 +64,9 @@ import org.odata4j.stax2.util.StaxUtil;
 
 /**
  * OData client based on Apache's HTTP client implementation.
+ *
+ * <p>Connections are kept alive in a thread-safe pool, so one client can be shared by
+ * concurrent threads. See {@link ConnectionSettings} for the pool limits and timeouts.</p>
  */
 public class ODataCxfClient extends AbstractODataClient {
 
@@ -65,11 +74,25 @@ public class ODataCxfClient extends AbstractODataClient {
   private final OClientBehavior[] behaviors;
 
   private final HttpClient httpClient;
+  private final long idleConnectionTimeout;
+  private final AtomicLong nextEviction;
 
   public ODataCxfClient(FormatType type, OClientBehavior... behaviors) {
+    this(type, ConnectionSettings.defaults(), behaviors);
+  }
+
+  public ODataCxfClient(FormatType type, ConnectionSettings settings, OClientBehavior... behaviors) {
     super(type);
     this.behaviors = Enumerable.create(requiredBehaviors).concat(Enumerable.create(behaviors)).toArray(OClientBehavior.class);
-    this.httpClient = new DefaultHttpClient();
+
+    PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager(SchemeRegistryFactory.createDefault());
+    connectionManager.setMaxTotal(settings.getMaxConnections());
+    connectionManager.setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+    this.httpClient = new DefaultHttpClient(connectionManager);
+    HttpConnectionParams.setConnectionTimeout(this.httpClient.getParams(), settings.getConnectTimeout());
+    HttpConnectionParams.setSoTimeout(this.httpClient.getParams(), settings.getSocketTimeout());
+    this.idleConnectionTimeout = settings.getIdleConnectionTimeout();
+    this.nextEviction = new AtomicLong(System.currentTimeMillis() + idleConnectionTimeout);
 
     if (System.getProperties().containsKey("http.proxyHost") && System.getProperties().containsKey("http.proxyPort")) {
       // support proxy settings
@@ -128,7 +151,16 @@ public class ODataCxfClient extends AbstractODataClient {
     if (!request.getHeaders().containsKey(ODataConstants.Headers.USER_AGENT))
       httpRequest.addHeader(ODataConstants.Headers.USER_AGENT, "odata4j.org");
 
-    if (request.getPayload() != null && httpRequest instanceof HttpEntityEnclosingRequest) {
+    if (request.getPayload() instanceof String && httpRequest instanceof HttpEntityEnclosingRequest) {
+      // preformatted, e.g. a batch
+      try {
+        StringEntity entity = new StringEntity((String) request.getPayload(), Charsets.Upper.UTF_8);
+        entity.setContentType(request.getHeaders().get(ODataConstants.Headers.CONTENT_TYPE));
+        ((HttpEntityEnclosingRequest) httpRequest).setEntity(entity);
+      } catch (UnsupportedEncodingException e) {
+        Throwables.propagate(e);
+      }
+    } else if (request.getPayload() != null && httpRequest instanceof HttpEntityEnclosingRequest) {
       HttpEntityEnclosingRequest entityRequest = (HttpEntityEnclosingRequest) httpRequest;
 
       Class<?> payloadClass;
@@ -162,6 +194,7 @@ public class ODataCxfClient extends AbstractODataClient {
     }
 
     // execute request
+    evictIdleConnections();
     HttpResponse httpResponse = null;
     try {
       httpResponse = this.httpClient.execute(httpRequest);
@@ -207,6 +240,29 @@ public class ODataCxfClient extends AbstractODataClient {
     throw exception;
   }
 
+  /**
+   * Shuts down the connection pool; the client cannot be used afterwards.
+   */
+  public void shutdown() {
+    httpClient.getConnectionManager().shutdown();
+  }
+
+  /**
+   * Closes expired and idle connections, at most once per idle timeout period.
+   * This happens on the request threads, so no extra thread is needed.
+   */
+  private void evictIdleConnections() {
+    if (idleConnectionTimeout <= 0)
+      return;
+    long now = System.currentTimeMillis();
+    long next = nextEviction.get();
+    if (now >= next && nextEviction.compareAndSet(next, now + idleConnectionTimeout)) {
+      ClientConnectionManager connectionManager = httpClient.getConnectionManager();
+      connectionManager.closeExpiredConnections();
+      connectionManager.closeIdleConnections(idleConnectionTimeout, TimeUnit.MILLISECONDS);
+    }
+  }
+
   protected XMLEventReader2 toXml(ODataClientResponse response) {
     HttpResponse httpResponse = ((CxfClientResponse) response).getHttpResponse();
     try {
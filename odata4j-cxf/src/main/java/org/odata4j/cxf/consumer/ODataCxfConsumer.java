@@ -1,8 +1,11 @@
 package org.odata4j.cxf.consumer;
 
+import java.util.concurrent.ExecutorService;
+
 import javax.ws.rs.ext.RuntimeDelegate;
 
 import org.odata4j.consumer.AbstractODataConsumer;
+import org.odata4j.consumer.MetadataCache;
 import org.odata4j.consumer.ODataClient;
 import org.odata4j.consumer.ODataConsumer;
 import org.odata4j.consumer.behaviors.OClientBehavior;
@@ -17,14 +20,15 @@ public class ODataCxfConsumer extends AbstractODataConsumer {
 
   private ODataCxfClient client;
 
-  private ODataCxfConsumer(FormatType type, String serviceRootUri, OClientBehavior... behaviors) {
-    super(serviceRootUri);
+  private ODataCxfConsumer(FormatType type, String serviceRootUri, ConnectionSettings connectionSettings, ExecutorService executor, MetadataCache metadataCache, OClientBehavior... behaviors) {
+    super(serviceRootUri, executor, metadataCache);
 
     // ensure that the correct JAX-RS implementation (CXF) is loaded
     if (!(RuntimeDelegate.getInstance() instanceof org.apache.cxf.jaxrs.impl.RuntimeDelegateImpl))
       RuntimeDelegate.setInstance(new org.apache.cxf.jaxrs.impl.RuntimeDelegateImpl());
 
-    this.client = new ODataCxfClient(type, behaviors);
+    this.client = new ODataCxfClient(type, connectionSettings, behaviors);
+    this.client.setExecutor(getExecutor());
   }
 
   @Override
@@ -37,6 +41,9 @@ public class ODataCxfConsumer extends AbstractODataConsumer {
     private FormatType formatType;
     private String serviceRootUri;
     private OClientBehavior[] clientBehaviors;
+    private ConnectionSettings.Builder connectionSettings = ConnectionSettings.newBuilder();
+    private ExecutorService executor;
+    private MetadataCache metadataCache;
 
     private Builder(String serviceRootUri) {
       this.serviceRootUri = serviceRootUri;
@@ -67,6 +74,89 @@ public class ODataCxfConsumer extends AbstractODataConsumer {
       return this;
     }
 
+    /**
+     * Sets the maximum number of pooled http connections. Defaults to {@value ConnectionSettings#DEFAULT_MAX_CONNECTIONS}.
+     *
+     * @param maxConnections  the maximum number of connections over all hosts
+     * @return this builder
+     */
+    public Builder setMaxConnections(int maxConnections) {
+      this.connectionSettings.setMaxConnections(maxConnections);
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of pooled http connections to a single host.
+     * Defaults to {@value ConnectionSettings#DEFAULT_MAX_CONNECTIONS_PER_ROUTE}.
+     *
+     * @param maxConnectionsPerRoute  the maximum number of connections per host
+     * @return this builder
+     */
+    public Builder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+      this.connectionSettings.setMaxConnectionsPerRoute(maxConnectionsPerRoute);
+      return this;
+    }
+
+    /**
+     * Sets the timeout for establishing a connection. Defaults to no timeout.
+     *
+     * @param connectTimeout  the timeout in milliseconds, zero for no timeout
+     * @return this builder
+     */
+    public Builder setConnectTimeout(int connectTimeout) {
+      this.connectionSettings.setConnectTimeout(connectTimeout);
+      return this;
+    }
+
+    /**
+     * Sets the timeout for waiting for data on an established connection. Defaults to no timeout.
+     *
+     * @param socketTimeout  the timeout in milliseconds, zero for no timeout
+     * @return this builder
+     */
+    public Builder setSocketTimeout(int socketTimeout) {
+      this.connectionSettings.setSocketTimeout(socketTimeout);
+      return this;
+    }
+
+    /**
+     * Sets the time after which unused keep-alive connections are closed.
+     * Defaults to {@value ConnectionSettings#DEFAULT_IDLE_CONNECTION_TIMEOUT} milliseconds.
+     *
+     * @param idleConnectionTimeout  the timeout in milliseconds, zero to keep idle connections open
+     * @return this builder
+     */
+    public Builder setIdleConnectionTimeout(long idleConnectionTimeout) {
+      this.connectionSettings.setIdleConnectionTimeout(idleConnectionTimeout);
+      return this;
+    }
+
+    /**
+     * Sets the executor running requests sent with {@code executeAsync()}.
+     * Defaults to an executor shared by all consumers.
+     *
+     * <p>Asynchronous requests share the connection pool, so the pool limits how many of them are in flight.</p>
+     *
+     * @param executor  the executor for asynchronous requests
+     * @return this builder
+     */
+    public Builder setExecutor(ExecutorService executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Sets the cache the consumer takes the service metadata from; see {@link org.odata4j.consumer.MetadataCaches}.
+     * By default every consumer downloads the metadata itself.
+     *
+     * @param metadataCache  the metadata cache
+     * @return this builder
+     */
+    public Builder setMetadataCache(MetadataCache metadataCache) {
+      this.metadataCache = metadataCache;
+      return this;
+    }
+
     /**
      * Builds the {@link ODataCxfConsumer} object.
      *
@@ -74,9 +164,9 @@ public class ODataCxfConsumer extends AbstractODataConsumer {
      */
     public ODataCxfConsumer build() {
       if (this.clientBehaviors != null) {
-        return new ODataCxfConsumer(this.formatType, this.serviceRootUri, this.clientBehaviors);
+        return new ODataCxfConsumer(this.formatType, this.serviceRootUri, this.connectionSettings.build(), this.executor, this.metadataCache, this.clientBehaviors);
       } else {
-        return new ODataCxfConsumer(this.formatType, this.serviceRootUri);
+        return new ODataCxfConsumer(this.formatType, this.serviceRootUri, this.connectionSettings.build(), this.executor, this.metadataCache);
       }
     }
   }
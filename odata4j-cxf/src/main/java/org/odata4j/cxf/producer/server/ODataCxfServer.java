@@ -1,26 +1,46 @@
 package org.odata4j.cxf.producer.server;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
 
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.Application;
 import javax.ws.rs.ext.RuntimeDelegate;
 
 import org.apache.cxf.jaxrs.servlet.CXFNonSpringJaxrsServlet;
 import org.core4j.Enumerable;
 import org.eclipse.jetty.security.SecurityHandler;
+import org.eclipse.jetty.server.AbstractConnector;
+import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.handler.HandlerCollection;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.ExecutorThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.odata4j.core.Throwables;
 import org.odata4j.producer.server.ODataServer;
+import org.odata4j.producer.server.ODataServerExecutors;
 
 /**
  * OData server using the CXF JAX-RS implementation and Jetty as HTTP server.
+ *
+ * <p>Unless configured otherwise, requests are handled by Jetty's default thread pool.
+ * Jetty runs its acceptor and selector threads on the same pool: the pool configured
+ * with {@link #setThreadPool} gets two extra threads per acceptor, while a custom
+ * executor set with {@link #setExecutor} must leave room for them.</p>
  */
 public class ODataCxfServer implements ODataServer {
 
@@ -29,6 +49,11 @@ public class ODataCxfServer implements ODataServer {
   private Class<? extends Application> rootApp;
   private final List<Handler> jettyRequestHandlers = new ArrayList<Handler>();
   private SecurityHandler jettySecurityHandler;
+  private Integer threads;
+  private int queueCapacity = ODataServerExecutors.DEFAULT_QUEUE_CAPACITY;
+  private RejectedExecutionHandler rejectedExecutionHandler = ODataServerExecutors.defaultRejectedExecutionHandler();
+  private Executor executor;
+  private int backlog;
   private Server server;
 
   public ODataCxfServer(String appBaseUri) {
@@ -67,6 +92,31 @@ public class ODataCxfServer implements ODataServer {
     return this;
   }
 
+  @Override
+  public ODataCxfServer setThreadPool(int threads, int queueCapacity) {
+    this.threads = threads;
+    this.queueCapacity = queueCapacity;
+    return this;
+  }
+
+  @Override
+  public ODataCxfServer setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+    this.rejectedExecutionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public ODataCxfServer setExecutor(Executor executor) {
+    this.executor = executor;
+    return this;
+  }
+
+  @Override
+  public ODataCxfServer setBacklog(int backlog) {
+    this.backlog = backlog;
+    return this;
+  }
+
   @Override
   public ODataServer start() {
     if (odataApp == null)
@@ -98,7 +148,8 @@ public class ODataCxfServer implements ODataServer {
       contextHandler.setSecurityHandler(jettySecurityHandler);
 
     server = new Server(url.getPort());
-    server.setHandler(getHandlerCollection(contextHandler));
+    server.setHandler(new RejectedRequestHandler(getHandlerCollection(contextHandler)));
+    configureThreads(server);
 
     try {
 
@@ -119,6 +170,84 @@ public class ODataCxfServer implements ODataServer {
     }
   }
 
+  private void configureThreads(Server server) {
+    int connectorThreads = 0;
+    for (Connector connector : server.getConnectors()) {
+      if (connector instanceof AbstractConnector) {
+        if (backlog > 0)
+          ((AbstractConnector) connector).setAcceptQueueSize(backlog);
+        // one acceptor and one selector thread per acceptor
+        connectorThreads += 2 * ((AbstractConnector) connector).getAcceptors();
+      }
+    }
+
+    if (executor != null) {
+      server.setThreadPool(new ExecutorAdapter(executor));
+    } else if (threads != null) {
+      // Jetty stops the pool, and its executor, with the server
+      server.setThreadPool(new ExecutorThreadPool(ODataServerExecutors.newWorkerPool(
+          "odata-cxf", threads + connectorThreads, queueCapacity, rejectedExecutionHandler)));
+    }
+  }
+
+  /** A Jetty thread pool on a custom executor, which is left running when the server stops. */
+  private static class ExecutorAdapter implements ThreadPool {
+
+    private final Executor executor;
+
+    ExecutorAdapter(Executor executor) {
+      this.executor = executor;
+    }
+
+    @Override
+    public boolean dispatch(Runnable job) {
+      try {
+        executor.execute(job);
+        return true;
+      } catch (RejectedExecutionException e) {
+        return false;
+      }
+    }
+
+    @Override
+    public void join() throws InterruptedException {}
+
+    @Override
+    public int getThreads() {
+      return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getPoolSize() : 0;
+    }
+
+    @Override
+    public int getIdleThreads() {
+      return executor instanceof ThreadPoolExecutor
+          ? ((ThreadPoolExecutor) executor).getPoolSize() - ((ThreadPoolExecutor) executor).getActiveCount()
+          : 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+      return false;
+    }
+  }
+
+  /** Answers requests rejected by the worker pool with 503 Service Unavailable. */
+  private static class RejectedRequestHandler extends HandlerWrapper {
+
+    RejectedRequestHandler(Handler handler) {
+      setHandler(handler);
+    }
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+      if (ODataServerExecutors.isRejected()) {
+        baseRequest.setHandled(true);
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      } else {
+        super.handle(target, baseRequest, request, response);
+      }
+    }
+  }
+
   private static String normalizePath(String path) {
     if (path.endsWith("/"))
       return path.substring(0, path.length() - 1);
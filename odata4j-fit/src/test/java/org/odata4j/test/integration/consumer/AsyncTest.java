@@ -0,0 +1,68 @@
+package org.odata4j.test.integration.consumer;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.odata4j.test.integration.TestInMemoryProducers.SIMPLE_ENTITIES;
+import static org.odata4j.test.integration.TestInMemoryProducers.SIMPLE_ENTITY_SET_NAME;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.core4j.Enumerable;
+import org.junit.Test;
+import org.odata4j.core.OEntity;
+import org.odata4j.exceptions.NotFoundException;
+import org.odata4j.producer.resources.DefaultODataProducerProvider;
+import org.odata4j.test.integration.AbstractODataConsumerTest;
+import org.odata4j.test.integration.TestInMemoryProducers;
+
+public class AsyncTest extends AbstractODataConsumerTest {
+
+  private static final int FAN_OUT = 30;
+
+  public AsyncTest(RuntimeFacadeType type) {
+    super(type);
+  }
+
+  @Override
+  protected void registerODataProducer() throws Exception {
+    DefaultODataProducerProvider.setInstance(TestInMemoryProducers.simple());
+  }
+
+  @Test
+  public void fanOut() throws Exception {
+    List<Future<Enumerable<OEntity>>> queries = new ArrayList<Future<Enumerable<OEntity>>>();
+    List<Future<OEntity>> gets = new ArrayList<Future<OEntity>>();
+    for (int i = 0; i < FAN_OUT; i++) {
+      queries.add(consumer.getEntities(SIMPLE_ENTITY_SET_NAME).executeAsync());
+      gets.add(consumer.getEntity(SIMPLE_ENTITY_SET_NAME, SIMPLE_ENTITIES[i % SIMPLE_ENTITIES.length]).executeAsync());
+    }
+
+    for (Future<Enumerable<OEntity>> query : queries)
+      assertThat(query.get(30, TimeUnit.SECONDS).count(), is(SIMPLE_ENTITIES.length));
+    for (int i = 0; i < FAN_OUT; i++)
+      assertThat((String) gets.get(i).get(30, TimeUnit.SECONDS).getEntityKey().asSingleValue(), is(SIMPLE_ENTITIES[i % SIMPLE_ENTITIES.length]));
+  }
+
+  @Test
+  public void count() throws Exception {
+    assertThat(consumer.getEntitiesCount(SIMPLE_ENTITY_SET_NAME).executeAsync().get(30, TimeUnit.SECONDS), is(SIMPLE_ENTITIES.length));
+  }
+
+  @Test
+  public void errorIsCause() throws Exception {
+    Future<OEntity> future = consumer.getEntity(SIMPLE_ENTITY_SET_NAME, "Z").executeAsync();
+    try {
+      future.get(30, TimeUnit.SECONDS);
+      fail("No exception thrown");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(NotFoundException.class));
+    }
+  }
+
+}
@@ -0,0 +1,209 @@
+package org.odata4j.test.integration.consumer;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.core4j.Func;
+import org.junit.Test;
+import org.odata4j.core.OBatchResponse;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.core.OExtension;
+import org.odata4j.core.OProperties;
+import org.odata4j.exceptions.NotFoundException;
+import org.odata4j.producer.ChangeSetExtension;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.EntityResponse;
+import org.odata4j.producer.ODataContext;
+import org.odata4j.producer.ODataProducer;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.resources.DefaultODataProducerProvider;
+import org.odata4j.test.integration.AbstractODataConsumerTest;
+
+public class BatchTest extends AbstractODataConsumerTest {
+
+  private static final String LETTERS = "Letters";
+
+  private final Map<String, Letter> letters = new ConcurrentHashMap<String, Letter>();
+  private final List<String> changeSetCalls = Collections.synchronizedList(new ArrayList<String>());
+  private volatile boolean changeSets;
+
+  public BatchTest(RuntimeFacadeType type) {
+    super(type);
+  }
+
+  @Override
+  protected void registerODataProducer() throws Exception {
+    letters.put("A", new Letter("A", "alpha"));
+    letters.put("B", new Letter("B", "bravo"));
+
+    InMemoryProducer producer = new InMemoryProducer("Batch") {
+
+      @Override
+      public EntityResponse createEntity(ODataContext context, String entitySetName, OEntity entity) {
+        Letter letter = new Letter((String) entity.getProperty("Name").getValue(), (String) entity.getProperty("Word").getValue());
+        letters.put(letter.getName(), letter);
+        return getEntity(context, entitySetName, OEntityKey.create(letter.getName()), EntityQueryInfo.newBuilder().build());
+      }
+
+      @Override
+      public void mergeEntity(ODataContext context, String entitySetName, OEntity entity) {
+        Letter letter = letters.get(entity.getEntityKey().asSingleValue());
+        if (letter == null)
+          throw new NotFoundException();
+        letter.setWord((String) entity.getProperty("Word").getValue());
+      }
+
+      @Override
+      public void deleteEntity(ODataContext context, String entitySetName, OEntityKey entityKey) {
+        if (letters.remove(entityKey.asSingleValue()) == null)
+          throw new NotFoundException();
+      }
+
+      @Override
+      public <TExtension extends OExtension<ODataProducer>> TExtension findExtension(Class<TExtension> clazz) {
+        if (changeSets && ChangeSetExtension.class.equals(clazz))
+          return clazz.cast(new ChangeSetExtension() {
+
+            @Override
+            public void beginChangeSet(ODataContext context) {
+              changeSetCalls.add("begin");
+            }
+
+            @Override
+            public void commitChangeSet(ODataContext context) {
+              changeSetCalls.add("commit");
+            }
+
+            @Override
+            public void rollbackChangeSet(ODataContext context) {
+              changeSetCalls.add("rollback");
+            }
+          });
+        return super.findExtension(clazz);
+      }
+    };
+    producer.register(Letter.class, LETTERS, new Func<Iterable<Letter>>() {
+      public Iterable<Letter> apply() {
+        return letters.values();
+      }
+    }, "Name");
+    DefaultODataProducerProvider.setInstance(producer);
+  }
+
+  @Test
+  public void changeSet() throws Exception {
+    List<OBatchResponse> responses = consumer.batch()
+        .add(consumer.createEntity(LETTERS).properties(OProperties.string("Name", "C")).properties(OProperties.string("Word", "charlie")))
+        .beginChangeSet()
+        .add(consumer.mergeEntity(LETTERS, "A").properties(OProperties.string("Word", "alfa")))
+        .add(consumer.deleteEntity(LETTERS, "B"))
+        .endChangeSet()
+        .execute();
+
+    assertThat(responses.size(), is(3));
+    assertThat(responses.get(0).getStatus(), is(201));
+    assertThat((String) responses.get(0).getEntity().getProperty("Word").getValue(), is("charlie"));
+    assertThat(responses.get(1).getStatus() / 100, is(2));
+    assertThat(responses.get(1).getEntity(), nullValue());
+    assertThat(responses.get(2).getStatus() / 100, is(2));
+    assertThat(responses.get(2).getError(), nullValue());
+
+    assertThat(letters.get("A").getWord(), is("alfa"));
+    assertThat(letters.containsKey("B"), is(false));
+    assertThat(letters.get("C").getWord(), is("charlie"));
+  }
+
+  @Test
+  public void errorIsPerRequest() throws Exception {
+    List<OBatchResponse> responses = consumer.batch()
+        .add(consumer.deleteEntity(LETTERS, "Z"))
+        .add(consumer.deleteEntity(LETTERS, "A"))
+        .executeAsync()
+        .get(30, TimeUnit.SECONDS);
+
+    assertThat(responses.size(), is(2));
+    assertThat(responses.get(0).getStatus(), is(404));
+    assertThat(responses.get(0).getError(), notNullValue());
+    assertThat(responses.get(0).getError(), instanceOf(NotFoundException.class));
+    assertThat(responses.get(1).getStatus() / 100, is(2));
+    assertThat(letters.containsKey("A"), is(false));
+  }
+
+  @Test
+  public void changeSetExtensionIsCommitted() throws Exception {
+    changeSets = true;
+    List<OBatchResponse> responses = consumer.batch()
+        .beginChangeSet()
+        .add(consumer.mergeEntity(LETTERS, "A").properties(OProperties.string("Word", "alfa")))
+        .add(consumer.deleteEntity(LETTERS, "B"))
+        .endChangeSet()
+        .execute();
+
+    assertThat(responses.size(), is(2));
+    assertThat(responses.get(0).getStatus() / 100, is(2));
+    assertThat(responses.get(1).getStatus() / 100, is(2));
+    assertThat(changeSetCalls.toString(), is("[begin, commit]"));
+  }
+
+  @Test
+  public void failedChangeSetIsRolledBack() throws Exception {
+    changeSets = true;
+    List<OBatchResponse> responses = consumer.batch()
+        .add(consumer.mergeEntity(LETTERS, "B").properties(OProperties.string("Word", "beta")))
+        .beginChangeSet()
+        .add(consumer.deleteEntity(LETTERS, "Z"))
+        .add(consumer.deleteEntity(LETTERS, "A"))
+        .endChangeSet()
+        .execute();
+
+    // the failed change set is answered with the error alone, the request before it is a change set of its own
+    assertThat(responses.size(), is(3));
+    assertThat(responses.get(0).getStatus() / 100, is(2));
+    assertThat(responses.get(1).getStatus(), is(404));
+    assertThat(responses.get(2).getStatus(), is(404));
+    assertThat(changeSetCalls.toString(), is("[begin, commit, begin, rollback]"));
+    assertThat(letters.get("B").getWord(), is("beta"));
+    assertThat(letters.containsKey("A"), is(true));
+  }
+
+  public static class Letter {
+
+    private String name;
+    private String word;
+
+    public Letter() {}
+
+    public Letter(String name, String word) {
+      this.name = name;
+      this.word = word;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public String getWord() {
+      return word;
+    }
+
+    public void setWord(String word) {
+      this.word = word;
+    }
+  }
+
+}
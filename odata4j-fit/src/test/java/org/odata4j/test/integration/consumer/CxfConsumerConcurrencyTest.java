@@ -0,0 +1,90 @@
+package org.odata4j.test.integration.consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.odata4j.consumer.ODataConsumer;
+import org.odata4j.core.OEntity;
+import org.odata4j.cxf.consumer.ODataCxfConsumer;
+import org.odata4j.cxf.producer.server.ODataCxfServer;
+import org.odata4j.producer.resources.DefaultODataApplication;
+import org.odata4j.producer.resources.DefaultODataProducerProvider;
+import org.odata4j.producer.resources.RootApplication;
+import org.odata4j.producer.server.ODataServer;
+import org.odata4j.test.integration.TestInMemoryProducers;
+
+public class CxfConsumerConcurrencyTest {
+
+  private static final String BASE_URI = "http://localhost:8888/test.svc/";
+  private static final int THREADS = 64;
+  private static final int REQUESTS_PER_THREAD = 20;
+
+  private ODataServer server;
+  private ExecutorService executor;
+
+  @Before
+  public void setup() {
+    server = new ODataCxfServer(BASE_URI, DefaultODataApplication.class, RootApplication.class).start();
+    DefaultODataProducerProvider.setInstance(TestInMemoryProducers.simple());
+    executor = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @After
+  public void teardown() {
+    executor.shutdownNow();
+    server.stop();
+  }
+
+  @Test
+  public void oneConsumerManyThreads() throws Exception {
+    final ODataConsumer consumer = ODataCxfConsumer.newBuilder(BASE_URI)
+        .setMaxConnections(THREADS)
+        .setMaxConnectionsPerRoute(16)
+        .setConnectTimeout(10000)
+        .setSocketTimeout(30000)
+        .build();
+    final CountDownLatch start = new CountDownLatch(1);
+
+    List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+    for (int i = 0; i < THREADS; i++) {
+      futures.add(executor.submit(new Callable<Integer>() {
+        @Override
+        public Integer call() throws Exception {
+          start.await();
+          int count = 0;
+          for (int j = 0; j < REQUESTS_PER_THREAD; j++) {
+            if (j % 2 == 0) {
+              for (OEntity entity : consumer.getEntities(TestInMemoryProducers.SIMPLE_ENTITY_SET_NAME).execute()) {
+                assertTrue(entity.getEntityKey() != null);
+                count++;
+              }
+            } else {
+              OEntity entity = consumer.getEntity(TestInMemoryProducers.SIMPLE_ENTITY_SET_NAME, "B").execute();
+              assertEquals("B", entity.getEntityKey().asSingleValue());
+              count++;
+            }
+          }
+          return count;
+        }
+      }));
+    }
+    start.countDown();
+
+    int expected = REQUESTS_PER_THREAD / 2 * (TestInMemoryProducers.SIMPLE_ENTITIES.length + 1);
+    for (Future<Integer> future : futures)
+      assertEquals(expected, (int) future.get(120, TimeUnit.SECONDS));
+  }
+
+}
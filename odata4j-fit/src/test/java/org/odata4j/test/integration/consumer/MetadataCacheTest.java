@@ -0,0 +1,93 @@
+package org.odata4j.test.integration.consumer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.odata4j.test.integration.TestInMemoryProducers.SIMPLE_ENTITY_SET_NAME;
+
+import java.io.File;
+
+import org.core4j.Enumerable;
+import org.core4j.Func;
+import org.core4j.Funcs;
+import org.junit.Test;
+import org.odata4j.consumer.CachedMetadata;
+import org.odata4j.consumer.MetadataCache;
+import org.odata4j.consumer.MetadataCaches;
+import org.odata4j.consumer.ODataConsumer;
+import org.odata4j.cxf.consumer.ODataCxfConsumer;
+import org.odata4j.edm.EdmEntitySet;
+import org.odata4j.jersey.consumer.ODataJerseyConsumer;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.resources.DefaultODataProducerProvider;
+import org.odata4j.test.integration.AbstractIntegrationTest;
+import org.odata4j.test.integration.TestInMemoryProducers;
+
+public class MetadataCacheTest extends AbstractIntegrationTest {
+
+  private InMemoryProducer producer;
+  private File directory;
+  private MetadataCache cache;
+
+  public MetadataCacheTest(RuntimeFacadeType type) {
+    super(type);
+  }
+
+  @Override
+  protected void registerODataProducer() throws Exception {
+    producer = TestInMemoryProducers.simple();
+    DefaultODataProducerProvider.setInstance(producer);
+  }
+
+  @Override
+  protected void startClient() throws Exception {
+    directory = File.createTempFile("metadata", "");
+    directory.delete();
+    cache = MetadataCaches.onDisk(directory);
+  }
+
+  @Override
+  protected void stopClient() throws Exception {
+    cache.remove(BASE_URI);
+    directory.delete();
+  }
+
+  @Test
+  public void revalidatedMetadataIsShared() throws Exception {
+    ODataConsumer first = ODataJerseyConsumer.newBuilder(BASE_URI).setMetadataCache(cache).build();
+    EdmEntitySet entitySet = first.getMetadata().findEdmEntitySet(SIMPLE_ENTITY_SET_NAME);
+    assertThat(entitySet, notNullValue());
+
+    CachedMetadata cached = cache.get(BASE_URI);
+    assertThat(cached, notNullValue());
+    assertThat(cached.getEntityTag(), notNullValue());
+
+    // the service answers the conditional request with 304 Not Modified
+    ODataConsumer second = ODataCxfConsumer.newBuilder(BASE_URI).setMetadataCache(cache).build();
+    assertThat(second.getMetadata().findEdmEntitySet(SIMPLE_ENTITY_SET_NAME), sameInstance(entitySet));
+    assertThat(cache.get(BASE_URI), sameInstance(cached));
+  }
+
+  @Test
+  public void changedMetadataIsDownloaded() throws Exception {
+    ODataConsumer first = ODataJerseyConsumer.newBuilder(BASE_URI).setMetadataCache(cache).build();
+    assertThat(first.getMetadata().findEdmEntitySet(SIMPLE_ENTITY_SET_NAME), notNullValue());
+    CachedMetadata cached = cache.get(BASE_URI);
+
+    producer.register(String.class, String.class, "Words", new Func<Iterable<String>>() {
+      public Iterable<String> apply() {
+        return Enumerable.create("alpha", "bravo");
+      }
+    }, Funcs.identity(String.class));
+
+    ODataConsumer second = ODataJerseyConsumer.newBuilder(BASE_URI).setMetadataCache(cache).build();
+    assertThat(second.getMetadata().findEdmEntitySet("Words"), notNullValue());
+    assertThat(cache.get(BASE_URI), not(sameInstance(cached)));
+    assertThat(cached.getMetadata().findEdmEntitySet("Words"), nullValue());
+    assertThat(cache.get(BASE_URI).getEntityTag().equals(cached.getEntityTag()), is(false));
+  }
+
+}
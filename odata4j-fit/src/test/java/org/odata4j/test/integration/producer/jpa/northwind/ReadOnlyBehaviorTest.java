@@ -0,0 +1,141 @@
+package org.odata4j.test.integration.producer.jpa.northwind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.core.ORelatedEntitiesLinkInline;
+import org.odata4j.exceptions.NotFoundException;
+import org.odata4j.expression.ExpressionParser;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.jpa.JPAProducer;
+import org.odata4j.producer.jpa.JPAReadOnlyBehavior;
+
+public class ReadOnlyBehaviorTest extends NorthwindJpaProducerTest {
+
+  private static final OEntityKey ALFKI = OEntityKey.create("ALFKI");
+
+  private JPAProducer defaultProducer;
+  private JPAReadOnlyBehavior behavior;
+  private AtomicInteger created;
+
+  public ReadOnlyBehaviorTest(RuntimeFacadeType type) {
+    super(type);
+  }
+
+  @Before
+  public void setUp() {
+    super.setUp(20);
+    defaultProducer = new JPAProducer(emf, "Northwind", 20);
+    created = new AtomicInteger();
+  }
+
+  @After
+  public void closeThreadEntityManager() {
+    if (behavior != null)
+      behavior.closeThreadEntityManager();
+  }
+
+  @Test
+  public void sameResults() {
+    JPAProducer producer = readOnlyProducer(true, true);
+    QueryInfo query = QueryInfo.newBuilder()
+        .setTop(5)
+        .setExpand(ExpressionParser.parseExpand("Orders"))
+        .build();
+
+    List<OEntity> expected = defaultProducer.getEntities(null, "Customers", query).getEntities();
+    List<OEntity> actual = producer.getEntities(null, "Customers", query).getEntities();
+    assertEquals(5, actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEntity(expected.get(i), actual.get(i));
+      assertEquals(
+          expected.get(i).getLink("Orders", ORelatedEntitiesLinkInline.class).getRelatedEntities().size(),
+          actual.get(i).getLink("Orders", ORelatedEntitiesLinkInline.class).getRelatedEntities().size());
+    }
+
+    EntityQueryInfo entityQuery = EntityQueryInfo.newBuilder().build();
+    assertEntity(defaultProducer.getEntity(null, "Customers", ALFKI, entityQuery).getEntity(),
+        producer.getEntity(null, "Customers", ALFKI, entityQuery).getEntity());
+    assertEquals(defaultProducer.getEntitiesCount(null, "Orders", null).getCount(),
+        producer.getEntitiesCount(null, "Orders", null).getCount());
+    assertEquals(((EntitiesResponse) defaultProducer.getNavProperty(null, "Customers", ALFKI, "Orders", null)).getEntities().size(),
+        ((EntitiesResponse) producer.getNavProperty(null, "Customers", ALFKI, "Orders", null)).getEntities().size());
+  }
+
+  @Test
+  public void reusesThreadEntityManager() {
+    JPAProducer producer = readOnlyProducer(true, true);
+    for (int i = 0; i < 3; i++) {
+      producer.getEntities(null, "Products", null);
+      producer.getEntity(null, "Customers", ALFKI, null);
+      producer.getEntitiesCount(null, "Orders", null);
+    }
+    assertEquals(1, created.get());
+  }
+
+  @Test
+  public void entityManagerPerRequest() {
+    JPAProducer producer = readOnlyProducer(false, true);
+    for (int i = 0; i < 3; i++)
+      producer.getEntities(null, "Products", null);
+    assertEquals(3, created.get());
+  }
+
+  @Test
+  public void failedRequestReplacesEntityManager() {
+    JPAProducer producer = readOnlyProducer(true, true);
+    try {
+      producer.getEntity(null, "Customers", OEntityKey.create("NOONE"), null);
+      fail();
+    } catch (NotFoundException e) {
+      // expected
+    }
+    producer.getEntity(null, "Customers", ALFKI, null);
+    producer.getEntity(null, "Customers", ALFKI, null);
+    assertEquals(2, created.get());
+  }
+
+  private JPAProducer readOnlyProducer(boolean threadBound, boolean detachResults) {
+    EntityManagerFactory countingEmf = counting(emf, created);
+    behavior = new JPAReadOnlyBehavior(countingEmf, threadBound, detachResults);
+    return new JPAProducer(countingEmf, defaultProducer.getMetadata(), 20, null, behavior);
+  }
+
+  private static void assertEntity(OEntity expected, OEntity actual) {
+    assertEquals(expected.getEntityKey(), actual.getEntityKey());
+    assertEquals(expected.getProperties().toString(), actual.getProperties().toString());
+  }
+
+  private static EntityManagerFactory counting(final EntityManagerFactory emf, final AtomicInteger created) {
+    return (EntityManagerFactory) Proxy.newProxyInstance(EntityManagerFactory.class.getClassLoader(),
+        new Class<?>[] { EntityManagerFactory.class }, new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("createEntityManager"))
+              created.incrementAndGet();
+            try {
+              return method.invoke(emf, args);
+            } catch (InvocationTargetException e) {
+              throw e.getCause();
+            }
+          }
+        });
+  }
+
+}
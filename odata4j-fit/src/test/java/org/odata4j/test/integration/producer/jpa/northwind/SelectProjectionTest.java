@@ -0,0 +1,132 @@
+package org.odata4j.test.integration.producer.jpa.northwind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.odata4j.core.OEntity;
+import org.odata4j.core.OEntityKey;
+import org.odata4j.expression.ExpressionParser;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.jpa.Command;
+import org.odata4j.producer.jpa.GenerateJPQLCommand;
+import org.odata4j.producer.jpa.JPAContext;
+import org.odata4j.producer.jpa.JPAProducer;
+import org.odata4j.producer.jpa.JPAProducer.CommandType;
+import org.odata4j.producer.jpa.JPAProducerBehavior;
+
+public class SelectProjectionTest extends NorthwindJpaProducerTest {
+
+  private JPAProducer defaultProducer;
+  private JPAProducer producer;
+  private String jpql;
+
+  public SelectProjectionTest(RuntimeFacadeType type) {
+    super(type);
+  }
+
+  @Before
+  public void setUp() {
+    super.setUp(20);
+    defaultProducer = new JPAProducer(emf, "Northwind", 5);
+    producer = new JPAProducer(emf, defaultProducer.getMetadata(), 5, null, new JPAProducerBehavior() {
+      @Override
+      public List<Command> modify(CommandType type, List<Command> commands) {
+        List<Command> rt = new ArrayList<Command>();
+        for (Command command : commands) {
+          rt.add(command);
+          if (command instanceof GenerateJPQLCommand)
+            rt.add(new Command() {
+              @Override
+              public boolean execute(JPAContext context) {
+                jpql = context.getJPQLQuery();
+                return false;
+              }
+            });
+        }
+        return rt;
+      }
+    });
+  }
+
+  @Test
+  public void selectsKeyAndSelectedProperties() {
+    EntitiesResponse response = producer.getEntities(null, "Customers", query("CompanyName", null, null));
+    assertTrue(jpql, jpql.startsWith("SELECT t0.CustomerID, t0.CompanyName FROM Customers t0"));
+    assertEquals(5, response.getEntities().size());
+
+    List<OEntity> expected = defaultProducer.getEntities(null, "Customers", query("CompanyName", null, null)).getEntities();
+    for (int i = 0; i < expected.size(); i++) {
+      OEntity entity = response.getEntities().get(i);
+      assertEquals(expected.get(i).getEntityKey(), entity.getEntityKey());
+      assertEquals(1, entity.getProperties().size());
+      assertEquals(expected.get(i).getProperty("CompanyName").getValue(), entity.getProperty("CompanyName").getValue());
+    }
+  }
+
+  @Test
+  public void orderedPropertyFeedsSkipToken() {
+    EntitiesResponse response = producer.getEntities(null, "Customers", query("CompanyName", "Country", null));
+    assertTrue(jpql, jpql.startsWith("SELECT t0.CustomerID, t0.CompanyName, t0.Country FROM"));
+    assertEquals(1, response.getEntities().get(0).getProperties().size());
+    assertNotNull(response.getSkipToken());
+
+    // same token as the unprojected query
+    String expected = defaultProducer.getEntities(null, "Customers", query(null, "Country", null)).getSkipToken();
+    assertEquals(expected, response.getSkipToken());
+
+    EntitiesResponse next = producer.getEntities(null, "Customers", query("CompanyName", "Country", response.getSkipToken()));
+    assertEquals(defaultProducer.getEntities(null, "Customers", query(null, "Country", expected)).getEntities().get(0).getEntityKey(),
+        next.getEntities().get(0).getEntityKey());
+  }
+
+  @Test
+  public void embeddedCompositeKey() {
+    EntitiesResponse response = producer.getEntities(null, "Order_Details", query("Quantity", null, null));
+    assertTrue(jpql, jpql.startsWith("SELECT t0.orderDetailsPK."));
+    assertTrue(jpql, jpql.contains(", t0.Quantity FROM"));
+
+    List<OEntity> expected = defaultProducer.getEntities(null, "Order_Details", query("Quantity", null, null)).getEntities();
+    assertEquals(expected.size(), response.getEntities().size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getEntityKey(), response.getEntities().get(i).getEntityKey());
+      assertEquals(expected.get(i).getProperty("Quantity").getValue(), response.getEntities().get(i).getProperty("Quantity").getValue());
+    }
+  }
+
+  @Test
+  public void navigationProperty() {
+    EntitiesResponse response = (EntitiesResponse) producer.getNavProperty(null, "Customers", OEntityKey.create("ALFKI"), "Orders", query("ShipCity", null, null));
+    assertTrue(jpql, jpql.startsWith("SELECT t1.OrderID, t1.ShipCity FROM Customers t0 JOIN t0.Orders t1"));
+    EntitiesResponse expected = (EntitiesResponse) defaultProducer.getNavProperty(null, "Customers", OEntityKey.create("ALFKI"), "Orders", null);
+    assertEquals(expected.getEntities().size(), response.getEntities().size());
+    assertEquals(expected.getEntities().get(0).getEntityKey(), response.getEntities().get(0).getEntityKey());
+    assertEquals(expected.getEntities().get(0).getProperty("ShipCity").getValue(), response.getEntities().get(0).getProperty("ShipCity").getValue());
+  }
+
+  @Test
+  public void expandSelectsEntities() {
+    QueryInfo query = QueryInfo.newBuilder()
+        .setSelect(ExpressionParser.parseExpand("CompanyName,Orders"))
+        .setExpand(ExpressionParser.parseExpand("Orders"))
+        .build();
+    producer.getEntities(null, "Customers", query);
+    assertTrue(jpql, jpql.startsWith("SELECT t0 FROM"));
+  }
+
+  private static QueryInfo query(String select, String orderBy, String skipToken) {
+    QueryInfo.Builder builder = QueryInfo.newBuilder().setSkipToken(skipToken);
+    if (select != null)
+      builder.setSelect(ExpressionParser.parseExpand(select));
+    if (orderBy != null)
+      builder.setOrderBy(ExpressionParser.parseOrderBy(orderBy));
+    return builder.build();
+  }
+
+}
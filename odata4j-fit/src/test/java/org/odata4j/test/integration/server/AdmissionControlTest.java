@@ -0,0 +1,148 @@
+package org.odata4j.test.integration.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.core4j.Enumerable;
+import org.core4j.Func;
+import org.core4j.Funcs;
+import org.eclipse.jetty.client.ContentExchange;
+import org.junit.After;
+import org.junit.Test;
+import org.odata4j.core.ODataConstants;
+import org.odata4j.jersey.producer.resources.AdmissionControlFilter;
+import org.odata4j.jersey.producer.server.ODataJerseyServer;
+import org.odata4j.producer.admission.AdmissionControlProducer;
+import org.odata4j.producer.admission.AdmissionController;
+import org.odata4j.producer.admission.AdmissionStats;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.resources.DefaultODataProducerProvider;
+import org.odata4j.test.integration.AbstractJettyHttpClientTest;
+
+public class AdmissionControlTest extends AbstractJettyHttpClientTest {
+
+  private final CountDownLatch entered = new CountDownLatch(1);
+  private final CountDownLatch proceed = new CountDownLatch(1);
+  private AdmissionController admission;
+
+  public AdmissionControlTest(RuntimeFacadeType type) {
+    super(type);
+  }
+
+  @Override
+  protected void startODataServer() throws Exception {
+    server = rtFacade.createODataServer(BASE_URI);
+    if (server instanceof ODataJerseyServer)
+      ((ODataJerseyServer) server).addJerseyRequestFilter(AdmissionControlFilter.class)
+          .addJerseyResponseFilter(AdmissionControlFilter.class);
+    server.start();
+  }
+
+  @Override
+  protected void registerODataProducer() throws Exception {
+    InMemoryProducer producer = new InMemoryProducer("Admission");
+    producer.register(String.class, String.class, "Slow", new Func<Iterable<String>>() {
+      public Iterable<String> apply() {
+        entered.countDown();
+        try {
+          proceed.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return Enumerable.create("A", "B");
+      }
+    }, Funcs.identity(String.class));
+    producer.register(String.class, String.class, "Fast", new Func<Iterable<String>>() {
+      public Iterable<String> apply() {
+        return Enumerable.create("C");
+      }
+    }, Funcs.identity(String.class));
+    producer.register(String.class, String.class, "Failing", new Func<Iterable<String>>() {
+      public Iterable<String> apply() {
+        // a checked exception, as resource methods may throw
+        return AdmissionControlTest.<RuntimeException> sneakyThrow(new IOException("Failing"));
+      }
+    }, Funcs.identity(String.class));
+    admission = new AdmissionController()
+        .setEntitySetLimit("Slow", 1)
+        .setMaxWaitMillis(0)
+        .setRetryAfterSeconds(5);
+    DefaultODataProducerProvider.setInstance(new AdmissionControlProducer(producer, admission));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends Throwable> Iterable<String> sneakyThrow(Throwable t) throws T {
+    throw (T) t;
+  }
+
+  @After
+  public void release() {
+    proceed.countDown();
+  }
+
+  private ContentExchange blockSlow() throws Exception {
+    ContentExchange exchange = new ContentExchange(true);
+    exchange.setURL(BASE_URI + "Slow");
+    client.send(exchange);
+    assertTrue(entered.await(10, TimeUnit.SECONDS));
+    return exchange;
+  }
+
+  @Test
+  public void entitySetLimit() throws Exception {
+    ContentExchange slow = blockSlow();
+
+    ContentExchange rejected = sendRequest(BASE_URI + "Slow");
+    assertEquals(503, rejected.getResponseStatus());
+    assertEquals("5", rejected.getResponseFields().getStringField(ODataConstants.Headers.RETRY_AFTER));
+    assertTrue(rejected.getResponseContent().contains("Too many concurrent requests for Slow"));
+
+    assertEquals(200, sendRequest(BASE_URI + "Fast").getResponseStatus());
+
+    proceed.countDown();
+    slow.waitForDone();
+    assertEquals(200, slow.getResponseStatus());
+    assertEquals(200, sendRequest(BASE_URI + "Slow").getResponseStatus());
+  }
+
+  @Test
+  public void requestLimit() throws Exception {
+    // the request limit needs the jersey filter
+    if (!(server instanceof ODataJerseyServer))
+      return;
+
+    admission.setRequestLimit(1);
+    ContentExchange slow = blockSlow();
+
+    ContentExchange rejected = sendRequest(BASE_URI + "Fast");
+    assertEquals(503, rejected.getResponseStatus());
+    assertEquals("5", rejected.getResponseFields().getStringField(ODataConstants.Headers.RETRY_AFTER));
+
+    proceed.countDown();
+    slow.waitForDone();
+    assertEquals(200, sendRequest(BASE_URI + "Fast").getResponseStatus());
+    assertEquals(404, sendRequest(BASE_URI + "Missing").getResponseStatus());
+
+    AdmissionStats requests = admission.snapshot().get(0);
+    assertEquals(AdmissionController.REQUESTS, requests.getName());
+    assertEquals(0, requests.getActive());
+    assertEquals(1, requests.getRejectedCount());
+  }
+
+  @Test
+  public void requestLimitAfterCheckedException() throws Exception {
+    if (!(server instanceof ODataJerseyServer))
+      return;
+
+    admission.setRequestLimit(1);
+    assertEquals(500, sendRequest(BASE_URI + "Failing").getResponseStatus());
+    assertEquals(500, sendRequest(BASE_URI + "Failing").getResponseStatus());
+    assertEquals(200, sendRequest(BASE_URI + "Fast").getResponseStatus());
+    assertEquals(0, admission.snapshot().get(0).getActive());
+  }
+
+}
@@ -0,0 +1,177 @@
+package org.odata4j.test.integration.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.Date;
+
+import org.eclipse.jetty.client.ContentExchange;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.odata4j.core.ODataConstants.Headers;
+import org.odata4j.core.OEntity;
+import org.odata4j.producer.EntityQueryInfo;
+import org.odata4j.producer.ODataContext;
+import org.odata4j.producer.OMediaLinkExtension;
+import org.odata4j.producer.OMediaLinkExtensions;
+import org.odata4j.producer.OMediaResource;
+import org.odata4j.producer.OMediaResourceExtension;
+import org.odata4j.producer.OMediaResources;
+import org.odata4j.producer.resources.DefaultODataProducerProvider;
+import org.odata4j.test.integration.AbstractJettyHttpClientTest;
+import org.odata4j.test.integration.producer.custom.CustomProducer;
+
+public class MediaResourceRangeTest extends AbstractJettyHttpClientTest {
+
+  private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+  private static final String URI = BASE_URI + "MLEs('foobar')/$value";
+
+  private File file;
+  private OMediaResource mediaResource;
+
+  public MediaResourceRangeTest(RuntimeFacadeType type) {
+    super(type);
+  }
+
+  @Override
+  protected void registerODataProducer() throws Exception {
+    file = File.createTempFile("media", ".txt");
+    file.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(CONTENT.getBytes("US-ASCII"));
+    out.close();
+    mediaResource = OMediaResources.file(file);
+
+    final OMediaResourceExtension extension = mock(OMediaResourceExtension.class);
+    when(extension.getMediaLinkContentType(any(ODataContext.class), any(OEntity.class))).thenReturn("text/plain");
+    when(extension.getMediaResource(any(ODataContext.class), any(OEntity.class), any(EntityQueryInfo.class))).thenAnswer(new Answer<OMediaResource>() {
+      @Override
+      public OMediaResource answer(InvocationOnMock invocation) {
+        return mediaResource;
+      }
+    });
+
+    CustomProducer producer = new CustomProducer();
+    producer.extensionFactory = new OMediaLinkExtensions() {
+      @Override
+      public OMediaLinkExtension create(ODataContext context) {
+        return extension;
+      }
+    };
+    DefaultODataProducerProvider.setInstance(producer);
+  }
+
+  @Test
+  public void fullContent() throws Exception {
+    ContentExchange exchange = get(null, null);
+    assertEquals(200, exchange.getResponseStatus());
+    assertEquals(CONTENT, exchange.getResponseContent());
+    assertEquals("36", exchange.getResponseFields().getStringField("Content-Length"));
+    assertEquals("bytes", exchange.getResponseFields().getStringField(Headers.ACCEPT_RANGES));
+    assertNull(exchange.getResponseFields().getStringField(Headers.CONTENT_RANGE));
+  }
+
+  @Test
+  public void byteRange() throws Exception {
+    assertPartial(get("bytes=2-5", null), "2345", "bytes 2-5/36");
+  }
+
+  @Test
+  public void openRange() throws Exception {
+    assertPartial(get("bytes=30-", null), "uvwxyz", "bytes 30-35/36");
+    assertPartial(get("bytes=30-1000", null), "uvwxyz", "bytes 30-35/36");
+  }
+
+  @Test
+  public void suffixRange() throws Exception {
+    assertPartial(get("bytes=-4", null), "wxyz", "bytes 32-35/36");
+  }
+
+  @Test
+  public void unsatisfiableRange() throws Exception {
+    ContentExchange exchange = get("bytes=36-", null);
+    assertEquals(416, exchange.getResponseStatus());
+    assertEquals("bytes */36", exchange.getResponseFields().getStringField(Headers.CONTENT_RANGE));
+  }
+
+  @Test
+  public void invalidAndMultipleRangesAreIgnored() throws Exception {
+    assertEquals(200, get("bytes=5-2", null).getResponseStatus());
+    assertEquals(200, get("lines=1-2", null).getResponseStatus());
+    ContentExchange exchange = get("bytes=0-1,4-5", null);
+    assertEquals(200, exchange.getResponseStatus());
+    assertEquals(CONTENT, exchange.getResponseContent());
+  }
+
+  @Test
+  public void ifRange() throws Exception {
+    String entityTag = get(null, null).getResponseFields().getStringField(Headers.ETAG);
+    assertPartial(get("bytes=0-0", entityTag), "0", "bytes 0-0/36");
+
+    String lastModified = get(null, null).getResponseFields().getStringField(Headers.LAST_MODIFIED);
+    assertPartial(get("bytes=0-0", lastModified), "0", "bytes 0-0/36");
+
+    // a changed resource is sent in full
+    ContentExchange exchange = get("bytes=0-0", "\"stale\"");
+    assertEquals(200, exchange.getResponseStatus());
+    assertEquals(CONTENT, exchange.getResponseContent());
+    assertEquals(200, get("bytes=0-0", "W/" + entityTag).getResponseStatus());
+  }
+
+  @Test
+  public void streamRange() throws Exception {
+    final byte[] content = CONTENT.getBytes("US-ASCII");
+    mediaResource = new OMediaResource() {
+      public long getLength() {
+        return content.length;
+      }
+
+      public String getEntityTag() {
+        return null;
+      }
+
+      public Date getLastModified() {
+        return null;
+      }
+
+      public FileChannel getFileChannel() {
+        return null;
+      }
+
+      public InputStream getInputStream(long offset, long length) {
+        return new ByteArrayInputStream(content, (int) offset, (int) length);
+      }
+    };
+    assertPartial(get("bytes=10-12", null), "abc", "bytes 10-12/36");
+    assertEquals(CONTENT, get(null, null).getResponseContent());
+  }
+
+  private void assertPartial(ContentExchange exchange, String content, String contentRange) throws Exception {
+    assertEquals(206, exchange.getResponseStatus());
+    assertEquals(content, exchange.getResponseContent());
+    assertEquals(contentRange, exchange.getResponseFields().getStringField(Headers.CONTENT_RANGE));
+    assertEquals(String.valueOf(content.length()), exchange.getResponseFields().getStringField("Content-Length"));
+  }
+
+  private ContentExchange get(String range, String ifRange) throws Exception {
+    ContentExchange exchange = new ContentExchange(true);
+    exchange.setURL(URI);
+    if (range != null)
+      exchange.addRequestHeader(Headers.RANGE, range);
+    if (ifRange != null)
+      exchange.addRequestHeader(Headers.IF_RANGE, ifRange);
+    client.send(exchange);
+    exchange.waitForDone();
+    return exchange;
+  }
+
+}
@@ -0,0 +1,80 @@
+package org.odata4j.test.integration.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+
+import org.core4j.Enumerable;
+import org.core4j.Func;
+import org.core4j.Funcs;
+import org.junit.After;
+import org.junit.Test;
+import org.odata4j.core.ODataConstants;
+import org.odata4j.exceptions.ServiceUnavailableException;
+import org.odata4j.producer.RequestDeadline;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.resources.DefaultODataProducerProvider;
+import org.odata4j.test.integration.AbstractODataConsumerTest;
+import org.odata4j.test.integration.ResponseData;
+
+public class RequestTimeoutTest extends AbstractODataConsumerTest {
+
+  private static final long DELAY_MILLIS = 200;
+
+  public RequestTimeoutTest(RuntimeFacadeType type) {
+    super(type);
+  }
+
+  @Override
+  protected void registerODataProducer() throws Exception {
+    InMemoryProducer producer = new InMemoryProducer("Slow");
+    producer.register(String.class, String.class, "Slow", new Func<Iterable<String>>() {
+      public Iterable<String> apply() {
+        try {
+          Thread.sleep(DELAY_MILLIS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return Enumerable.create("A", "B");
+      }
+    }, Funcs.identity(String.class));
+    DefaultODataProducerProvider.setInstance(producer);
+  }
+
+  @After
+  public void resetDefaultTimeout() {
+    RequestDeadline.setDefaultTimeout(0);
+  }
+
+  @Test
+  public void defaultTimeout() throws Exception {
+    assertEquals(2, consumer.getEntities("Slow").execute().count());
+
+    RequestDeadline.setDefaultTimeout(DELAY_MILLIS / 4);
+    try {
+      consumer.getEntities("Slow").execute().count();
+      fail();
+    } catch (ServiceUnavailableException e) {
+      assertEquals("Request deadline exceeded", e.getOError().getMessage());
+    }
+  }
+
+  @Test
+  public void timeoutHeader() throws Exception {
+    ResponseData response = rtFacade.getWebResource(BASE_URI + "Slow", null, null,
+        Collections.<String, Object> singletonMap(ODataConstants.Headers.REQUEST_TIMEOUT, "10"));
+    assertEquals(503, response.getStatusCode());
+    assertTrue(response.getEntity().contains("Request deadline exceeded"));
+
+    response = rtFacade.getWebResource(BASE_URI + "Slow", null, null,
+        Collections.<String, Object> singletonMap(ODataConstants.Headers.REQUEST_TIMEOUT, "60000"));
+    assertEquals(200, response.getStatusCode());
+
+    response = rtFacade.getWebResource(BASE_URI + "Slow", null, null,
+        Collections.<String, Object> singletonMap(ODataConstants.Headers.REQUEST_TIMEOUT, "soon"));
+    assertEquals(400, response.getStatusCode());
+  }
+
+}
@@ -0,0 +1,73 @@
+package org.odata4j.test.integration.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.core4j.Enumerable;
+import org.core4j.Func;
+import org.core4j.Funcs;
+import org.junit.Test;
+import org.odata4j.producer.cache.CacheStats;
+import org.odata4j.producer.cache.CachingProducer;
+import org.odata4j.producer.cache.ResponseCache;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.metrics.MetricsProducer;
+import org.odata4j.producer.metrics.OperationMetrics;
+import org.odata4j.producer.metrics.ProducerMetrics.Operation;
+import org.odata4j.producer.resources.DefaultODataProducerProvider;
+import org.odata4j.test.integration.AbstractODataConsumerTest;
+import org.odata4j.test.integration.ResponseData;
+
+public class ResponseCacheTest extends AbstractODataConsumerTest {
+
+  private ResponseCache cache;
+  private MetricsProducer metrics;
+
+  public ResponseCacheTest(RuntimeFacadeType type) {
+    super(type);
+  }
+
+  @Override
+  protected void registerODataProducer() throws Exception {
+    InMemoryProducer producer = new InMemoryProducer("Cached");
+    producer.register(String.class, String.class, "Strings", new Func<Iterable<String>>() {
+      public Iterable<String> apply() {
+        return Enumerable.create("A", "B");
+      }
+    }, Funcs.identity(String.class));
+    cache = new ResponseCache().setMaxSerializedBytes(1024 * 1024);
+    metrics = new MetricsProducer(new CachingProducer(producer, cache));
+    DefaultODataProducerProvider.setInstance(metrics);
+  }
+
+  @Test
+  public void serializedPayloads() throws Exception {
+    ResponseData first = rtFacade.getWebResource(BASE_URI + "Strings?$format=json");
+    ResponseData second = rtFacade.getWebResource(BASE_URI + "Strings?$format=json");
+    assertEquals(200, second.getStatusCode());
+    assertEquals(first.getEntity(), second.getEntity());
+
+    ResponseData atom = rtFacade.getWebResource(BASE_URI + "Strings");
+    assertEquals(200, atom.getStatusCode());
+    assertTrue(atom.getEntity().startsWith("<?xml"));
+
+    assertEquals(2, consumer.getEntities("Strings").execute().count());
+
+    // the first query was passed on to the producer, the others were answered from the cache
+    CacheStats stats = cache.getStats();
+    assertEquals(1, stats.getMissCount());
+    assertEquals(1, stats.getSize());
+    assertEquals(3, stats.getHitCount());
+    assertTrue(stats.getSerializedHitCount() >= 1);
+    assertTrue(stats.getSerializedBytes() > 0);
+
+    // serialized payloads are served behind the producer decorators
+    long count = 0;
+    for (OperationMetrics m : metrics.getMetrics().snapshot()) {
+      if (m.getOperation() == Operation.GetEntities)
+        count += m.getCount();
+    }
+    assertEquals(4, count);
+  }
+
+}
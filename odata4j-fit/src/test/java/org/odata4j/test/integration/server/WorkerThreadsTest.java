@@ -0,0 +1,158 @@
+package org.odata4j.test.integration.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.core4j.Enumerable;
+import org.core4j.Func;
+import org.core4j.Funcs;
+import org.eclipse.jetty.client.ContentExchange;
+import org.junit.Test;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.odata4j.producer.resources.DefaultODataProducerProvider;
+import org.odata4j.test.integration.AbstractJettyHttpClientTest;
+
+public class WorkerThreadsTest extends AbstractJettyHttpClientTest {
+
+  private static final long DELAY_MILLIS = 50;
+  private static final long TIMEOUT_SECONDS = 10;
+  private static final int REQUESTS = 8;
+
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicInteger maxActive = new AtomicInteger();
+  // when set, requests wait in the producer until it is released
+  private volatile CountDownLatch release;
+
+  public WorkerThreadsTest(RuntimeFacadeType type) {
+    super(type);
+  }
+
+  @Override
+  protected void startODataServer() throws Exception {
+    // each test starts its own server
+  }
+
+  @Override
+  protected void stopODataServer() throws Exception {
+    if (server != null)
+      server.stop();
+  }
+
+  @Override
+  protected void registerODataProducer() throws Exception {
+    InMemoryProducer producer = new InMemoryProducer("Slow");
+    producer.register(String.class, String.class, "Slow", new Func<Iterable<String>>() {
+      public Iterable<String> apply() {
+        int current = active.incrementAndGet();
+        for (int max = maxActive.get(); current > max && !maxActive.compareAndSet(max, current); max = maxActive.get());
+        try {
+          CountDownLatch latch = release;
+          if (latch != null) {
+            latch.countDown();
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+          } else {
+            Thread.sleep(DELAY_MILLIS);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          active.decrementAndGet();
+        }
+        return Enumerable.create("A", "B");
+      }
+    }, Funcs.identity(String.class));
+    DefaultODataProducerProvider.setInstance(producer);
+  }
+
+  @Test
+  public void requestsRunOnWorkers() throws Exception {
+    server = rtFacade.createODataServer(BASE_URI).setThreadPool(1, REQUESTS).start();
+    sendConcurrentRequests(null);
+    assertEquals(1, maxActive.get());
+    server.stop();
+
+    // the requests only complete once all of them run at the same time
+    server = rtFacade.createODataServer(BASE_URI).setThreadPool(REQUESTS, REQUESTS).start();
+    sendConcurrentRequests(new CountDownLatch(REQUESTS));
+    assertEquals(REQUESTS, maxActive.get());
+  }
+
+  @Test
+  public void overflowIsServiceUnavailable() throws Exception {
+    server = rtFacade.createODataServer(BASE_URI).setThreadPool(1, 0).start();
+    assertEquals(200, sendRequest(BASE_URI + "Slow").getResponseStatus());
+
+    // the only worker waits for the latch, which the second request would release
+    release = new CountDownLatch(2);
+    ContentExchange first = new ContentExchange(true);
+    first.setURL(BASE_URI + "Slow");
+    client.send(first);
+    while (active.get() == 0)
+      Thread.sleep(10);
+
+    assertEquals(503, sendRequest(BASE_URI + "Slow").getResponseStatus());
+    release.countDown();
+    first.waitForDone();
+    assertEquals(200, first.getResponseStatus());
+  }
+
+  @Test
+  public void customExecutor() throws Exception {
+    final AtomicInteger executed = new AtomicInteger();
+    // room for the requests and Jetty's acceptor and selector
+    final ExecutorService pool = Executors.newFixedThreadPool(REQUESTS + 2);
+    try {
+      server = rtFacade.createODataServer(BASE_URI)
+          .setExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+              executed.incrementAndGet();
+              pool.execute(command);
+            }
+          })
+          .setBacklog(64)
+          .start();
+      sendConcurrentRequests(new CountDownLatch(REQUESTS));
+      assertEquals(REQUESTS, maxActive.get());
+      assertTrue(executed.get() >= REQUESTS);
+      server.stop();
+      server = null;
+
+      // the server leaves a custom executor running
+      assertFalse(pool.isShutdown());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private void sendConcurrentRequests(CountDownLatch latch) throws Exception {
+    // the first request initializes the application
+    release = null;
+    assertEquals(200, sendRequest(BASE_URI + "Slow").getResponseStatus());
+
+    release = latch;
+    maxActive.set(0);
+    List<ContentExchange> exchanges = new ArrayList<ContentExchange>();
+    for (int i = 0; i < REQUESTS; i++) {
+      ContentExchange exchange = new ContentExchange(true);
+      exchange.setURL(BASE_URI + "Slow");
+      client.send(exchange);
+      exchanges.add(exchange);
+    }
+    for (ContentExchange exchange : exchanges) {
+      exchange.waitForDone();
+      assertEquals(200, exchange.getResponseStatus());
+    }
+  }
+
+}
@@ -18,6 +18,11 @@ public class JerseyClientResponse implements ODataClientResponse {
     return clientResponse;
   }
 
+  @Override
+  public int getStatus() {
+    return clientResponse.getStatus();
+  }
+
   @Override
   public MultivaluedMap<String, String> getHeaders() {
     return clientResponse.getHeaders();
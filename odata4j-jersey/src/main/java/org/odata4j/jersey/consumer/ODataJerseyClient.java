@@ -110,7 +110,13 @@ class ODataJerseyClient extends AbstractODataClient {
       dumpHeaders(request, webResource, b);
 
     // request body
-    if (request.getPayload() != null) {
+    if (request.getPayload() instanceof String) {
+      // preformatted, e.g. a batch
+      String entity = (String) request.getPayload();
+      if (ODataConsumer.dump.requestBody())
+        dump(entity);
+      b.entity(entity, request.getHeaders().get(ODataConstants.Headers.CONTENT_TYPE));
+    } else if (request.getPayload() != null) {
 
       Class<?> payloadClass;
       if (request.getPayload() instanceof Entry)
@@ -1,8 +1,11 @@
 package org.odata4j.jersey.consumer;
 
+import java.util.concurrent.ExecutorService;
+
 import javax.ws.rs.ext.RuntimeDelegate;
 
 import org.odata4j.consumer.AbstractODataConsumer;
+import org.odata4j.consumer.MetadataCache;
 import org.odata4j.consumer.ODataClient;
 import org.odata4j.consumer.ODataConsumer;
 import org.odata4j.consumer.behaviors.OClientBehavior;
@@ -15,14 +18,15 @@ public class ODataJerseyConsumer extends AbstractODataConsumer {
 
   private ODataJerseyClient client;
 
-  private ODataJerseyConsumer(FormatType type, String serviceRootUri, JerseyClientFactory clientFactory, OClientBehavior... behaviors) {
-    super(serviceRootUri);
+  private ODataJerseyConsumer(FormatType type, String serviceRootUri, JerseyClientFactory clientFactory, ExecutorService executor, MetadataCache metadataCache, OClientBehavior... behaviors) {
+    super(serviceRootUri, executor, metadataCache);
 
     // ensure that a correct JAX-RS implementation (Jersey, server or default) is loaded
     if (!(RuntimeDelegate.getInstance() instanceof com.sun.jersey.core.spi.factory.AbstractRuntimeDelegate))
       RuntimeDelegate.setInstance(new com.sun.ws.rs.ext.RuntimeDelegateImpl());
 
     this.client = new ODataJerseyClient(type, clientFactory, behaviors);
+    this.client.setExecutor(getExecutor());
   }
 
   @Override
@@ -39,6 +43,8 @@ public class ODataJerseyConsumer extends AbstractODataConsumer {
     private String serviceRootUri;
     private JerseyClientFactory clientFactory;
     private OClientBehavior[] clientBehaviors;
+    private ExecutorService executor;
+    private MetadataCache metadataCache;
 
     private Builder(String serviceRootUri) {
       this.serviceRootUri = serviceRootUri;
@@ -81,6 +87,30 @@ public class ODataJerseyConsumer extends AbstractODataConsumer {
       return this;
     }
 
+    /**
+     * Sets the executor running requests sent with {@code executeAsync()}.
+     * Defaults to an executor shared by all consumers.
+     *
+     * @param executor  the executor for asynchronous requests
+     * @return this builder
+     */
+    public Builder setExecutor(ExecutorService executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Sets the cache the consumer takes the service metadata from; see {@link org.odata4j.consumer.MetadataCaches}.
+     * By default every consumer downloads the metadata itself.
+     *
+     * @param metadataCache  the metadata cache
+     * @return this builder
+     */
+    public Builder setMetadataCache(MetadataCache metadataCache) {
+      this.metadataCache = metadataCache;
+      return this;
+    }
+
     /**
      * Builds the {@link ODataJerseyConsumer} object.
      *
@@ -88,9 +118,9 @@ public class ODataJerseyConsumer extends AbstractODataConsumer {
      */
     public ODataJerseyConsumer build() {
       if (this.clientBehaviors != null)
-        return new ODataJerseyConsumer(this.formatType, this.serviceRootUri, this.clientFactory, this.clientBehaviors);
+        return new ODataJerseyConsumer(this.formatType, this.serviceRootUri, this.clientFactory, this.executor, this.metadataCache, this.clientBehaviors);
       else
-        return new ODataJerseyConsumer(this.formatType, this.serviceRootUri, this.clientFactory);
+        return new ODataJerseyConsumer(this.formatType, this.serviceRootUri, this.clientFactory, this.executor, this.metadataCache);
     }
   }
 
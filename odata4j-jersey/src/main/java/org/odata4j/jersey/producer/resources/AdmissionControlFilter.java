@@ -0,0 +1,70 @@
+package org.odata4j.jersey.producer.resources;
+
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Providers;
+
+import org.odata4j.core.ODataConstants;
+import org.odata4j.producer.ODataProducer;
+import org.odata4j.producer.RequestDeadline;
+import org.odata4j.producer.admission.AdmissionController;
+import org.odata4j.producer.admission.AdmissionController.Permit;
+
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ContainerResponseFilter;
+
+/**
+ * Jersey filter limiting the number of requests the service executes at the same time, as set with
+ * {@link AdmissionController#setRequestLimit(int)} on the controller of an
+ * {@link org.odata4j.producer.admission.AdmissionControlProducer}.  Requests over the limit are
+ * answered with {@code 503 Service Unavailable} and a {@code Retry-After} header before any
+ * resource is invoked.
+ *
+ * <p>Register it both as request and as response filter:</p>
+ * <pre>
+ * server.addJerseyRequestFilter(AdmissionControlFilter.class)
+ *     .addJerseyResponseFilter(AdmissionControlFilter.class);
+ * </pre>
+ *
+ * <p>The permit of a request is released when its response is built, before the response entity
+ * is written.  Failed requests have a response too, since the
+ * {@link org.odata4j.producer.resources.ExceptionMappingProvider} maps every exception.  Requests
+ * pass unchecked if the producer has no admission controller.</p>
+ */
+public class AdmissionControlFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  private static final String PERMIT_PROPERTY = AdmissionControlFilter.class.getName() + ".permit";
+
+  @Context
+  private Providers providers;
+
+  @Override
+  public ContainerRequest filter(ContainerRequest request) {
+    AdmissionController admission = getAdmissionController();
+    if (admission != null) {
+      RequestDeadline deadline = RequestDeadline.forRequest(request.getHeaderValue(ODataConstants.Headers.REQUEST_TIMEOUT));
+      request.getProperties().put(PERMIT_PROPERTY, admission.admitRequest(deadline));
+    }
+    return request;
+  }
+
+  @Override
+  public ContainerResponse filter(ContainerRequest request, ContainerResponse response) {
+    Permit permit = (Permit) request.getProperties().remove(PERMIT_PROPERTY);
+    if (permit != null)
+      permit.release();
+    return response;
+  }
+
+  private AdmissionController getAdmissionController() {
+    if (providers == null)
+      return null;
+    ContextResolver<ODataProducer> producerResolver = providers.getContextResolver(ODataProducer.class, MediaType.WILDCARD_TYPE);
+    ODataProducer producer = producerResolver == null ? null : producerResolver.getContext(ODataProducer.class);
+    return producer == null ? null : producer.findExtension(AdmissionController.class);
+  }
+
+}
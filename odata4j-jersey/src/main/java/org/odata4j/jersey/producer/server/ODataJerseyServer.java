@@ -4,13 +4,17 @@ import static com.sun.jersey.api.core.ResourceConfig.FEATURE_TRACE;
 import static com.sun.jersey.api.core.ResourceConfig.PROPERTY_CONTAINER_REQUEST_FILTERS;
 import static com.sun.jersey.api.core.ResourceConfig.PROPERTY_CONTAINER_RESPONSE_FILTERS;
 import static com.sun.jersey.api.core.ResourceConfig.PROPERTY_RESOURCE_FILTER_FACTORIES;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
@@ -22,9 +26,9 @@ import org.core4j.CoreUtils;
 import org.core4j.Enumerable;
 import org.odata4j.core.Throwables;
 import org.odata4j.producer.server.ODataServer;
+import org.odata4j.producer.server.ODataServerExecutors;
 
 import com.sun.jersey.api.container.ContainerFactory;
-import com.sun.jersey.api.container.httpserver.HttpServerFactory;
 import com.sun.jersey.api.core.ApplicationAdapter;
 import com.sun.jersey.spi.container.ContainerRequestFilter;
 import com.sun.jersey.spi.container.ContainerResponseFilter;
@@ -32,11 +36,16 @@ import com.sun.jersey.spi.container.ResourceFilterFactory;
 import com.sun.net.httpserver.Authenticator;
 import com.sun.net.httpserver.Filter;
 import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsServer;
 
 /**
  * OData server using the Jersey JAX-RS and Sun's HTTP server implementation.
+ *
+ * <p>Requests are handled by a bounded pool of {@link ODataServerExecutors#DEFAULT_THREADS}
+ * worker threads unless configured otherwise, see {@link #setThreadPool} and {@link #setExecutor}.</p>
  */
 public class ODataJerseyServer implements ODataServer {
 
@@ -51,8 +60,14 @@ public class ODataJerseyServer implements ODataServer {
   private final Map<String, Boolean> jerseyFeatures = new HashMap<String, Boolean>();
   private final List<Filter> httpServerFilters = new ArrayList<Filter>();
   private Authenticator httpServerAuthenticator;
+  private int threads = ODataServerExecutors.DEFAULT_THREADS;
+  private int queueCapacity = ODataServerExecutors.DEFAULT_QUEUE_CAPACITY;
+  private RejectedExecutionHandler rejectedExecutionHandler = ODataServerExecutors.defaultRejectedExecutionHandler();
+  private Executor executor;
+  private int backlog;
 
   private HttpServer server;
+  private ThreadPoolExecutor workerPool;
 
   public ODataJerseyServer(String appBaseUri) {
     this.appBaseUri = appBaseUri;
@@ -115,6 +130,31 @@ public class ODataJerseyServer implements ODataServer {
     return this;
   }
 
+  @Override
+  public ODataJerseyServer setThreadPool(int threads, int queueCapacity) {
+    this.threads = threads;
+    this.queueCapacity = queueCapacity;
+    return this;
+  }
+
+  @Override
+  public ODataJerseyServer setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+    this.rejectedExecutionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public ODataJerseyServer setExecutor(Executor executor) {
+    this.executor = executor;
+    return this;
+  }
+
+  @Override
+  public ODataJerseyServer setBacklog(int backlog) {
+    this.backlog = backlog;
+    return this;
+  }
+
   @Override
   public ODataServer stop() {
     return stop(0);
@@ -128,16 +168,18 @@ public class ODataJerseyServer implements ODataServer {
    */
   public ODataJerseyServer stop(int delaySeconds) {
     server.stop(delaySeconds);
-    Executor serverExecutor = server.getExecutor();
-    if (serverExecutor instanceof ThreadPoolExecutor) {
-      ((ThreadPoolExecutor) serverExecutor).shutdown();
+
+    // only shut down our own pool, a custom executor belongs to the caller
+    if (workerPool != null) {
+      workerPool.shutdown();
       if (delaySeconds > 0) {
         try {
-          ((ThreadPoolExecutor) serverExecutor).awaitTermination(delaySeconds, TimeUnit.SECONDS);
+          workerPool.awaitTermination(delaySeconds, TimeUnit.SECONDS);
         } catch (InterruptedException ex) {
           // oh well..
         }
       }
+      workerPool = null;
     }
 
     return this;
@@ -154,7 +196,9 @@ public class ODataJerseyServer implements ODataServer {
       // create resource config/ application adapter for app context
       ApplicationAdapter odataAppAdapter = new ApplicationAdapter(odataApp.newInstance());
       odataAppAdapter.setPropertiesAndFeatures(propertiesAndFeatures);
-      server = HttpServerFactory.create(appBaseUri, odataAppAdapter);
+      URI uri = URI.create(appBaseUri);
+      server = createHttpServer(uri);
+      server.createContext(uri.getPath(), ContainerFactory.createContainer(HttpHandler.class, odataAppAdapter));
 
       // create resource config/ application adapter for root context (if necessary)
       if (rootApp != null) {
@@ -168,6 +212,14 @@ public class ODataJerseyServer implements ODataServer {
       for (HttpContext context : getHttpContexts())
         initHttpContext(context);
 
+      // without an executor, every request would run on the dispatcher thread
+      if (executor != null) {
+        server.setExecutor(executor);
+      } else {
+        workerPool = ODataServerExecutors.newWorkerPool("odata-jersey", threads, queueCapacity, rejectedExecutionHandler);
+        server.setExecutor(workerPool);
+      }
+
       // fire up the HttpServer
       server.start();
 
@@ -186,6 +238,22 @@ public class ODataJerseyServer implements ODataServer {
     return server;
   }
 
+  /**
+   * Creates the unstarted HTTP server for the base URI, bound with the configured backlog.
+   */
+  protected HttpServer createHttpServer(URI uri) throws IOException {
+    String scheme = uri.getScheme();
+    if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme))
+      throw new IllegalArgumentException("The URI scheme of " + uri + " must be http or https");
+    if (uri.getPath() == null || !uri.getPath().startsWith("/"))
+      throw new IllegalArgumentException("The URI path of " + uri + " must start with '/'");
+
+    InetSocketAddress address = new InetSocketAddress(uri.getPort() == -1 ? 80 : uri.getPort());
+    return "https".equalsIgnoreCase(scheme)
+        ? HttpsServer.create(address, backlog)
+        : HttpServer.create(address, backlog);
+  }
+
   protected Map<String, Object> buildPropertiesAndFeatures() {
     Map<String, Object> propertiesAndFeatures = new HashMap<String, Object>();
     propertiesAndFeatures.put(PROPERTY_CONTAINER_REQUEST_FILTERS, Enumerable.create(jerseyRequestFilters).toArray(String.class));
@@ -196,11 +264,31 @@ public class ODataJerseyServer implements ODataServer {
   }
 
   protected void initHttpContext(HttpContext context) {
+    context.getFilters().add(new RejectedRequestFilter());
     context.getFilters().addAll(httpServerFilters);
     if (httpServerAuthenticator != null)
       context.setAuthenticator(httpServerAuthenticator);
   }
 
+  /** Answers requests rejected by the worker pool with 503 Service Unavailable. */
+  private static class RejectedRequestFilter extends Filter {
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+      if (ODataServerExecutors.isRejected()) {
+        exchange.sendResponseHeaders(HTTP_UNAVAILABLE, -1);
+        exchange.close();
+      } else {
+        chain.doFilter(exchange);
+      }
+    }
+
+    @Override
+    public String description() {
+      return "Rejects requests the worker pool has no room for";
+    }
+  }
+
   @SuppressWarnings("unchecked")
   protected Iterable<HttpContext> getHttpContexts() {
     // would love to know if there is another way to do this...
@@ -0,0 +1,30 @@
+package org.odata4j.perf;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ *
+ * <p>Accepts the usual jmh command line options, but writes machine-readable json results to
+ * <code>odata4j-benchmarks.json</code> unless <code>-rf</code>/<code>-rff</code> say otherwise,
+ * so that runs against different odata4j versions can be compared.</p>
+ */
+public class BenchmarkRunner {
+
+  public static final String DEFAULT_RESULT_FILE = "odata4j-benchmarks.json";
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cmd = new CommandLineOptions(args);
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+    if (!cmd.getResultFormat().hasValue())
+      options.resultFormat(ResultFormatType.JSON);
+    if (!cmd.getResult().hasValue())
+      options.result(DEFAULT_RESULT_FILE);
+    new Runner(options.build()).run();
+  }
+
+}
@@ -0,0 +1,113 @@
+package org.odata4j.perf;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.PathSegment;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * Minimal {@link UriInfo} for driving the format writers outside of a JAX-RS container.
+ *
+ * <p>Only the base uri and path are available; the writers do not need more as long as
+ * the written responses carry no skip token.</p>
+ */
+public class BenchmarkUriInfo implements UriInfo {
+
+  private final URI baseUri;
+  private final String path;
+
+  public BenchmarkUriInfo(String baseUri, String path) {
+    this.baseUri = URI.create(baseUri);
+    this.path = path;
+  }
+
+  @Override
+  public URI getBaseUri() {
+    return baseUri;
+  }
+
+  @Override
+  public String getPath() {
+    return path;
+  }
+
+  @Override
+  public String getPath(boolean decode) {
+    return path;
+  }
+
+  @Override
+  public URI getRequestUri() {
+    return baseUri.resolve(path);
+  }
+
+  @Override
+  public URI getAbsolutePath() {
+    return getRequestUri();
+  }
+
+  @Override
+  public List<String> getMatchedURIs() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public List<String> getMatchedURIs(boolean decode) {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public List<Object> getMatchedResources() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public List<PathSegment> getPathSegments() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public List<PathSegment> getPathSegments(boolean decode) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public UriBuilder getRequestUriBuilder() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public UriBuilder getAbsolutePathBuilder() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public UriBuilder getBaseUriBuilder() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public MultivaluedMap<String, String> getPathParameters() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public MultivaluedMap<String, String> getPathParameters(boolean decode) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public MultivaluedMap<String, String> getQueryParameters() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public MultivaluedMap<String, String> getQueryParameters(boolean decode) {
+    throw new UnsupportedOperationException();
+  }
+
+}
@@ -0,0 +1,46 @@
+package org.odata4j.perf;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.odata4j.edm.EdmDataServices;
+import org.odata4j.format.xml.EdmxFormatParser;
+import org.odata4j.format.xml.EdmxFormatWriter;
+import org.odata4j.stax2.util.StaxUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Writing and parsing of $metadata documents with {@link EdmxFormatWriter} and {@link EdmxFormatParser}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EdmxFormatBenchmark {
+
+  private EdmDataServices metadata;
+  private String edmx;
+
+  @Setup
+  public void setup() {
+    metadata = new NorthwindData(1).newProducer(100).getMetadata();
+    edmx = write();
+  }
+
+  @Benchmark
+  public String write() {
+    StringWriter sw = new StringWriter();
+    EdmxFormatWriter.write(metadata, sw);
+    return sw.toString();
+  }
+
+  @Benchmark
+  public EdmDataServices parse() {
+    return new EdmxFormatParser().parseMetadata(StaxUtil.newXMLEventReader(new StringReader(edmx)));
+  }
+
+}
@@ -0,0 +1,40 @@
+package org.odata4j.perf;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.odata4j.expression.CommonExpression;
+import org.odata4j.expression.ExpressionParser;
+import org.odata4j.expression.OrderByExpression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/** Parsing of typical $filter and $orderby query options. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpressionParserBenchmark {
+
+  @Param({
+      "ProductID eq 7",
+      "UnitPrice gt 20.5M and Discontinued eq false",
+      "startswith(CompanyName,'Alfr') or substringof('Futterkiste', tolower(CompanyName))",
+      "year(OrderDate) eq 1997 and (Freight add 10M) gt 100M and not (ShipCountry eq 'Germany' or ShipCountry eq 'France')" })
+  public String filter;
+
+  @Benchmark
+  public CommonExpression parseFilter() {
+    return ExpressionParser.parse(filter);
+  }
+
+  @Benchmark
+  public List<OrderByExpression> parseOrderBy() {
+    return ExpressionParser.parseOrderBy("ShipCountry, OrderDate desc, OrderID");
+  }
+
+}
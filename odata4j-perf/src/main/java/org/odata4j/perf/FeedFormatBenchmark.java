@@ -0,0 +1,80 @@
+package org.odata4j.perf;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.UriInfo;
+
+import org.odata4j.core.ODataVersion;
+import org.odata4j.edm.EdmDataServices;
+import org.odata4j.format.Entry;
+import org.odata4j.format.Feed;
+import org.odata4j.format.FormatParser;
+import org.odata4j.format.FormatParserFactory;
+import org.odata4j.format.FormatType;
+import org.odata4j.format.FormatWriter;
+import org.odata4j.format.FormatWriterFactory;
+import org.odata4j.format.Settings;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Serialization and parsing of an Orders feed in atom and json,
+ * i.e. {@code AtomFeedFormatWriter}/{@code JsonFeedFormatWriter} and {@code AtomFeedFormatParser}/{@code JsonFeedFormatParser}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FeedFormatBenchmark {
+
+  private static final String ENTITY_SET = "Orders";
+
+  @Param({ "atom", "json" })
+  public String format;
+
+  @Param({ "1", "10" })
+  public int scale;
+
+  private final UriInfo uriInfo = new BenchmarkUriInfo("http://localhost:8887/Northwind.svc/", ENTITY_SET);
+  private EdmDataServices metadata;
+  private EntitiesResponse response;
+  private FormatWriter<EntitiesResponse> writer;
+  private String payload;
+
+  @Setup
+  public void setup() {
+    InMemoryProducer producer = new NorthwindData(scale).newProducer(100000);
+    metadata = producer.getMetadata();
+    response = producer.getEntities(null, ENTITY_SET, new QueryInfo());
+    writer = FormatWriterFactory.getFormatWriter(EntitiesResponse.class, null, format, null);
+    payload = write();
+  }
+
+  @Benchmark
+  public String write() {
+    StringWriter sw = new StringWriter();
+    writer.write(uriInfo, sw, response);
+    return sw.toString();
+  }
+
+  @Benchmark
+  public void parse(Blackhole bh) {
+    FormatParser<Feed> parser = FormatParserFactory.getParser(Feed.class, FormatType.parse(format),
+        new Settings(ODataVersion.V2, metadata, ENTITY_SET, null));
+    Feed feed = parser.parse(new StringReader(payload));
+    for (Entry entry : feed.getEntries())
+      bh.consume(entry.getEntity());
+  }
+
+}
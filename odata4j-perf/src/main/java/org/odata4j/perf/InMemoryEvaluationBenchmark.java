@@ -0,0 +1,56 @@
+package org.odata4j.perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.odata4j.expression.BoolCommonExpression;
+import org.odata4j.expression.ExpressionParser;
+import org.odata4j.perf.NorthwindData.Order;
+import org.odata4j.producer.inmemory.BeanBasedPropertyModel;
+import org.odata4j.producer.inmemory.InMemoryEvaluation;
+import org.odata4j.producer.inmemory.PropertyModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Evaluation of a parsed $filter over every order of the data set. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InMemoryEvaluationBenchmark {
+
+  @Param({ "1", "10" })
+  public int scale;
+
+  @Param({
+      "EmployeeID eq 5",
+      "Freight gt 500M and ShipCountry ne 'USA'",
+      "year(OrderDate) eq 1997 and startswith(ShipCity,'B')" })
+  public String filter;
+
+  private NorthwindData data;
+  private PropertyModel propertyModel;
+  private BoolCommonExpression expression;
+
+  @Setup
+  public void setup() {
+    data = new NorthwindData(scale);
+    propertyModel = new BeanBasedPropertyModel(Order.class);
+    expression = (BoolCommonExpression) ExpressionParser.parse(filter);
+  }
+
+  @Benchmark
+  public int evaluate() {
+    int matches = 0;
+    for (Order order : data.orders) {
+      if (InMemoryEvaluation.evaluate(expression, order, propertyModel))
+        matches++;
+    }
+    return matches;
+  }
+
+}
@@ -0,0 +1,77 @@
+package org.odata4j.perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.odata4j.expression.BoolCommonExpression;
+import org.odata4j.expression.ExpressionParser;
+import org.odata4j.producer.EntitiesResponse;
+import org.odata4j.producer.InlineCount;
+import org.odata4j.producer.QueryInfo;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** End-to-end {@link InMemoryProducer#getEntities} over the Orders set. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InMemoryProducerBenchmark {
+
+  @Param({ "1", "10", "100" })
+  public int scale;
+
+  private InMemoryProducer producer;
+  private QueryInfo all;
+  private QueryInfo filtered;
+  private QueryInfo ordered;
+  private QueryInfo paged;
+
+  @Setup
+  public void setup() {
+    producer = new NorthwindData(scale).newProducer(100000);
+    producer.getMetadata();
+
+    all = new QueryInfo();
+    filtered = QueryInfo.newBuilder()
+        .setFilter((BoolCommonExpression) ExpressionParser.parse("Freight gt 500M and ShipCountry ne 'USA'"))
+        .build();
+    ordered = QueryInfo.newBuilder()
+        .setOrderBy(ExpressionParser.parseOrderBy("OrderDate desc"))
+        .setTop(20)
+        .build();
+    paged = QueryInfo.newBuilder()
+        .setInlineCount(InlineCount.ALLPAGES)
+        .setFilter((BoolCommonExpression) ExpressionParser.parse("EmployeeID eq 5"))
+        .setOrderBy(ExpressionParser.parseOrderBy("ShipCountry, OrderID"))
+        .setSkip(20)
+        .setTop(50)
+        .build();
+  }
+
+  @Benchmark
+  public EntitiesResponse getAll() {
+    return producer.getEntities(null, "Orders", all);
+  }
+
+  @Benchmark
+  public EntitiesResponse getFiltered() {
+    return producer.getEntities(null, "Orders", filtered);
+  }
+
+  @Benchmark
+  public EntitiesResponse getTopOrdered() {
+    return producer.getEntities(null, "Orders", ordered);
+  }
+
+  @Benchmark
+  public EntitiesResponse getPage() {
+    return producer.getEntities(null, "Orders", paged);
+  }
+
+}
@@ -0,0 +1,39 @@
+package org.odata4j.perf;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.odata4j.edm.EdmDataServices;
+import org.odata4j.format.xml.EdmxFormatParser;
+import org.odata4j.stax2.util.StaxUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Parsing of large, ERP-sized $metadata documents generated by {@link SyntheticEdmx}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LargeEdmxBenchmark {
+
+  @Param({ "500", "2000" })
+  public int entityTypes;
+
+  private String edmx;
+
+  @Setup
+  public void setup() {
+    edmx = SyntheticEdmx.create(entityTypes);
+  }
+
+  @Benchmark
+  public EdmDataServices parse() {
+    return new EdmxFormatParser().parseMetadata(StaxUtil.newXMLEventReader(new StringReader(edmx)));
+  }
+
+}
@@ -0,0 +1,193 @@
+package org.odata4j.perf;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.core4j.Func;
+import org.joda.time.LocalDateTime;
+import org.odata4j.producer.inmemory.InMemoryProducer;
+
+/**
+ * Deterministic, Northwind-sized sample data for the benchmarks.
+ *
+ * <p>The default sizes match the Northwind sample database (91 customers, 77 products, 830 orders);
+ * a scale factor multiplies them for larger runs.</p>
+ */
+public class NorthwindData {
+
+  public static final String NAMESPACE = "Northwind";
+  public static final int CUSTOMERS = 91;
+  public static final int PRODUCTS = 77;
+  public static final int ORDERS = 830;
+
+  private static final String[] COUNTRIES = { "Germany", "Mexico", "UK", "Sweden", "France", "Spain", "Canada", "Argentina", "Switzerland", "Brazil", "Austria", "Italy", "Portugal", "USA", "Venezuela", "Ireland", "Belgium", "Norway", "Denmark", "Finland", "Poland" };
+  private static final String[] CITIES = { "Berlin", "México D.F.", "London", "Luleå", "Mannheim", "Strasbourg", "Madrid", "Marseille", "Tsawassen", "Buenos Aires", "Bern", "Sao Paulo", "Graz", "Torino", "Lisboa", "Portland", "Caracas", "Cork", "Bruxelles", "Stavern" };
+
+  public final List<Customer> customers = new ArrayList<Customer>();
+  public final List<Product> products = new ArrayList<Product>();
+  public final List<Order> orders = new ArrayList<Order>();
+
+  public NorthwindData(int scale) {
+    Random random = new Random(42);
+
+    for (int i = 0; i < CUSTOMERS * scale; i++) {
+      Customer c = new Customer();
+      c.customerID = "C" + i;
+      c.companyName = "Company " + i;
+      c.contactName = "Contact " + i;
+      c.city = CITIES[random.nextInt(CITIES.length)];
+      c.country = COUNTRIES[random.nextInt(COUNTRIES.length)];
+      customers.add(c);
+    }
+
+    for (int i = 0; i < PRODUCTS * scale; i++) {
+      Product p = new Product();
+      p.productID = i + 1;
+      p.productName = "Product " + i;
+      p.categoryID = random.nextInt(8) + 1;
+      p.unitPrice = BigDecimal.valueOf(random.nextInt(26000) + 250, 2);
+      p.unitsInStock = random.nextInt(125);
+      p.discontinued = random.nextInt(10) == 0;
+      products.add(p);
+    }
+
+    LocalDateTime start = new LocalDateTime(1996, 7, 4, 0, 0);
+    for (int i = 0; i < ORDERS * scale; i++) {
+      Order o = new Order();
+      o.orderID = 10248 + i;
+      o.customerID = customers.get(random.nextInt(customers.size())).customerID;
+      o.employeeID = random.nextInt(9) + 1;
+      o.orderDate = start.plusHours(i * 16 / scale);
+      o.freight = BigDecimal.valueOf(random.nextInt(100000), 2);
+      o.shipCity = CITIES[random.nextInt(CITIES.length)];
+      o.shipCountry = COUNTRIES[random.nextInt(COUNTRIES.length)];
+      orders.add(o);
+    }
+  }
+
+  /** Creates an in-memory producer serving this data as Customers, Products and Orders. */
+  public InMemoryProducer newProducer(int maxResults) {
+    InMemoryProducer producer = new InMemoryProducer(NAMESPACE, maxResults);
+    producer.register(Customer.class, "Customers", new Func<Iterable<Customer>>() {
+      @Override
+      public Iterable<Customer> apply() {
+        return customers;
+      }
+    }, "CustomerID");
+    producer.register(Product.class, "Products", new Func<Iterable<Product>>() {
+      @Override
+      public Iterable<Product> apply() {
+        return products;
+      }
+    }, "ProductID");
+    producer.register(Order.class, "Orders", new Func<Iterable<Order>>() {
+      @Override
+      public Iterable<Order> apply() {
+        return orders;
+      }
+    }, "OrderID");
+    return producer;
+  }
+
+  public static class Customer {
+    private String customerID;
+    private String companyName;
+    private String contactName;
+    private String city;
+    private String country;
+
+    public String getCustomerID() {
+      return customerID;
+    }
+
+    public String getCompanyName() {
+      return companyName;
+    }
+
+    public String getContactName() {
+      return contactName;
+    }
+
+    public String getCity() {
+      return city;
+    }
+
+    public String getCountry() {
+      return country;
+    }
+  }
+
+  public static class Product {
+    private Integer productID;
+    private String productName;
+    private Integer categoryID;
+    private BigDecimal unitPrice;
+    private Integer unitsInStock;
+    private Boolean discontinued;
+
+    public Integer getProductID() {
+      return productID;
+    }
+
+    public String getProductName() {
+      return productName;
+    }
+
+    public Integer getCategoryID() {
+      return categoryID;
+    }
+
+    public BigDecimal getUnitPrice() {
+      return unitPrice;
+    }
+
+    public Integer getUnitsInStock() {
+      return unitsInStock;
+    }
+
+    public Boolean getDiscontinued() {
+      return discontinued;
+    }
+  }
+
+  public static class Order {
+    private Integer orderID;
+    private String customerID;
+    private Integer employeeID;
+    private LocalDateTime orderDate;
+    private BigDecimal freight;
+    private String shipCity;
+    private String shipCountry;
+
+    public Integer getOrderID() {
+      return orderID;
+    }
+
+    public String getCustomerID() {
+      return customerID;
+    }
+
+    public Integer getEmployeeID() {
+      return employeeID;
+    }
+
+    public LocalDateTime getOrderDate() {
+      return orderDate;
+    }
+
+    public BigDecimal getFreight() {
+      return freight;
+    }
+
+    public String getShipCity() {
+      return shipCity;
+    }
+
+    public String getShipCountry() {
+      return shipCountry;
+    }
+  }
+
+}
@@ -0,0 +1,86 @@
+package org.odata4j.perf;
+
+/**
+ * Generates large, deterministic $metadata documents for the parser benchmarks.
+ *
+ * <p>Every entity type has a key, a few simple properties, a complex-typed property and a navigation
+ * property to the next type; every tenth type derives from its predecessor. Each type has an entity set,
+ * each association an association set, and every type a function import returning a collection of it.
+ * Entity set and property types alternate between the namespace and its alias.</p>
+ */
+public class SyntheticEdmx {
+
+  public static final String NAMESPACE = "Synthetic";
+  public static final String ALIAS = "Syn";
+
+  private SyntheticEdmx() {}
+
+  /** Creates an edmx document with the given number of entity types. */
+  public static String create(int entityTypes) {
+    int complexTypes = Math.max(1, entityTypes / 10);
+    StringBuilder sb = new StringBuilder();
+    sb.append("<?xml version=\"1.0\" encoding=\"utf-8\" standalone=\"yes\"?>\n");
+    sb.append("<edmx:Edmx Version=\"1.0\" xmlns:edmx=\"http://schemas.microsoft.com/ado/2007/06/edmx\">\n");
+    sb.append("<edmx:DataServices m:DataServiceVersion=\"2.0\" xmlns:m=\"http://schemas.microsoft.com/ado/2007/08/dataservices/metadata\">\n");
+    sb.append("<Schema Namespace=\"").append(NAMESPACE).append("\" Alias=\"").append(ALIAS).append("\" xmlns=\"http://schemas.microsoft.com/ado/2008/09/edm\">\n");
+
+    for (int i = 0; i < complexTypes; i++) {
+      sb.append("<ComplexType Name=\"Address").append(i).append("\">");
+      sb.append("<Property Name=\"Street\" Type=\"Edm.String\" Nullable=\"true\"/>");
+      sb.append("<Property Name=\"City\" Type=\"Edm.String\" Nullable=\"true\"/>");
+      sb.append("</ComplexType>\n");
+    }
+
+    for (int i = 0; i < entityTypes; i++) {
+      sb.append("<EntityType Name=\"Type").append(i).append("\"");
+      if (i % 10 == 1)
+        sb.append(" BaseType=\"").append(NAMESPACE).append(".Type").append(i - 1).append("\"");
+      sb.append(">");
+      if (i % 10 != 1)
+        sb.append("<Key><PropertyRef Name=\"Id\"/></Key><Property Name=\"Id\" Type=\"Edm.Int32\" Nullable=\"false\"/>");
+      sb.append("<Property Name=\"Name").append(i).append("\" Type=\"Edm.String\" Nullable=\"true\" MaxLength=\"100\"/>");
+      sb.append("<Property Name=\"Amount").append(i).append("\" Type=\"Edm.Decimal\" Nullable=\"true\" Precision=\"18\" Scale=\"2\"/>");
+      sb.append("<Property Name=\"Modified").append(i).append("\" Type=\"Edm.DateTime\" Nullable=\"true\"/>");
+      sb.append("<Property Name=\"Address").append(i).append("\" Type=\"").append(qualify(i)).append("Address").append(i % complexTypes).append("\" Nullable=\"false\"/>");
+      sb.append("<NavigationProperty Name=\"Next\" Relationship=\"").append(NAMESPACE).append(".Link").append(i)
+          .append("\" FromRole=\"From\" ToRole=\"To\"/>");
+      sb.append("</EntityType>\n");
+    }
+
+    for (int i = 0; i < entityTypes; i++) {
+      sb.append("<Association Name=\"Link").append(i).append("\">");
+      sb.append("<End Role=\"From\" Type=\"").append(NAMESPACE).append(".Type").append(i).append("\" Multiplicity=\"*\"/>");
+      sb.append("<End Role=\"To\" Type=\"").append(NAMESPACE).append(".Type").append(next(i, entityTypes)).append("\" Multiplicity=\"0..1\"/>");
+      sb.append("</Association>\n");
+    }
+
+    sb.append("<EntityContainer Name=\"Container\" m:IsDefaultEntityContainer=\"true\">\n");
+    for (int i = 0; i < entityTypes; i++)
+      sb.append("<EntitySet Name=\"Set").append(i).append("\" EntityType=\"").append(qualify(i)).append("Type").append(i).append("\"/>\n");
+    for (int i = 0; i < entityTypes; i++) {
+      sb.append("<AssociationSet Name=\"Link").append(i).append("Set\" Association=\"").append(NAMESPACE).append(".Link").append(i).append("\">");
+      sb.append("<End Role=\"From\" EntitySet=\"Set").append(i).append("\"/>");
+      sb.append("<End Role=\"To\" EntitySet=\"Set").append(next(i, entityTypes)).append("\"/>");
+      sb.append("</AssociationSet>\n");
+    }
+    for (int i = 0; i < entityTypes; i++) {
+      sb.append("<FunctionImport Name=\"Top").append(i).append("\" EntitySet=\"Set").append(i)
+          .append("\" ReturnType=\"Collection(").append(NAMESPACE).append(".Type").append(i).append(")\" m:HttpMethod=\"GET\">");
+      sb.append("<Parameter Name=\"count\" Type=\"Edm.Int32\" Mode=\"In\"/>");
+      sb.append("</FunctionImport>\n");
+    }
+    sb.append("</EntityContainer>\n");
+
+    sb.append("</Schema>\n</edmx:DataServices>\n</edmx:Edmx>\n");
+    return sb.toString();
+  }
+
+  private static String qualify(int i) {
+    return (i % 2 == 0 ? NAMESPACE : ALIAS) + ".";
+  }
+
+  private static int next(int i, int entityTypes) {
+    return (i + 1) % entityTypes;
+  }
+
+}
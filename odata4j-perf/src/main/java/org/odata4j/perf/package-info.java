@@ -0,0 +1,7 @@
+/**
+ * JMH benchmarks for parsing, serialization and producers.
+ *
+ * <p>Build with <code>mvn -Pperf package</code> and run <code>java -jar odata4j-perf/target/odata4j-benchmarks.jar</code>;
+ * results are written as json to <code>odata4j-benchmarks.json</code>.</p>
+ */
+package org.odata4j.perf;